@@ -17,8 +17,13 @@
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.text.MessageFormat;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -46,6 +51,7 @@
 import jp.sfjp.jindolf.config.OptionInfo;
 import jp.sfjp.jindolf.data.Anchor;
 import jp.sfjp.jindolf.data.DialogPref;
+import jp.sfjp.jindolf.data.DialogQuery;
 import jp.sfjp.jindolf.data.Land;
 import jp.sfjp.jindolf.data.LandsTreeModel;
 import jp.sfjp.jindolf.data.Period;
@@ -53,8 +59,15 @@
 import jp.sfjp.jindolf.data.Talk;
 import jp.sfjp.jindolf.data.Village;
 import jp.sfjp.jindolf.data.html.PeriodLoader;
+import jp.sfjp.jindolf.data.html.PeriodPrefetcher;
+import jp.sfjp.jindolf.data.html.PeriodWatcher;
+import jp.sfjp.jindolf.data.html.TalkNoResolver;
 import jp.sfjp.jindolf.data.html.VillageInfoLoader;
 import jp.sfjp.jindolf.data.html.VillageListLoader;
+import jp.sfjp.jindolf.data.search.SearchCondition;
+import jp.sfjp.jindolf.data.search.SearchHit;
+import jp.sfjp.jindolf.data.search.SearchIndex;
+import jp.sfjp.jindolf.data.search.SearchShard;
 import jp.sfjp.jindolf.data.xml.VillageLoader;
 import jp.sfjp.jindolf.dxchg.CsvExporter;
 import jp.sfjp.jindolf.dxchg.WebIPCDialog;
@@ -67,13 +80,19 @@
 import jp.sfjp.jindolf.glyph.TalkDraw;
 import jp.sfjp.jindolf.log.LogFrame;
 import jp.sfjp.jindolf.log.LogUtils;
+import jp.sfjp.jindolf.log.NetStatFrame;
+import jp.sfjp.jindolf.net.NetMetrics;
+import jp.sfjp.jindolf.net.PageCache;
 import jp.sfjp.jindolf.net.ProxyInfo;
+import jp.sfjp.jindolf.net.RequestScheduler;
+import jp.sfjp.jindolf.net.SchedulePolicy;
 import jp.sfjp.jindolf.net.ServerAccess;
 import jp.sfjp.jindolf.summary.DaySummary;
 import jp.sfjp.jindolf.summary.VillageDigest;
 import jp.sfjp.jindolf.util.GUIUtils;
 import jp.sfjp.jindolf.util.StringUtils;
 import jp.sfjp.jindolf.view.ActionManager;
+import jp.sfjp.jindolf.view.ArchiveSearchPanel;
 import jp.sfjp.jindolf.view.AvatarPics;
 import jp.sfjp.jindolf.view.FilterPanel;
 import jp.sfjp.jindolf.view.FindPanel;
@@ -85,6 +104,8 @@
 import jp.sfjp.jindolf.view.TopFrame;
 import jp.sfjp.jindolf.view.TopView;
 import jp.sfjp.jindolf.view.WindowManager;
+import jp.sourceforge.jindolf.corelib.LandDef;
+import jp.sourceforge.jindolf.corelib.LandState;
 import jp.sourceforge.jindolf.corelib.VillageState;
 import jp.sourceforge.jovsonz.JsObject;
 import org.xml.sax.SAXException;
@@ -117,9 +138,13 @@
             new TabPeriodWatcher();
     private final ChangeListener filterWatcher =
             new FilterWatcher();
+    private final PeriodWatcher periodWatcher =
+            new PeriodWatcher(this::watchedPeriodUpdated);
 
     private final BusyStatus busyStatus;
 
+    private SearchIndex searchIndex;
+
 
     /**
      * コントローラの生成。
@@ -170,6 +195,8 @@ public Controller(LandsTreeModel model,
         FilterPanel filterPanel   = this.windowManager.getFilterPanel();
         LogFrame logFrame         = this.windowManager.getLogFrame();
         HelpFrame helpFrame       = this.windowManager.getHelpFrame();
+        ArchiveSearchPanel archiveSearchPanel =
+                this.windowManager.getArchiveSearchPanel();
 
         topFrame.setJMenuBar(this.actionManager.getMenuBar());
         setFrameTitle(null);
@@ -185,6 +212,7 @@ public void windowClosed(WindowEvent event){
         this.busyStatus = new BusyStatus(topFrame);
 
         filterPanel.addChangeListener(this.filterWatcher);
+        archiveSearchPanel.addActionListener(this);
 
         Handler newHandler = logFrame.getHandler();
         EventQueue.invokeLater(() -> {
@@ -211,6 +239,16 @@ public void windowClosed(WindowEvent event){
         ConfigStore configStore = this.appSetting.getConfigStore();
         helpFrame.updateVmInfo(optInfo, configStore);
 
+        setupPageCache(configStore);
+        setupSearchIndex(configStore);
+        setupScheduler();
+
+        boolean refreshList = this.appSetting.isRefreshListOnStartup();
+        this.actionManager.setRefreshListOnStartup(refreshList);
+        if(refreshList){
+            restoreVillageLists();
+        }
+
         return;
     }
 
@@ -263,6 +301,76 @@ private static JFileChooser buildFileChooser(){
     }
 
 
+    /**
+     * 各国のサーバ接続にHTMLディスクキャッシュと画像ストアを設定する。
+     *
+     * <p>HTMLキャッシュには国ごとにサブディレクトリが割り当てられる。
+     * 画像ストアは全ての国で共有される。
+     *
+     * @param configStore 設定ディレクトリ情報
+     */
+    private void setupPageCache(ConfigStore configStore){
+        Path cacheDir = configStore.getHtmlCacheDir();
+        Path imageDir = configStore.getImageCacheDir();
+        if(cacheDir == null || imageDir == null) return;
+
+        PageCache imageStore = new PageCache(imageDir);
+
+        for(Land land : this.model.getLandList()){
+            String landId = land.getLandDef().getLandId();
+            PageCache cache = new PageCache(cacheDir.resolve(landId));
+            ServerAccess server = land.getServerAccess();
+            server.setPageCache(cache);
+            server.setImageStore(imageStore);
+        }
+
+        return;
+    }
+
+    /**
+     * 全村検索用の索引を設定する。
+     *
+     * <p>サーバから読み込まれたPeriodは以後自動的に索引に登録される。
+     * 設定格納ディレクトリを使わない場合、索引は作られない。
+     *
+     * @param configStore 設定ディレクトリ
+     */
+    private void setupSearchIndex(ConfigStore configStore){
+        Path indexDir = configStore.getSearchIndexDir();
+        if(indexDir == null) return;
+
+        SearchIndex index = new SearchIndex(indexDir);
+        PeriodLoader.addLoadListener((period) -> {
+            if(period.getVillage().isLocalArchive()) return;
+            index.store(period, null);
+        });
+
+        this.searchIndex = index;
+
+        return;
+    }
+
+    /**
+     * 各国の通信スケジューラを設定する。
+     *
+     * <p>再試行や通信停止などの状態変化はステータスバーに表示される。
+     */
+    private void setupScheduler(){
+        SchedulePolicy policy = this.appSetting.getSchedulePolicy();
+
+        for(Land land : this.model.getLandList()){
+            ServerAccess server = land.getServerAccess();
+            RequestScheduler scheduler = server.getScheduler();
+            scheduler.setPolicy(policy);
+            scheduler.addChangeListener((event) -> {
+                String message = scheduler.getStatusMessage();
+                EventQueue.invokeLater(() -> updateStatusBar(message));
+            });
+        }
+
+        return;
+    }
+
     /**
      * ウィンドウマネジャを返す。
      *
@@ -544,6 +652,204 @@ private void actionShowFilter(){
         return;
     }
 
+    /**
+     * 全村検索画面を表示する。
+     */
+    private void actionShowArchiveSearch(){
+        ArchiveSearchPanel panel = this.windowManager.getArchiveSearchPanel();
+        if(this.searchIndex == null){
+            JOptionPane.showMessageDialog(
+                    getTopFrame(),
+                    "設定格納ディレクトリを使わない設定のため、"
+                    + "全村検索は利用できません。",
+                    VerInfo.TITLE,
+                    JOptionPane.INFORMATION_MESSAGE );
+            return;
+        }
+        toggleWindow(panel);
+        return;
+    }
+
+    /**
+     * 全村検索を実行する。
+     */
+    private void actionArchiveSearch(){
+        if(this.searchIndex == null) return;
+
+        ArchiveSearchPanel panel = this.windowManager.getArchiveSearchPanel();
+        SearchCondition condition = panel.getSearchCondition();
+        if(condition == null) return;
+
+        SearchIndex index = this.searchIndex;
+        Runnable task = () -> {
+            List<SearchHit> hits = index.search(condition);
+            EventQueue.invokeLater(() -> {
+                panel.setHits(hits);
+            });
+            updateStatusBar(hits.size() + "件の発言がヒットしました");
+        };
+
+        this.busyStatus.submitHeavyBusyTask(
+                task,
+                "全村検索中…",
+                null
+        );
+
+        return;
+    }
+
+    /**
+     * 全村検索でヒットした発言を含む村を開き、その発言を表示する。
+     */
+    private void actionArchiveOpen(){
+        ArchiveSearchPanel panel = this.windowManager.getArchiveSearchPanel();
+        SearchHit hit = panel.getSelectedHit();
+        if(hit == null) return;
+
+        SearchShard shard = hit.getShard();
+        String messageId = hit.getRecord().getMessageId();
+        int talkNo = hit.getRecord().getTalkNo();
+
+        Runnable task = () -> {
+            Village village;
+            try{
+                village = findHitVillage(shard);
+            }catch(IOException e){
+                String warnMsg = MessageFormat.format(
+                        "XMLファイル[ {0} ]を読み込むことができません",
+                        shard.getArchivePath()
+                );
+                warnDialog("XML I/O error", warnMsg, e);
+                return;
+            }catch(SAXException e){
+                String warnMsg = MessageFormat.format(
+                        "XMLファイル[ {0} ]の形式が不正なため読み込むことができません",
+                        shard.getArchivePath()
+                );
+                warnDialog("XML form error", warnMsg, e);
+                return;
+            }
+            if(village == null){
+                updateStatusBar("発言を含む村が見つかりません");
+                return;
+            }
+
+            Period period;
+            try{
+                if( ! village.hasSchedule() ){
+                    VillageInfoLoader.updateVillageInfo(village);
+                }
+                period = village.getPeriod(shard.getDay());
+                if(period != null) PeriodLoader.parsePeriod(period, false);
+            }catch(IOException e){
+                showNetworkError(village, e);
+                return;
+            }
+            if(period == null){
+                updateStatusBar("発言を含む日が見つかりません");
+                return;
+            }
+
+            Talk talk = null;
+            if(messageId != null) talk = period.getMessageTalk(messageId);
+            if(talk == null && talkNo > 0){
+                talk = period.getNumberedTalk(talkNo);
+            }
+            Talk targetTalk = talk;
+
+            EventQueue.invokeLater(() -> {
+                showHitVillage(village, period, targetTalk);
+            });
+        };
+
+        this.busyStatus.submitHeavyBusyTask(
+                task,
+                "発言を含む村を読み込み中…",
+                null
+        );
+
+        return;
+    }
+
+    /**
+     * ヒットした日の見出しから村を得る。
+     *
+     * <p>アーカイブXMLファイル由来ならファイルを読み直す。
+     * サーバ由来なら村一覧から村を探し、
+     * 一覧に無ければ新たに村を作る。
+     *
+     * @param shard 日の見出し
+     * @return 村。国が見つからなければnull
+     * @throws IOException XMLファイルの入力エラー
+     * @throws SAXException XMLファイルの形式エラー
+     */
+    private Village findHitVillage(SearchShard shard)
+            throws IOException, SAXException{
+        if( ! shard.getArchivePath().isEmpty() ){
+            File xmlFile = new File(shard.getArchivePath());
+            Village village = VillageLoader.parseVillage(xmlFile);
+            village.setLocalArchive(true);
+            AvatarPics avatarPics = village.getAvatarPics();
+            this.appSetting.applyLocalImage(avatarPics);
+            avatarPics.preload();
+            return village;
+        }
+
+        for(Land land : this.model.getLandList()){
+            String landId = land.getLandDef().getLandId();
+            if( ! landId.equals(shard.getLandId()) ) continue;
+
+            for(Village village : land.getVillageList()){
+                if(village.getVillageID().equals(shard.getVillageId())){
+                    return village;
+                }
+            }
+
+            Village village = new Village(land,
+                                          shard.getVillageId(),
+                                          shard.getVillageName() );
+            return village;
+        }
+
+        return null;
+    }
+
+    /**
+     * 村を表示し、指定した日の発言までスクロールする。
+     *
+     * <p>スクロールの成否はステータスバーに表示される。
+     *
+     * @param village 村
+     * @param period 日
+     * @param talk 発言。見つからなかったならnull
+     */
+    private void showHitVillage(Village village, Period period, Talk talk){
+        setFrameTitle(village.getVillageFullName());
+        if(village.isLocalArchive()){
+            this.actionManager.exposeVillageLocal(true);
+        }else{
+            this.actionManager.exposeVillage(true);
+        }
+        this.topView.showVillageInfo(village);
+
+        TabBrowser browser = this.topView.getTabBrowser();
+        int day = period.getDay();
+        browser.showPeriodTab(day);
+        PeriodView target = browser.getPeriodView(day);
+        if(target == null) return;
+        target.setPeriod(period);
+
+        if(talk == null){
+            updateStatusBar("ヒットした発言が日の中に見つかりません");
+        }else if( ! target.scrollToTalk(talk) ){
+            updateStatusBar("ヒットした発言までスクロールできません");
+        }else{
+            updateStatusBar("ヒットした発言を表示しました");
+        }
+
+        return;
+    }
+
     /**
      * ログ表示画面を表示する。
      */
@@ -553,6 +859,28 @@ private void actionShowLog(){
         return;
     }
 
+    /**
+     * 通信統計画面を表示する。
+     */
+    private void actionShowNetStat(){
+        NetStatFrame netStatFrame = this.windowManager.getNetStatFrame();
+        netStatFrame.setSaveTask(this::saveNetStat);
+        toggleWindow(netStatFrame);
+        return;
+    }
+
+    /**
+     * 通信統計を設定ディレクトリに保存する。
+     */
+    private void saveNetStat(){
+        JsonIo jsonIo = this.appSetting.getJsonIo();
+        JsObject stat = NetMetrics.getDefault().toJson();
+        if(jsonIo.saveNetStat(stat)){
+            updateStatusBar("通信統計を保存しました。");
+        }
+        return;
+    }
+
     /**
      * オプション設定画面を表示する。
      */
@@ -667,7 +995,7 @@ private void actionShowDigest(){
         final VillageDigest digest = villageDigest;
 
         Runnable task = () -> {
-            taskFullOpenAllPeriod();
+            taskLoadAllPeriod();
             EventQueue.invokeLater(() -> {
                 digest.setVillage(village);
                 digest.setVisible(true);
@@ -683,33 +1011,6 @@ private void actionShowDigest(){
         return;
     }
 
-    /**
-     * 全日程の一括フルオープン。ヘビータスク版。
-     */
-    // TODO taskLoadAllPeriodtと一体化したい。
-    private void taskFullOpenAllPeriod(){
-        TabBrowser browser = this.topView.getTabBrowser();
-        Village village = getVillage();
-        if(village == null) return;
-        for(PeriodView periodView : browser.getPeriodViewList()){
-            Period period = periodView.getPeriod();
-            if(period == null) continue;
-            String message =
-                    period.getDay()
-                    + "日目のデータを読み込んでいます";
-            updateStatusBar(message);
-            try{
-                PeriodLoader.parsePeriod(period, false);
-            }catch(IOException e){
-                showNetworkError(village, e);
-                return;
-            }
-            periodView.showTopics();
-        }
-
-        return;
-    }
-
     /**
      * 検索パネルを表示する。
      */
@@ -769,21 +1070,31 @@ private void bulkSearch(){
 
     /**
      * 一括検索処理。ヘビータスク版。
+     *
+     * <p>ヒット数は各Periodの発言本文の索引を用いて数えられる。
+     * 各Periodの表示への検索結果の反映はイベントディスパッチスレッドで
+     * 後から行われる。
      */
     private void taskBulkSearch(){
         taskLoadAllPeriod();
+        Village village = getVillage();
+        if(village == null) return;
+
         int totalhits = 0;
         FindPanel findPanel = this.windowManager.getFindPanel();
         RegexPattern regPattern = findPanel.getRegexPattern();
+        DialogQuery query = null;
+        if(regPattern != null){
+            query = new DialogQuery(regPattern);
+        }
+
         StringBuilder hitDesc = new StringBuilder();
-        TabBrowser browser = this.topView.getTabBrowser();
-        for(PeriodView periodView : browser.getPeriodViewList()){
-            Discussion discussion = periodView.getDiscussion();
-            int hits = discussion.setRegexPattern(regPattern);
+        for(Period period : village.getPeriodList()){
+            int hits = 0;
+            if(query != null) hits = query.countMatches(period);
             totalhits += hits;
 
             if(hits > 0){
-                Period period = discussion.getPeriod();
                 hitDesc.append(' ').append(period.getDay()).append("d:");
                 hitDesc.append(hits).append("件");
             }
@@ -793,6 +1104,14 @@ private void taskBulkSearch(){
                 + hitDesc.toString();
         updateStatusBar(hitMessage);
 
+        TabBrowser browser = this.topView.getTabBrowser();
+        EventQueue.invokeLater(() -> {
+            for(PeriodView periodView : browser.getPeriodViewList()){
+                Discussion discussion = periodView.getDiscussion();
+                discussion.setRegexPattern(regPattern);
+            }
+        });
+
         String loginfo = "";
         if(regPattern != null){
             Pattern pattern = regPattern.getPattern();
@@ -925,25 +1244,42 @@ private void actionLoadAllPeriod(){
 
     /**
      * 全日程の一括ロード。ヘビータスク版。
+     *
+     * <p>各Periodは並行して読み込まれ、
+     * 日付順ではなく読み込みが終わった順に表示が更新される。
      */
     private void taskLoadAllPeriod(){
         TabBrowser browser = this.topView.getTabBrowser();
         Village village = getVillage();
         if(village == null) return;
+
+        Map<Period, PeriodView> viewMap = new HashMap<>();
         for(PeriodView periodView : browser.getPeriodViewList()){
             Period period = periodView.getPeriod();
             if(period == null) continue;
-            String message =
-                    period.getDay()
-                    + "日目のデータを読み込んでいます";
-            updateStatusBar(message);
-            try{
-                PeriodLoader.parsePeriod(period, false);
-            }catch(IOException e){
-                showNetworkError(village, e);
-                return;
-            }
-            periodView.showTopics();
+            viewMap.put(period, periodView);
+        }
+
+        int total = viewMap.size();
+        AtomicInteger doneCount = new AtomicInteger(0);
+        updateStatusBar(total + "日分のデータを読み込んでいます");
+
+        Consumer<Period> listener = (period) -> {
+            int done = doneCount.incrementAndGet();
+            updateStatusBar(
+                    period.getDay() + "日目のデータを読み込みました"
+                    + "(" + done + "/" + total + ")");
+            PeriodView periodView = viewMap.get(period);
+            EventQueue.invokeLater(() -> {
+                periodView.showTopics();
+            });
+        };
+
+        try{
+            PeriodPrefetcher.loadPeriods(viewMap.keySet(), false, listener);
+        }catch(IOException e){
+            showNetworkError(village, e);
+            return;
         }
 
         return;
@@ -1009,16 +1345,35 @@ private void actionCopyTalk(){
     /**
      * アンカー先を含むPeriodの全会話を事前にロードする。
      *
+     * <p>アンカーがG国発言番号なら、
+     * 発言番号から推定される日に近い順に1日分ずつ読み込み、
+     * 見つかった時点で読み込みをやめる。
+     *
      * @param village 村
      * @param anchor アンカー
      * @return アンカー先を含むPeriod。
-     *     アンカーがG国発言番号ならnull。
      *     Periodが見つからないならnull。
      * @throws IOException 入力エラー
      */
     private Period loadAnchoredPeriod(Village village, Anchor anchor)
             throws IOException{
-        if(anchor.hasTalkNo()) return null;
+        if(anchor.hasTalkNo()){
+            TabBrowser browser = this.topView.getTabBrowser();
+            Consumer<Period> listener = (period) -> {
+                updateStatusBar(
+                        period.getDay() + "日目のデータを読み込みました");
+                EventQueue.invokeLater(() -> {
+                    PeriodView periodView =
+                            browser.getPeriodView(period.getDay());
+                    if(periodView == null) return;
+                    periodView.showTopics();
+                });
+            };
+            int talkNo = anchor.getTalkNo();
+            Talk talk = TalkNoResolver.resolve(village, talkNo, listener);
+            if(talk == null) return null;
+            return talk.getPeriod();
+        }
 
         Period anchorPeriod = village.getPeriod(anchor);
         if(anchorPeriod == null) return null;
@@ -1042,11 +1397,6 @@ private void actionJumpAnchor(){
         if(anchor == null) return;
 
         Runnable task = () -> {
-            if(anchor.hasTalkNo()){
-                // TODO もう少し賢くならない？
-                taskLoadAllPeriod();
-            }
-
             final List<Talk> talkList;
             try{
                 loadAnchoredPeriod(village, anchor);
@@ -1122,6 +1472,9 @@ private void actionOpenXml(){
             AvatarPics avatarPics = village.getAvatarPics();
             this.appSetting.applyLocalImage(avatarPics);
             avatarPics.preload();
+            if(this.searchIndex != null){
+                this.searchIndex.storeVillage(village, selected.toPath());
+            }
             EventQueue.invokeLater(() -> {
                 selectedVillage(village);
             });
@@ -1130,6 +1483,92 @@ private void actionOpenXml(){
         return;
     }
 
+    /**
+     * 起動時に全ての国の村一覧を復元し、更新する。
+     *
+     * <p>各国の村一覧は設定ディレクトリ上のスナップショットから
+     * 直ちに復元される。
+     * その後、全ての国の村一覧がバックグラウンドで並行して更新され、
+     * 内容の変わった部分のみがツリーに反映される。
+     *
+     * <p>村建てをやめた歴史的な国は、
+     * スナップショットがあれば通信を行わない。
+     */
+    private void restoreVillageLists(){
+        JsonIo jsonIo = this.appSetting.getJsonIo();
+
+        for(Land land : this.model.getLandList()){
+            LandDef landDef = land.getLandDef();
+
+            JsObject snapshot = jsonIo.loadVillageList(landDef.getLandId());
+            List<Village> villageList = null;
+            if(snapshot != null){
+                villageList = VillageListLoader.decodeJson(land, snapshot);
+            }
+
+            if(villageList != null){
+                land.updateVillageList(villageList);
+                this.model.updateVillageList(land);
+                if(landDef.getLandState() == LandState.HISTORICAL) continue;
+            }
+
+            submitRefreshVillageList(land, snapshot);
+        }
+
+        return;
+    }
+
+    /**
+     * 指定した国の村一覧をバックグラウンドで更新する。
+     *
+     * <p>ヘビータスクと異なり、更新中もGUIの操作は妨げられない。
+     * 失敗はログに記録されるのみ。
+     *
+     * @param land 国
+     * @param snapshot 更新前のスナップショット。無ければnull
+     */
+    private void submitRefreshVillageList(Land land, JsObject snapshot){
+        String landName = land.getLandDef().getLandName();
+
+        VillageListLoader.loadVillageListAsync(land)
+                .whenComplete((villageList, e) -> {
+            if(e != null){
+                LOGGER.log(Level.WARNING,
+                        landName + "の村一覧を更新できませんでした", e);
+                return;
+            }
+            EventQueue.invokeLater(() -> {
+                land.updateVillageList(villageList);
+                this.model.updateVillageList(land);
+                saveVillageListSnapshot(land, snapshot);
+                updateStatusBar(landName + "の村一覧を更新しました");
+            });
+        });
+
+        return;
+    }
+
+    /**
+     * 国の村一覧をスナップショットとして設定ディレクトリに保存する。
+     *
+     * <p>起動時更新が設定されていなければ何もしない。
+     * 既存のスナップショットと内容が同じなら書き込まない。
+     *
+     * @param land 国
+     * @param snapshot 既存のスナップショット。無ければnull
+     */
+    private void saveVillageListSnapshot(Land land, JsObject snapshot){
+        if( ! this.appSetting.isRefreshListOnStartup() ) return;
+
+        JsObject json = VillageListLoader.buildJson(land);
+        if(json.equals(snapshot)) return;
+
+        JsonIo jsonIo = this.appSetting.getJsonIo();
+        jsonIo.saveVillageList(land.getLandDef().getLandId(), json);
+
+        return;
+    }
+
     /**
      * 指定した国の村一覧を読み込むジョブを投下。
      *
@@ -1160,6 +1599,7 @@ private void taskReloadVillageList(Land land){
         land.updateVillageList(villageList);
 
         this.model.updateVillageList(land);
+        saveVillageListSnapshot(land, null);
 
         LandsTree treePanel = this.topView.getLandsTree();
         treePanel.expandLand(land);
@@ -1189,17 +1629,33 @@ private void updatePeriod(final boolean force){
         Period period = discussion.getPeriod();
         if(period == null) return;
 
+        // 未表示のPeriodなら受信途中の会話を先行して表示する
+        Consumer<Period> preview = null;
+        if( ! period.hasLoaded() ){
+            preview = (partial) -> {
+                EventQueue.invokeLater(() -> {
+                    int lastPos = periodView.getVerticalPosition();
+                    periodView.showPreview(period, partial);
+                    periodView.setVerticalPosition(lastPos);
+                });
+            };
+        }
+        Consumer<Period> previewListener = preview;
+
         Runnable task = () -> {
             try{
-                PeriodLoader.parsePeriod(period, force);
+                PeriodLoader.parsePeriod(period, force, previewListener);
             }catch(IOException e){
+                if(previewListener != null){
+                    EventQueue.invokeLater(() -> periodView.setPeriod(period));
+                }
                 showNetworkError(village, e);
                 return;
             }
 
             EventQueue.invokeLater(() -> {
                 int lastPos = periodView.getVerticalPosition();
-                periodView.showTopics();
+                periodView.setPeriod(period);
                 periodView.setVerticalPosition(lastPos);
             });
         };
@@ -1213,6 +1669,65 @@ private void updatePeriod(final boolean force){
         return;
     }
 
+    /**
+     * 進行中の日の自動更新対象を選び直す。
+     *
+     * <p>自動更新が選択されており、
+     * 国村選択ツリーで選択中の村のPeriodがタブ表示されているときのみ
+     * そのPeriodが監視される。
+     */
+    private void updatePeriodWatcher(){
+        if( ! this.actionManager.isAutoReload() ){
+            this.periodWatcher.stop();
+            return;
+        }
+
+        Village treeVillage = null;
+        JTree treeView = this.topView.getTreeView();
+        TreePath path = treeView.getSelectionPath();
+        if(path != null){
+            Object selObj = path.getLastPathComponent();
+            if(selObj instanceof Village) treeVillage = (Village) selObj;
+        }
+
+        PeriodView periodView = currentPeriodView();
+        Period period = null;
+        if(periodView != null) period = periodView.getPeriod();
+
+        if(    treeVillage == null
+            || period == null
+            || period.getVillage() != treeVillage ){
+            this.periodWatcher.stop();
+            return;
+        }
+
+        this.periodWatcher.watch(period);
+
+        return;
+    }
+
+    /**
+     * 自動更新で新しい会話が見つかった時の処理。
+     *
+     * <p>監視用のスレッドから呼ばれる。
+     *
+     * @param period 更新されたPeriod
+     */
+    private void watchedPeriodUpdated(Period period){
+        EventQueue.invokeLater(() -> {
+            PeriodView periodView = currentPeriodView();
+            if(periodView == null) return;
+            if(periodView.getPeriod() != period) return;
+
+            int lastPos = periodView.getVerticalPosition();
+            periodView.setPeriod(period);
+            periodView.setVerticalPosition(lastPos);
+
+            updateStatusBar("新しい発言を自動で読み込みました");
+        });
+        return;
+    }
+
     /**
      * 発言フィルタの操作による更新処理。
      */
@@ -1399,6 +1914,25 @@ public void actionPerformed(ActionEvent ev){
         case ActionManager.CMD_SHOWLOG:
             actionShowLog();
             break;
+        case ActionManager.CMD_SHOWNETSTAT:
+            actionShowNetStat();
+            break;
+        case ActionManager.CMD_SHOWARCHIVE:
+            actionShowArchiveSearch();
+            break;
+        case ActionManager.CMD_ARCHIVESEARCH:
+            actionArchiveSearch();
+            break;
+        case ActionManager.CMD_ARCHIVEOPEN:
+            actionArchiveOpen();
+            break;
+        case ActionManager.CMD_AUTORELOAD:
+            updatePeriodWatcher();
+            break;
+        case ActionManager.CMD_STARTUPLIST:
+            this.appSetting.setRefreshListOnStartup(
+                    this.actionManager.isRefreshListOnStartup());
+            break;
         case ActionManager.CMD_HELPDOC:
             actionHelp();
             break;
@@ -1445,11 +1979,6 @@ public void anchorHitted(AnchorHitEvent event){
         final Discussion discussion = periodView.getDiscussion();
 
         Runnable task = () -> {
-            if(anchor.hasTalkNo()){
-                // TODO もう少し賢くならない？
-                taskLoadAllPeriod();
-            }
-
             final List<Talk> talkList;
             try{
                 loadAnchoredPeriod(village, anchor);
@@ -1463,7 +1992,7 @@ public void anchorHitted(AnchorHitEvent event){
                 }
                 EventQueue.invokeLater(() -> {
                     talkDraw.showAnchorTalks(anchor, talkList);
-                    discussion.layoutRows();
+                    discussion.updateTalkRow(talkDraw);
                 });
                 updateStatusBar(
                         "アンカー["
@@ -1488,6 +2017,9 @@ public void anchorHitted(AnchorHitEvent event){
      * アプリ正常終了処理。
      */
     private void shutdown(){
+        this.periodWatcher.stop();
+        if(this.searchIndex != null) this.searchIndex.close();
+
         JsonIo jsonIo = this.appSetting.getJsonIo();
 
         FindPanel findPanel = this.windowManager.getFindPanel();
@@ -1498,6 +2030,8 @@ private void shutdown(){
 
         this.appSetting.saveConfig();
 
+        jsonIo.saveNetStat(NetMetrics.getDefault().toJson());
+
         LOGGER.info("VMごとアプリケーションを終了します。");
         System.exit(0);  // invoke shutdown hooks... BYE !
 
@@ -1581,6 +2115,7 @@ public void stateChanged(ChangeEvent event){
                         Controller.this.actionManager.exposeVillage(hasCurrentPeriod);
                     }
                 }
+                updatePeriodWatcher();
             }
 
             return;
@@ -1612,6 +2147,8 @@ public void stateChanged(ChangeEvent event){
          */
         @Override
         public void valueChanged(TreeSelectionEvent event){
+            updatePeriodWatcher();
+
             TreePath path = event.getNewLeadSelectionPath();
             if(path == null) return;
 
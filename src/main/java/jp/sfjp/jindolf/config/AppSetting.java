@@ -25,6 +25,7 @@
 import jp.sfjp.jindolf.glyph.Font2Json;
 import jp.sfjp.jindolf.glyph.FontInfo;
 import jp.sfjp.jindolf.net.ProxyInfo;
+import jp.sfjp.jindolf.net.SchedulePolicy;
 import jp.sfjp.jindolf.view.AvatarPics;
 import jp.sfjp.jindolf.view.LocalAvatarImg;
 import jp.sourceforge.jovsonz.JsBoolean;
@@ -49,6 +50,8 @@
     private static final String HASH_SIMPLEMODE  = "isSimpleMode";
     private static final String HASH_ALIGNBALOON = "alignBaloonWidth";
     private static final String HASH_PROXY       = "proxy";
+    private static final String HASH_SCHEDULE    = "scheduler";
+    private static final String HASH_STARTUPLIST = "refreshListOnStartup";
 
     private static final String MSG_NOIMG =
             "画像ファイル{0}が読み込めないため"
@@ -65,6 +68,8 @@
     private FontInfo fontInfo;
 
     private ProxyInfo proxyInfo = ProxyInfo.DEFAULT;
+    private SchedulePolicy schedulePolicy = SchedulePolicy.DEFAULT;
+    private boolean refreshListOnStartup = false;
 
     private DialogPref dialogPref = new DialogPref();
 
@@ -301,6 +306,45 @@ public void setProxyInfo(ProxyInfo proxyInfo){
         return;
     }
 
+    /**
+     * 通信スケジュール方針を返す。
+     *
+     * @return 通信スケジュール方針
+     */
+    public SchedulePolicy getSchedulePolicy(){
+        return this.schedulePolicy;
+    }
+
+    /**
+     * 通信スケジュール方針を更新する。
+     *
+     * @param policy 通信スケジュール方針。nullならデフォルトの方針。
+     */
+    public void setSchedulePolicy(SchedulePolicy policy){
+        if(policy == null) this.schedulePolicy = SchedulePolicy.DEFAULT;
+        else               this.schedulePolicy = policy;
+        return;
+    }
+
+    /**
+     * 起動時に村一覧を更新する設定か判定する。
+     *
+     * @return 更新するならtrue
+     */
+    public boolean isRefreshListOnStartup(){
+        return this.refreshListOnStartup;
+    }
+
+    /**
+     * 起動時に村一覧を更新するか設定する。
+     *
+     * @param refresh 更新するならtrue
+     */
+    public void setRefreshListOnStartup(boolean refresh){
+        this.refreshListOnStartup = refresh;
+        return;
+    }
+
     /**
      * 発言表示設定を返す。
      *
@@ -330,12 +374,24 @@ private void loadNetConfig(){
         this.loadedNetConfig = root;
 
         JsValue value = root.getValue(HASH_PROXY);
-        if( ! (value instanceof JsObject) ) return;
-        JsObject proxy = (JsObject) value;
+        if(value instanceof JsObject){
+            JsObject proxy = (JsObject) value;
+            ProxyInfo info = ProxyInfo.decodeJson(proxy);
+            setProxyInfo(info);
+        }
 
-        ProxyInfo info = ProxyInfo.decodeJson(proxy);
+        value = root.getValue(HASH_SCHEDULE);
+        if(value instanceof JsObject){
+            JsObject schedule = (JsObject) value;
+            SchedulePolicy policy = SchedulePolicy.decodeJson(schedule);
+            setSchedulePolicy(policy);
+        }
 
-        setProxyInfo(info);
+        value = root.getValue(HASH_STARTUPLIST);
+        if(value instanceof JsBoolean){
+            JsBoolean boolValue = (JsBoolean) value;
+            setRefreshListOnStartup(boolValue.booleanValue());
+        }
 
         return;
     }
@@ -502,6 +558,9 @@ private void saveNetConfig(){
         JsObject root = new JsObject();
         JsObject proxy = ProxyInfo.buildJson(getProxyInfo());
         root.putValue(HASH_PROXY, proxy);
+        JsObject schedule = SchedulePolicy.buildJson(getSchedulePolicy());
+        root.putValue(HASH_SCHEDULE, schedule);
+        root.putPair(new JsPair(HASH_STARTUPLIST, isRefreshListOnStartup()));
 
         if(this.loadedNetConfig != null){
             if(this.loadedNetConfig.equals(root)) return;
@@ -29,6 +29,8 @@
  * <li>ロックファイル
  * <li>JSON設定ファイル
  * <li>Avatar代替イメージ格納ディレクトリ
+ * <li>HTMLキャッシュ格納ディレクトリ
+ * <li>ダウンロード画像格納ディレクトリ
  * </ul>
  *
  * <p>などが配置される。
@@ -47,6 +49,9 @@ public class ConfigStore {
     private static final Path JINCONF_DOT  = Paths.get(".jindolf");
     private static final Path LOCKFILE     = Paths.get("lock");
     private static final Path LOCALIMG_DIR = Paths.get("img");
+    private static final Path HTMLCACHE_DIR = Paths.get("htmlcache");
+    private static final Path IMGCACHE_DIR  = Paths.get("imgcache");
+    private static final Path SEARCHINDEX_DIR = Paths.get("searchindex");
 
     private static final Path MAC_LIB     = Paths.get("Library");
     private static final Path MAC_APPSUPP = Paths.get("Application Support");
@@ -253,6 +258,60 @@ public Path getLocalImgDir(){
         return result;
     }
 
+    /**
+     * HTMLキャッシュ格納ディレクトリを絶対パスで返す。
+     *
+     * <p>国ごとのサブディレクトリはこの下に作られる。
+     *
+     * @return 格納ディレクトリの絶対パス。
+     *     格納ディレクトリを使わない場合はnull
+     */
+    public Path getHtmlCacheDir(){
+        if( ! this.useStoreFile ) return null;
+        if(this.configDir == null) return null;
+
+        Path result = this.configDir.resolve(HTMLCACHE_DIR);
+        assert result.isAbsolute();
+
+        return result;
+    }
+
+    /**
+     * ダウンロード画像格納ディレクトリを絶対パスで返す。
+     *
+     * <p>全ての国の画像がこの下に格納される。
+     *
+     * @return 格納ディレクトリの絶対パス。
+     *     格納ディレクトリを使わない場合はnull
+     */
+    public Path getImageCacheDir(){
+        if( ! this.useStoreFile ) return null;
+        if(this.configDir == null) return null;
+
+        Path result = this.configDir.resolve(IMGCACHE_DIR);
+        assert result.isAbsolute();
+
+        return result;
+    }
+
+    /**
+     * 検索索引格納ディレクトリを絶対パスで返す。
+     *
+     * <p>全ての村の索引がこの下に格納される。
+     *
+     * @return 格納ディレクトリの絶対パス。
+     *     格納ディレクトリを使わない場合はnull
+     */
+    public Path getSearchIndexDir(){
+        if( ! this.useStoreFile ) return null;
+        if(this.configDir == null) return null;
+
+        Path result = this.configDir.resolve(SEARCHINDEX_DIR);
+        assert result.isAbsolute();
+
+        return result;
+    }
+
     /**
      * ロックファイルを絶対パスで返す。
      *
@@ -44,6 +44,11 @@ public class JsonIo {
     public static final Path NETCONFIG_FILE = Paths.get("netconfig.json");
     /** 台詞表示設定ファイル。 */
     public static final Path TALKCONFIG_FILE = Paths.get("talkconfig.json");
+    /** 通信統計ファイル。 */
+    public static final Path NETSTAT_FILE = Paths.get("netstat.json");
+
+    /** 村一覧スナップショットファイル名の接頭辞。 */
+    public static final String VILLAGELIST_PREFIX = "villageList-";
 
     /** ローカル画像設定ファイル。 */
     public static final Path LOCALIMGCONFIG_PATH =
@@ -303,6 +308,29 @@ public JsObject loadLocalImgConfig(){
         return result;
     }
 
+    /**
+     * 村一覧スナップショットファイルの相対パスを返す。
+     *
+     * @param landId 国ID
+     * @return 相対パス
+     */
+    public static Path getVillageListFile(String landId){
+        Path result = Paths.get(VILLAGELIST_PREFIX + landId + ".json");
+        return result;
+    }
+
+    /**
+     * 村一覧スナップショットファイルを読み込む。
+     *
+     * @param landId 国ID
+     * @return 村一覧データ。
+     *     スナップショットを読まないもしくは読めない場合はnull
+     */
+    public JsObject loadVillageList(String landId){
+        JsObject result = loadJsObject(getVillageListFile(landId));
+        return result;
+    }
+
     /**
      * 検索履歴ファイルに書き込む。
      *
@@ -336,4 +364,27 @@ public boolean saveTalkConfig(JsComposition<?> root){
         return result;
     }
 
+    /**
+     * 村一覧スナップショットファイルに書き込む。
+     *
+     * @param landId 国ID
+     * @param root 村一覧データ
+     * @return 書き込まなかったもしくは書き込めなかった場合はfalse
+     */
+    public boolean saveVillageList(String landId, JsComposition<?> root){
+        boolean result = saveJson(getVillageListFile(landId), root);
+        return result;
+    }
+
+    /**
+     * 通信統計ファイルに書き込む。
+     *
+     * @param root 通信統計
+     * @return 書き込まなかったもしくは書き込めなかった場合はfalse
+     */
+    public boolean saveNetStat(JsComposition<?> root){
+        boolean result = saveJson(NETSTAT_FILE, root);
+        return result;
+    }
+
 }
@@ -0,0 +1,319 @@
+/*
+ * n-gram index of dialogs
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 発言本文の文字N-gram転置索引。
+ *
+ * <p>分かち書きされない日本語でも引けるよう、
+ * 単語ではなく全ての1文字および連続する2文字を見出しとする。
+ * 見出しは英字の大小を区別しない。
+ *
+ * <p>文字列を含む発言の検索は、
+ * 文字列の全ての見出しを含む発言の絞り込みとして行われる。
+ * 絞り込み結果は文字列を含む発言を全て含むが、
+ * 文字列を含まない発言が混じる事がある。
+ *
+ * <p>既存の索引を元に、発言を追加した別の索引を作ることができる。
+ * 既存の発言の本文は走査し直さない。
+ * 元の索引の内容は変化しない。
+ *
+ * <p>スレッドセーフではない。
+ * 構築を終えた索引を複数のスレッドから参照するのは構わない。
+ */
+final class DialogIndex{
+
+    private static final int BIGRAM_SHIFT = 16;
+
+
+    private final List<Talk> talkList;
+    private final List<Talk> unmodList;
+
+    private final Map<Character, Postings> unigramMap;
+    private final Map<Integer, Postings> bigramMap;
+
+
+    /**
+     * コンストラクタ。
+     */
+    DialogIndex(){
+        super();
+        this.talkList = new ArrayList<>();
+        this.unmodList = Collections.unmodifiableList(this.talkList);
+        this.unigramMap = new HashMap<>();
+        this.bigramMap = new HashMap<>();
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>既存の索引と同じ内容の索引が生成される。
+     * 見出しごとの発言通番の列は、
+     * 追加によって変更されるまで既存の索引と共有される。
+     *
+     * @param base 既存の索引
+     */
+    DialogIndex(DialogIndex base){
+        super();
+        this.talkList = new ArrayList<>(base.talkList);
+        this.unmodList = Collections.unmodifiableList(this.talkList);
+        this.unigramMap = new HashMap<>(base.unigramMap);
+        this.bigramMap = new HashMap<>(base.bigramMap);
+        return;
+    }
+
+
+    /**
+     * 見出し用に英字の大小を畳み込む。
+     *
+     * @param ch 文字
+     * @return 畳み込まれた文字
+     * @see DialogQuery#foldCase(char)
+     */
+    private static char fold(char ch){
+        return DialogQuery.foldCase(ch);
+    }
+
+    /**
+     * 2文字の見出しのキーを返す。
+     *
+     * @param ch1 前の文字
+     * @param ch2 後の文字
+     * @return キー
+     */
+    private static Integer bigramKey(char ch1, char ch2){
+        return (fold(ch1) << BIGRAM_SHIFT) | fold(ch2);
+    }
+
+    /**
+     * 発言を索引に登録する。
+     *
+     * @param talk 発言
+     */
+    void add(Talk talk){
+        int ordinal = this.talkList.size();
+        this.talkList.add(talk);
+
+        CharSequence dialog = talk.getDialog();
+        int length = dialog.length();
+        for(int pos = 0; pos < length; pos++){
+            char ch = dialog.charAt(pos);
+
+            Character unigram = fold(ch);
+            getOwnPostings(this.unigramMap, unigram).add(ordinal);
+
+            if(pos + 1 >= length) continue;
+            Integer bigram = bigramKey(ch, dialog.charAt(pos + 1));
+            getOwnPostings(this.bigramMap, bigram).add(ordinal);
+        }
+
+        return;
+    }
+
+    /**
+     * この索引が変更してよい発言通番の列を得る。
+     *
+     * <p>無ければ作る。
+     * 他の索引と共有された列なら複製に差し替える。
+     *
+     * @param <K> 見出しのキーの型
+     * @param map 見出しのマップ
+     * @param key 見出しのキー
+     * @return 発言通番の列
+     */
+    private <K> Postings getOwnPostings(Map<K, Postings> map, K key){
+        Postings postings = map.get(key);
+        if(postings == null){
+            postings = new Postings(this);
+            map.put(key, postings);
+        }else if(postings.owner != this){
+            postings = postings.copy(this);
+            map.put(key, postings);
+        }
+        return postings;
+    }
+
+    /**
+     * 登録された全発言のリストを返す。
+     *
+     * @return 登録順に並んだ発言のリスト
+     */
+    List<Talk> getTalkList(){
+        return this.unmodList;
+    }
+
+    /**
+     * 文字列を含みうる発言を絞り込む。
+     *
+     * @param literal 文字列
+     * @return 登録順に並んだ発言のリスト。
+     *     空文字列なら全発言。
+     */
+    List<Talk> findCandidates(CharSequence literal){
+        int length = literal.length();
+        if(length <= 0) return getTalkList();
+
+        List<Postings> postingsList = new ArrayList<>(length);
+        if(length == 1){
+            Postings postings = this.unigramMap.get(fold(literal.charAt(0)));
+            if(postings == null) return Collections.emptyList();
+            postingsList.add(postings);
+        }else{
+            for(int pos = 0; pos + 1 < length; pos++){
+                Integer bigram =
+                        bigramKey(literal.charAt(pos), literal.charAt(pos + 1));
+                Postings postings = this.bigramMap.get(bigram);
+                if(postings == null) return Collections.emptyList();
+                postingsList.add(postings);
+            }
+        }
+
+        postingsList.sort((a, b) -> a.size() - b.size());
+
+        int[] ordinals = postingsList.get(0).toArray();
+        int count = ordinals.length;
+        for(int idx = 1; idx < postingsList.size() && count > 0; idx++){
+            count = postingsList.get(idx).retain(ordinals, count);
+        }
+
+        List<Talk> result = new ArrayList<>(count);
+        for(int idx = 0; idx < count; idx++){
+            result.add(this.talkList.get(ordinals[idx]));
+        }
+
+        return result;
+    }
+
+
+    /**
+     * 昇順に並んだ発言通番の列。
+     *
+     * <p>同じ発言通番は連続して追加されても1つにまとめられる。
+     *
+     * <p>列を変更してよいのは所有者の索引のみ。
+     */
+    private static final class Postings{
+
+        private static final int INITIAL_CAPACITY = 4;
+
+        final DialogIndex owner;
+
+        private int[] ordinals;
+        private int size;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param owner 所有者の索引
+         */
+        Postings(DialogIndex owner){
+            super();
+            this.owner = owner;
+            this.ordinals = new int[INITIAL_CAPACITY];
+            this.size = 0;
+            return;
+        }
+
+        /**
+         * コンストラクタ。
+         *
+         * @param owner 所有者の索引
+         * @param ordinals 発言通番の配列
+         * @param size 配列の有効な要素数
+         */
+        private Postings(DialogIndex owner, int[] ordinals, int size){
+            super();
+            this.owner = owner;
+            this.ordinals = ordinals;
+            this.size = size;
+            return;
+        }
+
+        /**
+         * 別の索引が所有する複製を作る。
+         *
+         * @param newOwner 複製の所有者の索引
+         * @return 複製
+         */
+        Postings copy(DialogIndex newOwner){
+            int capacity = Math.max(this.size * 2, INITIAL_CAPACITY);
+            int[] array = Arrays.copyOf(this.ordinals, capacity);
+            Postings result = new Postings(newOwner, array, this.size);
+            return result;
+        }
+
+        /**
+         * 発言通番を追加する。
+         *
+         * @param ordinal 既存のどの通番よりも小さくない発言通番
+         */
+        void add(int ordinal){
+            if(this.size > 0 && this.ordinals[this.size - 1] == ordinal){
+                return;
+            }
+            if(this.size >= this.ordinals.length){
+                this.ordinals =
+                        Arrays.copyOf(this.ordinals, this.size * 2);
+            }
+            this.ordinals[this.size++] = ordinal;
+            return;
+        }
+
+        /**
+         * 発言通番の数を返す。
+         *
+         * @return 発言通番の数
+         */
+        int size(){
+            return this.size;
+        }
+
+        /**
+         * 発言通番の配列を返す。
+         *
+         * @return 発言通番の配列の複製
+         */
+        int[] toArray(){
+            return Arrays.copyOf(this.ordinals, this.size);
+        }
+
+        /**
+         * 昇順に並んだ発言通番の配列から、
+         * この列に含まれないものを取り除き前に詰める。
+         *
+         * @param target 発言通番の配列
+         * @param count 配列の有効な要素数
+         * @return 取り除いた後の有効な要素数
+         */
+        int retain(int[] target, int count){
+            int result = 0;
+            int pos = 0;
+            for(int idx = 0; idx < count; idx++){
+                int ordinal = target[idx];
+                while(pos < this.size && this.ordinals[pos] < ordinal){
+                    pos++;
+                }
+                if(pos >= this.size) break;
+                if(this.ordinals[pos] == ordinal){
+                    target[result++] = ordinal;
+                }
+            }
+            return result;
+        }
+
+    }
+
+}
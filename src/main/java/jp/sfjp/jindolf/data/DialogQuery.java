@@ -0,0 +1,350 @@
+/*
+ * dialog query
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 発言本文の索引を用いた検索。
+ *
+ * <p>リテラル文字列による検索では、
+ * 各文字列を含みうる発言を索引で絞り込んでから正規表現を照合する。
+ * 正規表現による検索では、
+ * 正規表現にマッチする文字列が必ず含む部分文字列を可能な限り抜き出し、
+ * それを含みうる発言に絞り込んでから照合する。
+ *
+ * <p>描画用のオブジェクトには一切触れないので、
+ * どのスレッドから呼んでもよい。
+ */
+public final class DialogQuery{
+
+    private static final String REGEX_META = ".$^()+}";
+
+
+    private final Pattern pattern;
+    private final List<String> literalList;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param regexPattern 検索パターン
+     * @throws NullPointerException 引数がnull
+     */
+    public DialogQuery(RegexPattern regexPattern)
+            throws NullPointerException{
+        super();
+
+        this.pattern = regexPattern.getPattern();
+
+        List<String> literals;
+        if(regexPattern.isRegex()){
+            String literal = requiredLiteral(this.pattern.pattern());
+            if(literal == null){
+                literals = null;
+            }else{
+                literals = Collections.singletonList(literal);
+            }
+        }else{
+            literals = new ArrayList<>();
+            for(String token : regexPattern.getEditSource().split(" ")){
+                if(token.isEmpty()) continue;
+                literals.add(token);
+            }
+        }
+        this.literalList = literals;
+
+        return;
+    }
+
+
+    /**
+     * 索引の見出し用に英字の大小を畳み込む。
+     *
+     * <p>大小を区別しない正規表現で同一視される文字は、
+     * 同じ文字に畳み込まれる。
+     *
+     * @param ch 文字
+     * @return 畳み込まれた文字
+     */
+    public static char foldCase(char ch){
+        return Character.toLowerCase(Character.toUpperCase(ch));
+    }
+
+    /**
+     * 正規表現にマッチする文字列が必ず含む部分文字列を抜き出す。
+     *
+     * <p>グループや文字クラスの外にあり、
+     * 量指定子で省略されうる事のない連続した文字のうち、最長のものを返す。
+     * エスケープシーケンスは全体で1つの区切りとして扱い、
+     * 入れ子の文字クラスは外側の文字クラスが閉じるまで読み飛ばす。
+     * 選択やグループ構文、引用を含む正規表現は
+     * 確実な判定ができないので諦める。
+     *
+     * @param regex 正規表現
+     * @return 部分文字列。見つからなければnull
+     */
+    public static String requiredLiteral(String regex){
+        if(regex.indexOf('|') >= 0) return null;
+        if(regex.contains("(?")) return null;
+        if(regex.contains("\\Q")) return null;
+
+        String best = "";
+        StringBuilder run = new StringBuilder();
+        int depth = 0;
+        int classDepth = 0;
+
+        int length = regex.length();
+        for(int pos = 0; pos < length; pos++){
+            char ch = regex.charAt(pos);
+
+            if(ch == '\\'){
+                pos = skipEscape(regex, pos);
+            }else if(classDepth > 0){
+                if(ch == '[') classDepth++;
+                else if(ch == ']') classDepth--;
+                continue;
+            }
+
+            switch(ch){
+            case '\\':
+                break;
+            case '[':
+                classDepth++;
+                pos = skipClassHead(regex, pos);
+                break;
+            case '(':
+                depth++;
+                break;
+            case ')':
+                depth--;
+                break;
+            case '?':
+            case '*':
+                dropLastChar(run);
+                break;
+            case '{':
+                dropLastChar(run);
+                int close = regex.indexOf('}', pos);
+                if(close < 0) return null;
+                pos = close;
+                break;
+            default:
+                if(REGEX_META.indexOf(ch) >= 0) break;
+                if(depth == 0) run.append(ch);
+                continue;
+            }
+
+            if(run.length() > best.length()) best = run.toString();
+            run.setLength(0);
+        }
+
+        if(run.length() > best.length()) best = run.toString();
+        if(best.isEmpty()) return null;
+
+        return best;
+    }
+
+    /**
+     * 正規表現中のエスケープシーケンスの末尾位置を求める。
+     *
+     * <p>バックスラッシュに続く以下の並びは、
+     * それぞれ全体で1つのエスケープシーケンスとなる。
+     * <ul>
+     * <li>uと16進4桁
+     * <li>xと16進2桁、もしくはxと波括弧で囲まれた16進数
+     * <li>0と8進数
+     * <li>cと任意の1文字
+     * <li>p、P、Nと1文字、もしくはそれらと波括弧で囲まれた名前
+     * <li>番号による後方参照の数字列
+     * </ul>
+     *
+     * @param regex 正規表現
+     * @param pos バックスラッシュの位置
+     * @return エスケープシーケンス末尾の文字の位置
+     */
+    private static int skipEscape(String regex, int pos){
+        int length = regex.length();
+        int next = pos + 1;
+        if(next >= length) return pos;
+
+        int result;
+        char ch = regex.charAt(next);
+        switch(ch){
+        case 'u':
+            result = next + 4;
+            break;
+        case 'x':
+        case 'p':
+        case 'P':
+        case 'N':
+            if(next + 1 < length && regex.charAt(next + 1) == '{'){
+                result = regex.indexOf('}', next);
+            }else if(ch == 'x'){
+                result = next + 2;
+            }else{
+                result = next + 1;
+            }
+            break;
+        case 'c':
+            result = next + 1;
+            break;
+        case '0':
+            result = next;
+            while(    result - next < 3
+                   && result + 1 < length
+                   && '0' <= regex.charAt(result + 1)
+                   && regex.charAt(result + 1) <= '7' ){
+                result++;
+            }
+            break;
+        default:
+            result = next;
+            if('1' <= ch && ch <= '9'){
+                while(    result + 1 < length
+                       && Character.isDigit(regex.charAt(result + 1)) ){
+                    result++;
+                }
+            }
+            break;
+        }
+
+        if(result < 0 || result >= length) result = length - 1;
+
+        return result;
+    }
+
+    /**
+     * 文字クラスの先頭で文字として扱われる閉じ括弧を読み飛ばす。
+     *
+     * <p>否定の{@code ^}の直後もしくは開き括弧の直後の{@code ]}は、
+     * 文字クラスを閉じずに文字として扱われる。
+     *
+     * @param regex 正規表現
+     * @param pos 文字クラスの開き括弧の位置
+     * @return 読み飛ばした最後の文字の位置
+     */
+    private static int skipClassHead(String regex, int pos){
+        int result = pos;
+        int length = regex.length();
+        if(result + 1 < length && regex.charAt(result + 1) == '^') result++;
+        if(result + 1 < length && regex.charAt(result + 1) == ']') result++;
+        return result;
+    }
+
+    /**
+     * 量指定子の対象となる末尾の1文字を取り除く。
+     *
+     * <p>サロゲートペアは2つのcharで1文字として扱う。
+     *
+     * @param run 連続した文字
+     */
+    private static void dropLastChar(StringBuilder run){
+        int length = run.length();
+        if(length <= 0) return;
+
+        int drop = 1;
+        if(    length >= 2
+            && Character.isLowSurrogate(run.charAt(length - 1))
+            && Character.isHighSurrogate(run.charAt(length - 2)) ){
+            drop = 2;
+        }
+        run.setLength(length - drop);
+
+        return;
+    }
+
+    /**
+     * 文字列中の正規表現のマッチ数を数える。
+     *
+     * <p>長さ0のマッチが現れた時点で数えるのをやめる。
+     *
+     * @param pattern 正規表現
+     * @param text 文字列
+     * @return マッチ数
+     */
+    public static int countMatches(Pattern pattern, CharSequence text){
+        int result = 0;
+
+        Matcher matcher = pattern.matcher(text);
+        while(matcher.find()){
+            if(matcher.start() >= matcher.end()) break;
+            result++;
+        }
+
+        return result;
+    }
+
+    /**
+     * 照合に用いる正規表現を返す。
+     *
+     * @return 正規表現
+     */
+    public Pattern getPattern(){
+        return this.pattern;
+    }
+
+    /**
+     * 絞り込みに用いる文字列のリストを返す。
+     *
+     * <p>マッチする文字列は、いずれかの文字列を必ず含む。
+     *
+     * @return 文字列のリスト。絞り込みができないならnull
+     */
+    public List<String> getLiteralList(){
+        if(this.literalList == null) return null;
+        return Collections.unmodifiableList(this.literalList);
+    }
+
+    /**
+     * Periodの発言本文中のマッチ数を数える。
+     *
+     * <p>アンカー展開などで表示中の他の発言は数えない。
+     *
+     * @param period Period
+     * @return マッチ数
+     */
+    public int countMatches(Period period){
+        int result = 0;
+        for(Talk talk : findCandidates(period)){
+            result += countMatches(this.pattern, talk.getDialog());
+        }
+        return result;
+    }
+
+    /**
+     * Periodの中からマッチしうる発言を絞り込む。
+     *
+     * @param period Period
+     * @return 発言の集合
+     */
+    private Collection<Talk> findCandidates(Period period){
+        DialogIndex index = period.getDialogIndex();
+
+        if(this.literalList == null) return index.getTalkList();
+        if(this.literalList.size() == 1){
+            return index.findCandidates(this.literalList.get(0));
+        }
+
+        Set<Talk> result =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+        for(String literal : this.literalList){
+            result.addAll(index.findCandidates(literal));
+        }
+
+        return result;
+    }
+
+}
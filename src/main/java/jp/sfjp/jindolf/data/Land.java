@@ -14,9 +14,12 @@
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import jp.sfjp.jindolf.net.NetMetrics;
 import jp.sfjp.jindolf.net.ServerAccess;
 import jp.sourceforge.jindolf.corelib.LandDef;
 
@@ -53,7 +56,11 @@ public Land(LandDef landDef) throws IllegalArgumentException{
         }catch(MalformedURLException e){
             throw new IllegalArgumentException(e);
         }
-        this.serverAccess = new ServerAccess(url, this.landDef.getEncoding());
+        String landName = this.landDef.getLandName();
+        this.serverAccess =
+                new ServerAccess(url, this.landDef.getEncoding(), landName);
+
+        NetMetrics.getDefault().registerServer(landName, url);
 
         return;
     }
@@ -159,12 +166,33 @@ public BufferedImage getGraveBodyImage(){
     /**
      * 村リストを更新する。
      *
+     * <p>既存の村と同じIDと名前を持つ村は既存のインスタンスが引き継がれ、
+     * 状態だけが新しい村のものに更新される。
+     * 読み込み済みの日のデータ等はそのまま残る。
+     *
      * @param vset ソート済みの村一覧
      */
     public void updateVillageList(List<Village> vset){
         // TODO 村リスト更新のイベントリスナがあると便利か？
+        Map<String, Village> oldMap = new HashMap<>();
+        for(Village village : this.villageList){
+            oldMap.put(village.getVillageID(), village);
+        }
+
         this.villageList.clear();
-        this.villageList.addAll(vset);
+
+        for(Village village : vset){
+            Village old = oldMap.get(village.getVillageID());
+            if(    old != null
+                && old.getVillageFullName()
+                      .equals(village.getVillageFullName()) ){
+                old.setState(village.getState());
+                this.villageList.add(old);
+            }else{
+                this.villageList.add(village);
+            }
+        }
+
         return;
     }
 
@@ -20,6 +20,7 @@
 import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreePath;
 import jp.sourceforge.jindolf.corelib.LandDef;
+import jp.sourceforge.jindolf.corelib.VillageState;
 
 /**
  * {@link javax.swing.JTree}のモデルとして国一覧と村一覧を管理。
@@ -159,33 +160,110 @@ public List<Land> getLandList(){
      * 指定した国の村一覧でツリーリストを更新し、
      * 更新イベントをリスナに投げる。
      *
-     * <p>2020-04現在、もはや村一覧が増減することはない。
+     * <p>既存の範囲セクションの並びが保たれている場合は、
+     * 内容の変わった範囲セクションと新たに増えた範囲セクションのみが
+     * 更新イベントの対象となる。
+     * 変化の無い範囲セクションの展開状態などはそのまま残る。
      *
      * @param land 国
      */
     public void updateVillageList(Land land){
         List<VillageSection> sectionList =
                 getSectionList(land, SECTION_INTERVAL);
-        this.sectionMap.put(land, sectionList);
-
-        int[] childIndices = new int[sectionList.size()];
-        for(int ct = 0; ct < childIndices.length; ct++){
-            childIndices[ct] = ct;
-        }
-        Object[] children = sectionList.toArray();
+        List<VillageSection> oldList = this.sectionMap.get(land);
 
         TreePath treePath = new TreePath(ROOT);
         treePath = treePath.pathByAddingChild(land);
 
-        TreeModelEvent event = new TreeModelEvent(this,
-                                                  treePath,
-                                                  childIndices,
-                                                  children     );
-        fireTreeStructureChanged(event);
+        if(oldList == null || ! hasSameRanges(oldList, sectionList)){
+            this.sectionMap.put(land, sectionList);
+
+            int[] childIndices = new int[sectionList.size()];
+            for(int ct = 0; ct < childIndices.length; ct++){
+                childIndices[ct] = ct;
+            }
+            Object[] children = sectionList.toArray();
+
+            TreeModelEvent event = new TreeModelEvent(this,
+                                                      treePath,
+                                                      childIndices,
+                                                      children     );
+            fireTreeStructureChanged(event);
+
+            return;
+        }
+
+        int oldSize = oldList.size();
+        int newSize = sectionList.size();
+
+        List<VillageSection> mergedList = new ArrayList<>(newSize);
+        List<VillageSection> changedList = new ArrayList<>();
+        for(int idx = 0; idx < newSize; idx++){
+            VillageSection section = sectionList.get(idx);
+            if(idx < oldSize){
+                VillageSection oldSection = oldList.get(idx);
+                if( ! oldSection.hasSameContent(section) ){
+                    oldSection.replaceVillages(section);
+                    changedList.add(oldSection);
+                }
+                section = oldSection;
+            }
+            mergedList.add(section);
+        }
+        this.sectionMap.put(land, mergedList);
+
+        for(VillageSection section : changedList){
+            TreePath sectionPath = treePath.pathByAddingChild(section);
+            TreeModelEvent event = new TreeModelEvent(this, sectionPath);
+            fireTreeStructureChanged(event);
+        }
+
+        int added = newSize - oldSize;
+        if(added > 0){
+            int firstIndex;
+            if(this.ascending) firstIndex = oldSize;
+            else               firstIndex = 0;
+
+            int[] childIndices = new int[added];
+            Object[] children = new Object[added];
+            for(int ct = 0; ct < added; ct++){
+                int index = firstIndex + ct;
+                childIndices[ct] = index;
+                children[ct] = getChild(land, index);
+            }
+
+            TreeModelEvent event = new TreeModelEvent(this,
+                                                      treePath,
+                                                      childIndices,
+                                                      children     );
+            fireTreeNodesInserted(event);
+        }
 
         return;
     }
 
+    /**
+     * 新しい範囲セクションのリストが、
+     * 既存の範囲セクションのリストと同じ範囲の並びで始まるか判定する。
+     *
+     * @param oldList 既存の範囲セクションのリスト
+     * @param newList 新しい範囲セクションのリスト
+     * @return 既存の並びを保ったまま末尾に追加されただけならtrue
+     */
+    private static boolean hasSameRanges(List<VillageSection> oldList,
+                                         List<VillageSection> newList ){
+        if(oldList.size() > newList.size()) return false;
+
+        int size = oldList.size();
+        for(int idx = 0; idx < size; idx++){
+            VillageSection oldSection = oldList.get(idx);
+            VillageSection newSection = newList.get(idx);
+            if( ! oldSection.hasSameRange(newSection) ) return false;
+        }
+
+        return true;
+    }
+
     /**
      * ツリーの並び順を設定する。
      *
@@ -245,6 +323,18 @@ protected void fireTreeStructureChanged(TreeModelEvent event){
         return;
     }
 
+    /**
+     * 全リスナーにノード追加イベントを送出する。
+     *
+     * @param event ツリーイベント
+     */
+    protected void fireTreeNodesInserted(TreeModelEvent event){
+        for(TreeModelListener listener : getTreeModelListeners()){
+            listener.treeNodesInserted(event);
+        }
+        return;
+    }
+
     /**
      * ツリー内容の国一覧が更新された事をリスナーに通知する。
      */
@@ -427,7 +517,8 @@ public void valueForPathChanged(TreePath path, Object newValue){
 
         private final String text;
 
-        private final List<Village> villageList;
+        private List<Village> villageList;
+        private List<VillageState> stateList;
 
 
         /**
@@ -460,12 +551,68 @@ public void valueForPathChanged(TreePath path, Object newValue){
             List<Village> newList = new ArrayList<>(spanList);
             this.villageList = Collections.unmodifiableList(newList);
 
+            List<VillageState> states = new ArrayList<>(newList.size());
+            for(Village village : newList){
+                states.add(village.getState());
+            }
+            this.stateList = Collections.unmodifiableList(states);
+
             assert this.endId - this.startId + 1 >= this.villageList.size();
 
             return;
         }
 
 
+        /**
+         * 同じ村ID範囲のセクションか判定する。
+         *
+         * @param other 比較対象
+         * @return 同じ範囲ならtrue
+         */
+        boolean hasSameRange(VillageSection other){
+            if(this.startId != other.startId) return false;
+            if(this.endId   != other.endId)   return false;
+            return true;
+        }
+
+        /**
+         * 同じ村を同じ状態で含むセクションか判定する。
+         *
+         * <p>村はインスタンスの同一性で比較される。
+         * 村の状態はセクション生成時点のもので比較される。
+         *
+         * @param other 比較対象
+         * @return 同じ内容ならtrue
+         */
+        boolean hasSameContent(VillageSection other){
+            if( ! hasSameRange(other) ) return false;
+
+            int size = this.villageList.size();
+            if(size != other.villageList.size()) return false;
+
+            for(int idx = 0; idx < size; idx++){
+                if(this.villageList.get(idx) != other.villageList.get(idx)){
+                    return false;
+                }
+            }
+
+            if( ! this.stateList.equals(other.stateList) ) return false;
+
+            return true;
+        }
+
+        /**
+         * セクション内の村を別のセクションの村で置き換える。
+         *
+         * @param other 置き換え元
+         */
+        void replaceVillages(VillageSection other){
+            assert hasSameRange(other);
+            this.villageList = other.villageList;
+            this.stateList = other.stateList;
+            return;
+        }
+
         /**
          * セクション内に含まれる村の総数を返す。
          *
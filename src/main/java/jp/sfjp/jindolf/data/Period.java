@@ -7,9 +7,7 @@
 
 package jp.sfjp.jindolf.data;
 
-import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -24,6 +22,14 @@
  * <p>将来、24時間更新でなくなる可能性の考慮が必要。
  * 人気のないプロローグなどで、
  * 24時間以上の期間を持つPeriodが生成される可能性の考慮が必要。
+ *
+ * <p>Topicは発言番号、メッセージID、発言時刻で索引付けされており、
+ * これらによる発言の検索はTopic総数によらず定数時間で済む。
+ * 発言本文も文字N-gramで索引付けされる。
+ *
+ * <p>Topicのリストの一括置き換えは不可分に行われるので、
+ * パースを終えたTopicのリストを他のスレッドから安全に反映できる。
+ * 個々のTopicの追加は不可分ではない。
  */
 public final class Period{
     // TODO Comparable も implement する？
@@ -35,9 +41,7 @@
     private int limitMinute;
     // TODO 更新月日も入れるべきか。
 
-    private final List<Topic> topicList = new LinkedList<>();
-    private final List<Topic> unmodList =
-            Collections.unmodifiableList(this.topicList);
+    private volatile TopicStore topicStore = new TopicStore();
 
 
     /**
@@ -126,6 +130,24 @@ public void setLimit(int hour, int minute){
         return;
     }
 
+    /**
+     * 更新時刻の時を返す。
+     *
+     * @return 時
+     */
+    public int getLimitHour(){
+        return this.limitHour;
+    }
+
+    /**
+     * 更新時刻の分を返す。
+     *
+     * @return 分
+     */
+    public int getLimitMinute(){
+        return this.limitMinute;
+    }
+
     /**
      * 更新時刻の文字表記を返す。
      *
@@ -234,17 +256,52 @@ public String getCGIQuery(){
      *
      * <p>このリストは上書き操作不能。
      *
+     * <p>Topicのリストが一括して置き換えられた場合、
+     * 置き換え前に返されたリストの内容は変化しない。
+     *
      * @return Topicのリスト
      */
     public List<Topic> getTopicList(){
-        return this.unmodList;
+        return this.topicStore.asList();
     }
 
     /**
      * Topicのリスト内容を消す。
      */
     public void clearTopicList(){
-        this.topicList.clear();
+        this.topicStore = new TopicStore();
+        return;
+    }
+
+    /**
+     * Topicのリストを一括して置き換える。
+     *
+     * <p>置き換えは不可分に行われる。
+     * 他のスレッドからは置き換え前か置き換え後のどちらかのリストが見え、
+     * 置き換え途中のリストが見えることはない。
+     *
+     * @param topics 新しいTopicのリスト
+     * @throws java.lang.NullPointerException nullが含まれる場合。
+     */
+    public void setTopicList(List<? extends Topic> topics)
+            throws NullPointerException{
+        this.topicStore = new TopicStore(topics);
+        return;
+    }
+
+    /**
+     * Topicのリストの末尾に複数のTopicを一括して追加する。
+     *
+     * <p>既存の発言は索引に登録し直されない。
+     *
+     * <p>追加は{@link #setTopicList(List)}と同様に不可分に行われる。
+     *
+     * @param topics 追加するTopicのリスト
+     * @throws java.lang.NullPointerException nullが含まれる場合。
+     */
+    public void appendTopicList(List<? extends Topic> topics)
+            throws NullPointerException{
+        this.topicStore = new TopicStore(this.topicStore, topics);
         return;
     }
 
@@ -254,18 +311,20 @@ public void clearTopicList(){
      * @return Topic総数
      */
     public int getTopics(){
-        return this.topicList.size();
+        return this.topicStore.size();
     }
 
     /**
      * Topicを追加する。
      *
+     * <p>発言であれば同時に索引へ登録される。
+     * 発言番号などの属性は追加前に確定していなければならない。
+     *
      * @param topic Topic
      * @throws java.lang.NullPointerException nullが渡された場合。
      */
     public void addTopic(Topic topic) throws NullPointerException{
-        if(topic == null) throw new NullPointerException();
-        this.topicList.add(topic);
+        this.topicStore.add(topic);
         return;
     }
 
@@ -306,14 +365,58 @@ public String getCaption(){
      */
     public Talk getNumberedTalk(int talkNo){
         if(talkNo <= 0) throw new IllegalArgumentException();
+        Talk result = this.topicStore.getNumberedTalk(talkNo);
+        return result;
+    }
 
-        for(Topic topic : this.topicList){
-            if( ! (topic instanceof Talk) ) continue;
-            Talk talk = (Talk) topic;
-            if(talkNo == talk.getTalkNo()) return talk;
-        }
+    /**
+     * このPeriodに含まれる発言本文の索引を返す。
+     *
+     * @return 発言本文の索引
+     */
+    DialogIndex getDialogIndex(){
+        return this.topicStore.getDialogIndex();
+    }
 
-        return null;
+    /**
+     * このPeriodに含まれる公開発言番号の最小値を返す。
+     *
+     * @return 公開発言番号の最小値。公開発言が無ければ0
+     */
+    public int getFirstTalkNo(){
+        return this.topicStore.getFirstTalkNo();
+    }
+
+    /**
+     * このPeriodに含まれる公開発言番号の最大値を返す。
+     *
+     * @return 公開発言番号の最大値。公開発言が無ければ0
+     */
+    public int getLastTalkNo(){
+        return this.topicStore.getLastTalkNo();
+    }
+
+    /**
+     * メッセージIDにマッチする発言を返す。
+     *
+     * @param messageID メッセージID
+     * @return 発言。見つからなければnull
+     */
+    public Talk getMessageTalk(String messageID){
+        Talk result = this.topicStore.getMessageTalk(messageID);
+        return result;
+    }
+
+    /**
+     * 発言時刻にマッチする発言のリストを返す。
+     *
+     * @param hour 時
+     * @param minute 分
+     * @return 出現順に並んだ発言の不変リスト。見つからなければ空リスト
+     */
+    public List<Talk> getTimedTalks(int hour, int minute){
+        List<Talk> result = this.topicStore.getTimedTalks(hour, minute);
+        return result;
     }
 
     /**
@@ -322,7 +425,7 @@ public Talk getNumberedTalk(int talkNo){
      * @return ロード済みならtrue
      */
     public boolean hasLoaded(){
-        return ! this.topicList.isEmpty();
+        return ! this.topicStore.isEmpty();
     }
 
     /**
@@ -332,7 +435,7 @@ public void unload(){
         this.limitHour = 0;
         this.limitMinute = 0;
 
-        this.topicList.clear();
+        this.topicStore = new TopicStore();
 
         return;
     }
@@ -346,7 +449,7 @@ public void unload(){
      * @return 襲撃メッセージがあればtrue
      */
     public boolean hasAssaultTried(){
-        for(Topic topic : this.topicList){
+        for(Topic topic : getTopicList()){
             if(topic instanceof Talk){
                 Talk talk = (Talk) topic;
                 if(talk.getTalkCount() <= 0) return true;
@@ -0,0 +1,285 @@
+/*
+ * indexed topic store
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Periodに含まれるTopicの索引付き格納庫。
+ *
+ * <p>Topicは配列上に出現順に格納される。
+ * 発言(Talk)は追加された時点で以下の索引に登録される。
+ * <ul>
+ * <li>公開発言番号
+ * <li>メッセージID
+ * <li>発言時刻(時, 分)
+ * </ul>
+ *
+ * <p>公開発言番号の最小値と最大値も保持される。
+ * 発言本文は{@link DialogIndex}に登録される。
+ *
+ * <p>既存の格納庫を元に、Topicを末尾に追加した別の格納庫を作ることができる。
+ * 既存の発言は索引に登録し直されず、元の格納庫の内容は変化しない。
+ *
+ * <p>索引は追加時点の発言の属性で作られるので、
+ * 発言番号などは追加前に確定していなければならない。
+ *
+ * <p>スレッドセーフではない。
+ * 構築を終えた格納庫を複数のスレッドから参照するのは構わない。
+ */
+final class TopicStore{
+
+    private static final int MINUTES_PER_HOUR = 60;
+
+
+    private final List<Topic> topicList;
+    private final List<Topic> unmodList;
+
+    private final Map<Integer, Talk> talkNoMap;
+    private final Map<String, Talk> messageIdMap;
+    private final Map<Integer, List<Talk>> timeMap;
+
+    private final DialogIndex dialogIndex;
+
+    private int firstTalkNo = 0;
+    private int lastTalkNo = 0;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>空の格納庫が生成される。
+     */
+    TopicStore(){
+        super();
+        this.topicList = new ArrayList<>();
+        this.unmodList = Collections.unmodifiableList(this.topicList);
+        this.talkNoMap = new HashMap<>();
+        this.messageIdMap = new HashMap<>();
+        this.timeMap = new HashMap<>();
+        this.dialogIndex = new DialogIndex();
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param topics 格納するTopic群
+     * @throws NullPointerException nullが含まれる
+     */
+    TopicStore(Collection<? extends Topic> topics)
+            throws NullPointerException{
+        this();
+        for(Topic topic : topics){
+            add(topic);
+        }
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>既存の格納庫の全Topicに続けて、追加するTopic群を格納する。
+     * 既存の格納庫の内容は変化しない。
+     *
+     * @param base 既存の格納庫
+     * @param appended 追加するTopic群
+     * @throws NullPointerException nullが含まれる
+     */
+    TopicStore(TopicStore base, Collection<? extends Topic> appended)
+            throws NullPointerException{
+        super();
+
+        int size = base.topicList.size() + appended.size();
+        this.topicList = new ArrayList<>(size);
+        this.topicList.addAll(base.topicList);
+        this.unmodList = Collections.unmodifiableList(this.topicList);
+
+        this.talkNoMap = new HashMap<>(base.talkNoMap);
+        this.messageIdMap = new HashMap<>(base.messageIdMap);
+        this.timeMap = new HashMap<>(base.timeMap.size());
+        for(Map.Entry<Integer, List<Talk>> entry : base.timeMap.entrySet()){
+            List<Talk> timed = new ArrayList<>(entry.getValue());
+            this.timeMap.put(entry.getKey(), timed);
+        }
+
+        this.dialogIndex = new DialogIndex(base.dialogIndex);
+
+        this.firstTalkNo = base.firstTalkNo;
+        this.lastTalkNo = base.lastTalkNo;
+
+        for(Topic topic : appended){
+            add(topic);
+        }
+
+        return;
+    }
+
+
+    /**
+     * 時刻索引のキーを返す。
+     *
+     * @param hour 時
+     * @param minute 分
+     * @return キー
+     */
+    private static Integer timeKey(int hour, int minute){
+        return hour * MINUTES_PER_HOUR + minute;
+    }
+
+    /**
+     * Topicを末尾に追加する。
+     *
+     * @param topic Topic
+     * @throws NullPointerException nullが渡された
+     */
+    void add(Topic topic) throws NullPointerException{
+        if(topic == null) throw new NullPointerException();
+
+        this.topicList.add(topic);
+
+        if(topic instanceof Talk){
+            indexTalk((Talk) topic);
+        }
+
+        return;
+    }
+
+    /**
+     * 発言を索引に登録する。
+     *
+     * <p>同じ発言番号やメッセージIDの発言が複数あれば、最初の発言が優先される。
+     *
+     * @param talk 発言
+     */
+    private void indexTalk(Talk talk){
+        int talkNo = talk.getTalkNo();
+        if(talkNo > 0){
+            this.talkNoMap.putIfAbsent(talkNo, talk);
+            if(this.firstTalkNo <= 0 || talkNo < this.firstTalkNo){
+                this.firstTalkNo = talkNo;
+            }
+            if(talkNo > this.lastTalkNo){
+                this.lastTalkNo = talkNo;
+            }
+        }
+
+        String messageId = talk.getMessageID();
+        if(messageId != null){
+            this.messageIdMap.putIfAbsent(messageId, talk);
+        }
+
+        Integer key = timeKey(talk.getHour(), talk.getMinute());
+        List<Talk> timed = this.timeMap.get(key);
+        if(timed == null){
+            timed = new ArrayList<>(1);
+            this.timeMap.put(key, timed);
+        }
+        timed.add(talk);
+
+        this.dialogIndex.add(talk);
+
+        return;
+    }
+
+    /**
+     * 全Topicのリストを返す。
+     *
+     * <p>このリストは上書き操作不能だが、
+     * 格納庫へのTopicの追加は反映される。
+     *
+     * @return Topicのリスト
+     */
+    List<Topic> asList(){
+        return this.unmodList;
+    }
+
+    /**
+     * Topic総数を返す。
+     *
+     * @return Topic総数
+     */
+    int size(){
+        return this.topicList.size();
+    }
+
+    /**
+     * 空か判定する。
+     *
+     * @return 空ならtrue
+     */
+    boolean isEmpty(){
+        return this.topicList.isEmpty();
+    }
+
+    /**
+     * 公開発言番号にマッチする発言を返す。
+     *
+     * @param talkNo 公開発言番号
+     * @return 発言。見つからなければnull
+     */
+    Talk getNumberedTalk(int talkNo){
+        return this.talkNoMap.get(talkNo);
+    }
+
+    /**
+     * 公開発言番号の最小値を返す。
+     *
+     * @return 公開発言番号の最小値。公開発言が無ければ0
+     */
+    int getFirstTalkNo(){
+        return this.firstTalkNo;
+    }
+
+    /**
+     * 公開発言番号の最大値を返す。
+     *
+     * @return 公開発言番号の最大値。公開発言が無ければ0
+     */
+    int getLastTalkNo(){
+        return this.lastTalkNo;
+    }
+
+    /**
+     * 発言本文の索引を返す。
+     *
+     * @return 発言本文の索引
+     */
+    DialogIndex getDialogIndex(){
+        return this.dialogIndex;
+    }
+
+    /**
+     * メッセージIDにマッチする発言を返す。
+     *
+     * @param messageId メッセージID
+     * @return 発言。見つからなければnull
+     */
+    Talk getMessageTalk(String messageId){
+        return this.messageIdMap.get(messageId);
+    }
+
+    /**
+     * 発言時刻にマッチする発言のリストを返す。
+     *
+     * @param hour 時
+     * @param minute 分
+     * @return 出現順に並んだ発言の不変リスト。見つからなければ空リスト
+     */
+    List<Talk> getTimedTalks(int hour, int minute){
+        List<Talk> timed = this.timeMap.get(timeKey(hour, minute));
+        if(timed == null) return Collections.emptyList();
+        return Collections.unmodifiableList(timed);
+    }
+
+}
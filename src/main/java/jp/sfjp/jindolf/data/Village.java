@@ -7,11 +7,12 @@
 
 package jp.sfjp.jindolf.data;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import jp.sfjp.jindolf.view.AvatarPics;
 import jp.sourceforge.jindolf.corelib.LandDef;
 import jp.sourceforge.jindolf.corelib.VillageState;
@@ -38,12 +39,15 @@
 
     private VillageState state = VillageState.UNKNOWN;
 
-    private final LinkedList<Period> periodList = new LinkedList<>();
+    private final List<Period> periodList = new ArrayList<>();
     private final List<Period> unmodList =
             Collections.unmodifiableList(this.periodList);
+    private Period prologue = null;
+    private Period epilogue = null;
+    private int progressDays = 0;
 
     private final Map<String, Avatar> avatarMap =
-            new HashMap<>();
+            new ConcurrentHashMap<>();
 
     private final AvatarPics avatarPics;
 
@@ -167,10 +171,7 @@ public boolean hasSchedule(){
      * @return プロローグ
      */
     public Period getPrologue(){
-        for(Period period : this.periodList){
-            if(period.isPrologue()) return period;
-        }
-        return null;
+        return this.prologue;
     }
 
     /**
@@ -179,19 +180,25 @@ public Period getPrologue(){
      * @return エピローグ
      */
     public Period getEpilogue(){
-        for(Period period : this.periodList){
-            if(period.isEpilogue()) return period;
-        }
-        return null;
+        return this.epilogue;
     }
 
     /**
      * 指定された日付の進行日を返す。
      *
+     * <p>通常Periodは日付と同じインデックスに格納されているので、
+     * まずそこを調べる。
+     *
      * @param day 日付
      * @return Period
      */
     public Period getProgress(int day){
+        if(0 <= day && day < this.periodList.size()){
+            Period period = this.periodList.get(day);
+            if(    period.isProgress()
+                && period.getDay() == day ) return period;
+        }
+
         for(Period period : this.periodList){
             if(    period.isProgress()
                 && period.getDay() == day ) return period;
@@ -205,11 +212,7 @@ public Period getProgress(int day){
      * @return PROGRESS状態のPeriod総数
      */
     public int getProgressDays(){
-        int result = 0;
-        for(Period period : this.periodList){
-            if(period.isProgress()) result++;
-        }
-        return result;
+        return this.progressDays;
     }
 
     /**
@@ -256,6 +259,9 @@ public int getPeriodSize(){
     /**
      * Periodへのリストを返す。
      *
+     * <p>このリストは上書き操作不能だが、
+     * 村へのPeriodの追加は反映される。
+     *
      * @return Periodのリスト。
      */
     public List<Period> getPeriodList(){
@@ -276,16 +282,21 @@ public Avatar getAvatar(String fullName){
     /**
      * Avatarを村に登録する。
      *
+     * <p>複数のPeriodを並行してパースするスレッドから呼ばれてもよい。
+     * 同じフルネームのAvatarが既に登録されていれば、
+     * 登録済みのAvatarが優先される。
+     *
      * @param avatar Avatar
+     * @return 登録済みのAvatar。引数がnullならnull
      */
-    public void addAvatar(Avatar avatar){
-        if(avatar == null) return;
+    public Avatar addAvatar(Avatar avatar){
+        if(avatar == null) return null;
 
         String fullName = avatar.getFullName();
-        if(this.avatarMap.get(fullName) != null) return;
+        Avatar old = this.avatarMap.putIfAbsent(fullName, avatar);
+        if(old != null) return old;
 
-        this.avatarMap.put(fullName, avatar);
-        return;
+        return avatar;
     }
 
     /**
@@ -384,17 +395,54 @@ public void setPeriod(int index, Period period)
         int listSize = this.periodList.size();
         if(index == listSize){
             this.periodList.add(period);
+            countPeriod(period);
         }else if(index < listSize){
             this.periodList.set(index, period);
+            recountPeriods();
         }else{
             throw new IndexOutOfBoundsException();
         }
         return;
     }
 
+    /**
+     * 末尾に追加されたPeriodをプロローグ、エピローグ、
+     * 進行日数の記録に反映させる。
+     *
+     * <p>プロローグとエピローグは最初に現れたものが記録される。
+     *
+     * @param period 追加されたPeriod
+     */
+    private void countPeriod(Period period){
+        if(period.isPrologue()){
+            if(this.prologue == null) this.prologue = period;
+        }else if(period.isEpilogue()){
+            if(this.epilogue == null) this.epilogue = period;
+        }else if(period.isProgress()){
+            this.progressDays++;
+        }
+        return;
+    }
+
+    /**
+     * プロローグ、エピローグ、進行日数の記録を作り直す。
+     */
+    private void recountPeriods(){
+        this.prologue = null;
+        this.epilogue = null;
+        this.progressDays = 0;
+        for(Period period : this.periodList){
+            countPeriod(period);
+        }
+        return;
+    }
+
     /**
      * アンカーに一致する会話(Talk)のリストを取得する。
      *
+     * <p>各Periodの発言索引を用いるので、
+     * 発言総数によらず村の日数程度の手間で済む。
+     *
      * @param anchor アンカー
      * @return Talkのリスト
      */
@@ -417,13 +465,8 @@ public List<Talk> getTalkListFromAnchor(Anchor anchor){
 
         // 事前にアンカー対象Periodの全会話がロードされているのが前提
 
-        for(Topic topic : anchorPeriod.getTopicList()){
-            if( ! (topic instanceof Talk) ) continue;
-            Talk talk = (Talk) topic;
-            if(talk.getHour()   != anchor.getHour()  ) continue;
-            if(talk.getMinute() != anchor.getMinute()) continue;
-            result.add(talk);
-        }
+        result.addAll(anchorPeriod.getTimedTalks(anchor.getHour(),
+                                                 anchor.getMinute() ));
         return result;
     }
 
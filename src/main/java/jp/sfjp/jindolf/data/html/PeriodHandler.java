@@ -63,6 +63,7 @@ class PeriodHandler extends HtmlAdapter {
             new HashMap<>();
 
     private Period period = null;
+    private Period homePeriod = null;
 
     private TalkType talkType;
     private Avatar avatar;
@@ -100,7 +101,22 @@ class PeriodHandler extends HtmlAdapter {
      * @param period Period
      */
     void setPeriod(Period period){
+        setPeriod(period, period);
+        return;
+    }
+
+    /**
+     * 更新対象のPeriodと、会話の発言元とするPeriodを設定する。
+     *
+     * <p>更新対象とは別のPeriodにパースしてから結果を本来のPeriodに
+     * 反映する場合、会話の発言元には本来のPeriodを指定しなければならない。
+     *
+     * @param period 会話やイベントを格納するPeriod
+     * @param homePeriod 会話の発言元とするPeriod
+     */
+    void setPeriod(Period period, Period homePeriod){
         this.period = period;
+        this.homePeriod = homePeriod;
         reset();
         return;
     }
@@ -109,20 +125,21 @@ void setPeriod(Period period){
      * フルネーム文字列からAvatarインスタンスを得る。
      *
      * <p>村に未登録のAvatarであればついでに登録される。
+     * 他のスレッドが同時に登録した場合は、先に登録された方が返る。
      *
      * @param content 文字列
      * @param range 文字列内のAvatarフルネームを示す領域
      * @return Avatar
      */
     private Avatar toAvatar(DecodedContent content, SeqRange range){
-        Village village = this.period.getVillage();
+        Village village = this.homePeriod.getVillage();
         String fullName = this.converter
                               .convert(content, range)
                               .toString();
         Avatar result = village.getAvatar(fullName);
         if(result == null){
             result = Avatar.getAvatarByFullname(fullName);
-            village.addAvatar(result);
+            result = village.addAvatar(result);
         }
 
         return result;
@@ -425,7 +442,7 @@ private int countUp(Avatar targetAvatar, TalkType targetType){
      */
     @Override
     public void endTalk() throws HtmlParseException{
-        Talk talk = new Talk(this.period,
+        Talk talk = new Talk(this.homePeriod,
                              this.talkType,
                              this.avatar,
                              this.talkNo,
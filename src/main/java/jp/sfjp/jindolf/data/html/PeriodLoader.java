@@ -8,6 +8,12 @@
 package jp.sfjp.jindolf.data.html;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jp.osdn.jindolf.parser.HtmlParseException;
@@ -15,20 +21,58 @@
 import jp.osdn.jindolf.parser.content.DecodedContent;
 import jp.sfjp.jindolf.data.Land;
 import jp.sfjp.jindolf.data.Period;
+import jp.sfjp.jindolf.data.SysEvent;
+import jp.sfjp.jindolf.data.Talk;
+import jp.sfjp.jindolf.data.Topic;
 import jp.sfjp.jindolf.data.Village;
 import jp.sfjp.jindolf.net.HtmlSequence;
 import jp.sfjp.jindolf.net.ServerAccess;
+import jp.sfjp.jindolf.util.SingleFlight;
 
 /**
  * 人狼各国のHTTPサーバから各村の個別の日(Period)をHTMLで取得する。
  *
  * <p>Periodには、プレイヤー同士の会話や
  * システムが自動生成するメッセージが正しい順序で納められる。
+ *
+ * <p>同じPeriodに対する同時の読み込み要求は1回のダウンロードと
+ * 1回のパースにまとめられる。
+ *
+ * <p>受信途中のHTMLを順次パースすることで、
+ * 受信完了を待たずに先頭部分の会話を暫定的に得ることもできる。
+ *
+ * <p>読み込み済みのPeriodを再読み込みした場合、
+ * 既存の会話はそのまま残され、新しい会話だけが末尾に追加される。
+ *
+ * <p>ダウンロードしたHTMLのパースはCPUコア数に見合った
+ * fork-joinプールで行われる。
+ * 複数のPeriodを並行して読み込めば、
+ * キャッシュ済みの過去ログのようにパースが律速となる場合も
+ * コア数に応じて処理が速まる。
+ * パースは別途用意したPeriodに対して行われ、
+ * 結果は本来のPeriodに一括して不可分に反映される。
+ * パースで得られた会話の発言元は、別途用意したPeriodではなく
+ * 本来のPeriodとなる。
  */
 public final class PeriodLoader {
 
     private static final Logger LOGGER = Logger.getAnonymousLogger();
 
+    private static final String MSG_NOHTML =
+            "サーバ障害のため日のHTMLを取得できませんでした";
+
+    private static final SingleFlight<Period, Period> PARSE_FLIGHT =
+            new SingleFlight<>();
+
+    private static final ForkJoinPool PARSE_POOL =
+            new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private static final ThreadLocal<PeriodParser> PARSER =
+            ThreadLocal.withInitial(PeriodParser::new);
+
+    private static final List<Consumer<Period>> LOAD_LISTENERS =
+            new CopyOnWriteArrayList<>();
+
 
     /**
      * hidden constructor.
@@ -41,6 +85,9 @@ private PeriodLoader(){
     /**
      * Periodを更新する。Topicのリストが更新される。
      *
+     * <p>同じPeriodの読み込みが他のスレッドで実行中であれば、
+     * 新たな読み込みは行わずにその完了を待つ。
+     *
      * @param period 日
      * @param force trueなら強制再読み込み。
      *     falseならまだ読み込んで無い時のみ読み込み。
@@ -48,35 +95,354 @@ private PeriodLoader(){
      */
     public static void parsePeriod(Period period, boolean force)
             throws IOException{
+        parsePeriod(period, force, null);
+        return;
+    }
+
+    /**
+     * Periodを更新する。Topicのリストが更新される。
+     *
+     * <p>同じPeriodの読み込みが他のスレッドで実行中であれば、
+     * 新たな読み込みは行わずにその完了を待つ。
+     *
+     * <p>HTMLをサーバから受信する場合、
+     * 受信済みの部分までをパースした暫定のPeriodが
+     * 受信の途中で何度かリスナに通知される。
+     * 暫定のPeriodは引数のPeriodとは別のインスタンスであり、
+     * 含まれる会話の発言元は引数のPeriodとなる。
+     * 暫定のPeriodは通知後に変更されることはない。
+     * 引数のPeriodの内容が更新されるのは全ての受信が終わった後。
+     *
+     * <p>リスナは受信を行うスレッドから呼ばれる。
+     *
+     * @param period 日
+     * @param force trueなら強制再読み込み。
+     *     falseならまだ読み込んで無い時のみ読み込み。
+     * @param preview 暫定Periodの通知先。nullなら通知しない。
+     * @throws IOException ネットワーク入力エラー
+     */
+    public static void parsePeriod(Period period,
+                                   boolean force,
+                                   Consumer<Period> preview )
+            throws IOException{
         if( ! force && period.hasLoaded() ) return;
 
+        PARSE_FLIGHT.call(period, () -> {
+            boolean modified = loadPeriod(period, preview);
+            if( ! modified ) return period;
+            for(Consumer<Period> listener : LOAD_LISTENERS){
+                listener.accept(period);
+            }
+            return period;
+        });
+
+        return;
+    }
+
+    /**
+     * Periodの読み込み完了を受け取るリスナを登録する。
+     *
+     * <p>リスナは実際にサーバから読み込まれたPeriodの
+     * Topicのリストが更新された後、読み込みを行ったスレッドから呼ばれる。
+     * 再読み込みでTopicが追加も入れ替えもされなかった場合は呼ばれない。
+     *
+     * @param listener リスナ
+     */
+    public static void addLoadListener(Consumer<Period> listener){
+        LOAD_LISTENERS.add(listener);
+        return;
+    }
+
+    /**
+     * Periodの読み込み完了を受け取るリスナを削除する。
+     *
+     * @param listener リスナ
+     */
+    public static void removeLoadListener(Consumer<Period> listener){
+        LOAD_LISTENERS.remove(listener);
+        return;
+    }
+
+    /**
+     * Periodをダウンロードしてパースする。
+     *
+     * @param period 日
+     * @param preview 暫定Periodの通知先。nullなら通知しない。
+     * @return Topicのリストが変化したならtrue
+     * @throws IOException ネットワーク入力エラー。
+     *     もしくはサーバ障害によりHTMLが得られなかった。
+     */
+    private static boolean loadPeriod(Period period,
+                                      Consumer<Period> preview )
+            throws IOException{
         Village village = period.getVillage();
 
         Land land = village.getParentLand();
         ServerAccess server = land.getServerAccess();
 
-        HtmlSequence html = server.getHTMLPeriod(period);
+        Consumer<DecodedContent> partial = null;
+        if(preview != null){
+            partial = new PreviewParser(period, preview);
+        }
+
+        HtmlSequence html = server.getHTMLPeriod(period, partial);
+        if(html == null) throw new IOException(MSG_NOHTML);
         DecodedContent content = html.getContent();
 
-        period.clearTopicList();
+        ForkJoinTask<Period> task =
+                PARSE_POOL.submit(() -> parseFresh(period, content));
+        Period fresh = task.join();
 
-        HtmlParser parser = new HtmlParser();
-        PeriodHandler handler = new PeriodHandler();
-        parser.setBasicHandler   (handler);
-        parser.setSysEventHandler(handler);
-        parser.setTalkHandler    (handler);
+        if( ! period.hasLoaded() ){
+            period.setLimit(fresh.getLimitHour(), fresh.getLimitMinute());
+            period.setTopicList(fresh.getTopicList());
+            return true;
+        }
+
+        int merged = mergeTopics(period, fresh);
+        boolean result = merged != 0;
+
+        return result;
+    }
 
-        handler.setPeriod(period);
+    /**
+     * PeriodのHTMLを、同じ日を表す新しいPeriodにパースする。
+     *
+     * <p>パースエラーはログに記録され、
+     * それまでに得られたTopicのみが新しいPeriodに入る。
+     *
+     * <p>新しいPeriodに入る会話の発言元は引数のPeriodとなる。
+     *
+     * @param period 日
+     * @param content HTML文字列
+     * @return 新しいPeriod
+     */
+    private static Period parseFresh(Period period, DecodedContent content){
+        Village village = period.getVillage();
+        Period fresh = new Period(village, period.getType(), period.getDay());
         try{
-            parser.parseAutomatic(content);
+            parseContent(fresh, period, content);
         }catch(HtmlParseException e){
             LOGGER.log(Level.WARNING, "発言抽出に失敗", e);
         }
+        return fresh;
+    }
+
+    /**
+     * 読み込み済みのPeriodに、新たにパースしたPeriodの内容を反映する。
+     *
+     * <p>既存のTopicが新しいTopic列の先頭部分と一致するなら、
+     * 既存のTopicインスタンスはそのまま残し、
+     * それ以降の新しいTopicだけを末尾に追加する。
+     * 一致の判定は既存の最後の発言のメッセージIDと位置で行う。
+     *
+     * <p>一致しなければ全Topicを入れ替える。
+     *
+     * <p>追加も入れ替えも一括して不可分に行われる。
+     * 追加の場合、既存の発言は索引に登録し直されない。
+     * 追加するTopicが無ければTopicのリストは変更されない。
+     *
+     * @param period 読み込み済みのPeriod
+     * @param fresh 新たにパースしたPeriod
+     * @return 追加されたTopic数。全Topicを入れ替えた場合は負の値。
+     */
+    static int mergeTopics(Period period, Period fresh){
+        period.setLimit(fresh.getLimitHour(), fresh.getLimitMinute());
+
+        List<Topic> oldList = period.getTopicList();
+        List<Topic> newList = fresh.getTopicList();
+
+        int common = countCommonTopics(oldList, newList);
+        if(common < 0){
+            period.setTopicList(newList);
+            return -1;
+        }
+
+        List<Topic> appended = newList.subList(common, newList.size());
+        if(appended.isEmpty()) return 0;
+
+        period.appendTopicList(appended);
+
+        return appended.size();
+    }
 
-        parser.reset();
-        handler.reset();
+    /**
+     * 既存のTopic列が新しいTopic列の先頭部分と一致するか調べる。
+     *
+     * <p>既存の最後の発言と同じメッセージIDを持つ発言が
+     * 新しいTopic列の同じ位置にあり、
+     * その後に続く既存のシステムイベントの数だけ
+     * 新しいTopic列にもシステムイベントが続いていれば一致とみなす。
+     *
+     * @param oldList 既存のTopic列
+     * @param newList 新しいTopic列
+     * @return 一致するなら既存のTopic数。一致しなければ負の値。
+     */
+    static int countCommonTopics(List<Topic> oldList,
+                                 List<Topic> newList ){
+        int oldSize = oldList.size();
+        if(newList.size() < oldSize) return -1;
 
+        int lastTalkIdx = -1;
+        Talk lastTalk = null;
+        ListIterator<Topic> it = oldList.listIterator(oldSize);
+        while(it.hasPrevious()){
+            Topic topic = it.previous();
+            if(topic instanceof Talk){
+                lastTalkIdx = it.nextIndex();
+                lastTalk = (Talk) topic;
+                break;
+            }
+        }
+        if(lastTalk == null) return -1;
+
+        Topic peer = newList.get(lastTalkIdx);
+        if( ! (peer instanceof Talk) ) return -1;
+        String oldId = lastTalk.getMessageID();
+        String newId = ((Talk) peer).getMessageID();
+        if(oldId == null || ! oldId.equals(newId)) return -1;
+
+        for(Topic topic : newList.subList(lastTalkIdx + 1, oldSize)){
+            if( ! (topic instanceof SysEvent) ) return -1;
+        }
+
+        return oldSize;
+    }
+
+    /**
+     * PeriodのHTMLをパースしてTopicのリストを更新する。
+     *
+     * <p>パーサとハンドラは呼び出したスレッド専用のものが使い回される。
+     *
+     * @param period 会話やイベントを格納する日
+     * @param homePeriod 会話の発言元とする日
+     * @param content HTML文字列
+     * @throws HtmlParseException パースエラー
+     */
+    private static void parseContent(Period period,
+                                     Period homePeriod,
+                                     DecodedContent content )
+            throws HtmlParseException{
+        PeriodParser periodParser = PARSER.get();
+        periodParser.parse(period, homePeriod, content);
         return;
     }
 
+
+    /**
+     * スレッド専用のパーサとハンドラの組。
+     */
+    private static final class PeriodParser{
+
+        private final HtmlParser parser = new HtmlParser();
+        private final PeriodHandler handler = new PeriodHandler();
+
+        /**
+         * コンストラクタ。
+         */
+        PeriodParser(){
+            super();
+            this.parser.setBasicHandler   (this.handler);
+            this.parser.setSysEventHandler(this.handler);
+            this.parser.setTalkHandler    (this.handler);
+            return;
+        }
+
+        /**
+         * PeriodのHTMLをパースしてTopicのリストを更新する。
+         *
+         * @param period 会話やイベントを格納する日
+         * @param homePeriod 会話の発言元とする日
+         * @param content HTML文字列
+         * @throws HtmlParseException パースエラー
+         */
+        void parse(Period period, Period homePeriod, DecodedContent content)
+                throws HtmlParseException{
+            this.handler.setPeriod(period, homePeriod);
+            try{
+                this.parser.parseAutomatic(content);
+            }finally{
+                this.parser.reset();
+                this.handler.setPeriod(null);
+            }
+            return;
+        }
+
+    }
+
+    /**
+     * 受信途中のHTMLをパースして暫定のPeriodを通知する。
+     *
+     * <p>受信途中のHTMLは末尾が途切れているため、
+     * パースは途中で失敗するのが普通。
+     * 失敗した位置までに得られたTopicのうち、
+     * 途切れている可能性のある最後の1件を除いたものが暫定Periodに入る。
+     *
+     * <p>前回の通知よりTopicが増えていなければ通知しない。
+     */
+    private static final class PreviewParser
+            implements Consumer<DecodedContent>{
+
+        private final Period period;
+        private final Consumer<Period> listener;
+        private int lastTopics = 0;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param period 本来のPeriod
+         * @param listener 暫定Periodの通知先
+         */
+        PreviewParser(Period period, Consumer<Period> listener){
+            super();
+            this.period = period;
+            this.listener = listener;
+            return;
+        }
+
+        /**
+         * 本来のPeriodと同じ日を表す空のPeriodを生成する。
+         *
+         * @return 空のPeriod
+         */
+        private Period newPeriod(){
+            Period result = new Period(this.period.getVillage(),
+                                       this.period.getType(),
+                                       this.period.getDay() );
+            return result;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @param content 受信途中のHTML文字列
+         */
+        @Override
+        public void accept(DecodedContent content){
+            Period scratch = newPeriod();
+            try{
+                parseContent(scratch, this.period, content);
+            }catch(HtmlParseException e){
+                // 途切れたHTMLでは当然起こりうる
+                assert true;
+            }
+
+            List<Topic> topicList = scratch.getTopicList();
+            int topics = topicList.size() - 1;
+            if(topics <= this.lastTopics) return;
+            this.lastTopics = topics;
+
+            Period result = newPeriod();
+            result.setLimit(scratch.getLimitHour(), scratch.getLimitMinute());
+            for(Topic topic : topicList.subList(0, topics)){
+                result.addTopic(topic);
+            }
+
+            this.listener.accept(result);
+
+            return;
+        }
+
+    }
+
 }
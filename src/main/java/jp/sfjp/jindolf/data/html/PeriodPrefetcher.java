@@ -0,0 +1,110 @@
+/*
+ * parallel period prefetcher
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.data.html;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import jp.sfjp.jindolf.data.Period;
+import jp.sfjp.jindolf.util.DaemonThreadFactory;
+
+/**
+ * 複数のPeriodを並行してダウンロード及びパースする。
+ *
+ * <p>サーバへの同時接続数とリクエスト間隔は
+ * 国ごとの{@link jp.sfjp.jindolf.net.RequestScheduler}によって制限されるため、
+ * ここでは国を気にせずPeriodごとにタスクを投入する。
+ *
+ * <p>各Periodの読み込み完了は日付順ではなく完了した順に通知される。
+ */
+public final class PeriodPrefetcher {
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newCachedThreadPool(
+                    new DaemonThreadFactory("PeriodPrefetcher"));
+
+
+    /**
+     * hidden constructor.
+     */
+    private PeriodPrefetcher(){
+        assert false;
+    }
+
+
+    /**
+     * 複数のPeriodを並行して読み込む。
+     *
+     * <p>全てのPeriodの読み込みが終わるまで戻らない。
+     *
+     * <p>リスナは読み込みを担当したスレッドから呼ばれる。
+     *
+     * <p>いずれかのPeriodで入出力エラーが起きた場合、
+     * 未着手のPeriodの読み込みはキャンセルされ、
+     * 最初に起きたエラーが投げられる。
+     *
+     * @param periods Period群
+     * @param force trueなら強制再読み込み。
+     *     falseならまだ読み込んで無い時のみ読み込み。
+     * @param listener Periodごとの読み込み完了通知先。nullなら通知しない。
+     * @throws IOException ネットワーク入力エラー
+     */
+    public static void loadPeriods(Collection<Period> periods,
+                                   boolean force,
+                                   Consumer<Period> listener )
+            throws IOException{
+        CompletionService<Period> service =
+                new ExecutorCompletionService<>(EXECUTOR);
+        List<Future<Period>> futureList = new ArrayList<>(periods.size());
+
+        for(Period period : periods){
+            Future<Period> future = service.submit(() -> {
+                PeriodLoader.parsePeriod(period, force);
+                if(listener != null) listener.accept(period);
+                return period;
+            });
+            futureList.add(future);
+        }
+
+        try{
+            for(int ct = 0; ct < futureList.size(); ct++){
+                Future<Period> done = service.take();
+                done.get();
+            }
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            InterruptedIOException ioe = new InterruptedIOException();
+            ioe.initCause(e);
+            throw ioe;
+        }catch(ExecutionException e){
+            Throwable cause = e.getCause();
+            if(cause instanceof IOException) throw (IOException) cause;
+            if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            if(cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }finally{
+            for(Future<Period> future : futureList){
+                future.cancel(false);
+            }
+        }
+
+        return;
+    }
+
+}
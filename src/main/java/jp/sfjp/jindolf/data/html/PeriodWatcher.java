@@ -0,0 +1,279 @@
+/*
+ * progress period watcher
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.data.html;
+
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jp.sfjp.jindolf.data.Period;
+import jp.sfjp.jindolf.data.Topic;
+import jp.sfjp.jindolf.data.Village;
+import jp.sfjp.jindolf.util.DaemonThreadFactory;
+import jp.sourceforge.jindolf.corelib.VillageState;
+
+/**
+ * 進行中の村の進行日を定期的に再読み込みする。
+ *
+ * <p>監視対象は同時に1つのPeriodのみ。
+ * 監視対象になりうるのは、進行中の村の進行日のみ。
+ *
+ * <p>再読み込みの間隔は状況に応じて変化する。
+ * 新しい会話が見つかれば間隔は縮み、見つからなければ伸びる。
+ * また村の更新時刻が近づくにつれ間隔の上限が縮む。
+ *
+ * <p>再読み込みは{@link PeriodLoader}の差分更新を用いるため、
+ * 既存の会話は保たれ、新しい会話のみが末尾に追加される。
+ * 通信自体もキャッシュの条件付き要求となる。
+ */
+public final class PeriodWatcher {
+
+    /** 再読み込み間隔の下限(ms)。 */
+    public static final long MIN_INTERVAL_MS = 30L * 1000L;
+    /** 再読み込み間隔の上限(ms)。 */
+    public static final long MAX_INTERVAL_MS = 10L * 60L * 1000L;
+
+    private static final long ONE_DAY_MS = 24L * 60L * 60L * 1000L;
+    private static final long NEAR_LIMIT_MS = 5L * 60L * 1000L;
+    private static final int LIMIT_DIV = 4;
+
+    private static final Logger LOGGER = Logger.getAnonymousLogger();
+
+
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(
+                    new DaemonThreadFactory("PeriodWatcher"));
+
+    private final Consumer<Period> listener;
+
+    private Period period = null;
+    private ScheduledFuture<?> future = null;
+    private long interval = MIN_INTERVAL_MS;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>リスナは新しい会話が追加されたときに
+     * 監視用のスレッドから呼ばれる。
+     *
+     * @param listener 更新通知先
+     * @throws NullPointerException 引数がnull
+     */
+    public PeriodWatcher(Consumer<Period> listener)
+            throws NullPointerException{
+        super();
+        if(listener == null) throw new NullPointerException();
+        this.listener = listener;
+        return;
+    }
+
+
+    /**
+     * Periodが監視対象になりうるか判定する。
+     *
+     * @param period Period
+     * @return 進行中の村の進行日ならtrue
+     */
+    public static boolean isWatchable(Period period){
+        if(period == null) return false;
+        if( ! period.isProgress() ) return false;
+
+        Village village = period.getVillage();
+        if(village.isLocalArchive()) return false;
+        if(village.getState() != VillageState.PROGRESS) return false;
+
+        return true;
+    }
+
+    /**
+     * 村の次回更新時刻までの時間を求める。
+     *
+     * <p>更新時刻は国のタイムゾーンにおける時分として解釈され、
+     * 既に過ぎていれば翌日の同時刻とみなされる。
+     *
+     * @param village 村
+     * @param nowMs 現在時刻(エポックms)
+     * @return 次回更新時刻までの時間(ms)
+     */
+    static long millisToLimit(Village village, long nowMs){
+        TimeZone timeZone =
+                village.getParentLand().getLandDef().getTimeZone();
+
+        Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.setTimeInMillis(nowMs);
+        calendar.set(Calendar.HOUR_OF_DAY, village.getLimitHour());
+        calendar.set(Calendar.MINUTE, village.getLimitMinute());
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+
+        long result = calendar.getTimeInMillis() - nowMs;
+        if(result < 0L) result += ONE_DAY_MS;
+
+        return result;
+    }
+
+    /**
+     * 次の再読み込み間隔を求める。
+     *
+     * <p>新しい会話があれば半分、なければ1.5倍、
+     * 通信に失敗すれば2倍になる。
+     * 上限は更新時刻までの時間の1/4に抑えられ、
+     * 更新時刻間際では下限に張り付く。
+     *
+     * @param interval 現在の間隔(ms)
+     * @param active 新しい会話があったならtrue
+     * @param failed 通信に失敗したならtrue
+     * @param toLimit 更新時刻までの時間(ms)
+     * @return 次の間隔(ms)
+     */
+    static long nextInterval(long interval,
+                             boolean active,
+                             boolean failed,
+                             long toLimit ){
+        long result;
+        if(failed)      result = interval * 2L;
+        else if(active) result = interval / 2L;
+        else            result = interval * 3L / 2L;
+
+        long ceil;
+        if(toLimit <= NEAR_LIMIT_MS) ceil = MIN_INTERVAL_MS;
+        else                         ceil = toLimit / LIMIT_DIV;
+        ceil = Math.min(ceil, MAX_INTERVAL_MS);
+        if(failed) ceil = MAX_INTERVAL_MS;
+
+        result = Math.min(result, ceil);
+        result = Math.max(result, MIN_INTERVAL_MS);
+
+        return result;
+    }
+
+    /**
+     * Periodの最後のTopicを返す。
+     *
+     * @param period Period
+     * @return 最後のTopic。Topicが無ければnull。
+     */
+    private static Topic getLastTopic(Period period){
+        List<Topic> topicList = period.getTopicList();
+        if(topicList.isEmpty()) return null;
+        return topicList.get(topicList.size() - 1);
+    }
+
+    /**
+     * 現在の監視対象を返す。
+     *
+     * @return 監視中のPeriod。監視していなければnull。
+     */
+    public synchronized Period getPeriod(){
+        return this.period;
+    }
+
+    /**
+     * Periodの監視を開始する。
+     *
+     * <p>既に同じPeriodを監視中なら何もしない。
+     * 別のPeriodを監視中ならそちらの監視は止まる。
+     * 監視対象になりえないPeriodなら監視を止めるのみ。
+     *
+     * @param newPeriod Period
+     */
+    public synchronized void watch(Period newPeriod){
+        if(newPeriod == this.period) return;
+
+        stop();
+        if( ! isWatchable(newPeriod) ) return;
+
+        this.period = newPeriod;
+        this.interval = MIN_INTERVAL_MS;
+        schedule(newPeriod);
+
+        return;
+    }
+
+    /**
+     * 監視を止める。
+     *
+     * <p>実行中の再読み込みは中断されないが、その結果は通知されない。
+     */
+    public synchronized void stop(){
+        if(this.future != null){
+            this.future.cancel(false);
+            this.future = null;
+        }
+        this.period = null;
+        return;
+    }
+
+    /**
+     * 次の再読み込みを予約する。
+     *
+     * @param target 監視対象
+     */
+    private synchronized void schedule(Period target){
+        this.future = this.executor.schedule(
+                () -> poll(target),
+                this.interval,
+                TimeUnit.MILLISECONDS
+        );
+        return;
+    }
+
+    /**
+     * Periodを再読み込みする。
+     *
+     * <p>読み込みが実行時例外で失敗した場合も通信の失敗として扱い、
+     * 次の再読み込みを予約する。
+     *
+     * @param target 監視対象
+     */
+    private void poll(Period target){
+        synchronized(this){
+            if(target != this.period) return;
+        }
+
+        int before = target.getTopics();
+        Topic lastBefore = getLastTopic(target);
+        boolean failed = false;
+        try{
+            PeriodLoader.parsePeriod(target, true);
+        }catch(IOException | RuntimeException e){
+            LOGGER.log(Level.WARNING, "進行中の日の自動更新に失敗", e);
+            failed = true;
+        }
+        boolean active =    target.getTopics() != before
+                         || getLastTopic(target) != lastBefore;
+
+        synchronized(this){
+            if(target != this.period) return;
+
+            if( ! isWatchable(target) ){
+                stop();
+                return;
+            }
+
+            Village village = target.getVillage();
+            long toLimit = millisToLimit(village, System.currentTimeMillis());
+            this.interval =
+                    nextInterval(this.interval, active, failed, toLimit);
+            schedule(target);
+        }
+
+        if(active) this.listener.accept(target);
+
+        return;
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * talk number anchor resolver
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.data.html;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+import jp.sfjp.jindolf.data.Period;
+import jp.sfjp.jindolf.data.Talk;
+import jp.sfjp.jindolf.data.Village;
+
+/**
+ * G国の公開発言番号アンカーの指す発言を含むPeriodを探して読み込む。
+ *
+ * <p>公開発言番号は村全体を通じて日付順に振られるので、
+ * 読み込み済みPeriodの発言番号の範囲から
+ * 未読み込みPeriodの発言番号の範囲を推定できる。
+ *
+ * <p>推定した日に近い順に1日分ずつ読み込み、
+ * 目的の発言が見つかった時点で読み込みをやめる。
+ * 読み込むたびに判明した範囲を使って推定をやり直す。
+ */
+public final class TalkNoResolver {
+
+    /** 手がかりが全く無い時に仮定する1日あたりの公開発言数。 */
+    static final int DEFAULT_TALKS_PER_PERIOD = 100;
+
+
+    /**
+     * hidden constructor.
+     */
+    private TalkNoResolver(){
+        assert false;
+    }
+
+
+    /**
+     * 公開発言番号に対応する発言を探す。
+     *
+     * <p>必要に応じてPeriodを1日分ずつ読み込む。
+     * 見つかるか、もう候補が無くなるまで戻らない。
+     *
+     * <p>リスナは新たにPeriodを読み込むたびに
+     * 呼び出したスレッドから呼ばれる。
+     *
+     * @param village 村
+     * @param talkNo 公開発言番号
+     * @param listener Periodごとの読み込み完了通知先。nullなら通知しない。
+     * @return 発言。見つからなければnull
+     * @throws IOException ネットワーク入力エラー
+     */
+    public static Talk resolve(Village village,
+                               int talkNo,
+                               Consumer<Period> listener )
+            throws IOException{
+        if(talkNo <= 0) return null;
+
+        List<Period> periodList = village.getPeriodList();
+        int size = periodList.size();
+
+        int[] firstNos = new int[size];
+        int[] lastNos  = new int[size];
+        boolean[] known = new boolean[size];
+
+        for(;;){
+            for(int idx = 0; idx < size; idx++){
+                Period period = periodList.get(idx);
+                if( ! known[idx] && ! period.hasLoaded() ) continue;
+
+                Talk talk = period.getNumberedTalk(talkNo);
+                if(talk != null) return talk;
+
+                firstNos[idx] = period.getFirstTalkNo();
+                lastNos[idx]  = period.getLastTalkNo();
+                known[idx] = true;
+            }
+
+            int next = choosePeriod(firstNos, lastNos, known, talkNo);
+            if(next < 0) break;
+
+            Period period = periodList.get(next);
+            PeriodLoader.parsePeriod(period, false);
+            known[next] = true;
+            if(listener != null) listener.accept(period);
+        }
+
+        return null;
+    }
+
+    /**
+     * 次に読み込むべきPeriodを選ぶ。
+     *
+     * <p>判明済みPeriodの発言番号の範囲から、
+     * 目的の発言を含みうる未判明Periodの区間を絞り込み、
+     * 区間内で発言番号から推定される日に最も近いPeriodを選ぶ。
+     * 距離が同じなら前の日が選ばれる。
+     *
+     * <p>推定にあたっての1日あたりの発言数は、
+     * 区間の両端の発言番号が判明していればその間を按分して求め、
+     * そうでなければ判明済みPeriodの平均を用いる。
+     *
+     * @param firstNos 各Periodの公開発言番号の最小値。無ければ0
+     * @param lastNos 各Periodの公開発言番号の最大値。無ければ0
+     * @param known 各Periodの発言番号の範囲が判明済みならtrue
+     * @param talkNo 公開発言番号
+     * @return 次に読み込むべきPeriodのインデックス。候補が無ければ負
+     */
+    static int choosePeriod(int[] firstNos,
+                            int[] lastNos,
+                            boolean[] known,
+                            int talkNo ){
+        int size = known.length;
+
+        int lowerIdx = -1;
+        int lowerNo = 0;
+        int upperIdx = size;
+        int upperNo = 0;
+
+        long spanSum = 0L;
+        int spanCount = 0;
+
+        for(int idx = 0; idx < size; idx++){
+            if( ! known[idx] ) continue;
+            int first = firstNos[idx];
+            int last  = lastNos[idx];
+            if(first <= 0) continue;
+
+            spanSum += last - first + 1;
+            spanCount++;
+
+            if(last < talkNo){
+                if(idx > lowerIdx){
+                    lowerIdx = idx;
+                    lowerNo = last;
+                }
+            }else if(talkNo < first){
+                if(idx < upperIdx){
+                    upperIdx = idx;
+                    upperNo = first;
+                }
+            }else{
+                // 範囲内にあるのに見つからない発言番号は欠番
+                return -1;
+            }
+        }
+
+        double rate;
+        if(upperIdx < size){
+            rate = (double)(upperNo - lowerNo) / (upperIdx - lowerIdx);
+        }else if(spanCount > 0){
+            rate = (double) spanSum / spanCount;
+        }else{
+            rate = DEFAULT_TALKS_PER_PERIOD;
+        }
+        if(rate < 1.0) rate = 1.0;
+
+        double estimate =
+                lowerIdx + 1 + Math.floor((talkNo - lowerNo - 1) / rate);
+
+        int result = -1;
+        double bestDist = Double.MAX_VALUE;
+        for(int idx = lowerIdx + 1; idx < upperIdx; idx++){
+            if(known[idx]) continue;
+            double dist = Math.abs(idx - estimate);
+            if(dist < bestDist){
+                bestDist = dist;
+                result = idx;
+            }
+        }
+
+        return result;
+    }
+
+}
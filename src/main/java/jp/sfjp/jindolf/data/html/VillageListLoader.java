@@ -13,6 +13,8 @@
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jp.osdn.jindolf.parser.HtmlParseException;
@@ -25,9 +27,18 @@
 import jp.sourceforge.jindolf.corelib.LandDef;
 import jp.sourceforge.jindolf.corelib.LandState;
 import jp.sourceforge.jindolf.corelib.VillageState;
+import jp.sourceforge.jovsonz.JsArray;
+import jp.sourceforge.jovsonz.JsObject;
+import jp.sourceforge.jovsonz.JsPair;
+import jp.sourceforge.jovsonz.JsString;
+import jp.sourceforge.jovsonz.JsTypes;
+import jp.sourceforge.jovsonz.JsValue;
 
 /**
  * 人狼各国のHTTPサーバから村一覧リストを取得する。
+ *
+ * <p>取得した村一覧をJSON形式のスナップショットとして
+ * 保存および復元する機能も持つ。
  */
 public final class VillageListLoader {
 
@@ -39,6 +50,15 @@ public final class VillageListLoader {
     private static final List<VillageRecord> EMPTY_LIST =
             Collections.emptyList();
 
+    private static final String HASH_LANDID   = "landId";
+    private static final String HASH_VILLAGES = "villages";
+    private static final String HASH_ID       = "id";
+    private static final String HASH_NAME     = "name";
+    private static final String HASH_STATE    = "state";
+
+    private static final String MSG_NOHTML =
+            "サーバ障害のため村一覧を取得できませんでした";
+
 
     /**
      * Hidden constructor.
@@ -52,6 +72,7 @@ private VillageListLoader() {
      * 村一覧リストをサーバからダウンロードする。
      *
      * <p>リスト元情報は国のトップページと村一覧ページ。
+     * 両ページは並行してダウンロードされる。
      *
      * <p>古国(wolf)の場合は村一覧にアクセスせずトップページのみ。
      * 古国以外で村建てをやめた国はトップページにアクセスしない。
@@ -64,8 +85,82 @@ private VillageListLoader() {
      */
     public static List<Village> loadVillageList(Land land)
             throws IOException{
-        SortedSet<VillageRecord> records = loadVillageRecords(land);
+        List<Village> result;
+        try{
+            result = loadVillageListAsync(land).join();
+        }catch(CompletionException e){
+            Throwable cause = e.getCause();
+            if(cause instanceof IOException) throw (IOException) cause;
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * 村一覧リストをサーバから非同期にダウンロードする。
+     *
+     * <p>呼び出したスレッドは通信の完了を待たない。
+     * トップページと村一覧ページは並行してダウンロードされ、
+     * 両方が揃った時点で村一覧リストが組み立てられる。
+     *
+     * @param land 国
+     * @return 村一覧の不変リスト。
+     *     入出力エラーは例外完了として通知される。
+     * @see #loadVillageList(Land)
+     */
+    public static CompletableFuture<List<Village>> loadVillageListAsync(
+            Land land){
+        LandDef landDef = land.getLandDef();
+        boolean isVanillaWolf = landDef.getLandId().equals(ID_VANILLAWOLF);
+        LandState state = landDef.getLandState();
+
+        boolean needTopPage =
+                state.equals(LandState.ACTIVE) || isVanillaWolf;
+        boolean hasVillageList = ! isVanillaWolf;
+
+        ServerAccess server = land.getServerAccess();
 
+        // トップページ
+        CompletableFuture<List<VillageRecord>> topFuture;
+        if(needTopPage){
+            topFuture = server.getHTMLTopPageAsync().thenApply(html ->
+                parseVillageRecords(html, "トップページを認識できない")
+            );
+        }else{
+            topFuture = CompletableFuture.completedFuture(EMPTY_LIST);
+        }
+
+        // 村一覧ページ
+        CompletableFuture<List<VillageRecord>> listFuture;
+        if(hasVillageList){
+            listFuture = server.getHTMLLandListAsync().thenApply(html ->
+                parseVillageRecords(html, "村一覧ページを認識できない")
+            );
+        }else{
+            listFuture = CompletableFuture.completedFuture(EMPTY_LIST);
+        }
+
+        CompletableFuture<List<Village>> result =
+                topFuture.thenCombine(listFuture, (topList, logList) -> {
+                    // 昇順ソートと重複排除処理。 重複例) B国116村
+                    SortedSet<VillageRecord> records = new TreeSet<>();
+                    records.addAll(topList);
+                    records.addAll(logList);
+                    return toVillageList(land, records);
+                });
+
+        return result;
+    }
+
+    /**
+     * 村一覧セットから村一覧リストを生成する。
+     *
+     * @param land 国
+     * @param records 順序づけられた村一覧セット
+     * @return 村一覧の不変リスト
+     */
+    private static List<Village> toVillageList(
+            Land land, SortedSet<VillageRecord> records){
         LandDef landDef = land.getLandDef();
         LandState landState = landDef.getLandState();
         boolean isHistorical = landState == LandState.HISTORICAL;
@@ -95,58 +190,116 @@ public static List<Village> loadVillageList(Land land)
     }
 
     /**
-     * 村一覧リストを各国サーバからダウンロードする。
+     * HTMLをパースし村一覧リストを返す。
      *
-     * <p>リスト元情報は国のトップページと村一覧ページ。
+     * <p>パースに失敗した場合は警告をログに残し空リストを返す。
      *
-     * <p>古国(wolf)の場合は村一覧にアクセスせずトップページのみ。
-     * 古国以外で村建てをやめた国はトップページにアクセスしない。
+     * @param html HTML文書。サーバ障害で取得できなかった場合はnull
+     * @param warnMsg パース失敗時の警告文
+     * @return 村一覧リスト
+     * @throws CompletionException HTML文書が取得できなかった。
+     *     原因は入出力エラー。
+     */
+    private static List<VillageRecord> parseVillageRecords(HtmlSequence html,
+                                                           String warnMsg )
+            throws CompletionException{
+        if(html == null){
+            throw new CompletionException(new IOException(MSG_NOHTML));
+        }
+
+        List<VillageRecord> result = EMPTY_LIST;
+        try{
+            result = parseVillageRecords(html);
+        }catch(HtmlParseException e){
+            LOGGER.log(Level.WARNING, warnMsg, e);
+        }
+
+        return result;
+    }
+
+    /**
+     * 国の現在の村一覧をJSON形式のスナップショットに変換する。
      *
-     * <p>戻される村一覧セットは順序づけられており重複はない。
+     * @param land 国
+     * @return JSON object
+     */
+    public static JsObject buildJson(Land land){
+        JsArray array = new JsArray();
+        for(Village village : land.getVillageList()){
+            JsObject obj = new JsObject();
+            obj.putPair(new JsPair(HASH_ID, village.getVillageID()));
+            obj.putPair(new JsPair(HASH_NAME, village.getVillageFullName()));
+            obj.putPair(new JsPair(HASH_STATE, village.getState().name()));
+            array.add(obj);
+        }
+
+        JsObject result = new JsObject();
+        String landId = land.getLandDef().getLandId();
+        result.putPair(new JsPair(HASH_LANDID, landId));
+        result.putValue(HASH_VILLAGES, array);
+
+        return result;
+    }
+
+    /**
+     * JSON形式のスナップショットから村一覧リストを復元する。
+     *
+     * <p>スナップショットの村一覧はソート済みで重複がないものとして扱う。
      *
      * @param land 国
-     * @return 村一覧セット
-     * @throws java.io.IOException ネットワーク入出力の異常
+     * @param root JSON object
+     * @return 村一覧の不変リスト。
+     *     別の国のスナップショットもしくは内容に不備があればnull
      */
-    private static SortedSet<VillageRecord> loadVillageRecords(Land land)
-            throws IOException{
-        LandDef landDef = land.getLandDef();
-        boolean isVanillaWolf = landDef.getLandId().equals(ID_VANILLAWOLF);
-        LandState state = landDef.getLandState();
+    public static List<Village> decodeJson(Land land, JsObject root){
+        String landId = land.getLandDef().getLandId();
+        JsValue value = root.getValue(HASH_LANDID);
+        if( ! (value instanceof JsString) ) return null;
+        if( ! landId.equals(((JsString) value).toRawString()) ) return null;
 
-        boolean needTopPage =
-                state.equals(LandState.ACTIVE) || isVanillaWolf;
-        boolean hasVillageList = ! isVanillaWolf;
+        value = root.getValue(HASH_VILLAGES);
+        if( ! (value instanceof JsArray) ) return null;
+        JsArray array = (JsArray) value;
 
-        ServerAccess server = land.getServerAccess();
+        List<Village> result = new ArrayList<>(array.size());
 
-        // 昇順ソートと重複排除処理。 重複例) B国116村
-        SortedSet<VillageRecord> result = new TreeSet<>();
+        for(JsValue elem : array){
+            if(elem.getJsTypes() != JsTypes.OBJECT) return null;
+            JsObject obj = (JsObject) elem;
 
-        // トップページ
-        if(needTopPage){
-            List<VillageRecord> recList = EMPTY_LIST;
-            HtmlSequence html = server.getHTMLTopPage();
-            try{
-                recList = parseVillageRecords(html);
-            }catch(HtmlParseException e){
-                LOGGER.log(Level.WARNING, "トップページを認識できない", e);
+            value = obj.getValue(HASH_ID);
+            if( ! (value instanceof JsString) ) return null;
+            String id = ((JsString) value).toRawString();
+
+            value = obj.getValue(HASH_NAME);
+            if( ! (value instanceof JsString) ) return null;
+            String name = ((JsString) value).toRawString();
+
+            VillageState state = VillageState.UNKNOWN;
+            value = obj.getValue(HASH_STATE);
+            if(value instanceof JsString){
+                JsString string = (JsString) value;
+                try{
+                    state = Enum.valueOf(VillageState.class,
+                                         string.toRawString() );
+                }catch(IllegalArgumentException e){
+                    // NOTHING
+                }
             }
-            result.addAll(recList);
-        }
 
-        // 村一覧ページ
-        if(hasVillageList){
-            List<VillageRecord> recList = EMPTY_LIST;
-            HtmlSequence html = server.getHTMLLandList();
+            Village village;
             try{
-                recList = parseVillageRecords(html);
-            }catch(HtmlParseException e){
-                LOGGER.log(Level.WARNING, "村一覧ページを認識できない", e);
+                village = new Village(land, id, name);
+            }catch(NumberFormatException e){
+                return null;
             }
-            result.addAll(recList);
+            village.setState(state);
+
+            result.add(village);
         }
 
+        result = Collections.unmodifiableList(result);
+
         return result;
     }
 
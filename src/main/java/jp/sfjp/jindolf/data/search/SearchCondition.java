@@ -0,0 +1,130 @@
+/*
+ * search condition
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.data.search;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import jp.sfjp.jindolf.data.DialogQuery;
+import jp.sfjp.jindolf.data.RegexPattern;
+import jp.sourceforge.jindolf.corelib.TalkType;
+
+/**
+ * 検索索引に対する検索条件。
+ *
+ * <p>発言本文の検索パターンに加え、
+ * 発言者名と発言種別で発言を絞り込める。
+ */
+public final class SearchCondition{
+
+    private final DialogQuery query;
+    private final String avatarName;
+    private final Set<TalkType> typeSet;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param regexPattern 発言本文の検索パターン
+     * @param avatarName 発言者のフルネームに含まれるべき文字列。
+     *     nullもしくは空文字列なら発言者で絞り込まない。
+     * @param talkTypes 対象とする発言種別
+     * @throws NullPointerException 検索パターンがnull
+     */
+    public SearchCondition(RegexPattern regexPattern,
+                           String avatarName,
+                           Collection<TalkType> talkTypes )
+            throws NullPointerException{
+        super();
+
+        this.query = new DialogQuery(regexPattern);
+
+        if(avatarName == null || avatarName.isEmpty()){
+            this.avatarName = null;
+        }else{
+            this.avatarName = avatarName;
+        }
+
+        if(talkTypes.isEmpty()){
+            this.typeSet = EnumSet.noneOf(TalkType.class);
+        }else{
+            this.typeSet = EnumSet.copyOf(talkTypes);
+        }
+
+        return;
+    }
+
+
+    /**
+     * 発言本文の検索を返す。
+     *
+     * @return 発言本文の検索
+     */
+    public DialogQuery getQuery(){
+        return this.query;
+    }
+
+    /**
+     * 日の見出しから、マッチする発言を含みうるか判定する。
+     *
+     * @param shard 日の見出し
+     * @return 含みうるならtrue
+     */
+    boolean mayMatch(SearchShard shard){
+        if(this.avatarName != null){
+            boolean found = false;
+            for(String name : shard.getAvatarSet()){
+                if(name.contains(this.avatarName)){
+                    found = true;
+                    break;
+                }
+            }
+            if( ! found ) return false;
+        }
+
+        Collection<String> literals = this.query.getLiteralList();
+        if(literals == null) return true;
+
+        TextSignature signature = shard.getSignature();
+        for(String literal : literals){
+            if(signature.mayContain(literal)) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * 発言の属性が条件を満たすか判定する。
+     *
+     * <p>発言本文は判定しない。
+     *
+     * @param record 発言の記録
+     * @return 満たすならtrue
+     */
+    boolean acceptRecord(SearchRecord record){
+        if( ! this.typeSet.contains(record.getTalkType()) ) return false;
+        if(this.avatarName != null){
+            if( ! record.getAvatarName().contains(this.avatarName) ){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 発言本文中のマッチ数を数える。
+     *
+     * @param record 発言の記録
+     * @return マッチ数
+     */
+    int countMatches(SearchRecord record){
+        return DialogQuery.countMatches(this.query.getPattern(),
+                                        record.getDialog() );
+    }
+
+}
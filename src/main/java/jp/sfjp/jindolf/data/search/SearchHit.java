@@ -0,0 +1,91 @@
+/*
+ * hit of search
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.data.search;
+
+/**
+ * 検索索引の検索でヒットした1発言。
+ */
+public final class SearchHit{
+
+    private final SearchShard shard;
+    private final SearchRecord record;
+    private final int matches;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param shard 発言を含む日の見出し
+     * @param record 発言の記録
+     * @param matches 発言本文中のマッチ数
+     */
+    SearchHit(SearchShard shard, SearchRecord record, int matches){
+        super();
+        this.shard = shard;
+        this.record = record;
+        this.matches = matches;
+        return;
+    }
+
+
+    /**
+     * 発言を含む日の見出しを返す。
+     *
+     * @return 日の見出し
+     */
+    public SearchShard getShard(){
+        return this.shard;
+    }
+
+    /**
+     * 発言の記録を返す。
+     *
+     * @return 発言の記録
+     */
+    public SearchRecord getRecord(){
+        return this.record;
+    }
+
+    /**
+     * 発言本文中のマッチ数を返す。
+     *
+     * @return マッチ数
+     */
+    public int getMatches(){
+        return this.matches;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>村名、日、発言時刻、発言者を表す。
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public String toString(){
+        StringBuilder result = new StringBuilder();
+
+        result.append(this.shard.getVillageName())
+              .append(' ')
+              .append(this.shard.getCaption())
+              .append(' ');
+
+        int hour = this.record.getHour();
+        int minute = this.record.getMinute();
+        if(hour < 10) result.append('0');
+        result.append(hour).append(':');
+        if(minute < 10) result.append('0');
+        result.append(minute);
+
+        result.append(' ').append(this.record.getAvatarName());
+
+        return result.toString();
+    }
+
+}
@@ -0,0 +1,597 @@
+/*
+ * persistent search index
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.data.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jp.sfjp.jindolf.data.Land;
+import jp.sfjp.jindolf.data.Period;
+import jp.sfjp.jindolf.data.Talk;
+import jp.sfjp.jindolf.data.Topic;
+import jp.sfjp.jindolf.data.Village;
+import jp.sfjp.jindolf.util.DaemonThreadFactory;
+import jp.sfjp.jindolf.util.StringUtils;
+import jp.sourceforge.jindolf.corelib.TalkType;
+
+/**
+ * 設定ディレクトリ上に保持される、全ての村を横断する検索索引。
+ *
+ * <p>読み込まれたPeriodごとに1ファイルが割り当てられる。
+ * ファイルの先頭には日の見出し({@link SearchShard})が、
+ * 続いて全発言の記録({@link SearchRecord})が格納される。
+ *
+ * <p>検索ではまず全ファイルの見出しだけを調べ、
+ * マッチする発言を含みうる日のファイルのみから発言を読む。
+ * 見出しはファイルの更新時刻とともにメモリ上に保持される。
+ * 保持する見出しの数には上限があり、
+ * 超えた場合は最も長く参照されていない見出しから捨てられる。
+ *
+ * <p>Periodの登録は呼び出し側で発言の記録を作った後、
+ * ファイルへの書き込みのみを専用のスレッドで行う。
+ * ファイルの更新は一時ファイルからの置き換えで行われるため、
+ * 書きかけのファイルが読まれることはない。
+ *
+ * <p>格納ディレクトリは最初の書き込み時に生成される。
+ */
+public class SearchIndex{
+
+    /** 1回の検索で返すヒット数の上限。 */
+    public static final int MAX_HITS = 1000;
+
+    private static final int MAGIC = 0x4a534931; // "JSI1"
+    private static final String SUFFIX = ".shard";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final int MAX_DIALOG = 1024 * 1024;
+    private static final int BUFSIZE = 8 * 1024;
+    private static final int MAX_CACHED_SHARDS = 512;
+
+    private static final Logger LOGGER = Logger.getAnonymousLogger();
+
+    private static final Comparator<SearchShard> SHARD_ORDER =
+            Comparator.comparing(SearchShard::getLandId)
+            .thenComparingInt(shard -> shard.getVillageId().length())
+            .thenComparing(SearchShard::getVillageId)
+            .thenComparingInt(SearchShard::getDay);
+
+
+    private final Path indexDir;
+
+    private final ExecutorService writer =
+            Executors.newSingleThreadExecutor(
+                    new DaemonThreadFactory("SearchIndex"));
+
+    private final Map<Path, CachedShard> shardCache =
+            Collections.synchronizedMap(new ShardCacheMap());
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>この時点ではディレクトリの存在は問わない。
+     *
+     * @param indexDir 索引格納ディレクトリの絶対パス
+     * @throws IllegalArgumentException 絶対パスではない
+     */
+    public SearchIndex(Path indexDir) throws IllegalArgumentException{
+        super();
+
+        if( ! indexDir.isAbsolute() ){
+            throw new IllegalArgumentException();
+        }
+        this.indexDir = indexDir;
+
+        return;
+    }
+
+
+    /**
+     * 村と日からファイル名を生成する。
+     *
+     * <p>英数字とハイフン、アンダースコア以外は
+     * %XX形式(UTF-8)にエスケープされる。
+     *
+     * @param landId 国ID
+     * @param villageId 村ID
+     * @param day 日
+     * @return ファイル名
+     * @see StringUtils#escapeFileName(String)
+     */
+    static String toFileName(String landId, String villageId, int day){
+        String key = landId + "_" + villageId + "_" + day;
+        String result = StringUtils.escapeFileName(key) + SUFFIX;
+        return result;
+    }
+
+    /**
+     * 索引格納ディレクトリを返す。
+     *
+     * @return 格納ディレクトリの絶対パス
+     */
+    public Path getIndexDir(){
+        return this.indexDir;
+    }
+
+    /**
+     * 読み込み済みのPeriodを索引に登録する。
+     *
+     * <p>同じ村の同じ日の登録内容は置き換えられる。
+     * 発言の無いPeriodは登録されない。
+     *
+     * @param period Period
+     * @param archive 由来するアーカイブXMLファイル。
+     *     サーバから読み込んだならnull
+     */
+    public void store(Period period, Path archive){
+        Village village = period.getVillage();
+        Land land = village.getParentLand();
+
+        String landId = land.getLandDef().getLandId();
+        String villageId = village.getVillageID();
+        String archivePath = "";
+        if(archive != null) archivePath = archive.toAbsolutePath().toString();
+
+        TextSignature signature = new TextSignature();
+        Set<String> avatarNames = new HashSet<>();
+        List<SearchRecord> recordList = new ArrayList<>();
+        for(Topic topic : period.getTopicList()){
+            if( ! (topic instanceof Talk) ) continue;
+            SearchRecord record = SearchRecord.fromTalk((Talk) topic);
+            signature.add(record.getDialog());
+            avatarNames.add(record.getAvatarName());
+            recordList.add(record);
+        }
+        if(recordList.isEmpty()) return;
+
+        SearchShard shard = new SearchShard(
+                landId, villageId, village.getVillageName(), archivePath,
+                period.getDay(), period.getCaption(),
+                signature, avatarNames );
+
+        Path path = this.indexDir.resolve(
+                toFileName(landId, villageId, period.getDay()) );
+
+        this.writer.execute(() -> {
+            writeShard(path, shard, recordList);
+        });
+
+        return;
+    }
+
+    /**
+     * 村の読み込み済みの全Periodを索引に登録する。
+     *
+     * @param village 村
+     * @param archive 由来するアーカイブXMLファイル。
+     *     サーバから読み込んだならnull
+     */
+    public void storeVillage(Village village, Path archive){
+        for(Period period : village.getPeriodList()){
+            if( ! period.hasLoaded() ) continue;
+            store(period, archive);
+        }
+        return;
+    }
+
+    /**
+     * 未完了の書き込みを待ち、書き込み用スレッドを止める。
+     *
+     * <p>一定時間を過ぎても終わらない書き込みは諦める。
+     */
+    public void close(){
+        this.writer.shutdown();
+        try{
+            this.writer.awaitTermination(5, TimeUnit.SECONDS);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        return;
+    }
+
+    /**
+     * 索引を検索する。
+     *
+     * <p>ヒットは村、日の順に並び、同じ日の中では発言順に並ぶ。
+     * ヒット数が上限に達した時点で検索をやめる。
+     *
+     * @param condition 検索条件
+     * @return ヒットのリスト
+     */
+    public List<SearchHit> search(SearchCondition condition){
+        List<SearchHit> result = new ArrayList<>();
+
+        Map<SearchShard, Path> pathMap = new HashMap<>();
+        for(Path path : listShardFiles()){
+            SearchShard shard = loadShard(path);
+            if(shard == null) continue;
+            if( ! condition.mayMatch(shard) ) continue;
+            pathMap.put(shard, path);
+        }
+
+        List<SearchShard> shardList = new ArrayList<>(pathMap.keySet());
+        shardList.sort(SHARD_ORDER);
+
+        for(SearchShard shard : shardList){
+            List<SearchRecord> recordList = loadRecords(pathMap.get(shard));
+            if(recordList == null) continue;
+
+            for(SearchRecord record : recordList){
+                if( ! condition.acceptRecord(record) ) continue;
+                int matches = condition.countMatches(record);
+                if(matches <= 0) continue;
+                result.add(new SearchHit(shard, record, matches));
+                if(result.size() >= MAX_HITS) return result;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * 索引ファイルの一覧を返す。
+     *
+     * @return 索引ファイルのリスト。ディレクトリが無ければ空
+     */
+    private List<Path> listShardFiles(){
+        List<Path> result = new ArrayList<>();
+        if( ! Files.isDirectory(this.indexDir) ) return result;
+
+        try(DirectoryStream<Path> stream =
+                Files.newDirectoryStream(this.indexDir, "*" + SUFFIX)){
+            for(Path path : stream){
+                result.add(path);
+            }
+        }catch(IOException e){
+            LOGGER.log(Level.WARNING,
+                    "索引ディレクトリ[" + this.indexDir + "]が読めません", e);
+        }
+
+        return result;
+    }
+
+    /**
+     * 索引ファイルの見出しを読み込む。
+     *
+     * <p>更新されていないファイルの見出しは読み直さない。
+     *
+     * @param path 索引ファイル
+     * @return 日の見出し。読めなければnull
+     */
+    private SearchShard loadShard(Path path){
+        long modified;
+        try{
+            modified = Files.getLastModifiedTime(path).toMillis();
+        }catch(IOException e){
+            this.shardCache.remove(path);
+            return null;
+        }
+
+        CachedShard cached = this.shardCache.get(path);
+        if(cached != null && cached.modified == modified){
+            return cached.shard;
+        }
+
+        SearchShard shard;
+        try(DataInputStream dis = openShard(path)){
+            shard = readShard(dis);
+        }catch(NoSuchFileException e){
+            return null;
+        }catch(IOException e){
+            LOGGER.log(Level.WARNING,
+                    "索引ファイル[" + path + "]が読めません", e);
+            return null;
+        }
+        if(shard == null) return null;
+
+        this.shardCache.put(path, new CachedShard(shard, modified));
+
+        return shard;
+    }
+
+    /**
+     * 索引ファイルの全発言の記録を読み込む。
+     *
+     * @param path 索引ファイル
+     * @return 発言の記録のリスト。読めなければnull
+     */
+    private List<SearchRecord> loadRecords(Path path){
+        List<SearchRecord> result;
+        try(DataInputStream dis = openShard(path)){
+            if(readShard(dis) == null) return null;
+            result = readRecords(dis);
+        }catch(NoSuchFileException e){
+            return null;
+        }catch(IOException e){
+            LOGGER.log(Level.WARNING,
+                    "索引ファイル[" + path + "]が読めません", e);
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * 索引ファイルを開く。
+     *
+     * @param path 索引ファイル
+     * @return 入力ストリーム
+     * @throws IOException 入力エラー
+     */
+    private static DataInputStream openShard(Path path) throws IOException{
+        InputStream is = Files.newInputStream(path);
+        InputStream bis = new BufferedInputStream(is, BUFSIZE);
+        DataInputStream result = new DataInputStream(bis);
+        return result;
+    }
+
+    /**
+     * 索引ファイルを書き込む。
+     *
+     * <p>書き込みに失敗しても検索対象から漏れるだけなので、
+     * 例外は投げずにログ出力のみ行う。
+     *
+     * @param path 索引ファイル
+     * @param shard 日の見出し
+     * @param recordList 発言の記録のリスト
+     */
+    private void writeShard(Path path,
+                            SearchShard shard,
+                            List<SearchRecord> recordList ){
+        Path tmpPath = this.indexDir.resolve(path.getFileName() + TMP_SUFFIX);
+
+        try{
+            Files.createDirectories(this.indexDir);
+            try(OutputStream os = Files.newOutputStream(tmpPath)){
+                OutputStream bos = new BufferedOutputStream(os, BUFSIZE);
+                DataOutputStream dos = new DataOutputStream(bos);
+                writeShard(dos, shard);
+                writeRecords(dos, recordList);
+                dos.flush();
+            }
+            Files.move(tmpPath, path,
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE );
+            this.shardCache.remove(path);
+        }catch(IOException e){
+            LOGGER.log(Level.WARNING,
+                    "索引ファイル[" + path + "]が書けません", e);
+            try{
+                Files.deleteIfExists(tmpPath);
+            }catch(IOException e2){
+                // NOTHING
+                assert true;
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * ストリームから日の見出しを読み込む。
+     *
+     * @param dis 入力ストリーム
+     * @return 日の見出し。形式が不正ならnull
+     * @throws IOException 入力エラー
+     */
+    private static SearchShard readShard(DataInputStream dis)
+            throws IOException{
+        int magic = dis.readInt();
+        if(magic != MAGIC) return null;
+
+        String landId      = dis.readUTF();
+        String villageId   = dis.readUTF();
+        String villageName = dis.readUTF();
+        String archivePath = dis.readUTF();
+        int day            = dis.readInt();
+        String caption     = dis.readUTF();
+
+        long[] bits = new long[TextSignature.WORDS];
+        for(int idx = 0; idx < bits.length; idx++){
+            bits[idx] = dis.readLong();
+        }
+        TextSignature signature = new TextSignature(bits);
+
+        int avatars = dis.readInt();
+        if(avatars < 0) return null;
+        List<String> avatarNames = new ArrayList<>(avatars);
+        for(int ct = 0; ct < avatars; ct++){
+            avatarNames.add(dis.readUTF());
+        }
+
+        SearchShard result = new SearchShard(
+                landId, villageId, villageName, archivePath,
+                day, caption, signature, avatarNames );
+
+        return result;
+    }
+
+    /**
+     * ストリームへ日の見出しを書き込む。
+     *
+     * @param dos 出力ストリーム
+     * @param shard 日の見出し
+     * @throws IOException 出力エラー
+     */
+    private static void writeShard(DataOutputStream dos, SearchShard shard)
+            throws IOException{
+        dos.writeInt(MAGIC);
+        dos.writeUTF(shard.getLandId());
+        dos.writeUTF(shard.getVillageId());
+        dos.writeUTF(shard.getVillageName());
+        dos.writeUTF(shard.getArchivePath());
+        dos.writeInt(shard.getDay());
+        dos.writeUTF(shard.getCaption());
+
+        for(long word : shard.getSignature().getBits()){
+            dos.writeLong(word);
+        }
+
+        Set<String> avatarSet = shard.getAvatarSet();
+        dos.writeInt(avatarSet.size());
+        for(String name : avatarSet){
+            dos.writeUTF(name);
+        }
+
+        return;
+    }
+
+    /**
+     * ストリームから全発言の記録を読み込む。
+     *
+     * <p>未知の発言種別の記録は読み飛ばされる。
+     *
+     * @param dis 入力ストリーム
+     * @return 発言の記録のリスト。形式が不正ならnull
+     * @throws IOException 入力エラー
+     */
+    private static List<SearchRecord> readRecords(DataInputStream dis)
+            throws IOException{
+        int records = dis.readInt();
+        if(records < 0) return null;
+
+        List<SearchRecord> result = new ArrayList<>(records);
+        for(int ct = 0; ct < records; ct++){
+            int talkNo        = dis.readInt();
+            String messageId  = dis.readUTF();
+            String avatarName = dis.readUTF();
+            String typeName   = dis.readUTF();
+            int hour          = dis.readByte();
+            int minute        = dis.readByte();
+            int length        = dis.readInt();
+
+            if(length < 0 || MAX_DIALOG < length) return null;
+            byte[] bytes = new byte[length];
+            dis.readFully(bytes);
+            String dialog = new String(bytes, StandardCharsets.UTF_8);
+
+            if(messageId.isEmpty()) messageId = null;
+
+            TalkType talkType;
+            try{
+                talkType = TalkType.valueOf(typeName);
+            }catch(IllegalArgumentException e){
+                continue;
+            }
+
+            SearchRecord record = new SearchRecord(
+                    talkNo, messageId, avatarName, talkType,
+                    hour, minute, dialog );
+            result.add(record);
+        }
+
+        return result;
+    }
+
+    /**
+     * ストリームへ全発言の記録を書き込む。
+     *
+     * @param dos 出力ストリーム
+     * @param recordList 発言の記録のリスト
+     * @throws IOException 出力エラー
+     */
+    private static void writeRecords(DataOutputStream dos,
+                                     List<SearchRecord> recordList )
+            throws IOException{
+        dos.writeInt(recordList.size());
+
+        for(SearchRecord record : recordList){
+            String messageId = record.getMessageId();
+            if(messageId == null) messageId = "";
+            byte[] bytes = record.getDialog().getBytes(StandardCharsets.UTF_8);
+
+            dos.writeInt(record.getTalkNo());
+            dos.writeUTF(messageId);
+            dos.writeUTF(record.getAvatarName());
+            dos.writeUTF(record.getTalkType().name());
+            dos.writeByte(record.getHour());
+            dos.writeByte(record.getMinute());
+            dos.writeInt(bytes.length);
+            dos.write(bytes);
+        }
+
+        return;
+    }
+
+
+    /**
+     * 参照順に並び、上限を超えると最も古い要素を捨てる見出しのMap。
+     */
+    @SuppressWarnings("serial")
+    private static final class ShardCacheMap
+            extends LinkedHashMap<Path, CachedShard>{
+
+        /**
+         * コンストラクタ。
+         */
+        ShardCacheMap(){
+            super(16, 0.75f, true);
+            return;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @param eldest {@inheritDoc}
+         * @return 上限を超えたならtrue
+         */
+        @Override
+        protected boolean removeEldestEntry(
+                Map.Entry<Path, CachedShard> eldest ){
+            return size() > MAX_CACHED_SHARDS;
+        }
+
+    }
+
+
+    /**
+     * 更新時刻つきの日の見出し。
+     */
+    private static final class CachedShard{
+
+        private final SearchShard shard;
+        private final long modified;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param shard 日の見出し
+         * @param modified ファイル更新時刻(エポックミリ秒)
+         */
+        CachedShard(SearchShard shard, long modified){
+            super();
+            this.shard = shard;
+            this.modified = modified;
+            return;
+        }
+
+    }
+
+}
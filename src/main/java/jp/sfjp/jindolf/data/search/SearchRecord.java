@@ -0,0 +1,141 @@
+/*
+ * talk record in search index
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.data.search;
+
+import jp.sfjp.jindolf.data.Talk;
+import jp.sourceforge.jindolf.corelib.TalkType;
+
+/**
+ * 検索索引に記録された1発言。
+ *
+ * <p>元の発言を再び開くための手がかりと、
+ * 検索に必要な属性および本文のみを保持する。
+ */
+public final class SearchRecord{
+
+    private final int talkNo;
+    private final String messageId;
+    private final String avatarName;
+    private final TalkType talkType;
+    private final int hour;
+    private final int minute;
+    private final String dialog;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param talkNo 公開発言番号。無ければ0以下
+     * @param messageId メッセージID。無ければnull
+     * @param avatarName Avatarのフルネーム
+     * @param talkType 発言種別
+     * @param hour 発言時
+     * @param minute 発言分
+     * @param dialog 発言本文
+     */
+    public SearchRecord(int talkNo,
+                        String messageId,
+                        String avatarName,
+                        TalkType talkType,
+                        int hour,
+                        int minute,
+                        String dialog ){
+        super();
+        this.talkNo = talkNo;
+        this.messageId = messageId;
+        this.avatarName = avatarName;
+        this.talkType = talkType;
+        this.hour = hour;
+        this.minute = minute;
+        this.dialog = dialog;
+        return;
+    }
+
+
+    /**
+     * 発言から記録を作る。
+     *
+     * @param talk 発言
+     * @return 記録
+     */
+    public static SearchRecord fromTalk(Talk talk){
+        SearchRecord result = new SearchRecord(
+                talk.getTalkNo(),
+                talk.getMessageID(),
+                talk.getAvatar().getFullName(),
+                talk.getTalkType(),
+                talk.getHour(),
+                talk.getMinute(),
+                talk.getDialog().toString() );
+        return result;
+    }
+
+    /**
+     * 公開発言番号を返す。
+     *
+     * @return 公開発言番号。無ければ0以下
+     */
+    public int getTalkNo(){
+        return this.talkNo;
+    }
+
+    /**
+     * メッセージIDを返す。
+     *
+     * @return メッセージID。無ければnull
+     */
+    public String getMessageId(){
+        return this.messageId;
+    }
+
+    /**
+     * Avatarのフルネームを返す。
+     *
+     * @return フルネーム
+     */
+    public String getAvatarName(){
+        return this.avatarName;
+    }
+
+    /**
+     * 発言種別を返す。
+     *
+     * @return 発言種別
+     */
+    public TalkType getTalkType(){
+        return this.talkType;
+    }
+
+    /**
+     * 発言時を返す。
+     *
+     * @return 時
+     */
+    public int getHour(){
+        return this.hour;
+    }
+
+    /**
+     * 発言分を返す。
+     *
+     * @return 分
+     */
+    public int getMinute(){
+        return this.minute;
+    }
+
+    /**
+     * 発言本文を返す。
+     *
+     * @return 発言本文
+     */
+    public String getDialog(){
+        return this.dialog;
+    }
+
+}
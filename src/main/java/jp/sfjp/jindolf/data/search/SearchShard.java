@@ -0,0 +1,141 @@
+/*
+ * period shard of search index
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.data.search;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 検索索引の1日分の見出し。
+ *
+ * <p>どの村のどの日かを示す情報と、
+ * その日の発言群に含まれる文字N-gramおよび発言者の集合を保持する。
+ * 発言そのものは含まない。
+ */
+public final class SearchShard{
+
+    private final String landId;
+    private final String villageId;
+    private final String villageName;
+    private final String archivePath;
+    private final int day;
+    private final String caption;
+
+    private final TextSignature signature;
+    private final Set<String> avatarSet;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param landId 国ID
+     * @param villageId 村ID
+     * @param villageName 村名
+     * @param archivePath アーカイブXMLファイルのパス。無ければ空文字列
+     * @param day 日
+     * @param caption 日の表記
+     * @param signature 文字N-gramの集合
+     * @param avatarNames 発言者のフルネーム群
+     */
+    SearchShard(String landId,
+                String villageId,
+                String villageName,
+                String archivePath,
+                int day,
+                String caption,
+                TextSignature signature,
+                Collection<String> avatarNames ){
+        super();
+        this.landId = landId;
+        this.villageId = villageId;
+        this.villageName = villageName;
+        this.archivePath = archivePath;
+        this.day = day;
+        this.caption = caption;
+        this.signature = signature;
+        this.avatarSet =
+                Collections.unmodifiableSet(new TreeSet<>(avatarNames));
+        return;
+    }
+
+
+    /**
+     * 国IDを返す。
+     *
+     * @return 国ID
+     */
+    public String getLandId(){
+        return this.landId;
+    }
+
+    /**
+     * 村IDを返す。
+     *
+     * @return 村ID
+     */
+    public String getVillageId(){
+        return this.villageId;
+    }
+
+    /**
+     * 村名を返す。
+     *
+     * @return 村名
+     */
+    public String getVillageName(){
+        return this.villageName;
+    }
+
+    /**
+     * アーカイブXMLファイルのパスを返す。
+     *
+     * @return パス。サーバから読み込んだ村なら空文字列
+     */
+    public String getArchivePath(){
+        return this.archivePath;
+    }
+
+    /**
+     * 日を返す。
+     *
+     * @return 日
+     */
+    public int getDay(){
+        return this.day;
+    }
+
+    /**
+     * 日の表記を返す。
+     *
+     * @return 日の表記
+     */
+    public String getCaption(){
+        return this.caption;
+    }
+
+    /**
+     * 文字N-gramの集合を返す。
+     *
+     * @return 文字N-gramの集合
+     */
+    TextSignature getSignature(){
+        return this.signature;
+    }
+
+    /**
+     * 発言者のフルネームの集合を返す。
+     *
+     * @return 発言者のフルネームの不変集合
+     */
+    public Set<String> getAvatarSet(){
+        return this.avatarSet;
+    }
+
+}
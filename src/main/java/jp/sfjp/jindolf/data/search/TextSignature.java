@@ -0,0 +1,178 @@
+/*
+ * text signature
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.data.search;
+
+import jp.sfjp.jindolf.data.DialogQuery;
+
+/**
+ * 文章群に含まれる文字N-gramの集合を近似するビット列。
+ *
+ * <p>全ての1文字および連続する2文字を見出しとするブルームフィルタ。
+ * 見出しは英字の大小を区別しない。
+ *
+ * <p>登録された文章群が文字列を含むなら
+ * {@link #mayContain(CharSequence)}は必ずtrueを返すが、
+ * 含まない場合にもtrueを返すことがある。
+ */
+final class TextSignature{
+
+    /** ビット列の長さ(long単位)。 */
+    static final int WORDS = 2048;
+
+    private static final int BITS_SHIFT = 17;
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK = 0x3f;
+    private static final int BIGRAM_SHIFT = 16;
+    private static final int UNIGRAM_MARK = 0xffff0000;
+    private static final int HASH1 = 0x9e3779b1;
+    private static final int HASH2 = 0x85ebca6b;
+
+
+    private final long[] bits;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>何も登録されていないビット列が生成される。
+     */
+    TextSignature(){
+        this(new long[WORDS]);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param bits ビット列。共有される。
+     * @throws IllegalArgumentException 長さが不正
+     */
+    TextSignature(long[] bits) throws IllegalArgumentException{
+        super();
+        if(bits.length != WORDS) throw new IllegalArgumentException();
+        this.bits = bits;
+        return;
+    }
+
+
+    /**
+     * 1文字の見出しのキーを返す。
+     *
+     * @param ch 文字
+     * @return キー
+     */
+    private static int unigramKey(char ch){
+        return UNIGRAM_MARK | DialogQuery.foldCase(ch);
+    }
+
+    /**
+     * 2文字の見出しのキーを返す。
+     *
+     * @param ch1 前の文字
+     * @param ch2 後の文字
+     * @return キー
+     */
+    private static int bigramKey(char ch1, char ch2){
+        int high = DialogQuery.foldCase(ch1);
+        int low  = DialogQuery.foldCase(ch2);
+        return (high << BIGRAM_SHIFT) | low;
+    }
+
+    /**
+     * ビット列を返す。
+     *
+     * @return ビット列。共有される。
+     */
+    long[] getBits(){
+        return this.bits;
+    }
+
+    /**
+     * キーに対応するビットを立てる。
+     *
+     * @param key キー
+     */
+    private void set(int key){
+        setBit((key * HASH1) >>> (Integer.SIZE - BITS_SHIFT));
+        setBit((key * HASH2) >>> (Integer.SIZE - BITS_SHIFT));
+        return;
+    }
+
+    /**
+     * ビットを立てる。
+     *
+     * @param bitPos ビット位置
+     */
+    private void setBit(int bitPos){
+        this.bits[bitPos >>> WORD_SHIFT] |= 1L << (bitPos & WORD_MASK);
+        return;
+    }
+
+    /**
+     * キーに対応するビットが全て立っているか判定する。
+     *
+     * @param key キー
+     * @return 全て立っていればtrue
+     */
+    private boolean test(int key){
+        if( ! testBit((key * HASH1) >>> (Integer.SIZE - BITS_SHIFT)) ){
+            return false;
+        }
+        if( ! testBit((key * HASH2) >>> (Integer.SIZE - BITS_SHIFT)) ){
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * ビットが立っているか判定する。
+     *
+     * @param bitPos ビット位置
+     * @return 立っていればtrue
+     */
+    private boolean testBit(int bitPos){
+        long word = this.bits[bitPos >>> WORD_SHIFT];
+        return (word & (1L << (bitPos & WORD_MASK))) != 0L;
+    }
+
+    /**
+     * 文章を登録する。
+     *
+     * @param text 文章
+     */
+    void add(CharSequence text){
+        int length = text.length();
+        for(int pos = 0; pos < length; pos++){
+            char ch = text.charAt(pos);
+            set(unigramKey(ch));
+            if(pos + 1 < length){
+                set(bigramKey(ch, text.charAt(pos + 1)));
+            }
+        }
+        return;
+    }
+
+    /**
+     * 登録された文章群が文字列を含みうるか判定する。
+     *
+     * @param literal 文字列
+     * @return 含みうるならtrue。空文字列ならtrue
+     */
+    boolean mayContain(CharSequence literal){
+        int length = literal.length();
+        if(length == 1) return test(unigramKey(literal.charAt(0)));
+
+        for(int pos = 0; pos + 1 < length; pos++){
+            int key = bigramKey(literal.charAt(pos), literal.charAt(pos + 1));
+            if( ! test(key) ) return false;
+        }
+
+        return true;
+    }
+
+}
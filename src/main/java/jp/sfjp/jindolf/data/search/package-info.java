@@ -0,0 +1,15 @@
+/*
+ * package info
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+/**
+ * 読み込んだ全ての村の発言を横断して検索するための、
+ * 設定ディレクトリ上の検索索引に関するクラス群。
+ */
+
+package jp.sfjp.jindolf.data.search;
+
+/* EOF */
@@ -9,7 +9,9 @@
 
 import java.awt.Color;
 import java.awt.Component;
+import java.awt.Container;
 import java.awt.Dimension;
+import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Insets;
@@ -23,10 +25,15 @@
 import java.awt.event.MouseEvent;
 import java.awt.font.FontRenderContext;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -37,14 +44,17 @@
 import javax.swing.JMenuItem;
 import javax.swing.JPopupMenu;
 import javax.swing.JTextField;
+import javax.swing.JViewport;
 import javax.swing.KeyStroke;
 import javax.swing.Scrollable;
 import javax.swing.SwingConstants;
+import javax.swing.event.ChangeListener;
 import javax.swing.event.MouseInputListener;
 import javax.swing.text.DefaultEditorKit;
 import jp.sfjp.jindolf.data.Anchor;
 import jp.sfjp.jindolf.data.Avatar;
 import jp.sfjp.jindolf.data.DialogPref;
+import jp.sfjp.jindolf.data.DialogQuery;
 import jp.sfjp.jindolf.data.Period;
 import jp.sfjp.jindolf.data.RegexPattern;
 import jp.sfjp.jindolf.data.SysEvent;
@@ -69,6 +79,10 @@
  * <li>ポップアップメニュー</li>
  * </ul>
  * など
+ *
+ * <p>グリフを含む描画物は表示域とその周辺の行に対してのみ用意され、
+ * 表示域から遠く離れた行の描画物は破棄される。
+ * 描画物を持たない行は、本文から見積もった高さを占める。
  */
 @SuppressWarnings("serial")
 public final class Discussion extends JComponent
@@ -80,16 +94,30 @@ public final class Discussion extends JComponent
     private static final int MARGINTOP    =  50;
     private static final int MARGINBOTTOM = 100;
 
+    /** 表示域の上下それぞれに描画物を用意しておく範囲(表示域の高さ単位)。 */
+    private static final int RESIDENT_PAGES = 1;
+    /** 描画物を破棄するまでの表示域からの距離(表示域の高さ単位)。 */
+    private static final int RELEASE_PAGES = 3;
+    /** 高さの見積もり違いによる描画物の用意のやり直し回数上限。 */
+    private static final int RESIDENT_PASSES = 4;
+
 
     private Period period;
-    private final List<TextRow> rowList       = new LinkedList<>();
-    private final List<TalkDraw> talkDrawList = new LinkedList<>();
+    private boolean isPreview = false;
+    private final List<RowSlot> slotList     = new ArrayList<>();
+    private final List<RowSlot> talkSlotList = new ArrayList<>();
+    private final Map<Talk, RowSlot> talkSlotMap = new HashMap<>();
+    private final RowHeightIndex heightIndex = new RowHeightIndex();
+    private final Set<RowSlot> residentSet = new HashSet<>();
 
     private TopicFilter topicFilter;
     private TopicFilter.FilterContext filterContext;
     private RegexPattern regexPattern;
+    private Pattern appliedPattern;
 
     private Point dragFrom;
+    private int selectFirst = -1;
+    private int selectLast  = -1;
 
     private FontInfo fontInfo;
     private final RenderingHints hints = new RenderingHints(null);
@@ -99,6 +127,14 @@ public final class Discussion extends JComponent
     private Dimension idealSize;
     private int lastWidth = -1;
 
+    private LayoutPipeline pipeline;
+    private int layoutGeneration = 0;
+
+    private JViewport viewport;
+    private final ChangeListener viewportWatcher =
+            (event) -> updateResidentRows();
+    private boolean residentUpdating = false;
+
     private final DiscussionPopup popup = new DiscussionPopup();
     private Talk activeTalk;
     private Anchor activeAnchor;
@@ -193,8 +229,8 @@ public void setFontInfo(FontInfo newFontInfo){
 
         updateRenderingHints();
 
-        for(TextRow row : this.rowList){
-            row.setFontInfo(this.fontInfo);
+        for(RowSlot slot : this.residentSet){
+            slot.getRow().setFontInfo(this.fontInfo);
         }
 
         setColorDesign();
@@ -214,7 +250,8 @@ public void setFontInfo(FontInfo newFontInfo){
     public void setDialogPref(DialogPref newPref){
         this.dialogPref = newPref;
 
-        for(TextRow row : this.rowList){
+        for(RowSlot slot : this.residentSet){
+            TextRow row = slot.getRow();
             if(row instanceof TalkDraw){
                 TalkDraw talkDraw = (TalkDraw) row;
                 talkDraw.setDialogPref(this.dialogPref);
@@ -247,47 +284,67 @@ public Period getPeriod(){
      *
      * <p>新しいPeriodの表示内容はまだ反映されない。
      *
+     * <p>この時点ではTopic毎の軽量な行記述子のみが作られる。
+     * グリフを含む描画物は、表示域とその周辺の行に対してのみ
+     * 必要になった時点で作られる。
+     *
      * @param period 新しいPeriod
      */
     public final void setPeriod(Period period){
         if(period == null){
             this.period = null;
-            this.rowList.clear();
-            this.talkDrawList.clear();
+            this.isPreview = false;
+            clearSlots();
             return;
         }
 
         if(    this.period == period
-            && period.getTopics() == this.rowList.size() ){
+            && ! this.isPreview
+            && period.getTopics() == this.slotList.size() ){
             filterTopics();
             return;
         }
 
+        if(this.period == period && ! this.isPreview && hasRowsPrefix(period)){
+            appendRows(period);
+            return;
+        }
+
         this.period = period;
+        this.isPreview = false;
+        rebuildRows(period.getTopicList());
+
+        return;
+    }
+
+    /**
+     * 受信途中の暫定Periodの内容を、本来のPeriodの内容として先に表示する。
+     *
+     * <p>{@link #getPeriod()}は暫定Periodではなく本来のPeriodを返す。
+     * 暫定Periodの行は、次に{@link #setPeriod(Period)}が呼ばれた時点で
+     * 全て作り直される。
+     *
+     * @param period 本来のPeriod
+     * @param preview 暫定Period
+     */
+    public void showPreview(Period period, Period preview){
+        this.period = period;
+        this.isPreview = true;
+        rebuildRows(preview.getTopicList());
+        return;
+    }
 
+    /**
+     * 全ての行を作り直す。
+     *
+     * @param topicList 行毎のTopic
+     */
+    private void rebuildRows(List<Topic> topicList){
         this.filterContext = null;
 
-        this.rowList.clear();
-        this.talkDrawList.clear();
-        for(Topic topic : this.period.getTopicList()){
-            TextRow row;
-            if(topic instanceof Talk){
-                Talk talk = (Talk) topic;
-                TalkDraw talkDraw = new TalkDraw(talk,
-                                                 this.dialogPref,
-                                                 this.fontInfo );
-                this.talkDrawList.add(talkDraw);
-                row = talkDraw;
-            }else if(topic instanceof SysEvent){
-                SysEvent sysEvent = (SysEvent) topic;
-                row = new SysEventDraw(sysEvent,
-                                       this.dialogPref,
-                                       this.fontInfo );
-            }else{
-                assert false;
-                continue;
-            }
-            this.rowList.add(row);
+        clearSlots();
+        for(Topic topic : topicList){
+            addSlot(topic);
         }
 
         filterTopics();
@@ -299,6 +356,425 @@ public final void setPeriod(Period period){
         return;
     }
 
+    /**
+     * 全ての行記述子を破棄する。
+     */
+    private void clearSlots(){
+        this.slotList.clear();
+        this.talkSlotList.clear();
+        this.talkSlotMap.clear();
+        this.residentSet.clear();
+        this.heightIndex.clear();
+        cancelLayoutPipeline();
+        this.appliedPattern = null;
+        this.selectFirst = -1;
+        this.selectLast  = -1;
+        return;
+    }
+
+    /**
+     * Topicの行記述子を生成し末尾に追加する。
+     *
+     * <p>発言なら発言の行記述子一覧にも登録される。
+     * 行の高さは0で登録される。
+     *
+     * @param topic Topic
+     * @return 行記述子。未知のTopicならnull。
+     */
+    private RowSlot addSlot(Topic topic){
+        int ordinal = this.slotList.size();
+        RowSlot slot;
+
+        if(topic instanceof Talk){
+            Talk talk = (Talk) topic;
+            slot = new RowSlot(talk, ordinal);
+            this.talkSlotList.add(slot);
+            this.talkSlotMap.put(talk, slot);
+        }else if(topic instanceof SysEvent){
+            slot = new RowSlot(topic, ordinal);
+        }else{
+            assert false;
+            return null;
+        }
+
+        this.slotList.add(slot);
+        this.heightIndex.add(0);
+
+        return slot;
+    }
+
+    /**
+     * 行の縦位置を返す。
+     *
+     * @param slot 行記述子
+     * @return 縦位置
+     */
+    private int getSlotTop(RowSlot slot){
+        int offset = this.heightIndex.prefixSum(slot.getOrdinal());
+        return getInsets().top + offset;
+    }
+
+    /**
+     * 縦位置を含む行の番号を返す。
+     *
+     * <p>非表示の行が選ばれることはない。
+     *
+     * @param yPos 縦位置
+     * @return 行番号。全行の下端以降なら行数
+     */
+    private int getSlotIndexAt(int yPos){
+        int offset = yPos - getInsets().top;
+        return this.heightIndex.indexOf(offset);
+    }
+
+    /**
+     * 行の高さを設定し、累積和索引に反映する。
+     *
+     * @param slot 行記述子
+     * @param height 高さ
+     */
+    private void setSlotHeight(RowSlot slot, int height){
+        slot.setHeight(height);
+        int indexed = slot.isVisible() ? height : 0;
+        this.heightIndex.set(slot.getOrdinal(), indexed);
+        return;
+    }
+
+    /**
+     * 行の表示可否を設定し、累積和索引に反映する。
+     *
+     * @param slot 行記述子
+     * @param visible 表示するならtrue
+     */
+    private void setSlotVisible(RowSlot slot, boolean visible){
+        if(slot.isVisible() == visible) return;
+        slot.setVisible(visible);
+        int indexed = visible ? slot.getHeight() : 0;
+        this.heightIndex.set(slot.getOrdinal(), indexed);
+        return;
+    }
+
+    /**
+     * 描画物を行の縦位置へ移動させる。
+     *
+     * <p>縦位置は累積和索引から求められ、
+     * 位置が変わっていなければ何もしない。
+     *
+     * @param slot 行記述子
+     */
+    private void placeRow(RowSlot slot){
+        TextRow row = slot.getRow();
+        if(row == null) return;
+
+        int left = getInsets().left;
+        int top = getSlotTop(slot);
+        Rectangle bounds = row.getBounds();
+        if(bounds.x != left || bounds.y != top){
+            row.setPos(left, top);
+        }
+
+        return;
+    }
+
+    /**
+     * Topicを描画する矩形を生成する。
+     *
+     * <p>検索パターンが適用済みなら、発言の矩形にも適用される。
+     *
+     * @param topic Topic
+     * @return 矩形。未知のTopicならnull。
+     */
+    private TextRow createRow(Topic topic){
+        TextRow row;
+
+        if(topic instanceof Talk){
+            Talk talk = (Talk) topic;
+            TalkDraw talkDraw = new TalkDraw(talk,
+                                             this.dialogPref,
+                                             this.fontInfo );
+            if(this.appliedPattern != null){
+                talkDraw.setRegex(this.appliedPattern);
+            }
+            row = talkDraw;
+        }else if(topic instanceof SysEvent){
+            SysEvent sysEvent = (SysEvent) topic;
+            row = new SysEventDraw(sysEvent,
+                                   this.dialogPref,
+                                   this.fontInfo );
+        }else{
+            assert false;
+            row = null;
+        }
+
+        return row;
+    }
+
+    /**
+     * 描画物を生成せずに行の高さを見積もる。
+     *
+     * @param slot 行記述子
+     * @param rowWidth 行の幅
+     * @return 高さの見積もり
+     */
+    private int estimateHeight(RowSlot slot, int rowWidth){
+        Topic topic = slot.getTopic();
+
+        int result;
+        if(topic instanceof Talk){
+            result = TalkDraw.estimateHeight((Talk) topic,
+                                             this.dialogPref,
+                                             this.fontInfo,
+                                             rowWidth );
+        }else if(topic instanceof SysEvent){
+            result = SysEventDraw.estimateHeight((SysEvent) topic,
+                                                 this.fontInfo,
+                                                 rowWidth );
+        }else{
+            assert false;
+            result = 0;
+        }
+
+        return result;
+    }
+
+    /**
+     * 行の幅を返す。
+     *
+     * @return 行の幅
+     */
+    private int getRowWidth(){
+        Insets insets = getInsets();
+        int rowWidth = this.lastWidth - (insets.left + insets.right);
+        return rowWidth;
+    }
+
+    /**
+     * 行記述子に描画物を用意する。
+     *
+     * <p>行記述子の高さは実測値で置き換えられる。
+     *
+     * @param slot 行記述子
+     * @param rowWidth 行の幅
+     */
+    private void materialize(RowSlot slot, int rowWidth){
+        TextRow row = createRow(slot.getTopic());
+        row.setWidth(rowWidth);
+        row.setVisible(slot.isVisible());
+
+        slot.setRow(row);
+        this.residentSet.add(slot);
+        setSlotHeight(slot, row.getHeight());
+        placeRow(slot);
+
+        return;
+    }
+
+    /**
+     * 行記述子の描画物を破棄する。
+     *
+     * @param slot 行記述子
+     */
+    private void release(RowSlot slot){
+        slot.setRow(null);
+        this.residentSet.remove(slot);
+        return;
+    }
+
+    /**
+     * 行の縦位置に置かれた描画物を返す。
+     *
+     * <p>描画物が無ければ用意する。
+     *
+     * @param slot 行記述子
+     * @return 描画物
+     */
+    private TextRow ensureRow(RowSlot slot){
+        TextRow row = slot.getRow();
+        if(row != null){
+            placeRow(slot);
+            return row;
+        }
+
+        int oldHeight = slot.getHeight();
+        materialize(slot, getRowWidth());
+        if(slot.getHeight() != oldHeight){
+            updateIdealSize();
+        }
+
+        return slot.getRow();
+    }
+
+    /**
+     * 表示域とその周辺の行に描画物を用意し、
+     * 表示域から遠く離れた行の描画物を破棄する。
+     *
+     * <p>表示域より上の行の高さが見積もりと異なった場合は、
+     * 表示内容が動かないようスクロール位置を補正する。
+     */
+    private void updateResidentRows(){
+        if(this.residentUpdating) return;
+        if(this.lastWidth < 0) return;
+
+        Rectangle view = getVisibleRect();
+        if(view.height <= 0) return;
+
+        this.residentUpdating = true;
+        try{
+            for(int pass = 0; pass < RESIDENT_PASSES; pass++){
+                if( ! materializeAround(view) ) break;
+                view = getVisibleRect();
+            }
+            releaseFarRows(view);
+        }finally{
+            this.residentUpdating = false;
+        }
+
+        return;
+    }
+
+    /**
+     * 表示域とその周辺の行に描画物を用意する。
+     *
+     * @param view 表示域
+     * @return 行の高さが見積もりと異なり寸法が変わったならtrue
+     */
+    private boolean materializeAround(Rectangle view){
+        int margin = view.height * RESIDENT_PAGES;
+        int from = view.y - margin;
+        int to   = view.y + view.height + margin;
+        int rowWidth = getRowWidth();
+
+        boolean changed = false;
+        int shift = 0;
+
+        int size = this.slotList.size();
+        int first = getSlotIndexAt(from);
+        int top = (first < size) ? getSlotTop(this.slotList.get(first)) : 0;
+        for(int index = first; index < size; index++){
+            RowSlot slot = this.slotList.get(index);
+            if( ! slot.isVisible() ) continue;
+            if(top >= to) break;
+
+            if(slot.getRow() == null){
+                int oldHeight = slot.getHeight();
+                materialize(slot, rowWidth);
+                int delta = slot.getHeight() - oldHeight;
+                if(delta != 0){
+                    changed = true;
+                    if(top < view.y) shift += delta;
+                }
+            }
+
+            top += slot.getHeight();
+        }
+
+        if( ! changed ) return false;
+
+        updateIdealSize();
+
+        if(shift != 0 && this.viewport != null){
+            setSize(getWidth(), this.idealSize.height);
+            Point pos = this.viewport.getViewPosition();
+            pos.y = Math.max(0, pos.y + shift);
+            this.viewport.setViewPosition(pos);
+        }
+
+        return true;
+    }
+
+    /**
+     * 表示域から遠く離れた行とフィルタされた行の描画物を破棄する。
+     *
+     * <p>文字列選択やアンカー展開の状態を持つ行は破棄されない。
+     *
+     * @param view 表示域
+     */
+    private void releaseFarRows(Rectangle view){
+        int margin = view.height * RELEASE_PAGES;
+        int from = view.y - margin;
+        int to   = view.y + view.height + margin;
+
+        List<RowSlot> releaseList = new ArrayList<>();
+        for(RowSlot slot : this.residentSet){
+            if(slot.isVisible()){
+                int top = getSlotTop(slot);
+                if(top + slot.getHeight() > from && top < to) continue;
+            }
+
+            int ordinal = slot.getOrdinal();
+            if(this.selectFirst <= ordinal && ordinal <= this.selectLast){
+                continue;
+            }
+            TalkDraw talkDraw = slot.getTalkDraw();
+            if(talkDraw != null && talkDraw.getShowingAnchor() != null){
+                continue;
+            }
+
+            releaseList.add(slot);
+        }
+
+        for(RowSlot slot : releaseList){
+            release(slot);
+        }
+
+        return;
+    }
+
+    /**
+     * 表示中の全行がPeriodのTopic列の先頭部分と一致するか判定する。
+     *
+     * <p>Topicはインスタンスの同一性で比較される。
+     *
+     * @param newPeriod Period
+     * @return Periodに新しいTopicが末尾追加されただけならtrue
+     */
+    private boolean hasRowsPrefix(Period newPeriod){
+        List<Topic> topicList = newPeriod.getTopicList();
+        if(topicList.size() <= this.slotList.size()) return false;
+
+        Iterator<Topic> topicIt = topicList.iterator();
+        for(RowSlot slot : this.slotList){
+            if(slot.getTopic() != topicIt.next()) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Periodの末尾に追加されたTopicの行だけを追加する。
+     *
+     * <p>既存の行は作り直されず、その行折り返しもやり直されない。
+     * 既存の行は縦位置の再計算のみが行われる。
+     *
+     * @param newPeriod Period
+     */
+    private void appendRows(Period newPeriod){
+        List<Topic> topicList = newPeriod.getTopicList();
+        int oldRows = this.slotList.size();
+        List<Topic> appended = topicList.subList(oldRows, topicList.size());
+
+        int rowWidth = getRowWidth();
+
+        for(Topic topic : appended){
+            RowSlot slot = addSlot(topic);
+            if(slot == null) continue;
+            setSlotVisible(slot, ! isFiltered(slot) );
+            if(slot.isTalk() && this.appliedPattern != null){
+                Talk talk = (Talk) topic;
+                slot.setRegexMatches(DialogQuery.countMatches(
+                        this.appliedPattern, talk.getDialog() ));
+            }
+            if(this.lastWidth >= 0){
+                setSlotHeight(slot, estimateHeight(slot, rowWidth));
+            }
+        }
+
+        updateIdealSize();
+        updateResidentRows();
+
+        return;
+    }
+
     /**
      * 会話フィルタを設定する。
      *
@@ -326,7 +802,8 @@ public void filtering(){
         }
 
         filterTopics();
-        layoutVertical();
+        updateIdealSize();
+        updateResidentRows();
 
         clearSelect();
 
@@ -345,6 +822,8 @@ public RegexPattern getRegexPattern(){
     /**
      * 与えられた正規表現にマッチする文字列をハイライト描画する。
      *
+     * <p>ヒット件数は描画物を用意せずに発言本文から数えられる。
+     *
      * @param newPattern 検索パターン
      * @return ヒット件数
      */
@@ -359,9 +838,20 @@ public int setRegexPattern(RegexPattern newPattern){
         if(this.regexPattern != null){
             pattern = this.regexPattern.getPattern();
         }
+        this.appliedPattern = pattern;
 
-        for(TalkDraw talkDraw : this.talkDrawList){
-            total += talkDraw.setRegex(pattern);
+        for(RowSlot slot : this.talkSlotList){
+            int matches = 0;
+            if(pattern != null){
+                Talk talk = (Talk) slot.getTopic();
+                matches = DialogQuery.countMatches(pattern, talk.getDialog());
+            }
+            slot.setRegexMatches(matches);
+
+            TalkDraw talkDraw = slot.getTalkDraw();
+            if(talkDraw != null) talkDraw.setRegex(pattern);
+
+            total += matches;
         }
 
         repaint();
@@ -369,52 +859,65 @@ public int setRegexPattern(RegexPattern newPattern){
         return total;
     }
 
+    /**
+     * 発言の検索ハイライト領域を返す。
+     *
+     * <p>描画物が無ければ用意される。
+     *
+     * @param slot 発言の行記述子
+     * @return ハイライト領域
+     */
+    private Rectangle getHotTargetRectangle(RowSlot slot){
+        TalkDraw talkDraw = (TalkDraw) ensureRow(slot);
+        return talkDraw.getHotTargetRectangle();
+    }
+
     /**
      * 検索結果の次候補をハイライト表示する。
      */
     public void nextHotTarget(){
-        TalkDraw oldTalk = null;
+        RowSlot oldSlot = null;
         int oldIndex = -1;
-        TalkDraw newTalk = null;
+        RowSlot newSlot = null;
         int newIndex = -1;
-        TalkDraw firstTalk = null;
+        RowSlot firstSlot = null;
 
         boolean findOld = true;
-        for(TalkDraw talkDraw : this.talkDrawList){
-            int matches = talkDraw.getRegexMatches();
-            if(firstTalk == null && matches > 0){
-                firstTalk = talkDraw;
+        for(RowSlot slot : this.talkSlotList){
+            int matches = slot.getRegexMatches();
+            if(firstSlot == null && matches > 0){
+                firstSlot = slot;
             }
             if(findOld){
-                int index = talkDraw.getHotTargetIndex();
+                int index = slot.getHotTargetIndex();
                 if(index < 0) continue;
-                oldTalk = talkDraw;
+                oldSlot = slot;
                 oldIndex = index;
-                scrollRectWithMargin(talkDraw.getHotTargetRectangle());
-                if(oldIndex < matches - 1 && ! isFiltered(talkDraw) ){
-                    newTalk = talkDraw;
+                scrollRectWithMargin(getHotTargetRectangle(slot));
+                if(oldIndex < matches - 1 && ! isFiltered(slot) ){
+                    newSlot = slot;
                     newIndex = oldIndex + 1;
                     break;
                 }
                 findOld = false;
             }else{
-                if(isFiltered(talkDraw)) continue;
+                if(isFiltered(slot)) continue;
                 if(matches <= 0) continue;
-                newTalk = talkDraw;
+                newSlot = slot;
                 newIndex = 0;
                 break;
             }
         }
 
         Rectangle showRect = null;
-        if(oldTalk == null && firstTalk != null){
-            firstTalk.setHotTargetIndex(0);
-            showRect = firstTalk.getHotTargetRectangle();
-        }else if(   oldTalk != null
-                 && newTalk != null){
-            oldTalk.clearHotTarget();
-            newTalk.setHotTargetIndex(newIndex);
-            showRect = newTalk.getHotTargetRectangle();
+        if(oldSlot == null && firstSlot != null){
+            firstSlot.setHotTargetIndex(0);
+            showRect = getHotTargetRectangle(firstSlot);
+        }else if(   oldSlot != null
+                 && newSlot != null){
+            oldSlot.setHotTargetIndex(-1);
+            newSlot.setHotTargetIndex(newIndex);
+            showRect = getHotTargetRectangle(newSlot);
         }
 
         if(showRect != null){
@@ -430,53 +933,53 @@ public void nextHotTarget(){
      * 検索結果の前候補をハイライト表示する。
      */
     public void prevHotTarget(){
-        TalkDraw oldTalk = null;
+        RowSlot oldSlot = null;
         int oldIndex = -1;
-        TalkDraw newTalk = null;
+        RowSlot newSlot = null;
         int newIndex = -1;
-        TalkDraw firstTalk = null;
+        RowSlot firstSlot = null;
 
         boolean findOld = true;
-        int size = this.talkDrawList.size();
-        ListIterator<TalkDraw> iterator =
-                this.talkDrawList.listIterator(size);
+        int size = this.talkSlotList.size();
+        ListIterator<RowSlot> iterator =
+                this.talkSlotList.listIterator(size);
         while(iterator.hasPrevious()){
-            TalkDraw talkDraw = iterator.previous();
-            int matches = talkDraw.getRegexMatches();
-            if(firstTalk == null && matches > 0){
-                firstTalk = talkDraw;
+            RowSlot slot = iterator.previous();
+            int matches = slot.getRegexMatches();
+            if(firstSlot == null && matches > 0){
+                firstSlot = slot;
             }
             if(findOld){
-                int index = talkDraw.getHotTargetIndex();
+                int index = slot.getHotTargetIndex();
                 if(index < 0) continue;
-                oldTalk = talkDraw;
+                oldSlot = slot;
                 oldIndex = index;
-                scrollRectWithMargin(talkDraw.getHotTargetRectangle());
-                if(oldIndex > 0 && ! isFiltered(talkDraw) ){
-                    newTalk = talkDraw;
+                scrollRectWithMargin(getHotTargetRectangle(slot));
+                if(oldIndex > 0 && ! isFiltered(slot) ){
+                    newSlot = slot;
                     newIndex = oldIndex - 1;
                     break;
                 }
                 findOld = false;
             }else{
-                if(isFiltered(talkDraw)) continue;
+                if(isFiltered(slot)) continue;
                 if(matches <= 0) continue;
-                newTalk = talkDraw;
+                newSlot = slot;
                 newIndex = matches - 1;
                 break;
             }
         }
 
         Rectangle showRect = null;
-        if(oldTalk == null && firstTalk != null){
-            int matches = firstTalk.getRegexMatches();
-            firstTalk.setHotTargetIndex(matches - 1);
-            showRect = firstTalk.getHotTargetRectangle();
-        }else if(   oldTalk != null
-                 && newTalk != null){
-            oldTalk.clearHotTarget();
-            newTalk.setHotTargetIndex(newIndex);
-            showRect = newTalk.getHotTargetRectangle();
+        if(oldSlot == null && firstSlot != null){
+            int matches = firstSlot.getRegexMatches();
+            firstSlot.setHotTargetIndex(matches - 1);
+            showRect = getHotTargetRectangle(firstSlot);
+        }else if(   oldSlot != null
+                 && newSlot != null){
+            oldSlot.setHotTargetIndex(-1);
+            newSlot.setHotTargetIndex(newIndex);
+            showRect = getHotTargetRectangle(newSlot);
         }
 
         if(showRect != null){
@@ -492,8 +995,8 @@ public void prevHotTarget(){
      * 検索結果の特殊ハイライト表示を解除。
      */
     public void clearHotTarget(){
-        for(TalkDraw talkDraw : this.talkDrawList){
-            talkDraw.clearHotTarget();
+        for(RowSlot slot : this.talkSlotList){
+            slot.setHotTargetIndex(-1);
         }
         repaint();
         return;
@@ -526,33 +1029,28 @@ private void clearSizeCache(){
     }
 
     /**
-     * 指定した矩形がフィルタリング対象か判定する。
+     * 指定した行がフィルタリング対象か判定する。
      *
-     * @param row 矩形
+     * @param slot 行記述子
      * @return フィルタリング対象ならtrue
      */
-    private boolean isFiltered(TextRow row){
+    private boolean isFiltered(RowSlot slot){
         if(this.topicFilter == null) return false;
 
-        Topic topic;
-        if(row instanceof TalkDraw){
-            topic = ((TalkDraw) row).getTalk();
-        }else if(row instanceof SysEventDraw){
-            topic = ((SysEventDraw) row).getSysEvent();
-        }else{
-            return false;
-        }
+        Topic topic = slot.getTopic();
+        if(topic == null) return false;
 
         return this.topicFilter.isFiltered(topic);
     }
 
     /**
-     * フィルタリング指定に従いTextRowを表示するか否か設定する。
+     * フィルタリング指定に従い行を表示するか否か設定する。
+     *
+     * <p>表示可否の変わった行のみが累積和索引に反映される。
      */
     private void filterTopics(){
-        for(TextRow row : this.rowList){
-            if(isFiltered(row)) row.setVisible(false);
-            else                row.setVisible(true);
+        for(RowSlot slot : this.slotList){
+            setSlotVisible(slot, ! isFiltered(slot) );
         }
         return;
     }
@@ -560,59 +1058,169 @@ private void filterTopics(){
     /**
      * 幅を設定する。
      *
-     * <p>全子TextRowがリサイズされる。
+     * <p>描画物を持つ行は直ちにリサイズされる。
+     * 描画物を持つ行は表示域の周辺に限られるため、
+     * この処理量はPeriodの大きさに依存しない。
+     *
+     * <p>描画物を持たない行の高さの見積もり直しは、
+     * 行数が少なければ直ちに行われ、
+     * 多ければ{@link LayoutPipeline}により作業スレッド群で並行して行われる。
+     * 後者の場合、見積もりが届くまでは古い見積もりが使われる。
      *
      * @param width コンポーネント幅
      */
     private void setWidth(int width){
         this.lastWidth = width;
-        Insets insets = getInsets();
-        int rowWidth = width - (insets.left + insets.right);
-        for(TextRow row : this.rowList){
-            row.setWidth(rowWidth);
+        int rowWidth = getRowWidth();
+
+        if(this.slotList.size() > LayoutPipeline.CHUNK_ROWS){
+            for(RowSlot slot : this.residentSet){
+                TextRow row = slot.getRow();
+                row.setWidth(rowWidth);
+                setSlotHeight(slot, row.getHeight());
+            }
+            startLayoutPipeline(rowWidth);
+            updateIdealSize();
+            updateResidentRows();
+            return;
         }
 
-        layoutVertical();
+        cancelLayoutPipeline();
+
+        this.heightIndex.setAll((index) -> {
+            RowSlot slot = this.slotList.get(index);
+            TextRow row = slot.getRow();
+            int height;
+            if(row != null){
+                row.setWidth(rowWidth);
+                height = row.getHeight();
+            }else{
+                height = estimateHeight(slot, rowWidth);
+            }
+            slot.setHeight(height);
+            return slot.isVisible() ? height : 0;
+        });
+
+        updateIdealSize();
+        updateResidentRows();
+
+        return;
+    }
 
+    /**
+     * 世代を改め、実行中の行の高さの並行計算を取りやめる。
+     *
+     * <p>取りやめた計算の結果が後から届いても捨てられる。
+     */
+    private void cancelLayoutPipeline(){
+        this.layoutGeneration++;
+        if(this.pipeline != null){
+            this.pipeline.cancel();
+            this.pipeline = null;
+        }
         return;
     }
 
     /**
-     * 子TextRowの縦位置レイアウトを行う。
+     * 現在の行幅と描画設定のスナップショットに対し、
+     * 全行の高さの並行計算を開始する。
      *
-     * <p>フィルタリングが反映される。
+     * <p>表示域先頭の行を含む塊から優先して計算される。
      *
-     * <p>TextRowは必要に応じて移動させられるがリサイズされることはない。
+     * @param rowWidth 行の幅
      */
-    private void layoutVertical(){
-        Rectangle unionRect = null;
-        Insets insets = getInsets();
-        int vertPos = insets.top;
+    private void startLayoutPipeline(int rowWidth){
+        cancelLayoutPipeline();
 
-        for(TextRow row : this.rowList){
-            if( ! row.isVisible() ) continue;
+        List<Topic> topicList = new ArrayList<>(this.slotList.size());
+        for(RowSlot slot : this.slotList){
+            topicList.add(slot.getTopic());
+        }
 
-            row.setPos(insets.left, vertPos);
-            Rectangle rowBound = row.getBounds();
-            vertPos += rowBound.height;
+        int firstIndex = getSlotIndexAt(getVisibleRect().y);
 
-            if(unionRect == null){
-                unionRect = new Rectangle(rowBound);
-            }else{
-                unionRect.add(rowBound);
+        this.pipeline = new LayoutPipeline(this.layoutGeneration,
+                                           rowWidth,
+                                           this.fontInfo,
+                                           this.dialogPref );
+        this.pipeline.start(topicList, firstIndex, this::chunkEstimated);
+
+        return;
+    }
+
+    /**
+     * 並行計算された1塊分の行の高さを反映する。
+     *
+     * <p>世代の異なる結果は捨てられる。
+     * 描画物を持つ行は実測値が優先される。
+     * 表示域より上の行の高さが変わった場合は、
+     * 表示内容が動かないようスクロール位置が補正される。
+     *
+     * @param source 計算したパイプライン
+     * @param from 塊の先頭の行番号
+     * @param heights 塊に属する各行の高さ
+     */
+    private void chunkEstimated(LayoutPipeline source,
+                                int from,
+                                int[] heights ){
+        if(source.getGeneration() != this.layoutGeneration) return;
+
+        int size = this.slotList.size();
+
+        Rectangle view = getVisibleRect();
+        int anchorIndex = getSlotIndexAt(view.y);
+        RowSlot anchorSlot = null;
+        int oldTop = 0;
+        if(anchorIndex < size){
+            anchorSlot = this.slotList.get(anchorIndex);
+            oldTop = getSlotTop(anchorSlot);
+        }
+
+        int to = Math.min(size, from + heights.length);
+        for(int index = from; index < to; index++){
+            RowSlot slot = this.slotList.get(index);
+            if(slot.getRow() != null) continue;
+            setSlotHeight(slot, heights[index - from]);
+        }
+
+        updateIdealSize();
+
+        if(anchorSlot != null && this.viewport != null){
+            int shift = getSlotTop(anchorSlot) - oldTop;
+            if(shift != 0){
+                setSize(getWidth(), this.idealSize.height);
+                Point pos = this.viewport.getViewPosition();
+                pos.y = Math.max(0, pos.y + shift);
+                this.viewport.setViewPosition(pos);
             }
         }
 
-        if(unionRect == null){
-            unionRect = new Rectangle(insets.left, insets.top, 0, 0);
+        return;
+    }
+
+    /**
+     * 全行の高さの総和から理想寸法を更新する。
+     *
+     * <p>各行の縦位置は累積和索引から必要な時に求められるため、
+     * ここで行が移動させられることはない。
+     */
+    private void updateIdealSize(){
+        Insets insets = getInsets();
+
+        int maxWidth = 0;
+        for(RowSlot slot : this.residentSet){
+            if( ! slot.isVisible() ) continue;
+            maxWidth = Math.max(maxWidth, slot.getRow().getWidth());
         }
 
         if(this.idealSize == null){
             this.idealSize = new Dimension();
         }
 
-        int newWidth  = insets.left + unionRect.width  + insets.right;
-        int newHeight = insets.top  + unionRect.height + insets.bottom;
+        int newWidth  = insets.left + maxWidth + insets.right;
+        int newHeight = insets.top
+                      + this.heightIndex.getTotal()
+                      + insets.bottom;
 
         this.idealSize.setSize(newWidth, newHeight);
 
@@ -633,11 +1241,71 @@ public void layoutRows(){
         return;
     }
 
+    /**
+     * 1発言の描画物の寸法変化を反映する。
+     *
+     * <p>アンカー展開などで1発言の高さが変わった際、
+     * 全行を再レイアウトすることなくO(log n)で反映する。
+     *
+     * @param talkDraw 発言の描画物
+     */
+    public void updateTalkRow(TalkDraw talkDraw){
+        RowSlot slot = this.talkSlotMap.get(talkDraw.getTalk());
+        if(slot == null || slot.getTalkDraw() != talkDraw) return;
+
+        setSlotHeight(slot, talkDraw.getHeight());
+        placeRow(slot);
+        updateIdealSize();
+
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>親がスクロール用のビューポートなら、
+     * その表示域の変化の監視を始める。
+     */
+    @Override
+    public void addNotify(){
+        super.addNotify();
+
+        Container parent = getParent();
+        if(parent instanceof JViewport){
+            this.viewport = (JViewport) parent;
+            this.viewport.addChangeListener(this.viewportWatcher);
+        }
+
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>ビューポートの監視をやめる。
+     */
+    @Override
+    public void removeNotify(){
+        if(this.viewport != null){
+            this.viewport.removeChangeListener(this.viewportWatcher);
+            this.viewport = null;
+        }
+
+        super.removeNotify();
+
+        return;
+    }
+
     /**
      * {@inheritDoc}
      *
      * <p>描画処理
      *
+     * <p>クリップ領域の上端を含む行を累積和索引から二分探索で求め、
+     * そこからクリップ領域の下端までの行のみを走査する。
+     * 描画物が用意されていない行は描画されず、
+     * 描画物の用意が後から行われる。
+     *
      * @param g {@inheritDoc}
      */
     @Override
@@ -648,8 +1316,23 @@ public void paintComponent(Graphics g){
         Rectangle clipRect = g2.getClipBounds();
         g2.fillRect(clipRect.x, clipRect.y, clipRect.width, clipRect.height);
 
-        for(TextRow row : this.rowList){
-            if( ! row.isVisible() ) continue;
+        int clipBottom = clipRect.y + clipRect.height;
+        boolean missing = false;
+
+        int size = this.slotList.size();
+        for(int index = getSlotIndexAt(clipRect.y); index < size; index++){
+            RowSlot slot = this.slotList.get(index);
+            if( ! slot.isVisible() ) continue;
+
+            int top = getSlotTop(slot);
+            if(top >= clipBottom) break;
+
+            TextRow row = slot.getRow();
+            if(row == null){
+                missing = true;
+                continue;
+            }
+            placeRow(slot);
 
             Rectangle rowRect = row.getBounds();
             if( ! rowRect.intersects(clipRect) ) continue;
@@ -657,6 +1340,10 @@ public void paintComponent(Graphics g){
             row.paint(g2);
         }
 
+        if(missing){
+            EventQueue.invokeLater(this::updateResidentRows);
+        }
+
         return;
     }
 
@@ -728,6 +1415,8 @@ public int getScrollableUnitIncrement(Rectangle visibleRect,
      *
      * <p>会話がフィルタリング対象の時はnullを返す。
      *
+     * <p>会話の描画物が無ければ用意される。
+     *
      * @param talk 会話
      * @return 領域
      */
@@ -735,30 +1424,43 @@ public Rectangle getTalkBounds(Talk talk){
         if(    this.topicFilter != null
             && this.topicFilter.isFiltered(talk)) return null;
 
-        for(TalkDraw talkDraw : this.talkDrawList){
-            if(talkDraw.getTalk() == talk){
-                Rectangle rect = talkDraw.getBounds();
-                return rect;
-            }
-        }
+        RowSlot slot = this.talkSlotMap.get(talk);
+        if(slot == null) return null;
 
-        return null;
+        TextRow row = ensureRow(slot);
+        Rectangle rect = row.getBounds();
+        return rect;
     }
 
     /**
      * ドラッグ処理を行う。
      *
+     * <p>ドラッグ対象となった行の範囲は、
+     * 選択が解除されるまで描画物の破棄を免れる。
+     *
      * @param from ドラッグ開始位置
      * @param to 現在のドラッグ位置
      */
     private void drag(Point from, Point to){
         Rectangle dragRegion = new Rectangle();
         dragRegion.setFrameFromDiagonal(from, to);
+        int regionBottom = dragRegion.y + dragRegion.height;
 
-        for(TextRow row : this.rowList){
-            if(isFiltered(row)) continue;
+        int size = this.slotList.size();
+        int first = getSlotIndexAt(dragRegion.y);
+        for(int index = first; index < size; index++){
+            RowSlot slot = this.slotList.get(index);
+            if(isFiltered(slot)) continue;
+            if(getSlotTop(slot) > regionBottom) break;
+
+            TextRow row = ensureRow(slot);
             if( ! row.getBounds().intersects(dragRegion) ) continue;
             row.drag(from, to);
+
+            if(this.selectFirst < 0 || index < this.selectFirst){
+                this.selectFirst = index;
+            }
+            this.selectLast = Math.max(this.selectLast, index);
         }
         repaint();
         return;
@@ -768,9 +1470,11 @@ private void drag(Point from, Point to){
      * 選択範囲の解除。
      */
     private void clearSelect(){
-        for(TextRow row : this.rowList){
-            row.clearSelect();
+        for(RowSlot slot : this.residentSet){
+            slot.getRow().clearSelect();
         }
+        this.selectFirst = -1;
+        this.selectLast  = -1;
         repaint();
         return;
     }
@@ -778,17 +1482,26 @@ private void clearSelect(){
     /**
      * 与えられた点座標を包含する会話を返す。
      *
+     * <p>点座標を含む行は累積和索引から二分探索で求められる。
+     *
      * @param pt 点座標（JComponent基準）
      * @return 点座標を含む会話。含む会話がなければnullを返す。
      */
-    // TODO 二分探索とかしたい。
     private TalkDraw getHittedTalkDraw(Point pt){
-        for(TalkDraw talkDraw : this.talkDrawList){
-            if(isFiltered(talkDraw)) continue;
-            Rectangle bounds = talkDraw.getBounds();
-            if(bounds.contains(pt)) return talkDraw;
-        }
-        return null;
+        int index = getSlotIndexAt(pt.y);
+        if(index >= this.slotList.size()) return null;
+
+        RowSlot slot = this.slotList.get(index);
+        if( ! slot.isVisible() ) return null;
+
+        TalkDraw talkDraw = slot.getTalkDraw();
+        if(talkDraw == null) return null;
+
+        placeRow(slot);
+        Rectangle bounds = talkDraw.getBounds();
+        if( ! bounds.contains(pt) ) return null;
+
+        return talkDraw;
     }
 
     /**
@@ -825,7 +1538,8 @@ private void hitRegex(Point pt){
         if(index < 0) return;
 
         clearHotTarget();
-        talkDraw.setHotTargetIndex(index);
+        RowSlot slot = this.talkSlotMap.get(talkDraw.getTalk());
+        if(slot != null) slot.setHotTargetIndex(index);
 
         return;
     }
@@ -989,8 +1703,13 @@ public void componentResized(ComponentEvent event){
     public CharSequence getSelected(){
         StringBuilder selected = new StringBuilder();
 
-        for(TextRow row : this.rowList){
-            if(isFiltered(row)) continue;
+        for(int index = this.selectFirst;
+            0 <= index && index <= this.selectLast;
+            index++ ){
+            RowSlot slot = this.slotList.get(index);
+            TextRow row = slot.getRow();
+            if(row == null) continue;
+            if(isFiltered(slot)) continue;
             try{
                 row.appendSelected(selected);
             }catch(IOException e){
@@ -0,0 +1,179 @@
+/*
+ * shared glyph advance cache
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.glyph;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * フォント設定毎に共有される、文字毎のグリフ送り幅のキャッシュ。
+ *
+ * <p>文字列全体のGlyphVectorを生成することなく、
+ * キャッシュした送り幅の累積からグリフ位置配列を作る。
+ * 送り幅は1文字分のGlyphVectorから求められ、
+ * 同じフォントと描画属性の下では全ての会話で使い回される。
+ *
+ * <p>得られる位置は、送り幅が前後の文字に依存しない場合に限り
+ * 文字列全体のGlyphVectorの位置と一致する近似値である。
+ * フォントにカーニングや合字の属性が指定されている場合は、
+ * 描画される行のGlyphVectorとの間に僅かなずれが生じうる。
+ *
+ * <p>キャッシュはフォント設定の{@link FontInfo#equals(Object)}で区別される。
+ * 保持するフォント設定の数が上限を超えると全て破棄される。
+ *
+ * <p>任意のスレッドから利用できる。
+ */
+final class GlyphAdvanceCache{
+
+    private static final int MAX_FONTS = 8;
+
+    private static final int BLOCK_BITS = 8;
+    private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    private static final int BMP_BLOCKS = 0x10000 >> BLOCK_BITS;
+
+    private static final Map<FontInfo, GlyphAdvanceCache> CACHE_MAP =
+            new ConcurrentHashMap<>();
+
+
+    private final Font font;
+    private final FontRenderContext context;
+
+    /** BMP文字の送り幅。未取得のブロックはnull、未取得の文字はNaN。 */
+    private final float[][] bmpBlocks = new float[BMP_BLOCKS][];
+    private final Map<Integer, Float> suppMap = new HashMap<>();
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param fontInfo フォント設定
+     */
+    private GlyphAdvanceCache(FontInfo fontInfo){
+        super();
+        this.font = fontInfo.getFont();
+        this.context = fontInfo.getFontRenderContext();
+        return;
+    }
+
+
+    /**
+     * フォント設定に対応するキャッシュを返す。
+     *
+     * @param fontInfo フォント設定
+     * @return キャッシュ
+     */
+    static GlyphAdvanceCache getCache(FontInfo fontInfo){
+        GlyphAdvanceCache result = CACHE_MAP.get(fontInfo);
+        if(result != null) return result;
+
+        if(CACHE_MAP.size() >= MAX_FONTS){
+            CACHE_MAP.clear();
+        }
+
+        result = CACHE_MAP.computeIfAbsent(fontInfo, GlyphAdvanceCache::new);
+
+        return result;
+    }
+
+    /**
+     * 1文字分のGlyphVectorから送り幅を求める。
+     *
+     * @param codePoint 文字
+     * @return 送り幅
+     */
+    private float measure(int codePoint){
+        String text = new String(Character.toChars(codePoint));
+        GlyphVector gv = this.font.createGlyphVector(this.context, text);
+        int glyphs = gv.getNumGlyphs();
+        float result = (float) gv.getGlyphPosition(glyphs).getX();
+        return result;
+    }
+
+    /**
+     * 文字の送り幅を返す。
+     *
+     * <p>ロックを保持したまま呼ばなければならない。
+     *
+     * @param codePoint 文字
+     * @return 送り幅
+     */
+    private float getAdvance(int codePoint){
+        if(codePoint > Character.MAX_VALUE){
+            Float cached = this.suppMap.get(codePoint);
+            if(cached != null) return cached;
+            float result = measure(codePoint);
+            this.suppMap.put(codePoint, result);
+            return result;
+        }
+
+        float[] block = this.bmpBlocks[codePoint >> BLOCK_BITS];
+        if(block == null){
+            block = new float[BLOCK_SIZE];
+            for(int idx = 0; idx < BLOCK_SIZE; idx++){
+                block[idx] = Float.NaN;
+            }
+            this.bmpBlocks[codePoint >> BLOCK_BITS] = block;
+        }
+
+        float result = block[codePoint & BLOCK_MASK];
+        if(Float.isNaN(result)){
+            result = measure(codePoint);
+            block[codePoint & BLOCK_MASK] = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * 文字列のグリフ位置配列を作る。
+     *
+     * <p>配列は{@link GlyphVector#getGlyphPositions}と同じ形式で、
+     * i番目の文字の左端のX座標が[i*2]に格納され、
+     * 末尾の文字の右端が[文字数*2]に格納される。Y座標は全て0。
+     *
+     * <p>サロゲートペアは上位サロゲートに送り幅の全てを割り当て、
+     * 下位サロゲートの送り幅を0とする。
+     *
+     * @param source 文字列
+     * @return グリフ位置配列
+     */
+    synchronized float[] createPositions(CharSequence source){
+        int length = source.length();
+        float[] result = new float[(length + 1) * 2];
+
+        float xPos = 0.0f;
+        int pos = 0;
+        while(pos < length){
+            char ch = source.charAt(pos);
+            int codePoint = ch;
+            int charNum = 1;
+            if(Character.isHighSurrogate(ch) && pos + 1 < length){
+                char low = source.charAt(pos + 1);
+                if(Character.isLowSurrogate(low)){
+                    codePoint = Character.toCodePoint(ch, low);
+                    charNum = 2;
+                }
+            }
+
+            result[pos * 2] = xPos;
+            xPos += getAdvance(codePoint);
+            if(charNum > 1) result[(pos + 1) * 2] = xPos;
+
+            pos += charNum;
+        }
+        result[length * 2] = xPos;
+
+        return result;
+    }
+
+}
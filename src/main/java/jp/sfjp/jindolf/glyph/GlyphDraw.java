@@ -8,15 +8,16 @@
 package jp.sfjp.jindolf.glyph;
 
 import java.awt.Color;
+import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.Shape;
+import java.awt.font.FontRenderContext;
 import java.awt.font.GlyphVector;
+import java.awt.font.LineMetrics;
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
-import java.text.CharacterIterator;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -36,11 +37,16 @@ public final class GlyphDraw extends AbstractTextRow implements SwingConstants{
     private static final Color COLOR_SEARCHHIT = new Color(0xb2b300);
     private static final Color COLOR_HOTTARGET = Color.ORANGE;
 
+    private static final String SAMPLE_CHAR = "あ";
+
     private Color foregroundColor = Color.WHITE;
     private final CharSequence source;
 
     private float[] dimArray;
-    private final List<GlyphVector> lines = new LinkedList<>();
+    private int[] lineOffsets = {0};
+    private GlyphVector[] lineGlyphs = new GlyphVector[0];
+    private int lineTop;
+    private int lineHeight;
     private Collection<Anchor> anchorSet;
     private final List<MatchInfo> matchList = new LinkedList<>();
     private MatchInfo hotTarget = null;
@@ -69,13 +75,78 @@ public GlyphDraw(CharSequence source, FontInfo fontInfo){
 
         this.source = source;
 
-        GlyphVector gv = createGlyphVector(this.source);
+        updateGlyphMetrics();
+
+        return;
+    }
+
+    /**
+     * グリフを生成せずに1行分の高さを見積もる。
+     *
+     * @param fontInfo フォント設定
+     * @return 行の高さの見積もり
+     */
+    static int estimateLineHeight(FontInfo fontInfo){
+        Font font = fontInfo.getFont();
+        FontRenderContext context = fontInfo.getFontRenderContext();
+        LineMetrics metrics = font.getLineMetrics(SAMPLE_CHAR, context);
+        int result = (int) Math.ceil(metrics.getHeight());
+        return result;
+    }
 
-        int sourceLength = gv.getNumGlyphs();
+    /**
+     * グリフを生成せずに文字列の描画に要する高さを見積もる。
+     *
+     * <p>全角文字はフォントサイズ、半角文字はその半分の幅を持つとみなし、
+     * {@link #recalcBounds()}と同じ規則で行を折り返す。
+     *
+     * @param source 文字列
+     * @param fontInfo フォント設定
+     * @param width 描画幅
+     * @return 高さの見積もり
+     */
+    static int estimateHeight(CharSequence source,
+                              FontInfo fontInfo,
+                              int width ){
+        float fullWidth = fontInfo.getFont().getSize2D();
+        float halfWidth = fullWidth / 2.0f;
 
-        this.dimArray = gv.getGlyphPositions(0, sourceLength+1, null);
+        int lineNum = 0;
+        boolean inLine = false;
+        float span = 0.0f;
 
-        return;
+        int length = source.length();
+        for(int pos = 0; pos < length; pos++){
+            char ch = source.charAt(pos);
+
+            if(ch == '\n'){
+                if( ! inLine ) lineNum++;
+                inLine = false;
+                continue;
+            }
+
+            if( ! inLine ){
+                lineNum++;
+                inLine = true;
+                span = 0.0f;
+            }
+
+            float advance;
+            if(ch < '\u0100' || ('\uff61' <= ch && ch <= '\uff9f')){
+                advance = halfWidth;
+            }else{
+                advance = fullWidth;
+            }
+
+            if(span > 0.0f && span + advance > width){
+                lineNum++;
+                span = 0.0f;
+            }
+            span += advance;
+        }
+
+        int result = lineNum * estimateLineHeight(fontInfo);
+        return result;
     }
 
     /**
@@ -124,79 +195,166 @@ public float getSpan(int fromPos, int toPos){
     }
 
     /**
-     * 指定領域の文字列から行情報を生成し内部に登録する。
+     * 現在のフォント設定からグリフ位置と行の寸法を求める。
+     *
+     * <p>グリフ位置はフォント設定毎に共有される{@link GlyphAdvanceCache}
+     * から作られ、文字列全体のGlyphVectorは生成されない。
+     * 折り返しや選択範囲の判定に用いるこの位置は近似値であり、
+     * カーニングなどが効く場合は描画位置と僅かにずれうる。
+     *
+     * <p>全ての行は同じ高さを持ち、
+     * 1行分のGlyphVectorの論理矩形と同じ寸法となる。
+     */
+    private void updateGlyphMetrics(){
+        GlyphAdvanceCache cache = GlyphAdvanceCache.getCache(this.fontInfo);
+        this.dimArray = cache.createPositions(this.source);
+
+        Font font = this.fontInfo.getFont();
+        FontRenderContext context = this.fontInfo.getFontRenderContext();
+        LineMetrics metrics = font.getLineMetrics("", context);
+
+        float ascent = metrics.getAscent();
+        float height = ascent + metrics.getDescent() + metrics.getLeading();
+        Rectangle2D r2d = new Rectangle2D.Float(0.0f, -ascent, 0.0f, height);
+        Rectangle rect = r2d.getBounds();
+
+        this.lineTop    = rect.y;
+        this.lineHeight = rect.height;
+
+        return;
+    }
+
+    /**
+     * 行数を返す。
+     *
+     * @return 行数
+     */
+    private int getLineCount(){
+        return this.lineOffsets.length - 1;
+    }
+
+    /**
+     * 行の先頭の文字位置を返す。
+     *
+     * @param line 行番号
+     * @return 文字位置
+     */
+    private int getLineStart(int line){
+        return this.lineOffsets[line];
+    }
+
+    /**
+     * 行の末尾の文字位置を返す。
+     *
+     * @param line 行番号
+     * @return 文字位置
+     */
+    private int getLineLast(int line){
+        return this.lineOffsets[line + 1] - 1;
+    }
+
+    /**
+     * 行のピクセル幅を返す。
+     *
+     * @param line 行番号
+     * @return ピクセル幅
+     */
+    private int getLineWidth(int line){
+        float span = getSpan(getLineStart(line), getLineLast(line));
+        return (int) Math.ceil(span);
+    }
+
+    /**
+     * 行内の文字範囲が占める矩形を返す。
+     *
+     * <p>座標は行の左端とベースラインを原点とする。
+     *
+     * @param line 行番号
+     * @param start 範囲開始位置
+     * @param last 範囲終了位置
+     * @return 矩形
+     */
+    private Rectangle getRangeBounds(int line, int start, int last){
+        float base  = LineBreaker.xPos(this.dimArray, getLineStart(line));
+        float left  = LineBreaker.xPos(this.dimArray, start) - base;
+        float right = LineBreaker.xPos(this.dimArray, last + 1) - base;
+
+        int xPos = (int) Math.floor(left);
+        int width = (int) Math.ceil(right) - xPos;
+
+        Rectangle result =
+                new Rectangle(xPos, this.lineTop, width, this.lineHeight);
+
+        return result;
+    }
+
+    /**
+     * 縦位置を含む行を返す。
+     *
+     * <p>全ての行は同じ高さを持つため、除算のみで求まる。
      *
-     * @param from 文字列開始位置
-     * @param to 文字列終了位置
-     * @return 行情報
+     * @param yPos 縦位置
+     * @return 行番号。含む行が無ければ-1
      */
-    protected GlyphVector createLine(int from, int to){
-        GlyphVector line = createGlyphVector(this.source, from, to + 1);
-        this.lines.add(line);
+    private int getLineAt(int yPos){
+        if(this.lineHeight <= 0) return -1;
+
+        int offset = yPos - this.bounds.y;
+        if(offset < 0) return -1;
+
+        int line = offset / this.lineHeight;
+        if(line >= getLineCount()) return -1;
+
         return line;
     }
 
+    /**
+     * 行のGlyphVectorを返す。
+     *
+     * <p>GlyphVectorは初めて描画される時に生成され、
+     * 行の分割がやり直されるまで保持される。
+     *
+     * @param line 行番号
+     * @return GlyphVector
+     */
+    private GlyphVector getLineGlyph(int line){
+        GlyphVector result = this.lineGlyphs[line];
+        if(result != null) return result;
+
+        int from = getLineStart(line);
+        int to   = getLineLast(line) + 1;
+        result = createGlyphVector(this.source, from, to);
+        this.lineGlyphs[line] = result;
+
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      *
+     * <p>行末はグリフの累積位置を二分探索する{@link LineBreaker}で求められ、
+     * 各行は文字位置の範囲として保持される。
+     * 行の寸法はグリフ位置と行メトリクスから求められ、
+     * GlyphVectorは生成されない。
+     *
      * @return {@inheritDoc}
      */
-    // TODO 最後が \n で終わるダイアログが無限再帰を起こす？
     @Override
     public Rectangle recalcBounds(){
         float newWidth = (float) getWidth();
-        this.lines.clear();
-        CharacterIterator iterator;
-        iterator = new SequenceCharacterIterator(this.source);
-        int from = iterator.getIndex();
-        int to = from;
-        for(;;){
-            char ch =  iterator.current();
-
-            if(ch == CharacterIterator.DONE){
-                if(from < to){
-                    createLine(from, to - 1);
-                }
-                break;
-            }
+        this.lineOffsets =
+                LineBreaker.breakLines(this.source, this.dimArray, newWidth);
 
-            if(ch == '\n'){
-                createLine(from, to);
-                to++;
-                from = to;
-                iterator.next();
-                continue;
-            }
-
-            float fwidth = getSpan(from, to);
-            if(fwidth > newWidth){
-                if(from < to){
-                    createLine(from, to - 1);
-                    from = to;
-                }else{
-                    createLine(from, to);
-                    to++;
-                    from = to;
-                    iterator.next();
-                }
-                continue;
-            }
-
-            to++;
-            iterator.next();
-        }
+        int lineNum = getLineCount();
+        this.lineGlyphs = new GlyphVector[lineNum];
 
         int totalWidth = 0;
-        int totalHeight = 0;
-        for(GlyphVector gv : this.lines){
-            Rectangle2D r2d = gv.getLogicalBounds();
-            Rectangle rect = r2d.getBounds();
-            totalWidth = Math.max(totalWidth, rect.width);
-            totalHeight += rect.height;
+        for(int line = 0; line < lineNum; line++){
+            totalWidth = Math.max(totalWidth, getLineWidth(line));
         }
 
         this.bounds.width  = totalWidth;
-        this.bounds.height = totalHeight;
+        this.bounds.height = this.lineHeight * lineNum;
 
         return this.bounds;
     }
@@ -210,12 +368,7 @@ public Rectangle recalcBounds(){
     public void setFontInfo(FontInfo fontInfo){
         super.setFontInfo(fontInfo);
 
-        GlyphVector gv = createGlyphVector(this.source);
-
-        int sourceLength = gv.getNumGlyphs();
-
-        this.dimArray = gv.getGlyphPositions(0, sourceLength+1, null);
-
+        updateGlyphMetrics();
         recalcBounds();
 
         return;
@@ -224,33 +377,27 @@ public void setFontInfo(FontInfo fontInfo){
     /**
      * 指定された点座標が文字列のどこを示すか判定する。
      *
+     * <p>行は縦位置から直接求められ、
+     * 行内の文字はグリフの累積位置の二分探索で求められる。
+     *
      * @param pt 点座標
      * @return 文字位置。座標が文字列以外を示す場合は-1を返す。
      */
     public int getCharIndex(Point pt){
         if( ! this.bounds.contains(pt) ) return -1;
 
-        int sPos = 0;
-        int xPos = this.bounds.x;
-        int yPos = this.bounds.y;
-        for(GlyphVector gv : this.lines){
-            Rectangle2D r2d = gv.getLogicalBounds();
-            Rectangle rect = r2d.getBounds();
-            rect.x = xPos;
-            rect.y = yPos;
-            int sourceLength = gv.getNumGlyphs();
-            if(rect.contains(pt)){
-                for(int pos = 0; pos < sourceLength; pos++){
-                    float span = getSpan(sPos, sPos+pos);
-                    if(span+xPos > pt.x) return sPos + pos;
-                }
-                return -1;
-            }
-            yPos += rect.height;
-            sPos += sourceLength;
-        }
+        int line = getLineAt(pt.y);
+        if(line < 0) return -1;
 
-        return -1;
+        int xOffset = pt.x - this.bounds.x;
+        if(xOffset >= getLineWidth(line)) return -1;
+
+        int result = LineBreaker.indexAt(this.dimArray,
+                                         getLineStart(line),
+                                         getLineLast(line) + 1,
+                                         (float) xOffset );
+
+        return result;
     }
 
     /**
@@ -351,19 +498,17 @@ public void drag(Point from, Point to){
 
         int xPos = this.bounds.x;
         int yPos = this.bounds.y;
-        int accumPos = 0;
-        for(GlyphVector gv : this.lines){
-            int glyphStart = accumPos;
-            int glyphLast   = accumPos + gv.getNumGlyphs() - 1;
-            Rectangle2D r2d = gv.getLogicalBounds();
-            Rectangle rect = r2d.getBounds();
-            rect.x += xPos;
-            rect.y = yPos;
+        int lineNum = getLineCount();
+        for(int line = 0; line < lineNum; line++){
+            int glyphStart = getLineStart(line);
+            int glyphLast  = getLineLast(line);
+            Rectangle rect = new Rectangle(xPos, yPos,
+                                           getLineWidth(line),
+                                           this.lineHeight );
 
             if(    fromIndex < 0
                 && GUIUtils.getDirection(rect, fromPt) == SOUTH){
                 yPos += rect.height;
-                accumPos = glyphLast + 1;
                 continue;
             }else if(   toIndex < 0
                      && GUIUtils.getDirection(rect, toPt) == NORTH){
@@ -393,7 +538,6 @@ public void drag(Point from, Point to){
             }
 
             yPos += rect.height;
-            accumPos = glyphLast + 1;
         }
 
         clearSelect();
@@ -414,11 +558,10 @@ private void paintRegexHitted(Graphics2D g){
         int xPos = this.bounds.x;
         int yPos = this.bounds.y + ascent;
 
-        int accumPos = 0;
-
-        for(GlyphVector line : this.lines){
-            int glyphStart = accumPos;
-            int glyphLast   = accumPos + line.getNumGlyphs() - 1;
+        int lineNum = getLineCount();
+        for(int line = 0; line < lineNum; line++){
+            int glyphStart = getLineStart(line);
+            int glyphLast  = getLineLast(line);
 
             for(MatchInfo match : this.matchList){
                 int matchStart = match.getStartPos();
@@ -429,11 +572,8 @@ private void paintRegexHitted(Graphics2D g){
 
                 int hilightStart = Math.max(matchStart, glyphStart);
                 int hilightLast  = Math.min(matchLast,  glyphLast);
-                Shape shape;
-                shape = line.getGlyphLogicalBounds(hilightStart - glyphStart);
-                Rectangle hilight = shape.getBounds();
-                shape = line.getGlyphLogicalBounds(hilightLast - glyphStart);
-                hilight.add(shape.getBounds());
+                Rectangle hilight =
+                        getRangeBounds(line, hilightStart, hilightLast);
 
                 if(match == this.hotTarget){
                     g.setColor(COLOR_HOTTARGET);
@@ -447,12 +587,7 @@ private void paintRegexHitted(Graphics2D g){
                            hilight.height );
             }
 
-            Rectangle2D r2d = line.getLogicalBounds();
-            Rectangle rect = r2d.getBounds();
-
-            yPos += rect.height;
-
-            accumPos = glyphLast + 1;
+            yPos += this.lineHeight;
         }
 
         return;
@@ -471,38 +606,28 @@ private void paintSelected(Graphics2D g){
         int xPos = this.bounds.x;
         int yPos = this.bounds.y;
 
-        int accumPos = 0;
-
-        for(GlyphVector line : this.lines){
-            int glyphStart = accumPos;
-            int glyphLast   = accumPos + line.getNumGlyphs() - 1;
+        int lineNum = getLineCount();
+        for(int line = 0; line < lineNum; line++){
+            int glyphStart = getLineStart(line);
+            int glyphLast  = getLineLast(line);
 
             if(this.selectLast < glyphStart) break;
 
-            Rectangle2D r2d = line.getLogicalBounds();
-            Rectangle rect = r2d.getBounds();
-
             if(glyphLast < this.selectStart){
-                yPos += rect.height;
-                accumPos = glyphLast + 1;
+                yPos += this.lineHeight;
                 continue;
             }
 
             int hilightStart = Math.max(this.selectStart, glyphStart);
             int hilightLast  = Math.min(this.selectLast,  glyphLast);
-            Shape shape;
-            shape = line.getGlyphLogicalBounds(hilightStart - glyphStart);
-            Rectangle hilight = shape.getBounds();
-            shape = line.getGlyphLogicalBounds(hilightLast - glyphStart);
-            hilight.add(shape.getBounds());
+            Rectangle hilight = getRangeBounds(line, hilightStart, hilightLast);
 
             g.fillRect(xPos + hilight.x,
                        yPos,
                        hilight.width,
                        hilight.height );
 
-            yPos += rect.height;
-            accumPos = glyphLast + 1;
+            yPos += this.lineHeight;
         }
 
         return;
@@ -525,11 +650,10 @@ private void paintAnchorBack(Graphics2D g){
         int xPos = this.bounds.x;
         int yPos = this.bounds.y + ascent;
 
-        int accumPos = 0;
-
-        for(GlyphVector line : this.lines){
-            int glyphStart = accumPos;
-            int glyphLast   = accumPos + line.getNumGlyphs() - 1;
+        int lineNum = getLineCount();
+        for(int line = 0; line < lineNum; line++){
+            int glyphStart = getLineStart(line);
+            int glyphLast  = getLineLast(line);
 
             for(Anchor anchor : this.anchorSet){
                 int anchorStart = anchor.getStartPos();
@@ -540,11 +664,8 @@ private void paintAnchorBack(Graphics2D g){
 
                 int hilightStart = Math.max(anchorStart, glyphStart);
                 int hilightLast  = Math.min(anchorLast,  glyphLast);
-                Shape shape;
-                shape = line.getGlyphLogicalBounds(hilightStart - glyphStart);
-                Rectangle hilight = shape.getBounds();
-                shape = line.getGlyphLogicalBounds(hilightLast - glyphStart);
-                hilight.add(shape.getBounds());
+                Rectangle hilight =
+                        getRangeBounds(line, hilightStart, hilightLast);
 
                 g.fillRect(xPos + hilight.x,
                            yPos + hilight.y,
@@ -552,12 +673,7 @@ private void paintAnchorBack(Graphics2D g){
                            hilight.height );
             }
 
-            Rectangle2D r2d = line.getLogicalBounds();
-            Rectangle rect = r2d.getBounds();
-
-            yPos += rect.height;
-
-            accumPos = glyphLast + 1;
+            yPos += this.lineHeight;
         }
 
         return;
@@ -566,6 +682,8 @@ private void paintAnchorBack(Graphics2D g){
     /**
      * {@inheritDoc}
      *
+     * <p>クリップ領域にかかる行のみが描画される。
+     *
      * @param g {@inheritDoc}
      */
     @Override
@@ -574,21 +692,29 @@ public void paint(Graphics2D g){
         FontMetrics metrics = g.getFontMetrics();
         int ascent  = metrics.getAscent();
 
-        int xPos = this.bounds.x;
-        int yPos = this.bounds.y + ascent;
-
         paintAnchorBack(g);
         paintRegexHitted(g);
         paintSelected(g);
 
-        g.setColor(this.foregroundColor);
-        for(GlyphVector gv : this.lines){
-            g.drawGlyphVector(gv, xPos, yPos);
+        int lineNum = getLineCount();
+        int firstLine = 0;
+        int lastLine = lineNum - 1;
+        Rectangle clip = g.getClipBounds();
+        if(clip != null && this.lineHeight > 0){
+            // 論理矩形をはみ出すグリフのため前後1行を余分に描く
+            int clipTop    = clip.y - this.bounds.y;
+            int clipBottom = clipTop + clip.height;
+            firstLine = Math.max(firstLine, clipTop / this.lineHeight - 1);
+            lastLine  = Math.min(lastLine, clipBottom / this.lineHeight + 1);
+        }
 
-            Rectangle2D r2d = gv.getLogicalBounds();
-            Rectangle rect = r2d.getBounds();
+        int xPos = this.bounds.x;
+        int yPos = this.bounds.y + ascent + firstLine * this.lineHeight;
 
-            yPos += rect.height;
+        g.setColor(this.foregroundColor);
+        for(int line = firstLine; line <= lastLine; line++){
+            g.drawGlyphVector(getLineGlyph(line), xPos, yPos);
+            yPos += this.lineHeight;
         }
 
         return;
@@ -714,14 +840,13 @@ public Rectangle getHotTargetRectangle(){
         int xPos = this.bounds.x;
         int yPos = this.bounds.y;
 
-        int accumPos = 0;
-
         int matchStart = this.hotTarget.getStartPos();
         int matchLast  = this.hotTarget.getEndPos() - 1;
 
-        for(GlyphVector gv : this.lines){
-            int glyphStart = accumPos;
-            int glyphLast   = accumPos + gv.getNumGlyphs() - 1;
+        int lineNum = getLineCount();
+        for(int line = 0; line < lineNum; line++){
+            int glyphStart = getLineStart(line);
+            int glyphLast  = getLineLast(line);
 
             if(matchLast < glyphStart) break;
 
@@ -729,11 +854,8 @@ public Rectangle getHotTargetRectangle(){
                 int hilightStart = Math.max(matchStart, glyphStart);
                 int hilightLast  = Math.min(matchLast,  glyphLast);
 
-                Shape shape;
-                shape = gv.getGlyphLogicalBounds(hilightStart - glyphStart);
-                Rectangle hilight = shape.getBounds();
-                shape = gv.getGlyphLogicalBounds(hilightLast - glyphStart);
-                hilight.add(shape.getBounds());
+                Rectangle hilight =
+                        getRangeBounds(line, hilightStart, hilightLast);
 
                 Rectangle temp = new Rectangle(xPos + hilight.x,
                                                yPos,
@@ -746,11 +868,7 @@ public Rectangle getHotTargetRectangle(){
                 }
             }
 
-            Rectangle2D r2d = gv.getLogicalBounds();
-            Rectangle rect = r2d.getBounds();
-            yPos += rect.height;
-
-            accumPos = glyphLast + 1;
+            yPos += this.lineHeight;
         }
 
         return result;
@@ -0,0 +1,239 @@
+/*
+ * parallel row layout pipeline
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.glyph;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import jp.sfjp.jindolf.data.DialogPref;
+import jp.sfjp.jindolf.data.SysEvent;
+import jp.sfjp.jindolf.data.Talk;
+import jp.sfjp.jindolf.data.Topic;
+import jp.sfjp.jindolf.util.DaemonThreadFactory;
+
+/**
+ * 会話表示画面の行の高さを作業スレッド群で並行して求める。
+ *
+ * <p>1つのパイプラインは行幅とフォント設定、会話表示設定の
+ * 不変なスナップショットに対する1世代分の計算を担う。
+ * 行は一定数ずつの塊に分けられ、
+ * 指定した行に近い塊から順に作業スレッドへ投入される。
+ *
+ * <p>塊毎の計算結果はEvent Dispatch Threadから{@link ChunkListener}へ
+ * 通知される。
+ * 通知を受けた側は世代番号を照合し、古い世代の結果を捨てなければならない。
+ */
+final class LayoutPipeline{
+
+    /** 1タスクが担う行数。 */
+    static final int CHUNK_ROWS = 256;
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newFixedThreadPool(
+                    Math.max(1, Runtime.getRuntime().availableProcessors()),
+                    new DaemonThreadFactory("LayoutPipeline"));
+
+
+    private final int generation;
+    private final int rowWidth;
+    private final FontInfo fontInfo;
+    private final DialogPref dialogPref;
+
+    private volatile boolean cancelled = false;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>フォント設定と会話表示設定はこの時点の内容が複製され、
+     * 以降の変更の影響を受けない。
+     * Event Dispatch Threadから呼ばなければならない。
+     *
+     * @param generation 世代番号
+     * @param rowWidth 行の幅
+     * @param fontInfo フォント設定
+     * @param dialogPref 会話表示設定
+     */
+    LayoutPipeline(int generation,
+                   int rowWidth,
+                   FontInfo fontInfo,
+                   DialogPref dialogPref ){
+        super();
+
+        this.generation = generation;
+        this.rowWidth = rowWidth;
+
+        // フォントと描画属性をこのスレッドで確定させ、それだけを複製する。
+        // フォントを持つ複製ではファミリ名も評価されず、
+        // 作業スレッドで遅延評価が起きることはない。
+        this.fontInfo = new FontInfo(fontInfo.getFont(),
+                                     fontInfo.getFontRenderContext() );
+
+        this.dialogPref = new DialogPref();
+        this.dialogPref.setBodyImageSetting(dialogPref.useBodyImage());
+        this.dialogPref.setMonoImageSetting(dialogPref.useMonoImage());
+        this.dialogPref.setSimpleMode(dialogPref.isSimpleMode());
+        this.dialogPref.setAlignBalooonWidthSetting(
+                dialogPref.alignBaloonWidth());
+
+        return;
+    }
+
+
+    /**
+     * 世代番号を返す。
+     *
+     * @return 世代番号
+     */
+    int getGeneration(){
+        return this.generation;
+    }
+
+    /**
+     * 計算の前提とした行の幅を返す。
+     *
+     * @return 行の幅
+     */
+    int getRowWidth(){
+        return this.rowWidth;
+    }
+
+    /**
+     * 未着手の計算を取りやめる。
+     *
+     * <p>以降の通知は行われない。
+     */
+    void cancel(){
+        this.cancelled = true;
+        return;
+    }
+
+    /**
+     * 取りやめられたか判定する。
+     *
+     * @return 取りやめられたならtrue
+     */
+    boolean isCancelled(){
+        return this.cancelled;
+    }
+
+    /**
+     * 描画物を生成せずにTopicの行の高さを見積もる。
+     *
+     * <p>任意のスレッドから呼べる。
+     *
+     * @param topic Topic
+     * @return 高さの見積もり
+     */
+    int estimateHeight(Topic topic){
+        int result;
+        if(topic instanceof Talk){
+            result = TalkDraw.estimateHeight((Talk) topic,
+                                             this.dialogPref,
+                                             this.fontInfo,
+                                             this.rowWidth );
+        }else if(topic instanceof SysEvent){
+            result = SysEventDraw.estimateHeight((SysEvent) topic,
+                                                 this.fontInfo,
+                                                 this.rowWidth );
+        }else{
+            assert false;
+            result = 0;
+        }
+
+        return result;
+    }
+
+    /**
+     * 行の高さの計算を開始する。
+     *
+     * <p>直ちに戻る。
+     * Topicのリストは呼び出し元で複製済みであり、
+     * 以降変更されないものでなければならない。
+     *
+     * @param topicList 行毎のTopic
+     * @param firstIndex 優先して計算すべき行の番号
+     * @param listener 塊毎の計算結果の通知先
+     */
+    void start(List<Topic> topicList,
+               int firstIndex,
+               ChunkListener listener ){
+        int size = topicList.size();
+        if(size <= 0) return;
+
+        int chunks = (size + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        int center = Math.min(Math.max(0, firstIndex), size - 1) / CHUNK_ROWS;
+
+        List<Integer> order = new ArrayList<>(chunks);
+        order.add(center);
+        for(int dist = 1; order.size() < chunks; dist++){
+            if(center + dist <  chunks) order.add(center + dist);
+            if(center - dist >= 0     ) order.add(center - dist);
+        }
+
+        for(int chunk : order){
+            int from = chunk * CHUNK_ROWS;
+            int to = Math.min(size, from + CHUNK_ROWS);
+            List<Topic> subList = topicList.subList(from, to);
+            EXECUTOR.execute(() -> {
+                runChunk(subList, from, listener);
+            });
+        }
+
+        return;
+    }
+
+    /**
+     * 1塊分の行の高さを求め、結果をEvent Dispatch Threadから通知する。
+     *
+     * @param subList 塊に属するTopic
+     * @param from 塊の先頭の行番号
+     * @param listener 通知先
+     */
+    private void runChunk(List<Topic> subList,
+                          int from,
+                          ChunkListener listener ){
+        if(this.cancelled) return;
+
+        int[] heights = new int[subList.size()];
+        int index = 0;
+        for(Topic topic : subList){
+            heights[index++] = estimateHeight(topic);
+        }
+
+        EventQueue.invokeLater(() -> {
+            if(this.cancelled) return;
+            listener.chunkEstimated(this, from, heights);
+        });
+
+        return;
+    }
+
+
+    /**
+     * 塊毎の計算結果の通知先。
+     */
+    @FunctionalInterface
+    interface ChunkListener{
+
+        /**
+         * 1塊分の行の高さが求まった。
+         *
+         * <p>Event Dispatch Threadから呼ばれる。
+         *
+         * @param pipeline 計算したパイプライン
+         * @param from 塊の先頭の行番号
+         * @param heights 塊に属する各行の高さ
+         */
+        void chunkEstimated(LayoutPipeline pipeline, int from, int[] heights);
+
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * line breaking over glyph positions
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.glyph;
+
+import java.util.Arrays;
+
+/**
+ * グリフの累積位置から行の折り返し位置を求める。
+ *
+ * <p>グリフ位置配列は{@link java.awt.font.GlyphVector#getGlyphPositions}
+ * と同じ形式で、i番目のグリフの左端のX座標が[i*2]に格納され、
+ * 末尾のグリフの右端が[文字数*2]に格納されたもの。
+ * 1文字が1グリフに対応していなければならない。
+ *
+ * <p>行末は累積位置の二分探索により求められる。
+ */
+final class LineBreaker{
+
+    private static final int INITIAL_LINES = 8;
+
+
+    /**
+     * 隠しコンストラクタ。
+     */
+    private LineBreaker(){
+        assert false;
+    }
+
+
+    /**
+     * グリフ位置配列からグリフの左端のX座標を得る。
+     *
+     * @param positions グリフ位置配列
+     * @param index 文字位置
+     * @return X座標
+     */
+    static float xPos(float[] positions, int index){
+        return positions[index * 2];
+    }
+
+    /**
+     * 文字列を行に分割する。
+     *
+     * <p>各行は改行文字'\n'もしくは描画幅の超過で区切られる。
+     * 改行文字はその直前の文字と同じ行に属する。
+     * 1文字だけで描画幅を超える場合はその1文字が1行となる。
+     * 末尾の改行文字の後に空行は作られない。
+     *
+     * <p>各行は隙間なく連続するため、行の区切り位置のみが返される。
+     * 結果の[i]はi行目の先頭位置、[i+1]はi行目の末尾の次の位置。
+     * 最後の要素は文字列長に等しい。
+     *
+     * @param source 文字列
+     * @param positions グリフ位置配列
+     * @param width 描画幅
+     * @return 行の区切り位置の配列。長さは行数+1
+     */
+    static int[] breakLines(CharSequence source,
+                            float[] positions,
+                            float width ){
+        int length = source.length();
+
+        int[] offsets = new int[INITIAL_LINES + 1];
+        int lineNum = 0;
+
+        int from = 0;
+        int newline = -1;
+        while(from < length){
+            if(newline < from){
+                newline = indexOfNewline(source, from);
+            }
+
+            int next = findLineEnd(positions, from, newline, width);
+            if(next > newline){
+                // 改行文字を含めて行とする
+                next = Math.min(newline + 1, length);
+            }
+
+            lineNum++;
+            if(lineNum >= offsets.length){
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[lineNum] = next;
+
+            from = next;
+        }
+
+        return Arrays.copyOf(offsets, lineNum + 1);
+    }
+
+    /**
+     * 改行文字を探す。
+     *
+     * @param source 文字列
+     * @param from 探索開始位置
+     * @return 改行文字の位置。無ければ文字列長
+     */
+    private static int indexOfNewline(CharSequence source, int from){
+        int length = source.length();
+        for(int pos = from; pos < length; pos++){
+            if(source.charAt(pos) == '\n') return pos;
+        }
+        return length;
+    }
+
+    /**
+     * 描画幅に収まる行末を二分探索する。
+     *
+     * @param positions グリフ位置配列
+     * @param from 行の先頭位置
+     * @param limit 行に含めうる文字の上限位置。この位置は含まない
+     * @param width 描画幅
+     * @return 次の行の先頭位置。上限位置まで収まるなら上限位置+1
+     */
+    private static int findLineEnd(float[] positions,
+                                   int from,
+                                   int limit,
+                                   float width ){
+        float border = xPos(positions, from) + width;
+
+        // 右端が描画幅を超える最初の文字の、右端の位置
+        int low  = from + 1;
+        int high = limit + 1;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(xPos(positions, mid) > border) high = mid;
+            else                              low  = mid + 1;
+        }
+
+        if(low > limit) return limit + 1;
+
+        int over = low - 1;
+        if(from < over) return over;
+
+        return from + 1;
+    }
+
+    /**
+     * 行内で与えられたX座標を含む文字を二分探索する。
+     *
+     * @param positions グリフ位置配列
+     * @param from 行の先頭位置
+     * @param to 行の末尾の次の位置
+     * @param xOffset 行の先頭からのX座標
+     * @return 文字位置。行の右端以降なら-1
+     */
+    static int indexAt(float[] positions, int from, int to, float xOffset){
+        float border = xPos(positions, from) + xOffset;
+
+        int low  = from + 1;
+        int high = to + 1;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(xPos(positions, mid) > border) high = mid;
+            else                              low  = mid + 1;
+        }
+
+        if(low > to) return -1;
+
+        return low - 1;
+    }
+
+}
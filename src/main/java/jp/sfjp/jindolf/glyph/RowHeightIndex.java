@@ -0,0 +1,219 @@
+/*
+ * prefix-sum index of row heights
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.glyph;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * 縦に並ぶ行の高さの累積和索引。
+ *
+ * <p>Fenwick木(Binary Indexed Tree)により、
+ * 1行の高さの変更と任意の行の縦位置の算出、
+ * 縦位置を含む行の探索をいずれもO(log n)で行う。
+ *
+ * <p>非表示の行は高さ0として登録される。
+ */
+final class RowHeightIndex{
+
+    private static final int INITIAL_CAPACITY = 64;
+
+
+    private int[] heights = new int[INITIAL_CAPACITY];
+    private int[] tree = new int[INITIAL_CAPACITY + 1];
+    private int size = 0;
+    private int total = 0;
+
+
+    /**
+     * コンストラクタ。
+     */
+    RowHeightIndex(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 最下位の1ビットを返す。
+     *
+     * @param pos 木の位置
+     * @return 最下位の1ビット
+     */
+    private static int lowBit(int pos){
+        return pos & -pos;
+    }
+
+    /**
+     * 行数を返す。
+     *
+     * @return 行数
+     */
+    int size(){
+        return this.size;
+    }
+
+    /**
+     * 全行の高さの総和を返す。
+     *
+     * @return 高さの総和
+     */
+    int getTotal(){
+        return this.total;
+    }
+
+    /**
+     * 行の高さを返す。
+     *
+     * @param index 行番号
+     * @return 高さ
+     * @throws IndexOutOfBoundsException 行番号が範囲外
+     */
+    int get(int index) throws IndexOutOfBoundsException{
+        if(index < 0 || this.size <= index){
+            throw new IndexOutOfBoundsException();
+        }
+        return this.heights[index];
+    }
+
+    /**
+     * 全行を削除する。
+     */
+    void clear(){
+        Arrays.fill(this.tree, 0, this.size + 1, 0);
+        this.size = 0;
+        this.total = 0;
+        return;
+    }
+
+    /**
+     * 容量を確保する。
+     *
+     * @param capacity 必要な行数
+     */
+    private void ensureCapacity(int capacity){
+        if(capacity <= this.heights.length) return;
+
+        int newCapacity = Math.max(capacity, this.heights.length * 2);
+        this.heights = Arrays.copyOf(this.heights, newCapacity);
+        this.tree    = Arrays.copyOf(this.tree,    newCapacity + 1);
+
+        return;
+    }
+
+    /**
+     * 末尾に行を追加する。
+     *
+     * @param height 高さ
+     */
+    void add(int height){
+        ensureCapacity(this.size + 1);
+
+        int pos = this.size + 1;
+        int sum = height;
+        int low = lowBit(pos);
+        for(int child = 1; child < low; child <<= 1){
+            sum += this.tree[pos - child];
+        }
+
+        this.heights[this.size] = height;
+        this.tree[pos] = sum;
+        this.size++;
+        this.total += height;
+
+        return;
+    }
+
+    /**
+     * 行の高さを変更する。
+     *
+     * @param index 行番号
+     * @param height 新しい高さ
+     * @throws IndexOutOfBoundsException 行番号が範囲外
+     */
+    void set(int index, int height) throws IndexOutOfBoundsException{
+        int delta = height - get(index);
+        if(delta == 0) return;
+
+        this.heights[index] = height;
+        this.total += delta;
+        for(int pos = index + 1; pos <= this.size; pos += lowBit(pos)){
+            this.tree[pos] += delta;
+        }
+
+        return;
+    }
+
+    /**
+     * 全行の高さを一括して変更する。
+     *
+     * <p>索引はO(n)で再構築される。
+     *
+     * @param heightOf 行番号から新しい高さを求める関数
+     */
+    void setAll(IntUnaryOperator heightOf){
+        int sum = 0;
+        for(int index = 0; index < this.size; index++){
+            int height = heightOf.applyAsInt(index);
+            this.heights[index] = height;
+            this.tree[index + 1] = height;
+            sum += height;
+        }
+        this.total = sum;
+
+        for(int pos = 1; pos <= this.size; pos++){
+            int parent = pos + lowBit(pos);
+            if(parent <= this.size) this.tree[parent] += this.tree[pos];
+        }
+
+        return;
+    }
+
+    /**
+     * 先頭から指定した行の直前までの高さの総和を返す。
+     *
+     * <p>すなわち指定した行の縦位置。
+     *
+     * @param index 行番号。行数に等しければ全行の総和
+     * @return 高さの総和
+     */
+    int prefixSum(int index){
+        int sum = 0;
+        for(int pos = index; pos > 0; pos -= lowBit(pos)){
+            sum += this.tree[pos];
+        }
+        return sum;
+    }
+
+    /**
+     * 縦位置を含む行を探す。
+     *
+     * <p>高さ0の行が選ばれることはない。
+     *
+     * @param offset 先頭行の上端からの縦位置
+     * @return 行番号。負の位置なら0。全行の下端以降なら行数
+     */
+    int indexOf(int offset){
+        if(offset < 0) return 0;
+
+        int pos = 0;
+        int rest = offset;
+        for(int step = Integer.highestOneBit(this.size);
+            step > 0;
+            step >>= 1 ){
+            int next = pos + step;
+            if(next <= this.size && this.tree[next] <= rest){
+                pos = next;
+                rest -= this.tree[next];
+            }
+        }
+
+        return pos;
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * light row descriptor
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.glyph;
+
+import jp.sfjp.jindolf.data.Talk;
+import jp.sfjp.jindolf.data.Topic;
+
+/**
+ * 会話表示画面における1Topic分の行の軽量な記述子。
+ *
+ * <p>行番号と高さ、フィルタによる表示可否、検索ヒット状況のみを保持し、
+ * グリフを含む描画物{@link TextRow}は必要な間だけ保持する。
+ * 描画物を持たない間の高さは見積もり値である。
+ *
+ * <p>縦位置は行番号を介して{@link RowHeightIndex}から求められる。
+ */
+final class RowSlot{
+
+    private final Topic topic;
+    private final int ordinal;
+
+    private TextRow row;
+    private int height;
+
+    private boolean visible = true;
+
+    private int regexMatches;
+    private int hotTargetIndex = -1;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param topic Topic
+     * @param ordinal 行番号
+     */
+    RowSlot(Topic topic, int ordinal){
+        super();
+        this.topic = topic;
+        this.ordinal = ordinal;
+        return;
+    }
+
+
+    /**
+     * Topicを返す。
+     *
+     * @return Topic
+     */
+    Topic getTopic(){
+        return this.topic;
+    }
+
+    /**
+     * 行番号を返す。
+     *
+     * @return 0から始まる行番号
+     */
+    int getOrdinal(){
+        return this.ordinal;
+    }
+
+    /**
+     * 発言か判定する。
+     *
+     * @return 発言ならtrue
+     */
+    boolean isTalk(){
+        return this.topic instanceof Talk;
+    }
+
+    /**
+     * 描画物を返す。
+     *
+     * @return 描画物。生成されていなければnull
+     */
+    TextRow getRow(){
+        return this.row;
+    }
+
+    /**
+     * 発言の描画物を返す。
+     *
+     * @return 発言の描画物。生成されていないか発言でなければnull
+     */
+    TalkDraw getTalkDraw(){
+        if(this.row instanceof TalkDraw) return (TalkDraw) this.row;
+        return null;
+    }
+
+    /**
+     * 描画物を設定する。
+     *
+     * <p>検索ヒットの強調状態が描画物に引き継がれる。
+     *
+     * @param row 描画物。破棄するならnull
+     */
+    void setRow(TextRow row){
+        this.row = row;
+
+        TalkDraw talkDraw = getTalkDraw();
+        if(talkDraw != null && this.hotTargetIndex >= 0){
+            talkDraw.setHotTargetIndex(this.hotTargetIndex);
+        }
+
+        return;
+    }
+
+    /**
+     * 高さを返す。
+     *
+     * <p>非表示でも表示時の高さを返す。
+     *
+     * @return 高さ
+     */
+    int getHeight(){
+        return this.height;
+    }
+
+    /**
+     * 高さを設定する。
+     *
+     * @param height 高さ
+     */
+    void setHeight(int height){
+        this.height = height;
+        return;
+    }
+
+    /**
+     * フィルタを通過して表示対象となっているか判定する。
+     *
+     * @return 表示対象ならtrue
+     */
+    boolean isVisible(){
+        return this.visible;
+    }
+
+    /**
+     * 表示対象か否か設定する。
+     *
+     * @param visible 表示対象ならtrue
+     */
+    void setVisible(boolean visible){
+        this.visible = visible;
+        if(this.row != null) this.row.setVisible(visible);
+        return;
+    }
+
+    /**
+     * 検索一致件数を返す。
+     *
+     * @return 検索一致件数
+     */
+    int getRegexMatches(){
+        return this.regexMatches;
+    }
+
+    /**
+     * 検索一致件数を設定する。
+     *
+     * <p>検索ハイライトはクリアされる。
+     *
+     * @param matches 検索一致件数
+     */
+    void setRegexMatches(int matches){
+        this.regexMatches = matches;
+        this.hotTargetIndex = -1;
+        return;
+    }
+
+    /**
+     * 検索ハイライトインデックスを返す。
+     *
+     * @return 検索ハイライトインデックス。無ければ-1
+     */
+    int getHotTargetIndex(){
+        return this.hotTargetIndex;
+    }
+
+    /**
+     * 検索ハイライトインデックスを設定する。
+     *
+     * <p>描画物があれば描画物にも反映される。
+     *
+     * @param index 検索ハイライトインデックス。負ならクリア
+     */
+    void setHotTargetIndex(int index){
+        if(index < 0) this.hotTargetIndex = -1;
+        else          this.hotTargetIndex = index;
+
+        TalkDraw talkDraw = getTalkDraw();
+        if(talkDraw != null){
+            if(index < 0) talkDraw.clearHotTarget();
+            else          talkDraw.setHotTargetIndex(index);
+        }
+
+        return;
+    }
+
+}
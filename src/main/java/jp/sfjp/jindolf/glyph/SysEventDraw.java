@@ -75,6 +75,24 @@ public SysEventDraw(SysEvent sysEvent,
         return;
     }
 
+    /**
+     * 描画物を生成せずにシステムイベントの描画に要する高さを見積もる。
+     *
+     * @param sysEvent システムイベント
+     * @param fontInfo フォント設定
+     * @param width 描画幅
+     * @return 高さの見積もり
+     */
+    static int estimateHeight(SysEvent sysEvent,
+                              FontInfo fontInfo,
+                              int width ){
+        CharSequence rawContent = sysEvent.getContent().getRawContent();
+        int messageHeight = GlyphDraw.estimateHeight(
+                rawContent, fontInfo, width - INSET - INSET);
+        int result = messageHeight + INSET + INSET + UNDER_MARGIN;
+        return result;
+    }
+
     /**
      * 配色を設定する。
      */
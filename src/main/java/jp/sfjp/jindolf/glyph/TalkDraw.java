@@ -71,6 +71,10 @@ public class TalkDraw extends AbstractTextRow{
 
     private static final float ANCHOR_FONT_RATIO = 0.9f;
 
+    private static final int ESTIMATED_FACE_SIZE = 50;
+    private static final int ESTIMATED_BODY_HEIGHT = 130;
+    private static final int CAPTION_LINES = 2;
+
     static{
         BALOON_PUBLIC   = createWedgeImage(COLOR_PUBLIC);
         BALOON_WOLFONLY = createBubbleImage(COLOR_WOLFONLY);
@@ -229,6 +233,49 @@ private static FontInfo deriveAnchorFontInfo(FontInfo info){
         return result;
     }
 
+    /**
+     * 描画物や顔イメージを生成せずに発言の描画に要する高さを見積もる。
+     *
+     * <p>顔イメージの寸法は典型的な値を仮定する。
+     * アンカー展開は考慮しない。
+     *
+     * @param talk 発言
+     * @param pref 発言表示設定
+     * @param fontInfo フォント設定
+     * @param width 描画幅
+     * @return 高さの見積もり
+     */
+    static int estimateHeight(Talk talk,
+                              DialogPref pref,
+                              FontInfo fontInfo,
+                              int width ){
+        int imageWidth  = 0;
+        int imageHeight = 0;
+        if( ! pref.isSimpleMode() ){
+            imageWidth = ESTIMATED_FACE_SIZE;
+            if(pref.useBodyImage()) imageHeight = ESTIMATED_BODY_HEIGHT;
+            else                    imageHeight = ESTIMATED_FACE_SIZE;
+        }
+
+        int tipWidth = BALOONTIP_WIDTH;
+        int minWidth = imageWidth + tipWidth + BALOON_R * 2;
+        int dialogWidth = Math.max(0, width - minWidth);
+
+        int captionHeight = GlyphDraw.estimateLineHeight(fontInfo)
+                            * CAPTION_LINES
+                            + CAPTION_DIALOG_GAP;
+        int dialogHeight = GlyphDraw.estimateHeight(
+                talk.getDialog(), fontInfo, dialogWidth);
+        int baloonHeight = dialogHeight + BALOON_R * 2;
+
+        int result = UPPER_MARGIN
+                   + captionHeight
+                   + Math.max(imageHeight, baloonHeight)
+                   + UNDER_MARGIN;
+
+        return result;
+    }
+
     /**
      * 発言種別毎の色を返す。
      *
@@ -698,6 +745,15 @@ public void showAnchorTalks(Anchor anchor, List<Talk> talkList){
         return;
     }
 
+    /**
+     * 展開表示中のアンカーを返す。
+     *
+     * @return アンカー。展開していなければnull
+     */
+    public Anchor getShowingAnchor(){
+        return this.showingAnchor;
+    }
+
     /**
      * 与えられた座標に検索マッチ文字列があればそのインデックスを返す。
      *
@@ -0,0 +1,296 @@
+/*
+ * network statistics frame
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.log;
+
+import java.awt.Container;
+import java.awt.Dialog;
+import java.util.Map;
+import java.util.SortedMap;
+import javax.swing.BorderFactory;
+import javax.swing.Box;
+import javax.swing.BoxLayout;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingConstants;
+import javax.swing.Timer;
+import javax.swing.border.Border;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableColumnModel;
+import jp.sfjp.jindolf.net.NetMetrics;
+
+/**
+ * 通信統計表示ウィンドウ。
+ *
+ * <p>{@link NetMetrics}の集計結果を国(サーバ)ごとに一覧表示する。
+ * 表示中は一定間隔で内容が更新される。
+ *
+ * <p>サーバ側の遅さ(TTFBや所要時間)と
+ * 受信後の処理の遅さを切り分ける手がかりとなる。
+ */
+@SuppressWarnings("serial")
+public final class NetStatFrame extends JDialog {
+
+    private static final int REFRESH_MS = 1000;
+    private static final int AROUND_BUTTON = 5;
+
+    private static final int COL_FIRSTNUM = 1;
+    private static final int COL_LASTNUM  = 7;
+
+
+    private final NetMetrics metrics;
+
+    private final DefaultTableModel tableModel;
+    private final JTable table;
+    private final JButton clearButton = new JButton("クリア");
+    private final JButton saveButton  = new JButton("保存");
+    private final JButton closeButton = new JButton("閉じる");
+
+    private final Timer timer;
+
+    private Runnable saveTask = null;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>アプリ全体で共有される集計器を表示する。
+     */
+    public NetStatFrame(){
+        this(NetMetrics.getDefault());
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param metrics 集計器
+     */
+    public NetStatFrame(NetMetrics metrics){
+        super((Dialog)null);
+        // We need unowned dialog
+
+        this.metrics = metrics;
+
+        this.tableModel = createInitModel();
+        this.table = new JTable(this.tableModel);
+        this.table.setDefaultEditor(Object.class, null);
+        this.table.setAutoCreateRowSorter(true);
+
+        TableColumnModel tcolModel = this.table.getColumnModel();
+        for(int col = COL_FIRSTNUM; col <= COL_LASTNUM; col++){
+            DefaultTableCellRenderer renderer =
+                    new DefaultTableCellRenderer();
+            renderer.setHorizontalAlignment(SwingConstants.RIGHT);
+            tcolModel.getColumn(col).setCellRenderer(renderer);
+        }
+
+        this.timer = new Timer(REFRESH_MS, event -> refresh());
+
+        setupButtons();
+
+        setResizable(true);
+        setLocationByPlatform(true);
+        setModal(false);
+
+        design();
+
+        return;
+    }
+
+
+    /**
+     * 初期のデータモデルを生成する。
+     *
+     * @return データモデル
+     */
+    private static DefaultTableModel createInitModel(){
+        DefaultTableModel result = new DefaultTableModel();
+
+        Object[] heads = {
+            "国", "要求数", "受信(伸長後)", "受信(通信路)",
+            "平均TTFB", "平均所要", "最大所要",
+            "4xx/5xx", "所要時間分布", "ステータス",
+        };
+        result.setColumnIdentifiers(heads);
+
+        return result;
+    }
+
+    /**
+     * バイト数を表示用に整形する。
+     *
+     * @param bytes バイト数
+     * @return 文字列
+     */
+    private static String formatBytes(long bytes){
+        if(bytes < 10L * 1024L) return bytes + " B";
+        if(bytes < 10L * 1024L * 1024L) return (bytes / 1024L) + " KB";
+        return (bytes / (1024L * 1024L)) + " MB";
+    }
+
+    /**
+     * 所要時間分布を表示用に整形する。
+     *
+     * @param histogram 区間ごとの回数
+     * @return 文字列
+     */
+    private static String formatHistogram(long[] histogram){
+        StringBuilder result = new StringBuilder();
+        for(int bin = 0; bin < histogram.length; bin++){
+            if(histogram[bin] <= 0L) continue;
+            if(result.length() > 0) result.append(' ');
+            result.append(NetMetrics.getLatencyLabel(bin))
+                  .append(':')
+                  .append(histogram[bin]);
+        }
+        return result.toString();
+    }
+
+    /**
+     * ステータスコードごとの回数を表示用に整形する。
+     *
+     * @param statusMap ステータスコードごとの回数
+     * @return 文字列
+     */
+    private static String formatStatus(SortedMap<Integer, Long> statusMap){
+        StringBuilder result = new StringBuilder();
+        for(Map.Entry<Integer, Long> entry : statusMap.entrySet()){
+            if(result.length() > 0) result.append(' ');
+            result.append(entry.getKey())
+                  .append(':')
+                  .append(entry.getValue());
+        }
+        return result.toString();
+    }
+
+    /**
+     * エラー応答の回数を数える。
+     *
+     * @param statusMap ステータスコードごとの回数
+     * @return 400番台以上もしくは通信失敗の回数
+     */
+    private static long countErrors(SortedMap<Integer, Long> statusMap){
+        long result = 0L;
+        for(Map.Entry<Integer, Long> entry : statusMap.entrySet()){
+            int code = entry.getKey();
+            if(code < 0 || 400 <= code) result += entry.getValue();
+        }
+        return result;
+    }
+
+    /**
+     * ボタンの各種設定。
+     */
+    private void setupButtons(){
+        this.clearButton.addActionListener(event -> {
+            this.metrics.clear();
+            refresh();
+        });
+
+        this.saveButton.addActionListener(event -> {
+            if(this.saveTask != null) this.saveTask.run();
+        });
+        this.saveButton.setEnabled(false);
+
+        this.closeButton.addActionListener(event -> {
+            setVisible(false);
+        });
+
+        return;
+    }
+
+    /**
+     * レイアウトデザインを行う。
+     */
+    private void design(){
+        Box buttonPanel = Box.createHorizontalBox();
+
+        buttonPanel.add(this.clearButton);
+        buttonPanel.add(Box.createHorizontalStrut(AROUND_BUTTON));
+        buttonPanel.add(this.saveButton);
+        buttonPanel.add(Box.createHorizontalGlue());
+        buttonPanel.add(this.closeButton);
+
+        Border border = BorderFactory.createEmptyBorder(
+                AROUND_BUTTON,
+                AROUND_BUTTON,
+                AROUND_BUTTON,
+                AROUND_BUTTON
+        );
+        buttonPanel.setBorder(border);
+
+        Container content = getContentPane();
+        BoxLayout layout = new BoxLayout(content, BoxLayout.Y_AXIS);
+        content.setLayout(layout);
+
+        content.add(new JScrollPane(this.table));
+        content.add(buttonPanel);
+
+        return;
+    }
+
+    /**
+     * 保存ボタンが押された時の処理を設定する。
+     *
+     * @param saveTask 保存処理。nullなら保存ボタンは無効。
+     */
+    public void setSaveTask(Runnable saveTask){
+        this.saveTask = saveTask;
+        this.saveButton.setEnabled(saveTask != null);
+        return;
+    }
+
+    /**
+     * 集計結果を表に反映する。
+     */
+    public void refresh(){
+        this.tableModel.setRowCount(0);
+
+        for(NetMetrics.ServerStat stat : this.metrics.getSnapshot()){
+            SortedMap<Integer, Long> statusMap = stat.getStatusCounts();
+            Object[] row = {
+                stat.getName(),
+                stat.getRequests(),
+                formatBytes(stat.getBytes()),
+                formatBytes(stat.getWireBytes()),
+                stat.getTtfbAvgMs() + " ms",
+                stat.getLatencyAvgMs() + " ms",
+                stat.getLatencyMaxMs() + " ms",
+                countErrors(statusMap),
+                formatHistogram(stat.getLatencyHistogram()),
+                formatStatus(statusMap),
+            };
+            this.tableModel.addRow(row);
+        }
+
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>表示中のみ定期的な更新が行われる。
+     *
+     * @param visible {@inheritDoc}
+     */
+    @Override
+    public void setVisible(boolean visible){
+        if(visible){
+            refresh();
+            this.timer.start();
+        }else{
+            this.timer.stop();
+        }
+        super.setVisible(visible);
+        return;
+    }
+
+}
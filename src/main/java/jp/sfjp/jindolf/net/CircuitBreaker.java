@@ -0,0 +1,175 @@
+/*
+ * circuit breaker
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.net;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通信障害が続くサーバへの通信を一時的に止めるブレーカ。
+ *
+ * <p>3つの状態を持つ。
+ * <ul>
+ * <li>CLOSED : 通常状態。全ての通信が許される。
+ * 障害が一定回数連続するとOPENに移る。
+ * <li>OPEN : 停止状態。全ての通信は即座に失敗する。
+ * 一定時間が経つとHALF_OPENに移る。
+ * <li>HALF_OPEN : 試行状態。1つの通信のみが試しに許される。
+ * 成功すればCLOSEDに、失敗すればOPENに戻る。
+ * </ul>
+ *
+ * <p>時刻は{@link System#nanoTime()}の値で与える。
+ *
+ * <p>全ての操作はスレッドセーフ。
+ */
+public class CircuitBreaker{
+
+    /**
+     * ブレーカの状態。
+     */
+    public enum State{
+        /** 通常。 */
+        CLOSED,
+        /** 停止。 */
+        OPEN,
+        /** 試行。 */
+        HALF_OPEN,
+    }
+
+
+    private final int threshold;
+    private final long breakNano;
+
+    private State state = State.CLOSED;
+    private int failures = 0;
+    private long openedNano = 0L;
+    private boolean trialInFlight = false;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param threshold 停止に至る連続失敗回数
+     * @param breakMs 停止時間(ミリ秒)
+     * @throws IllegalArgumentException 引数が範囲外
+     */
+    public CircuitBreaker(int threshold, long breakMs)
+            throws IllegalArgumentException{
+        super();
+
+        if(threshold <= 0 || breakMs < 0L){
+            throw new IllegalArgumentException();
+        }
+
+        this.threshold = threshold;
+        this.breakNano = TimeUnit.MILLISECONDS.toNanos(breakMs);
+
+        return;
+    }
+
+
+    /**
+     * 現在の状態を返す。
+     *
+     * @return 状態
+     */
+    public synchronized State getState(){
+        return this.state;
+    }
+
+    /**
+     * 停止が解けるまでの残り時間を返す。
+     *
+     * @param nowNano 現在時刻(ナノ秒)
+     * @return 残り時間(ミリ秒)。停止中でなければ0。
+     */
+    public synchronized long getRemainMs(long nowNano){
+        if(this.state != State.OPEN) return 0L;
+        long remain = this.breakNano - (nowNano - this.openedNano);
+        if(remain < 0L) return 0L;
+        return TimeUnit.NANOSECONDS.toMillis(remain);
+    }
+
+    /**
+     * 通信の許可を求める。
+     *
+     * <p>許可された通信の結果は、
+     * {@link #onSuccess()}、{@link #onFailure(long)}、
+     * {@link #onNeutral()}のいずれかで必ず報告せねばならない。
+     *
+     * @param nowNano 現在時刻(ナノ秒)
+     * @throws CircuitOpenException 停止中のため許可されなかった
+     */
+    public synchronized void acquire(long nowNano)
+            throws CircuitOpenException{
+        switch(this.state){
+        case CLOSED:
+            return;
+        case OPEN:
+            long elapsed = nowNano - this.openedNano;
+            if(elapsed < this.breakNano){
+                long remain = this.breakNano - elapsed;
+                throw new CircuitOpenException(
+                        TimeUnit.NANOSECONDS.toMillis(remain));
+            }
+            this.state = State.HALF_OPEN;
+            this.trialInFlight = true;
+            return;
+        case HALF_OPEN:
+            if(this.trialInFlight) throw new CircuitOpenException(0L);
+            this.trialInFlight = true;
+            return;
+        default:
+            assert false;
+            return;
+        }
+    }
+
+    /**
+     * 通信の成功を報告する。
+     *
+     * @return 報告後の状態
+     */
+    public synchronized State onSuccess(){
+        this.failures = 0;
+        this.trialInFlight = false;
+        this.state = State.CLOSED;
+        return this.state;
+    }
+
+    /**
+     * サーバ障害による通信の失敗を報告する。
+     *
+     * @param nowNano 現在時刻(ナノ秒)
+     * @return 報告後の状態
+     */
+    public synchronized State onFailure(long nowNano){
+        this.trialInFlight = false;
+
+        if(this.state == State.OPEN) return this.state;
+
+        this.failures++;
+        if(this.state == State.HALF_OPEN || this.failures >= this.threshold){
+            this.state = State.OPEN;
+            this.openedNano = nowNano;
+        }
+
+        return this.state;
+    }
+
+    /**
+     * サーバの状態と無関係な理由による通信の中断を報告する。
+     *
+     * <p>連続失敗回数は変化しない。
+     * 試行状態であれば次の通信が試行される。
+     */
+    public synchronized void onNeutral(){
+        this.trialInFlight = false;
+        return;
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * circuit open exception
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.net;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+
+/**
+ * 通信障害が続くため通信が止められていることを示す例外。
+ *
+ * <p>実際の通信は一切行われていない。
+ *
+ * @see CircuitBreaker
+ */
+@SuppressWarnings("serial")
+public class CircuitOpenException extends IOException{
+
+    private static final String FORM_MSG =
+            "サーバとの通信障害が続いているため通信を一時停止中です。"
+            + "(約{0}秒後に再開)";
+
+
+    private final long remainMs;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param remainMs 通信再開までの残り時間(ミリ秒)
+     */
+    public CircuitOpenException(long remainMs){
+        super(MessageFormat.format(FORM_MSG, (remainMs + 999L) / 1000L));
+        this.remainMs = remainMs;
+        return;
+    }
+
+
+    /**
+     * 通信再開までの残り時間を返す。
+     *
+     * @return 残り時間(ミリ秒)
+     */
+    public long getRemainMs(){
+        return this.remainMs;
+    }
+
+}
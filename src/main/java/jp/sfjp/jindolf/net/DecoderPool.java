@@ -0,0 +1,212 @@
+/*
+ * pool of decoders
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.net;
+
+import io.bitbucket.olyutorskii.jiocema.DecodeNotifier;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import jp.osdn.jindolf.parser.content.ContentBuilder;
+import jp.osdn.jindolf.parser.content.ContentBuilderSJ;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import jp.osdn.jindolf.parser.content.SjisNotifier;
+
+/**
+ * 文字コードごとのデコーダと文字列構築器の組のプール。
+ *
+ * <p>HTMLの受信のたびに大きなバッファを持つ文字列構築器を
+ * 作り直すのを避けるため、使い終えた組を回収して再利用する。
+ * 文字列構築器はデコード開始時に自身の内容を初期化するので、
+ * 回収した組はそのまま次の受信に使える。
+ *
+ * <p>再利用される文字列構築器の内容は次の受信で上書きされるため、
+ * デコード結果は{@link #trimCopy(DecodedContent)}で
+ * 複製してから返却せねばならない。
+ *
+ * <p>プールは文字コードごとに1つだけ存在し、全ての国で共有される。
+ * 全ての操作はスレッドセーフ。
+ */
+public final class DecoderPool{
+
+    private static final int BUFLEN_CONTENT = 200 * 1024;
+    private static final int MAX_IDLE = 4;
+
+    private static final ConcurrentMap<String, DecoderPool> POOL_MAP =
+            new ConcurrentHashMap<>();
+
+
+    private final Charset charset;
+    private final boolean isSJIS;
+
+    private final Deque<Entry> idleList = new ArrayDeque<>();
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param charset 文字コード
+     * @throws IllegalArgumentException 未対応の文字コード
+     */
+    private DecoderPool(Charset charset) throws IllegalArgumentException{
+        super();
+
+        this.charset = charset;
+
+        String charsetName = this.charset.name();
+        if("Shift_JIS".equalsIgnoreCase(charsetName)){
+            this.isSJIS = true;
+        }else if("UTF-8".equalsIgnoreCase(charsetName)){
+            this.isSJIS = false;
+        }else{
+            throw new IllegalArgumentException(charsetName);
+        }
+
+        return;
+    }
+
+
+    /**
+     * 文字コードに対応するプールを返す。
+     *
+     * @param charset 文字コード。Shift_JISかUTF-8のみ
+     * @return プール
+     * @throws IllegalArgumentException 未対応の文字コード
+     */
+    public static DecoderPool getPool(Charset charset)
+            throws IllegalArgumentException{
+        String key = charset.name();
+
+        DecoderPool pool = POOL_MAP.get(key);
+        if(pool != null) return pool;
+
+        pool = new DecoderPool(charset);
+        DecoderPool old = POOL_MAP.putIfAbsent(key, pool);
+        if(old != null) pool = old;
+
+        return pool;
+    }
+
+    /**
+     * 文字列を、その長さにちょうど見合う容量の領域へ複製する。
+     *
+     * <p>デコードエラー情報も引き継がれる。
+     *
+     * @param content 複製元
+     * @return 複製
+     */
+    public static DecodedContent trimCopy(DecodedContent content){
+        int length = content.length();
+        DecodedContent result = new DecodedContent(length);
+        result.append(content, 0, length);
+        return result;
+    }
+
+    /**
+     * 文字コードを返す。
+     *
+     * @return 文字コード
+     */
+    public Charset getCharset(){
+        return this.charset;
+    }
+
+    /**
+     * デコーダと文字列構築器の組を借りる。
+     *
+     * <p>空きが無ければ新たに作られる。
+     *
+     * @return デコーダと文字列構築器の組
+     */
+    public Entry borrow(){
+        Entry entry;
+        synchronized(this.idleList){
+            entry = this.idleList.pollFirst();
+        }
+        if(entry != null) return entry;
+
+        DecodeNotifier decoder;
+        ContentBuilder builder;
+        if(this.isSJIS){
+            decoder = new SjisNotifier();
+            builder = new ContentBuilderSJ(BUFLEN_CONTENT);
+        }else{
+            decoder = new DecodeNotifier(this.charset.newDecoder());
+            builder = new ContentBuilder(BUFLEN_CONTENT);
+        }
+        decoder.setCharDecodeListener(builder);
+
+        entry = new Entry(decoder, builder);
+
+        return entry;
+    }
+
+    /**
+     * 借りた組を返す。
+     *
+     * <p>デコードが入出力エラーで中断された組は、
+     * 状態が不定なので返さずに捨てるべき。
+     * 空きが一定数を超える分は捨てられる。
+     *
+     * @param entry デコーダと文字列構築器の組
+     */
+    public void release(Entry entry){
+        synchronized(this.idleList){
+            if(this.idleList.size() < MAX_IDLE){
+                this.idleList.addFirst(entry);
+            }
+        }
+        return;
+    }
+
+
+    /**
+     * デコーダと文字列構築器の組。
+     *
+     * <p>デコーダのデコード結果は文字列構築器へ通知される。
+     */
+    public static final class Entry{
+
+        private final DecodeNotifier decoder;
+        private final ContentBuilder builder;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param decoder デコーダ
+         * @param builder 文字列構築器
+         */
+        private Entry(DecodeNotifier decoder, ContentBuilder builder){
+            super();
+            this.decoder = decoder;
+            this.builder = builder;
+            return;
+        }
+
+        /**
+         * デコーダを返す。
+         *
+         * @return デコーダ
+         */
+        public DecodeNotifier getDecoder(){
+            return this.decoder;
+        }
+
+        /**
+         * 文字列構築器を返す。
+         *
+         * @return 文字列構築器
+         */
+        public ContentBuilder getBuilder(){
+            return this.builder;
+        }
+
+    }
+
+}
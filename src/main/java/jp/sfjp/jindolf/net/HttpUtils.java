@@ -39,6 +39,8 @@
     private static final String THROUGHPUT_FORM =
             "{0,number,#,##0}Bytes {1,number,#,##0.0}{2}Bytes/sec";
     private static final String HTTP_FORM = "{0} {1} [{2} {3}] {4}";
+    private static final String WIRE_FORM =
+            " ({0} {1,number,#,##0}Bytes decoded, {2,number,#0.0}%)";
 
 
     /**
@@ -91,6 +93,28 @@ public static String throughput(long size, long nano){
     public static String formatHttpStat(HttpURLConnection conn,
                                         long size,
                                         long nano ){
+        return formatHttpStat(conn, size, size, nano);
+    }
+
+    /**
+     * HTTPセッションの各種結果を文字列化する。
+     *
+     * <p>スループットは通信路上のバイト数から算出される。
+     * 圧縮転送で通信路上のバイト数が転送サイズと異なる場合、
+     * 伸長後のサイズと圧縮率が併記される。
+     * Content-Encodingが無ければ、読み込みの途中で打ち切るなどして
+     * バイト数が異なっていても併記されない。
+     *
+     * @param conn HTTPコネクション
+     * @param size 伸長後の転送サイズ
+     * @param wireSize 通信路上の転送サイズ
+     * @param nano 転送に要したナノ秒
+     * @return セッション結果文字列。
+     */
+    public static String formatHttpStat(HttpURLConnection conn,
+                                        long size,
+                                        long wireSize,
+                                        long nano ){
         String method = conn.getRequestMethod();
         String url    = conn.getURL().toString();
 
@@ -108,7 +132,7 @@ public static String formatHttpStat(HttpURLConnection conn,
             responseMessage = "???";
         }
 
-        String throughput = throughput(size, nano);
+        String throughput = throughput(wireSize, nano);
 
         String result;
         result = MessageFormat.format(HTTP_FORM,
@@ -116,6 +140,13 @@ public static String formatHttpStat(HttpURLConnection conn,
                                       responseCode, responseMessage,
                                       throughput );
 
+        String encoding = conn.getContentEncoding();
+        if(encoding != null && wireSize != size && size > 0){
+            double ratio = 100.0 * wireSize / size;
+            result += MessageFormat.format(WIRE_FORM,
+                                           encoding, size, ratio);
+        }
+
         return result;
     }
 
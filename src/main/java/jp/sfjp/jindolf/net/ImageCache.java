@@ -0,0 +1,262 @@
+/*
+ * bounded image cache
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.net;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 容量上限付きの画像キャッシュ。
+ *
+ * <p>キーは画像URL文字列。
+ *
+ * <p>各画像の重みは画素データのバイト数で見積もられ、
+ * 重みの総和が上限を超えると最も長く参照されていない画像から追い出される(LRU)。
+ * GCの都合で一斉に消えることはない。
+ *
+ * <p>ヒット数、ミス数、追い出し数の統計を取る。
+ *
+ * <p>全ての操作はスレッドセーフ。
+ * 1回の操作はごく短時間で終わるため、単一のロックで保護される。
+ */
+public class ImageCache {
+
+    /** デフォルトの容量上限(バイト)。 */
+    public static final long DEF_MAX_WEIGHT = 16L * 1024L * 1024L;
+
+    private static final int BITS_PER_BYTE = 8;
+
+
+    private final long maxWeight;
+
+    private final Map<String, Entry> map =
+            new LinkedHashMap<>(64, 0.75f, true);
+
+    private long totalWeight = 0L;
+
+    private long hitCount = 0L;
+    private long missCount = 0L;
+    private long evictionCount = 0L;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>デフォルトの容量上限が用いられる。
+     */
+    public ImageCache(){
+        this(DEF_MAX_WEIGHT);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param maxWeight 容量上限(バイト)
+     * @throws IllegalArgumentException 上限が正でない
+     */
+    public ImageCache(long maxWeight) throws IllegalArgumentException{
+        super();
+
+        if(maxWeight <= 0L) throw new IllegalArgumentException();
+        this.maxWeight = maxWeight;
+
+        return;
+    }
+
+
+    /**
+     * 画像の画素データのバイト数を見積もる。
+     *
+     * @param image 画像
+     * @return バイト数
+     */
+    public static long weigh(BufferedImage image){
+        ColorModel colorModel = image.getColorModel();
+        int pixelBits = colorModel.getPixelSize();
+        long pixelBytes = (pixelBits + BITS_PER_BYTE - 1) / BITS_PER_BYTE;
+        if(pixelBytes <= 0L) pixelBytes = 1L;
+
+        long pixels = (long) image.getWidth() * (long) image.getHeight();
+        long result = pixels * pixelBytes;
+
+        return result;
+    }
+
+    /**
+     * 容量上限を返す。
+     *
+     * @return 容量上限(バイト)
+     */
+    public long getMaxWeight(){
+        return this.maxWeight;
+    }
+
+    /**
+     * キャッシュを検索する。
+     *
+     * @param key キー
+     * @return キャッシュされた画像。キャッシュされていなければnull。
+     */
+    public synchronized BufferedImage get(String key){
+        if(key == null) return null;
+
+        Entry entry = this.map.get(key);
+        if(entry == null){
+            this.missCount++;
+            return null;
+        }
+
+        this.hitCount++;
+
+        return entry.image;
+    }
+
+    /**
+     * キャッシュに画像を登録する。
+     *
+     * <p>既に登録済みのキーなら何もしない。
+     * 1枚で容量上限を超える画像は登録されない。
+     *
+     * @param key キー
+     * @param image キャッシュしたい画像。
+     */
+    public synchronized void put(String key, BufferedImage image){
+        if(key == null || image == null) return;
+        if(this.map.containsKey(key)) return;
+
+        long weight = weigh(image);
+        if(weight > this.maxWeight) return;
+
+        this.map.put(key, new Entry(image, weight));
+        this.totalWeight += weight;
+
+        evict();
+
+        return;
+    }
+
+    /**
+     * 容量上限に収まるまで古い画像を追い出す。
+     */
+    private void evict(){
+        Iterator<Entry> it = this.map.values().iterator();
+        while(this.totalWeight > this.maxWeight && it.hasNext()){
+            Entry eldest = it.next();
+            it.remove();
+            this.totalWeight -= eldest.weight;
+            this.evictionCount++;
+        }
+        return;
+    }
+
+    /**
+     * キャッシュを空にする。
+     *
+     * <p>統計は消えない。
+     */
+    public synchronized void clear(){
+        this.map.clear();
+        this.totalWeight = 0L;
+        return;
+    }
+
+    /**
+     * 登録されている画像の数を返す。
+     *
+     * @return 画像数
+     */
+    public synchronized int size(){
+        return this.map.size();
+    }
+
+    /**
+     * 登録されている画像の重みの総和を返す。
+     *
+     * @return 重み(バイト)
+     */
+    public synchronized long getWeight(){
+        return this.totalWeight;
+    }
+
+    /**
+     * ヒット数を返す。
+     *
+     * @return ヒット数
+     */
+    public synchronized long getHitCount(){
+        return this.hitCount;
+    }
+
+    /**
+     * ミス数を返す。
+     *
+     * @return ミス数
+     */
+    public synchronized long getMissCount(){
+        return this.missCount;
+    }
+
+    /**
+     * 追い出し数を返す。
+     *
+     * @return 追い出し数
+     */
+    public synchronized long getEvictionCount(){
+        return this.evictionCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>統計情報を文字列化する。
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public synchronized String toString(){
+        StringBuilder result = new StringBuilder();
+
+        result.append("images=").append(this.map.size());
+        result.append(" weight=").append(this.totalWeight);
+        result.append('/').append(this.maxWeight);
+        result.append(" hit=").append(this.hitCount);
+        result.append(" miss=").append(this.missCount);
+        result.append(" evict=").append(this.evictionCount);
+
+        return result.toString();
+    }
+
+
+    /**
+     * キャッシュエントリ。
+     */
+    private static final class Entry{
+
+        final BufferedImage image;
+        final long weight;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param image 画像
+         * @param weight 重み
+         */
+        Entry(BufferedImage image, long weight){
+            super();
+            this.image = image;
+            this.weight = weight;
+            return;
+        }
+
+    }
+
+}
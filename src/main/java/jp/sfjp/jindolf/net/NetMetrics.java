@@ -0,0 +1,481 @@
+/*
+ * network metrics registry
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.net;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import jp.sourceforge.jovsonz.JsArray;
+import jp.sourceforge.jovsonz.JsObject;
+import jp.sourceforge.jovsonz.JsPair;
+
+/**
+ * HTTP通信の統計をサーバごとに集計する。
+ *
+ * <p>各国のサーバはCGIの置かれたURLの前方一致で識別され、国名で集計される。
+ * どの国にも該当しないURLはホスト名で集計される。
+ *
+ * <p>集計項目はリクエスト数、受信バイト数(伸長後及び通信路上)、
+ * 最初の応答までの時間(TTFB)、全所要時間とその分布、
+ * HTTPステータスコードごとの回数。
+ *
+ * <p>全ての操作はスレッドセーフ。
+ */
+public final class NetMetrics {
+
+    /** 所要時間分布の各区間の上限(ミリ秒)。最後の区間は上限無し。 */
+    private static final long[] LATENCY_BOUNDS_MS = {
+        100L, 250L, 500L, 1000L, 2000L, 5000L,
+    };
+
+    private static final NetMetrics DEFAULT = new NetMetrics();
+
+
+    private final List<Server> serverList = new CopyOnWriteArrayList<>();
+    private final ConcurrentMap<String, ServerStat> statMap =
+            new ConcurrentHashMap<>();
+
+
+    /**
+     * コンストラクタ。
+     */
+    public NetMetrics(){
+        super();
+        return;
+    }
+
+
+    /**
+     * アプリ全体で共有される集計器を返す。
+     *
+     * @return 集計器
+     */
+    public static NetMetrics getDefault(){
+        return DEFAULT;
+    }
+
+    /**
+     * 所要時間分布の区間数を返す。
+     *
+     * @return 区間数
+     */
+    public static int getLatencyBins(){
+        return LATENCY_BOUNDS_MS.length + 1;
+    }
+
+    /**
+     * 所要時間分布の区間の見出しを返す。
+     *
+     * @param bin 区間番号
+     * @return 見出し文字列
+     */
+    public static String getLatencyLabel(int bin){
+        if(bin < LATENCY_BOUNDS_MS.length){
+            return "<" + LATENCY_BOUNDS_MS[bin] + "ms";
+        }
+        long last = LATENCY_BOUNDS_MS[LATENCY_BOUNDS_MS.length - 1];
+        return ">=" + last + "ms";
+    }
+
+    /**
+     * 所要時間が分布のどの区間に入るか求める。
+     *
+     * @param latencyMs 所要時間(ミリ秒)
+     * @return 区間番号
+     */
+    static int toLatencyBin(long latencyMs){
+        int bin;
+        for(bin = 0; bin < LATENCY_BOUNDS_MS.length; bin++){
+            if(latencyMs < LATENCY_BOUNDS_MS[bin]) break;
+        }
+        return bin;
+    }
+
+    /**
+     * URLの前方部分を表す文字列を得る。
+     *
+     * <p>ファイル部分とクエリー部分は除かれる。
+     *
+     * @param url URL
+     * @return URLの前方部分
+     */
+    private static String toPrefix(URL url){
+        String text = url.toString();
+        int query = text.indexOf('?');
+        if(query >= 0) text = text.substring(0, query);
+        int slash = text.lastIndexOf('/');
+        if(slash >= 0) text = text.substring(0, slash + 1);
+        return text;
+    }
+
+    /**
+     * 国のサーバを登録する。
+     *
+     * @param name 国名
+     * @param baseURL CGIのURL
+     */
+    public void registerServer(String name, URL baseURL){
+        String prefix = toPrefix(baseURL);
+        this.serverList.add(new Server(name, prefix));
+        return;
+    }
+
+    /**
+     * URLの集計先の名前を求める。
+     *
+     * @param url URL
+     * @return 登録済みの国名もしくはホスト名
+     */
+    private String toServerName(URL url){
+        String text = url.toString();
+
+        Server found = null;
+        for(Server server : this.serverList){
+            if( ! text.startsWith(server.prefix) ) continue;
+            if(    found == null
+                || found.prefix.length() < server.prefix.length() ){
+                found = server;
+            }
+        }
+
+        if(found != null) return found.name;
+
+        return url.getHost();
+    }
+
+    /**
+     * 集計先を得る。無ければ作る。
+     *
+     * @param url URL
+     * @return 集計先
+     */
+    private ServerStat getStat(URL url){
+        String name = toServerName(url);
+        ServerStat result =
+                this.statMap.computeIfAbsent(name, ServerStat::new);
+        return result;
+    }
+
+    /**
+     * 本文を受信した1回のHTTP通信を記録する。
+     *
+     * @param conn HTTPコネクション
+     * @param bytes 伸長後の受信バイト数
+     * @param wireBytes 通信路上の受信バイト数
+     * @param ttfbNano リクエスト開始から応答ヘッダ受信までのナノ秒
+     * @param totalNano リクエスト開始から本文受信完了までのナノ秒
+     */
+    public void record(HttpURLConnection conn,
+                       long bytes,
+                       long wireBytes,
+                       long ttfbNano,
+                       long totalNano ){
+        int status;
+        try{
+            status = conn.getResponseCode();
+        }catch(IOException e){
+            status = -1;
+        }
+
+        ServerStat stat = getStat(conn.getURL());
+        stat.add(status, bytes, wireBytes, ttfbNano, totalNano);
+
+        return;
+    }
+
+    /**
+     * 本文を受信しなかった1回のHTTP通信を記録する。
+     *
+     * <p>304応答やエラー応答などが該当する。
+     *
+     * @param conn HTTPコネクション
+     * @param startNano リクエスト開始時の{@link System#nanoTime()}値
+     */
+    public void recordBodiless(HttpURLConnection conn, long startNano){
+        long span = System.nanoTime() - startNano;
+        record(conn, 0L, 0L, span, span);
+        return;
+    }
+
+    /**
+     * 全集計結果を消す。
+     */
+    public void clear(){
+        this.statMap.clear();
+        return;
+    }
+
+    /**
+     * 現時点の集計結果の複製を名前順で返す。
+     *
+     * @return 集計結果のリスト
+     */
+    public List<ServerStat> getSnapshot(){
+        List<ServerStat> result = new ArrayList<>();
+        for(ServerStat stat : this.statMap.values()){
+            result.add(stat.copy());
+        }
+        result.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * 現時点の集計結果をJSON形式で返す。
+     *
+     * @return JSON Object
+     */
+    public JsObject toJson(){
+        JsArray servers = new JsArray();
+        for(ServerStat stat : getSnapshot()){
+            servers.add(stat.toJson());
+        }
+
+        JsObject result = new JsObject();
+        result.putPair(new JsPair("timestamp", System.currentTimeMillis()));
+        result.putValue("servers", servers);
+
+        return result;
+    }
+
+
+    /**
+     * 登録済みの国のサーバ。
+     */
+    private static final class Server{
+
+        final String name;
+        final String prefix;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param name 国名
+         * @param prefix URLの前方部分
+         */
+        Server(String name, String prefix){
+            super();
+            this.name = name;
+            this.prefix = prefix;
+            return;
+        }
+
+    }
+
+
+    /**
+     * 1つのサーバに関する集計結果。
+     */
+    public static final class ServerStat{
+
+        private final String name;
+
+        private long requests;
+        private long bytes;
+        private long wireBytes;
+        private long ttfbNanoSum;
+        private long totalNanoSum;
+        private long totalNanoMax;
+        private final long[] latencyBins;
+        private final SortedMap<Integer, Long> statusMap;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param name サーバ名
+         */
+        ServerStat(String name){
+            super();
+            this.name = name;
+            this.latencyBins = new long[getLatencyBins()];
+            this.statusMap = new TreeMap<>();
+            return;
+        }
+
+        /**
+         * 1回の通信を加算する。
+         *
+         * @param status HTTPステータスコード
+         * @param size 伸長後の受信バイト数
+         * @param wireSize 通信路上の受信バイト数
+         * @param ttfbNano 応答ヘッダ受信までのナノ秒
+         * @param totalNano 全所要ナノ秒
+         */
+        synchronized void add(int status,
+                              long size,
+                              long wireSize,
+                              long ttfbNano,
+                              long totalNano ){
+            this.requests++;
+            this.bytes += size;
+            this.wireBytes += wireSize;
+            this.ttfbNanoSum += ttfbNano;
+            this.totalNanoSum += totalNano;
+            if(totalNano > this.totalNanoMax) this.totalNanoMax = totalNano;
+
+            long totalMs = TimeUnit.NANOSECONDS.toMillis(totalNano);
+            this.latencyBins[toLatencyBin(totalMs)]++;
+
+            this.statusMap.merge(status, 1L, Long::sum);
+
+            return;
+        }
+
+        /**
+         * 複製を作る。
+         *
+         * @return 複製
+         */
+        synchronized ServerStat copy(){
+            ServerStat result = new ServerStat(this.name);
+            result.requests     = this.requests;
+            result.bytes        = this.bytes;
+            result.wireBytes    = this.wireBytes;
+            result.ttfbNanoSum  = this.ttfbNanoSum;
+            result.totalNanoSum = this.totalNanoSum;
+            result.totalNanoMax = this.totalNanoMax;
+            System.arraycopy(this.latencyBins, 0,
+                             result.latencyBins, 0,
+                             this.latencyBins.length );
+            result.statusMap.putAll(this.statusMap);
+            return result;
+        }
+
+        /**
+         * サーバ名を返す。
+         *
+         * @return 国名もしくはホスト名
+         */
+        public String getName(){
+            return this.name;
+        }
+
+        /**
+         * リクエスト数を返す。
+         *
+         * @return リクエスト数
+         */
+        public synchronized long getRequests(){
+            return this.requests;
+        }
+
+        /**
+         * 伸長後の受信バイト数を返す。
+         *
+         * @return バイト数
+         */
+        public synchronized long getBytes(){
+            return this.bytes;
+        }
+
+        /**
+         * 通信路上の受信バイト数を返す。
+         *
+         * @return バイト数
+         */
+        public synchronized long getWireBytes(){
+            return this.wireBytes;
+        }
+
+        /**
+         * 平均TTFBを返す。
+         *
+         * @return ミリ秒。リクエストが無ければ0
+         */
+        public synchronized long getTtfbAvgMs(){
+            if(this.requests <= 0L) return 0L;
+            long avg = this.ttfbNanoSum / this.requests;
+            return TimeUnit.NANOSECONDS.toMillis(avg);
+        }
+
+        /**
+         * 平均所要時間を返す。
+         *
+         * @return ミリ秒。リクエストが無ければ0
+         */
+        public synchronized long getLatencyAvgMs(){
+            if(this.requests <= 0L) return 0L;
+            long avg = this.totalNanoSum / this.requests;
+            return TimeUnit.NANOSECONDS.toMillis(avg);
+        }
+
+        /**
+         * 最大所要時間を返す。
+         *
+         * @return ミリ秒
+         */
+        public synchronized long getLatencyMaxMs(){
+            return TimeUnit.NANOSECONDS.toMillis(this.totalNanoMax);
+        }
+
+        /**
+         * 所要時間の分布を返す。
+         *
+         * @return 区間ごとの回数
+         * @see NetMetrics#getLatencyLabel(int)
+         */
+        public synchronized long[] getLatencyHistogram(){
+            return this.latencyBins.clone();
+        }
+
+        /**
+         * HTTPステータスコードごとの回数を返す。
+         *
+         * <p>通信自体に失敗した場合のコードは-1。
+         *
+         * @return ステータスコードから回数へのマップ
+         */
+        public synchronized SortedMap<Integer, Long> getStatusCounts(){
+            SortedMap<Integer, Long> result = new TreeMap<>(this.statusMap);
+            return Collections.unmodifiableSortedMap(result);
+        }
+
+        /**
+         * JSON形式で返す。
+         *
+         * @return JSON Object
+         */
+        public synchronized JsObject toJson(){
+            JsObject histogram = new JsObject();
+            for(int bin = 0; bin < this.latencyBins.length; bin++){
+                String label = getLatencyLabel(bin);
+                histogram.putPair(new JsPair(label, this.latencyBins[bin]));
+            }
+
+            JsObject status = new JsObject();
+            for(Map.Entry<Integer, Long> entry : this.statusMap.entrySet()){
+                String code = entry.getKey().toString();
+                status.putPair(new JsPair(code, entry.getValue()));
+            }
+
+            JsObject result = new JsObject();
+            result.putPair(new JsPair("name", this.name));
+            result.putPair(new JsPair("requests", this.requests));
+            result.putPair(new JsPair("bytes", this.bytes));
+            result.putPair(new JsPair("wireBytes", this.wireBytes));
+            result.putPair(new JsPair("ttfbAvgMs", getTtfbAvgMs()));
+            result.putPair(new JsPair("latencyAvgMs", getLatencyAvgMs()));
+            result.putPair(new JsPair("latencyMaxMs", getLatencyMaxMs()));
+            result.putValue("latencyHistogram", histogram);
+            result.putValue("status", status);
+
+            return result;
+        }
+
+    }
+
+}
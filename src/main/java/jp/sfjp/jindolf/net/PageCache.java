@@ -0,0 +1,387 @@
+/*
+ * on-disk HTML page cache
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jp.sfjp.jindolf.util.StringUtils;
+
+/**
+ * 国ごとのHTMLページを設定ディレクトリ上に保持するディスクキャッシュ。
+ *
+ * <p>キーはCGIに渡すクエリー文字列。
+ * 1キーにつき1ファイルが割り当てられ、
+ * デコード前の受信バイト列と再検証用のHTTPヘッダ情報、
+ * および格納時点で更新されることのないページだったか否かが格納される。
+ *
+ * <p>画像ファイルの保存にも用いられる。
+ * その場合のキーは画像URLのダイジェスト値。
+ *
+ * <p>格納ディレクトリは最初の書き込み時に生成される。
+ *
+ * <p>ファイルの更新は一時ファイルからの置き換えで行われるため、
+ * 書きかけのエントリが読まれることはない。
+ */
+public class PageCache {
+
+    private static final int MAGIC = 0x4a504331; // "JPC1"
+    private static final String SUFFIX = ".page";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final int MAX_BODY = 16 * 1024 * 1024;
+    private static final int BUFSIZE = 8 * 1024;
+
+    private static final Logger LOGGER = Logger.getAnonymousLogger();
+
+
+    private final Path cacheDir;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>この時点ではディレクトリの存在は問わない。
+     *
+     * @param cacheDir キャッシュ格納ディレクトリの絶対パス
+     * @throws IllegalArgumentException 絶対パスではない
+     */
+    public PageCache(Path cacheDir) throws IllegalArgumentException{
+        super();
+
+        if( ! cacheDir.isAbsolute() ){
+            throw new IllegalArgumentException();
+        }
+        this.cacheDir = cacheDir;
+
+        return;
+    }
+
+
+    /**
+     * キー文字列からファイル名を生成する。
+     *
+     * <p>英数字とハイフン、アンダースコア以外は
+     * %XX形式(UTF-8)にエスケープされる。
+     * 異なるキーが同じファイル名になることはない。
+     *
+     * @param key キー
+     * @return ファイル名
+     */
+    static String toFileName(String key){
+        String result = StringUtils.escapeFileName(key) + SUFFIX;
+        return result;
+    }
+
+
+    /**
+     * 任意の文字列から固定長のキーを生成する。
+     *
+     * <p>URLのように長く記号を多く含む文字列を
+     * ファイル名に適した形にするために用いる。
+     *
+     * @param text 文字列
+     * @return SHA-256ダイジェスト値の16進表記
+     */
+    public static String digestKey(String text){
+        MessageDigest md;
+        try{
+            md = MessageDigest.getInstance("SHA-256");
+        }catch(NoSuchAlgorithmException e){
+            throw new AssertionError(e);
+        }
+
+        byte[] digest = md.digest(text.getBytes(StandardCharsets.UTF_8));
+        String result = StringUtils.toHexString(digest);
+
+        return result;
+    }
+
+
+    /**
+     * キャッシュ格納ディレクトリを返す。
+     *
+     * @return 格納ディレクトリの絶対パス
+     */
+    public Path getCacheDir(){
+        return this.cacheDir;
+    }
+
+    /**
+     * キーに対応するキャッシュファイルを返す。
+     *
+     * @param key キー
+     * @return キャッシュファイルの絶対パス
+     */
+    private Path getEntryPath(String key){
+        String fileName = toFileName(key);
+        Path result = this.cacheDir.resolve(fileName);
+        return result;
+    }
+
+    /**
+     * キャッシュエントリを読み込む。
+     *
+     * @param key キー
+     * @return キャッシュエントリ。存在しないか壊れていればnull
+     */
+    public Entry load(String key){
+        Path path = getEntryPath(key);
+        if( ! Files.isRegularFile(path) ) return null;
+
+        Entry result;
+        try(InputStream is = Files.newInputStream(path)){
+            InputStream bis = new BufferedInputStream(is, BUFSIZE);
+            DataInputStream dis = new DataInputStream(bis);
+            result = readEntry(dis);
+        }catch(NoSuchFileException e){
+            return null;
+        }catch(IOException e){
+            LOGGER.log(Level.WARNING,
+                    "キャッシュファイル[" + path + "]が読めません", e);
+            return null;
+        }
+
+        return result;
+    }
+
+    /**
+     * キャッシュエントリを書き込む。
+     *
+     * <p>書き込みに失敗してもキャッシュが使われないだけなので、
+     * 例外は投げずにログ出力のみ行う。
+     *
+     * @param key キー
+     * @param entry キャッシュエントリ
+     */
+    public void store(String key, Entry entry){
+        Path path = getEntryPath(key);
+        Path tmpPath = this.cacheDir.resolve(path.getFileName() + TMP_SUFFIX);
+
+        try{
+            Files.createDirectories(this.cacheDir);
+            try(OutputStream os = Files.newOutputStream(tmpPath)){
+                OutputStream bos = new BufferedOutputStream(os, BUFSIZE);
+                DataOutputStream dos = new DataOutputStream(bos);
+                writeEntry(dos, entry);
+                dos.flush();
+            }
+            Files.move(tmpPath, path,
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE );
+        }catch(IOException e){
+            LOGGER.log(Level.WARNING,
+                    "キャッシュファイル[" + path + "]が書けません", e);
+            try{
+                Files.deleteIfExists(tmpPath);
+            }catch(IOException e2){
+                // NOTHING
+                assert true;
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * キャッシュエントリを削除する。
+     *
+     * @param key キー
+     */
+    public void remove(String key){
+        Path path = getEntryPath(key);
+        try{
+            Files.deleteIfExists(path);
+        }catch(IOException e){
+            LOGGER.log(Level.WARNING,
+                    "キャッシュファイル[" + path + "]が消せません", e);
+        }
+        return;
+    }
+
+    /**
+     * ストリームからキャッシュエントリを読み込む。
+     *
+     * @param dis 入力ストリーム
+     * @return キャッシュエントリ。形式が不正ならnull
+     * @throws IOException 入力エラー
+     */
+    private static Entry readEntry(DataInputStream dis) throws IOException{
+        int magic = dis.readInt();
+        if(magic != MAGIC) return null;
+
+        long dateMs       = dis.readLong();
+        long lastModified = dis.readLong();
+        String etag       = dis.readUTF();
+        boolean isFinal   = dis.readBoolean();
+        int length        = dis.readInt();
+
+        if(length < 0 || MAX_BODY < length) return null;
+        byte[] body = new byte[length];
+        dis.readFully(body);
+
+        if(etag.isEmpty()) etag = null;
+
+        Entry result = new Entry(body, dateMs, lastModified, etag, isFinal);
+        return result;
+    }
+
+    /**
+     * ストリームへキャッシュエントリを書き込む。
+     *
+     * @param dos 出力ストリーム
+     * @param entry キャッシュエントリ
+     * @throws IOException 出力エラー
+     */
+    private static void writeEntry(DataOutputStream dos, Entry entry)
+            throws IOException{
+        String etag = entry.getETag();
+        if(etag == null) etag = "";
+
+        byte[] body = entry.getBody();
+
+        dos.writeInt(MAGIC);
+        dos.writeLong(entry.getDateMs());
+        dos.writeLong(entry.getLastModified());
+        dos.writeUTF(etag);
+        dos.writeBoolean(entry.isFinal());
+        dos.writeInt(body.length);
+        dos.write(body);
+
+        return;
+    }
+
+
+    /**
+     * キャッシュエントリ。
+     *
+     * <p>デコード前のHTTP応答本文と、
+     * 条件付きGETに用いるヘッダ情報を保持する。
+     */
+    public static class Entry{
+
+        private final byte[] body;
+        private final long dateMs;
+        private final long lastModified;
+        private final String etag;
+        private final boolean isFinal;
+
+        /**
+         * コンストラクタ。
+         *
+         * <p>更新されうるページのエントリとなる。
+         *
+         * @param body 応答本文のバイト列
+         * @param dateMs サーバ送信時刻(エポックミリ秒)
+         * @param lastModified Last-Modified値(エポックミリ秒)。不明なら0
+         * @param etag ETag値。不明ならnull
+         * @throws NullPointerException bodyがnull
+         */
+        public Entry(byte[] body,
+                     long dateMs,
+                     long lastModified,
+                     String etag )
+                throws NullPointerException{
+            this(body, dateMs, lastModified, etag, false);
+            return;
+        }
+
+        /**
+         * コンストラクタ。
+         *
+         * @param body 応答本文のバイト列
+         * @param dateMs サーバ送信時刻(エポックミリ秒)
+         * @param lastModified Last-Modified値(エポックミリ秒)。不明なら0
+         * @param etag ETag値。不明ならnull
+         * @param isFinal 格納時点で更新されることのないページならtrue
+         * @throws NullPointerException bodyがnull
+         */
+        public Entry(byte[] body,
+                     long dateMs,
+                     long lastModified,
+                     String etag,
+                     boolean isFinal )
+                throws NullPointerException{
+            super();
+
+            if(body == null) throw new NullPointerException();
+
+            this.body = body;
+            this.dateMs = dateMs;
+            this.lastModified = lastModified;
+            this.etag = etag;
+            this.isFinal = isFinal;
+
+            return;
+        }
+
+        /**
+         * 応答本文のバイト列を返す。
+         *
+         * <p>配列は共有されるので変更してはならない。
+         *
+         * @return バイト列
+         */
+        public byte[] getBody(){
+            return this.body;
+        }
+
+        /**
+         * サーバ送信時刻を返す。
+         *
+         * @return エポックミリ秒
+         */
+        public long getDateMs(){
+            return this.dateMs;
+        }
+
+        /**
+         * Last-Modified値を返す。
+         *
+         * @return エポックミリ秒。不明なら0
+         */
+        public long getLastModified(){
+            return this.lastModified;
+        }
+
+        /**
+         * ETag値を返す。
+         *
+         * @return ETag値。不明ならnull
+         */
+        public String getETag(){
+            return this.etag;
+        }
+
+        /**
+         * 格納時点で更新されることのないページだったか判定する。
+         *
+         * <p>更新途中のページを受信した後にページが更新されなくなっても、
+         * 再検証されるまではfalseのままとなる。
+         *
+         * @return 更新されることのないページだったならtrue
+         */
+        public boolean isFinal(){
+            return this.isFinal;
+        }
+
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * InputStream with progress checkpoints
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.net;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 読み込みの進み具合に応じて途中経過を通知するInputStream。
+ *
+ * <p>読み込んだバイト数が閾値に達するたびに、
+ * 次の読み込みの直前でチェックポイント処理が呼ばれる。
+ * 閾値は通知のたびに倍になるため、
+ * 途中経過の処理に要する手間の総和は全体の処理の高々定数倍で収まる。
+ *
+ * <p>チェックポイント処理は読み込みを行うスレッドから呼ばれる。
+ * ストリームの読み手がそれまでに読んだデータの処理を終えてから
+ * 次の読み込みを行うのであれば、
+ * チェックポイント処理からはその処理結果を安全に参照できる。
+ *
+ * <p>読み込んだバイト列を別の出力ストリームへ複写することもできる。
+ */
+public class ProgressInputStream extends FilterInputStream{
+
+    /** デフォルトの最初の閾値(バイト)。 */
+    public static final long DEF_FIRST_CHECKPOINT = 32L * 1024L;
+
+
+    private final OutputStream copy;
+    private final Runnable checkpoint;
+
+    private long counter;
+    private long nextCheckpoint;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param in 入力ストリーム
+     * @param copy 複写先出力ストリーム。複写しないならnull
+     * @param checkpoint チェックポイント処理。通知しないならnull
+     */
+    public ProgressInputStream(InputStream in,
+                               OutputStream copy,
+                               Runnable checkpoint ){
+        super(in);
+
+        this.copy = copy;
+        this.checkpoint = checkpoint;
+
+        this.counter = 0L;
+        this.nextCheckpoint = DEF_FIRST_CHECKPOINT;
+
+        return;
+    }
+
+
+    /**
+     * 読み込みバイト数を返す。
+     *
+     * @return 読み込みバイト数
+     */
+    public long getCount(){
+        return this.counter;
+    }
+
+    /**
+     * 閾値に達していればチェックポイント処理を呼ぶ。
+     */
+    private void checkProgress(){
+        if(this.checkpoint == null) return;
+        if(this.counter < this.nextCheckpoint) return;
+
+        while(this.nextCheckpoint <= this.counter){
+            this.nextCheckpoint *= 2L;
+        }
+
+        this.checkpoint.run();
+
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException{
+        checkProgress();
+
+        int bval = super.read();
+        if(bval < 0) return bval;
+
+        this.counter++;
+        if(this.copy != null) this.copy.write(bval);
+
+        return bval;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param buf {@inheritDoc}
+     * @param off {@inheritDoc}
+     * @param len {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public int read(byte[] buf, int off, int len) throws IOException{
+        checkProgress();
+
+        int count = super.read(buf, off, len);
+        if(count <= 0) return count;
+
+        this.counter += count;
+        if(this.copy != null) this.copy.write(buf, off, count);
+
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>複写の整合性を保つため、読み飛ばしは実際の読み込みで行われる。
+     *
+     * @param num {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public long skip(long num) throws IOException{
+        if(num <= 0L) return 0L;
+
+        byte[] buf = new byte[(int) Math.min(num, 512L)];
+        long remain = num;
+        while(remain > 0L){
+            int len = (int) Math.min(remain, buf.length);
+            int count = read(buf, 0, len);
+            if(count < 0) break;
+            remain -= count;
+        }
+
+        return num - remain;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>複写の整合性を保つため、マークはサポートしない。
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean markSupported(){
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>何もしない。
+     *
+     * @param readlimit {@inheritDoc}
+     */
+    @Override
+    public synchronized void mark(int readlimit){
+        return;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public synchronized void reset() throws IOException{
+        throw new IOException("mark/reset not supported");
+    }
+
+}
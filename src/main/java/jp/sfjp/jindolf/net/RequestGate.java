@@ -0,0 +1,157 @@
+/*
+ * request gate for polite access
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.net;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1つのサーバへの同時接続数とリクエスト頻度を制限する関所。
+ *
+ * <p>通信を行うスレッドは通信の前に{@link #enter()}を、
+ * 通信の後に{@link #leave()}を必ず対で呼ばねばならない。
+ *
+ * <p>同時に関所を通過できるスレッドは一定数まで。
+ *
+ * <p>リクエスト頻度はトークンバケツで制限される。
+ * トークンは一定間隔で補充され、リクエストの開始ごとに1つ消費される。
+ * バケツの容量までは間隔を空けずにリクエストを開始できるが、
+ * トークンが尽きると補充を待たされる。
+ */
+public class RequestGate {
+
+    private final int maxParallel;
+    private final long intervalNano;
+    private final long burstNano;
+    private final Semaphore semaphore;
+
+    private final Object timeLock = new Object();
+    private long theoreticalNano;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param policy 通信スケジュール方針
+     */
+    public RequestGate(SchedulePolicy policy){
+        this(policy.getMaxParallel(), policy.getRefillMs(), policy.getBurst());
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param maxParallel 同時接続数上限
+     * @param intervalMs トークンの補充間隔(ミリ秒)
+     * @param burst トークンバケツの容量
+     * @throws IllegalArgumentException 引数が範囲外
+     */
+    public RequestGate(int maxParallel, long intervalMs, int burst)
+            throws IllegalArgumentException{
+        super();
+
+        if(maxParallel <= 0 || intervalMs < 0L || burst <= 0){
+            throw new IllegalArgumentException();
+        }
+
+        this.maxParallel = maxParallel;
+        this.intervalNano = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        this.burstNano = this.intervalNano * (burst - 1);
+        this.semaphore = new Semaphore(this.maxParallel, true);
+        this.theoreticalNano = System.nanoTime();
+
+        return;
+    }
+
+
+    /**
+     * 同時接続数上限を返す。
+     *
+     * @return 同時接続数上限
+     */
+    public int getMaxParallel(){
+        return this.maxParallel;
+    }
+
+    /**
+     * 関所を通過中のスレッド数を返す。
+     *
+     * @return スレッド数
+     */
+    public int getActiveCount(){
+        return this.maxParallel - this.semaphore.availablePermits();
+    }
+
+    /**
+     * 関所の前で待たされているスレッド数の概数を返す。
+     *
+     * @return スレッド数
+     */
+    public int getWaitingCount(){
+        return this.semaphore.getQueueLength();
+    }
+
+    /**
+     * トークンを1つ予約し、その使用開始までの待ち時間を返す。
+     *
+     * <p>各リクエストの理論上の開始時刻を補充間隔ずつ進め、
+     * 現在時刻よりバケツ容量分以上先に進んでいれば待たせる。
+     *
+     * @param nowNano 現在時刻(ナノ秒)
+     * @return 待ち時間(ナノ秒)
+     */
+    long reserve(long nowNano){
+        long waitNano;
+        synchronized(this.timeLock){
+            long tat = this.theoreticalNano;
+            if(tat - nowNano < 0L) tat = nowNano;
+
+            long start = tat - this.burstNano;
+            if(start - nowNano < 0L) start = nowNano;
+
+            this.theoreticalNano = tat + this.intervalNano;
+            waitNano = start - nowNano;
+        }
+        return waitNano;
+    }
+
+    /**
+     * 関所に入る。
+     *
+     * <p>同時接続数に空きが出るまで、
+     * およびトークンが補充されるまで待たされる。
+     *
+     * @throws InterruptedException 待機中に割り込まれた
+     */
+    public void enter() throws InterruptedException{
+        this.semaphore.acquire();
+
+        long waitNano = reserve(System.nanoTime());
+
+        if(waitNano > 0L){
+            try{
+                TimeUnit.NANOSECONDS.sleep(waitNano);
+            }catch(InterruptedException e){
+                this.semaphore.release();
+                throw e;
+            }
+        }
+
+        return;
+    }
+
+    /**
+     * 関所を出る。
+     */
+    public void leave(){
+        this.semaphore.release();
+        return;
+    }
+
+}
@@ -0,0 +1,405 @@
+/*
+ * per-server request scheduler
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.net;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * 1つのサーバへの全ての通信を取り仕切るスケジューラ。
+ *
+ * <p>各通信は以下の順で制御される。
+ * <ol>
+ * <li>サーバとの通信障害が続いていれば即座に失敗する。
+ * ({@link CircuitBreaker})
+ * <li>同時接続数とリクエスト頻度の制限を待つ。
+ * ({@link RequestGate})
+ * <li>通信を行う。
+ * <li>タイムアウトや接続断、5xx応答など一時的と思われる障害であれば、
+ * 指数的に伸びる待ち時間をおいて再試行する。
+ * </ol>
+ *
+ * <p>再試行や通信停止などの状態変化はログに記録され、
+ * 登録されたリスナにも通知される。
+ * リスナは通信を行うスレッドから呼ばれる。
+ *
+ * <p>スケジュール方針は実行中にも差し替えられる。
+ * 実行中の通信は差し替え前の方針で最後まで制御される。
+ */
+public class RequestScheduler{
+
+    private static final String FORM_RETRY =
+            "{0} : {1} のため {2,number,#0.0}秒後に再試行します({3}/{4})";
+    private static final String FORM_OPEN =
+            "{0} : 通信障害が続くため{1}秒間通信を停止します";
+    private static final String FORM_CLOSE =
+            "{0} : 通信が回復しました";
+    private static final String FORM_REJECT =
+            "{0} : 通信停止中のため要求を拒否しました";
+
+    private static final Logger LOGGER = Logger.getAnonymousLogger();
+
+
+    private final String name;
+
+    private final Object policyLock = new Object();
+    private SchedulePolicy policy;
+    private RequestGate gate;
+    private CircuitBreaker breaker;
+
+    private final List<ChangeListener> listenerList =
+            new CopyOnWriteArrayList<>();
+    private volatile String statusMessage = "";
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>デフォルトの方針が用いられる。
+     *
+     * @param name ログ等に用いるサーバ名
+     */
+    public RequestScheduler(String name){
+        this(name, SchedulePolicy.DEFAULT);
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param name ログ等に用いるサーバ名
+     * @param policy スケジュール方針
+     */
+    public RequestScheduler(String name, SchedulePolicy policy){
+        super();
+        this.name = name;
+        setPolicy(policy);
+        return;
+    }
+
+
+    /**
+     * 再試行に値する障害か判定する。
+     *
+     * <p>5xx応答、タイムアウト、接続の失敗や切断が該当する。
+     * 割り込みや名前解決の失敗などは該当しない。
+     *
+     * @param e 入出力エラー
+     * @return 再試行に値するならtrue
+     */
+    static boolean isTransient(IOException e){
+        if(e instanceof ServerErrorException) return true;
+        if(e instanceof SocketTimeoutException) return true;
+        if(e instanceof SocketException) return true;
+        return false;
+    }
+
+    /**
+     * サーバ名を返す。
+     *
+     * @return サーバ名
+     */
+    public String getName(){
+        return this.name;
+    }
+
+    /**
+     * スケジュール方針を返す。
+     *
+     * @return スケジュール方針
+     */
+    public SchedulePolicy getPolicy(){
+        synchronized(this.policyLock){
+            return this.policy;
+        }
+    }
+
+    /**
+     * スケジュール方針を設定する。
+     *
+     * <p>同じ方針が既に設定されていれば何もしない。
+     * 異なる方針であれば関所とブレーカは作り直される。
+     *
+     * @param newPolicy スケジュール方針
+     * @throws NullPointerException 引数がnull
+     */
+    public final void setPolicy(SchedulePolicy newPolicy)
+            throws NullPointerException{
+        if(newPolicy == null) throw new NullPointerException();
+
+        synchronized(this.policyLock){
+            if(newPolicy.equals(this.policy)) return;
+            this.policy = newPolicy;
+            this.gate = new RequestGate(newPolicy);
+            this.breaker = new CircuitBreaker(newPolicy.getBreakThreshold(),
+                                              newPolicy.getBreakMs() );
+        }
+
+        return;
+    }
+
+    /**
+     * 現在の関所を返す。
+     *
+     * @return 関所
+     */
+    public RequestGate getGate(){
+        synchronized(this.policyLock){
+            return this.gate;
+        }
+    }
+
+    /**
+     * 現在のブレーカの状態を返す。
+     *
+     * @return ブレーカの状態
+     */
+    public CircuitBreaker.State getBreakerState(){
+        CircuitBreaker curBreaker;
+        synchronized(this.policyLock){
+            curBreaker = this.breaker;
+        }
+        return curBreaker.getState();
+    }
+
+    /**
+     * 最後に通知された状態メッセージを返す。
+     *
+     * @return 状態メッセージ。まだ何も無ければ空文字列。
+     */
+    public String getStatusMessage(){
+        return this.statusMessage;
+    }
+
+    /**
+     * 状態変化リスナを登録する。
+     *
+     * @param listener リスナ
+     */
+    public void addChangeListener(ChangeListener listener){
+        this.listenerList.add(listener);
+        return;
+    }
+
+    /**
+     * 状態変化リスナを削除する。
+     *
+     * @param listener リスナ
+     */
+    public void removeChangeListener(ChangeListener listener){
+        this.listenerList.remove(listener);
+        return;
+    }
+
+    /**
+     * 状態メッセージを更新しリスナに通知する。
+     *
+     * @param message 状態メッセージ
+     */
+    private void publish(String message){
+        this.statusMessage = message;
+
+        ChangeEvent event = new ChangeEvent(this);
+        for(ChangeListener listener : this.listenerList){
+            listener.stateChanged(event);
+        }
+
+        return;
+    }
+
+    /**
+     * 通信処理をスケジュールに従って実行する。
+     *
+     * <p>呼び出したスレッドで実行され、完了するまで戻らない。
+     *
+     * @param <T> 結果の型
+     * @param task 通信処理
+     * @return 結果
+     * @throws CircuitOpenException 通信停止中
+     * @throws InterruptedIOException 待機中に割り込まれた
+     * @throws IOException 再試行を尽くしても失敗した通信処理の入出力エラー
+     */
+    public <T> T call(IoTask<T> task) throws IOException{
+        SchedulePolicy curPolicy;
+        RequestGate curGate;
+        CircuitBreaker curBreaker;
+        synchronized(this.policyLock){
+            curPolicy  = this.policy;
+            curGate    = this.gate;
+            curBreaker = this.breaker;
+        }
+
+        int maxRetries = curPolicy.getMaxRetries();
+        for(int attempt = 0;; attempt++){
+            try{
+                curBreaker.acquire(System.nanoTime());
+            }catch(CircuitOpenException e){
+                LOGGER.info(MessageFormat.format(FORM_REJECT, this.name));
+                throw e;
+            }
+
+            CircuitBreaker.State before = curBreaker.getState();
+            IOException failure = null;
+            boolean succeeded = false;
+            try{
+                enterGate(curGate);
+                try{
+                    T result = task.call();
+                    succeeded = true;
+                    CircuitBreaker.State after = curBreaker.onSuccess();
+                    if(before != after) notifyClosed();
+                    return result;
+                }finally{
+                    curGate.leave();
+                }
+            }catch(IOException e){
+                failure = e;
+            }finally{
+                if( ! succeeded && failure == null ) curBreaker.onNeutral();
+            }
+
+            if( ! isTransient(failure) ){
+                curBreaker.onNeutral();
+                throw failure;
+            }
+
+            CircuitBreaker.State after =
+                    curBreaker.onFailure(System.nanoTime());
+            if(after == CircuitBreaker.State.OPEN){
+                if(before != CircuitBreaker.State.OPEN){
+                    notifyOpened(curPolicy);
+                }
+                throw failure;
+            }
+
+            if(attempt >= maxRetries) throw failure;
+
+            double random = ThreadLocalRandom.current().nextDouble();
+            long delayMs = curPolicy.getBackoffDelay(attempt, random);
+            notifyRetry(failure, delayMs, attempt + 1, maxRetries);
+            sleep(delayMs);
+        }
+    }
+
+    /**
+     * 関所に入る。
+     *
+     * @param curGate 関所
+     * @throws InterruptedIOException 待機中に割り込まれた
+     */
+    private static void enterGate(RequestGate curGate)
+            throws InterruptedIOException{
+        try{
+            curGate.enter();
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            InterruptedIOException ioe = new InterruptedIOException();
+            ioe.initCause(e);
+            throw ioe;
+        }
+        return;
+    }
+
+    /**
+     * 再試行までの間待つ。
+     *
+     * @param delayMs 待ち時間(ミリ秒)
+     * @throws InterruptedIOException 待機中に割り込まれた
+     */
+    private static void sleep(long delayMs) throws InterruptedIOException{
+        try{
+            TimeUnit.MILLISECONDS.sleep(delayMs);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            InterruptedIOException ioe = new InterruptedIOException();
+            ioe.initCause(e);
+            throw ioe;
+        }
+        return;
+    }
+
+    /**
+     * 再試行を通知する。
+     *
+     * @param failure 障害
+     * @param delayMs 再試行までの待ち時間(ミリ秒)
+     * @param retry 何回目の再試行か
+     * @param maxRetries 再試行回数の上限
+     */
+    private void notifyRetry(IOException failure,
+                             long delayMs,
+                             int retry,
+                             int maxRetries ){
+        String cause = failure.getClass().getSimpleName();
+        if(failure instanceof ServerErrorException){
+            int code = ((ServerErrorException) failure).getStatusCode();
+            cause = "HTTP " + code;
+        }
+
+        String message = MessageFormat.format(
+                FORM_RETRY,
+                this.name, cause, delayMs / 1000.0, retry, maxRetries );
+        LOGGER.warning(message);
+        publish(message);
+
+        return;
+    }
+
+    /**
+     * 通信停止を通知する。
+     *
+     * @param curPolicy 方針
+     */
+    private void notifyOpened(SchedulePolicy curPolicy){
+        long sec = curPolicy.getBreakMs() / 1000L;
+        String message = MessageFormat.format(FORM_OPEN, this.name, sec);
+        LOGGER.warning(message);
+        publish(message);
+        return;
+    }
+
+    /**
+     * 通信回復を通知する。
+     */
+    private void notifyClosed(){
+        String message = MessageFormat.format(FORM_CLOSE, this.name);
+        LOGGER.info(message);
+        publish(message);
+        return;
+    }
+
+
+    /**
+     * 入出力エラーを投げうる通信処理。
+     *
+     * @param <T> 結果の型
+     */
+    @FunctionalInterface
+    public interface IoTask<T>{
+
+        /**
+         * 通信処理を実行する。
+         *
+         * @return 結果
+         * @throws IOException 入出力エラー
+         */
+        T call() throws IOException;
+
+    }
+
+}
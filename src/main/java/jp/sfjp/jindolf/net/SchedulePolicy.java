@@ -0,0 +1,330 @@
+/*
+ * request schedule policy
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.net;
+
+import jp.sourceforge.jovsonz.JsNumber;
+import jp.sourceforge.jovsonz.JsObject;
+import jp.sourceforge.jovsonz.JsPair;
+import jp.sourceforge.jovsonz.JsValue;
+
+/**
+ * 国ごとの通信スケジュール方針。
+ *
+ * <p>以下の値からなる。
+ * <ul>
+ * <li>同時接続数上限
+ * <li>トークンバケツの補充間隔と容量
+ * <li>再試行回数と再試行までの待ち時間(指数的に伸びる)
+ * <li>通信停止(サーキットブレーカ)に至る連続失敗回数と停止時間
+ * </ul>
+ *
+ * <p>不変オブジェクト。
+ */
+public class SchedulePolicy{
+
+    /** デフォルトの方針。 */
+    public static final SchedulePolicy DEFAULT = new SchedulePolicy();
+
+    private static final int DEF_PARALLEL = 3;
+    private static final int DEF_REFILL_MS = 250;
+    private static final int DEF_BURST = 4;
+    private static final int DEF_RETRIES = 2;
+    private static final int DEF_BACKOFF_MS = 1000;
+    private static final int DEF_BACKOFF_MAX_MS = 8000;
+    private static final int DEF_BREAK_THRESHOLD = 5;
+    private static final int DEF_BREAK_MS = 30 * 1000;
+
+    private static final String HASH_PARALLEL      = "maxParallel";
+    private static final String HASH_REFILL        = "refillMs";
+    private static final String HASH_BURST         = "burst";
+    private static final String HASH_RETRIES       = "maxRetries";
+    private static final String HASH_BACKOFF       = "backoffMs";
+    private static final String HASH_BACKOFF_MAX   = "backoffMaxMs";
+    private static final String HASH_BREAK_THRESH  = "breakThreshold";
+    private static final String HASH_BREAK_MS      = "breakMs";
+
+
+    private final int maxParallel;
+    private final int refillMs;
+    private final int burst;
+    private final int maxRetries;
+    private final int backoffMs;
+    private final int backoffMaxMs;
+    private final int breakThreshold;
+    private final int breakMs;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>デフォルトの値が用いられる。
+     */
+    public SchedulePolicy(){
+        this(DEF_PARALLEL, DEF_REFILL_MS, DEF_BURST,
+             DEF_RETRIES, DEF_BACKOFF_MS, DEF_BACKOFF_MAX_MS,
+             DEF_BREAK_THRESHOLD, DEF_BREAK_MS );
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param maxParallel 同時接続数上限
+     * @param refillMs トークンの補充間隔(ミリ秒)
+     * @param burst トークンバケツの容量
+     * @param maxRetries 再試行回数の上限
+     * @param backoffMs 最初の再試行までの待ち時間(ミリ秒)
+     * @param backoffMaxMs 再試行までの待ち時間の上限(ミリ秒)
+     * @param breakThreshold 通信停止に至る連続失敗回数
+     * @param breakMs 通信停止時間(ミリ秒)
+     * @throws IllegalArgumentException 引数が範囲外
+     */
+    public SchedulePolicy(int maxParallel,
+                          int refillMs,
+                          int burst,
+                          int maxRetries,
+                          int backoffMs,
+                          int backoffMaxMs,
+                          int breakThreshold,
+                          int breakMs )
+            throws IllegalArgumentException{
+        super();
+
+        if(    maxParallel <= 0
+            || refillMs < 0
+            || burst <= 0
+            || maxRetries < 0
+            || backoffMs < 0
+            || backoffMaxMs < backoffMs
+            || breakThreshold <= 0
+            || breakMs < 0 ){
+            throw new IllegalArgumentException();
+        }
+
+        this.maxParallel = maxParallel;
+        this.refillMs = refillMs;
+        this.burst = burst;
+        this.maxRetries = maxRetries;
+        this.backoffMs = backoffMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.breakThreshold = breakThreshold;
+        this.breakMs = breakMs;
+
+        return;
+    }
+
+
+    /**
+     * 方針をJSON形式にエンコードする。
+     *
+     * @param policy 方針
+     * @return JSON object
+     */
+    public static JsObject buildJson(SchedulePolicy policy){
+        JsObject result = new JsObject();
+
+        result.putPair(new JsPair(HASH_PARALLEL,     policy.maxParallel));
+        result.putPair(new JsPair(HASH_REFILL,       policy.refillMs));
+        result.putPair(new JsPair(HASH_BURST,        policy.burst));
+        result.putPair(new JsPair(HASH_RETRIES,      policy.maxRetries));
+        result.putPair(new JsPair(HASH_BACKOFF,      policy.backoffMs));
+        result.putPair(new JsPair(HASH_BACKOFF_MAX,  policy.backoffMaxMs));
+        result.putPair(new JsPair(HASH_BREAK_THRESH, policy.breakThreshold));
+        result.putPair(new JsPair(HASH_BREAK_MS,     policy.breakMs));
+
+        return result;
+    }
+
+    /**
+     * JSONからの方針復元。
+     *
+     * <p>欠けている値や不正な値にはデフォルト値が用いられる。
+     *
+     * @param obj JSON object
+     * @return 復元された方針
+     */
+    public static SchedulePolicy decodeJson(JsObject obj){
+        int parallel  = getInt(obj, HASH_PARALLEL,     DEF_PARALLEL);
+        int refill    = getInt(obj, HASH_REFILL,       DEF_REFILL_MS);
+        int burstNum  = getInt(obj, HASH_BURST,        DEF_BURST);
+        int retries   = getInt(obj, HASH_RETRIES,      DEF_RETRIES);
+        int backoff   = getInt(obj, HASH_BACKOFF,      DEF_BACKOFF_MS);
+        int backMax   = getInt(obj, HASH_BACKOFF_MAX,  DEF_BACKOFF_MAX_MS);
+        int threshold = getInt(obj, HASH_BREAK_THRESH, DEF_BREAK_THRESHOLD);
+        int breakTime = getInt(obj, HASH_BREAK_MS,     DEF_BREAK_MS);
+
+        SchedulePolicy result;
+        try{
+            result = new SchedulePolicy(parallel, refill, burstNum,
+                                        retries, backoff, backMax,
+                                        threshold, breakTime );
+        }catch(IllegalArgumentException e){
+            result = DEFAULT;
+        }
+
+        return result;
+    }
+
+    /**
+     * JSON objectから整数値を取り出す。
+     *
+     * @param obj JSON object
+     * @param name 名前
+     * @param defVal 値が無い場合のデフォルト値
+     * @return 整数値
+     */
+    private static int getInt(JsObject obj, String name, int defVal){
+        JsValue value = obj.getValue(name);
+        if( ! (value instanceof JsNumber) ) return defVal;
+        JsNumber number = (JsNumber) value;
+        return number.intValue();
+    }
+
+    /**
+     * 同時接続数上限を返す。
+     *
+     * @return 同時接続数上限
+     */
+    public int getMaxParallel(){
+        return this.maxParallel;
+    }
+
+    /**
+     * トークンの補充間隔を返す。
+     *
+     * <p>持続的なリクエスト頻度の上限はこの間隔の逆数となる。
+     *
+     * @return 補充間隔(ミリ秒)
+     */
+    public int getRefillMs(){
+        return this.refillMs;
+    }
+
+    /**
+     * トークンバケツの容量を返す。
+     *
+     * <p>しばらく通信が無かった後は、
+     * この数までのリクエストが間隔を空けずに開始できる。
+     *
+     * @return 容量
+     */
+    public int getBurst(){
+        return this.burst;
+    }
+
+    /**
+     * 再試行回数の上限を返す。
+     *
+     * @return 再試行回数の上限
+     */
+    public int getMaxRetries(){
+        return this.maxRetries;
+    }
+
+    /**
+     * 最初の再試行までの待ち時間を返す。
+     *
+     * @return 待ち時間(ミリ秒)
+     */
+    public int getBackoffMs(){
+        return this.backoffMs;
+    }
+
+    /**
+     * 再試行までの待ち時間の上限を返す。
+     *
+     * @return 待ち時間の上限(ミリ秒)
+     */
+    public int getBackoffMaxMs(){
+        return this.backoffMaxMs;
+    }
+
+    /**
+     * 通信停止に至る連続失敗回数を返す。
+     *
+     * @return 連続失敗回数
+     */
+    public int getBreakThreshold(){
+        return this.breakThreshold;
+    }
+
+    /**
+     * 通信停止時間を返す。
+     *
+     * @return 停止時間(ミリ秒)
+     */
+    public int getBreakMs(){
+        return this.breakMs;
+    }
+
+    /**
+     * 再試行までの待ち時間を求める。
+     *
+     * <p>待ち時間は再試行のたびに倍になり、上限で頭打ちとなる。
+     * 複数のクライアントの再試行が揃わないよう、
+     * 後半の半分は乱数で揺らされる。
+     *
+     * @param attempt 何回目の再試行か(0から始まる)
+     * @param random 0以上1未満の乱数
+     * @return 待ち時間(ミリ秒)
+     */
+    public long getBackoffDelay(int attempt, double random){
+        long delay = this.backoffMs;
+        for(int ct = 0; ct < attempt && delay < this.backoffMaxMs; ct++){
+            delay *= 2L;
+        }
+        delay = Math.min(delay, this.backoffMaxMs);
+
+        long half = delay / 2L;
+        long result = half + (long)((delay - half) * random);
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param obj {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj){
+        if(obj == null) return false;
+        if(getClass() != obj.getClass()) return false;
+
+        SchedulePolicy target = (SchedulePolicy) obj;
+
+        return    this.maxParallel    == target.maxParallel
+               && this.refillMs       == target.refillMs
+               && this.burst          == target.burst
+               && this.maxRetries     == target.maxRetries
+               && this.backoffMs      == target.backoffMs
+               && this.backoffMaxMs   == target.backoffMaxMs
+               && this.breakThreshold == target.breakThreshold
+               && this.breakMs        == target.breakMs;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int hashCode(){
+        int result = this.maxParallel;
+        result = result * 31 + this.refillMs;
+        result = result * 31 + this.burst;
+        result = result * 31 + this.maxRetries;
+        result = result * 31 + this.backoffMs;
+        result = result * 31 + this.backoffMaxMs;
+        result = result * 31 + this.breakThreshold;
+        result = result * 31 + this.breakMs;
+        return result;
+    }
+
+}
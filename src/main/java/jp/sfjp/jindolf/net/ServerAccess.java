@@ -10,24 +10,37 @@
 import io.bitbucket.olyutorskii.jiocema.DecodeBreakException;
 import io.bitbucket.olyutorskii.jiocema.DecodeNotifier;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.ref.SoftReference;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.Proxy;
 import java.net.URL;
 import java.nio.charset.Charset;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.imageio.ImageIO;
 import jp.osdn.jindolf.parser.content.ContentBuilder;
-import jp.osdn.jindolf.parser.content.ContentBuilderSJ;
 import jp.osdn.jindolf.parser.content.DecodedContent;
-import jp.osdn.jindolf.parser.content.SjisNotifier;
+import jp.sfjp.jindolf.data.Land;
 import jp.sfjp.jindolf.data.Period;
 import jp.sfjp.jindolf.data.Village;
+import jp.sfjp.jindolf.util.DaemonThreadFactory;
+import jp.sfjp.jindolf.util.SingleFlight;
+import jp.sourceforge.jindolf.corelib.LandState;
+import jp.sourceforge.jindolf.corelib.VillageState;
 
 /**
  * 国ごとの人狼BBSサーバとの通信を一手に引き受ける。
@@ -38,39 +51,79 @@
  *
  * <p>国ごとに文字コードを保持し、HTML文書のデコードに用いられる。
  *
- * <p>画像(40種強)はキャッシュ管理が行われる。
+ * <p>画像(40種強)は容量上限付きの{@link ImageCache}でキャッシュ管理が行われる。
+ * 画像ストアが設定されていれば、画像はディスク上にも保持される。
+ *
+ * <p>ディスクキャッシュが設定されていれば、
+ * 村情報および各PeriodのHTMLはディスクキャッシュ管理が行われる。
+ * 終了した村のHTMLはキャッシュがあれば通信せずに用いられ、
+ * それ以外は条件付きGETによる再検証を経て用いられる。
  *
  * <p>※ 2020-02現在、進行中の村は存在しないゆえ、
  * Cookie認証処理は削除された。
  *
  * <p>最後にHTTP受信が行われた時刻を保持する。
+ *
+ * <p>各HTTP通信の統計は{@link NetMetrics}に記録される。
+ *
+ * <p>サーバとの全ての通信は国ごとの{@link RequestScheduler}を経由し、
+ * 同時接続数とリクエスト頻度の制限、一時的な障害時の再試行、
+ * 障害が続くサーバへの通信停止が行われる。
+ * 5xx応答は再試行の対象となり、再試行を尽くしても失敗すれば
+ * 他の失敗応答と同様に扱われる。
+ *
+ * <p>同じURLへの同時のダウンロード要求は1つの通信にまとめられ、
+ * 要求元は全て同じ結果を受け取る。
+ *
+ * <p>HTMLの取得では圧縮転送(gzip, deflate)を要求し、
+ * 圧縮された応答は透過的に伸長される。
+ *
+ * <p>HTTP接続は応答本文を読み切った後に切断されず、
+ * JREのKeep-Alive機構によって同じサーバへの次のリクエストに再利用される。
+ * 各種ダウンロードには{@link CompletableFuture}を返す非同期版があり、
+ * 国ごとの小さなスレッドプール上で実行される。
  */
 public class ServerAccess{
 
-    private static final int BUFLEN_CONTENT = 200 * 1024;
+    private static final int BUFLEN_RAW = 64 * 1024;
+    private static final int BUFLEN_DRAIN = 4 * 1024;
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+    private static final long ASYNC_IDLE_SEC = 30L;
+    private static final int BUFLEN_IMAGE = 16 * 1024;
+    private static final int CONNECT_TIMEOUT_MS = 15 * 1000;
+    private static final int READ_TIMEOUT_MS = 30 * 1000;
+    private static final long IMAGE_REVALIDATE_MS =
+            TimeUnit.DAYS.toMillis(7L);
 
     private static final String USER_AGENT = HttpUtils.getUserAgentName();
     private static final String JINRO_CGI = "./index.rb";
 
-    private static final
-            Map<String, SoftReference<BufferedImage>> IMAGE_CACHE;
-    private static final Object CACHE_LOCK = new Object();
+    private static final ImageCache IMAGE_CACHE = new ImageCache();
+    private static final NetMetrics METRICS = NetMetrics.getDefault();
 
     private static final Logger LOGGER = Logger.getAnonymousLogger();
 
-    static{
-        IMAGE_CACHE = new HashMap<>();
-    }
-
 
     private final URL baseURL;
 
     private final Charset charset;
-    private final boolean isSJIS;
-    private final boolean isUTF8;
+    private final DecoderPool decoderPool;
 
     private Proxy proxy = Proxy.NO_PROXY;
 
+    private PageCache pageCache = null;
+    private PageCache imageStore = null;
+
+    private final RequestScheduler scheduler;
+
+    private final SingleFlight<String, HtmlSequence> htmlFlight =
+            new SingleFlight<>();
+    private final SingleFlight<String, BufferedImage> imageFlight =
+            new SingleFlight<>();
+
+    private final Object asyncLock = new Object();
+    private ExecutorService asyncExecutor = null;
+
     private long lastServerMs;
     private long lastLocalMs;
     private long lastSystemMs;
@@ -81,61 +134,70 @@
      *
      * <p>この時点ではまだ通信は行われない。
      *
+     * <p>ログ等に用いるサーバ名にはホスト名が用いられる。
+     *
      * @param baseURL 国別のベースURL
      * @param charset 国のCharset
      * @throws IllegalArgumentException 不正なURL
      */
     public ServerAccess(URL baseURL, Charset charset)
             throws IllegalArgumentException{
+        this(baseURL, charset, baseURL.getHost());
+        return;
+    }
+
+    /**
+     * 人狼BBSサーバとの接続管理を生成する。
+     *
+     * <p>この時点ではまだ通信は行われない。
+     *
+     * @param baseURL 国別のベースURL
+     * @param charset 国のCharset
+     * @param name ログ等に用いるサーバ名
+     * @throws IllegalArgumentException 不正なURL
+     */
+    public ServerAccess(URL baseURL, Charset charset, String name)
+            throws IllegalArgumentException{
         super();
 
         this.baseURL = baseURL;
         this.charset = charset;
+        this.scheduler = new RequestScheduler(name);
 
-        String charsetName = this.charset.name();
-        if("Shift_JIS".equalsIgnoreCase(charsetName)){
-            this.isSJIS = true;
-            this.isUTF8 = false;
-        }else if("UTF-8".equalsIgnoreCase(charsetName)){
-            this.isSJIS = false;
-            this.isUTF8 = true;
-        }else{
-            throw new IllegalArgumentException(charsetName);
-        }
-        assert this.isSJIS ^ this.isUTF8;
+        this.decoderPool = DecoderPool.getPool(this.charset);
 
         return;
     }
 
 
+    /**
+     * 全国で共有される画像キャッシュを返す。
+     *
+     * @return 画像キャッシュ
+     */
+    public static ImageCache getSharedImageCache(){
+        return IMAGE_CACHE;
+    }
+
+    /**
+     * このサーバへの通信を取り仕切るスケジューラを返す。
+     *
+     * @return スケジューラ
+     */
+    public RequestScheduler getScheduler(){
+        return this.scheduler;
+    }
+
     /**
      * 画像キャッシュを検索する。
      *
      * <p>キーは画像URL文字列。
      *
-     * <p>ソフト参照オブジェクトの解放などにより、
-     * キャッシュの状況は変化する。
-     *
      * @param key キー
      * @return キャッシュされた画像。キャッシュされていなければnull。
      */
     private static BufferedImage getImageCache(String key){
-        if(key == null) return null;
-
-        BufferedImage image;
-
-        // atomic get and remove
-        synchronized(CACHE_LOCK){
-            SoftReference<BufferedImage> ref = IMAGE_CACHE.get(key);
-            if(ref == null) return null;
-
-            image = ref.get();
-            if(image == null){
-                IMAGE_CACHE.remove(key);
-            }
-        }
-
-        return image;
+        return IMAGE_CACHE.get(key);
     }
 
     /**
@@ -147,16 +209,7 @@ private static BufferedImage getImageCache(String key){
      * @param image キャッシュしたい画像。
      */
     private static void putImageCache(String key, BufferedImage image){
-        if(key == null || image == null) return;
-
-        // atomic get and put
-        synchronized(CACHE_LOCK){
-            if(getImageCache(key) != null) return;
-            SoftReference<BufferedImage> ref =
-                    new SoftReference<>(image);
-            IMAGE_CACHE.put(key, ref);
-        }
-
+        IMAGE_CACHE.put(key, image);
         return;
     }
 
@@ -181,6 +234,48 @@ public void setProxy(Proxy proxy){
         return;
     }
 
+    /**
+     * 画像ストアを返す。
+     *
+     * @return 画像ストア。使わない場合はnull
+     */
+    public PageCache getImageStore(){
+        return this.imageStore;
+    }
+
+    /**
+     * 画像ストアを設定する。
+     *
+     * <p>画像ストアは画像URLから求めたダイジェスト値をキーに、
+     * 受信した画像ファイルの内容をディスク上に保持する。
+     * 複数の国で同じ画像ストアを共有してよい。
+     *
+     * @param imageStore 画像ストア。nullなら使わない。
+     */
+    public void setImageStore(PageCache imageStore){
+        this.imageStore = imageStore;
+        return;
+    }
+
+    /**
+     * HTMLのディスクキャッシュを返す。
+     *
+     * @return ディスクキャッシュ。使わない場合はnull
+     */
+    public PageCache getPageCache(){
+        return this.pageCache;
+    }
+
+    /**
+     * HTMLのディスクキャッシュを設定する。
+     *
+     * @param pageCache ディスクキャッシュ。nullならキャッシュを使わない。
+     */
+    public void setPageCache(PageCache pageCache){
+        this.pageCache = pageCache;
+        return;
+    }
+
     /**
      * 国のベースURLを返す。
      *
@@ -244,50 +339,119 @@ public URL getPeriodURL(Period period){
      */
     public DecodedContent downloadHTMLStream(InputStream istream)
             throws IOException{
-        DecodeNotifier decoder;
-        ContentBuilder builder;
-        if(this.isSJIS){
-            decoder = new SjisNotifier();
-            builder = new ContentBuilderSJ(BUFLEN_CONTENT);
-        }else if(this.isUTF8){
-            decoder = new DecodeNotifier(this.charset.newDecoder());
-            builder = new ContentBuilder(BUFLEN_CONTENT);
-        }else{
-            assert false;
-            return null;
-        }
-        decoder.setCharDecodeListener(builder);
+        return downloadHTMLStream(istream, null, null);
+    }
 
-        // TODO デコーダをインスタンス変数にできないか。
-        // TODO DecodedContentのキャッシュ管理。
+    /**
+     * エンコーディングされた入力ストリームからHTML文字列を受信する。
+     *
+     * <p>受信の途中経過が必要なら、
+     * 受信量が増えるたびにそれまでにデコードされた文字列がリスナに渡される。
+     * リスナは受信を行うスレッドから呼ばれ、
+     * リスナが戻るまで次の受信は行われない。
+     * 渡された文字列はこの後も伸び続けるので、
+     * リスナが戻った後に参照してはならない。
+     *
+     * <p>デコーダと受信バッファは{@link DecoderPool}から借りて使い回される。
+     * 返される文字列は受信バッファの複製であり、
+     * その容量は内容の長さに切り詰められている。
+     *
+     * @param istream 入力ストリーム
+     * @param copy 受信したバイト列の複写先。不要ならnull
+     * @param partial 途中経過の通知先。不要ならnull
+     * @return 文字列
+     * @throws java.io.IOException 入出力エラー（おそらくネットワーク関連）
+     */
+    public DecodedContent downloadHTMLStream(
+            InputStream istream,
+            OutputStream copy,
+            Consumer<DecodedContent> partial )
+            throws IOException{
+        DecoderPool.Entry entry = this.decoderPool.borrow();
+        DecodeNotifier decoder = entry.getDecoder();
+        ContentBuilder builder = entry.getBuilder();
+
+        InputStream is = istream;
+        if(copy != null || partial != null){
+            Runnable checkpoint = null;
+            if(partial != null){
+                checkpoint = () -> partial.accept(builder.getContent());
+            }
+            is = new ProgressInputStream(istream, copy, checkpoint);
+        }
 
+        DecodedContent result;
         try{
-            decoder.decode(istream);
+            decoder.decode(is);
+            result = DecoderPool.trimCopy(builder.getContent());
         }catch(DecodeBreakException e){
-            return null;
+            result = null;
         }
 
-        return builder.getContent();
+        this.decoderPool.release(entry);
+
+        return result;
     }
 
     /**
      * 与えられたURLを用いてHTMLデータを取得する。
      *
+     * <p>同じURLのダウンロードが実行中であれば、その結果を共有する。
+     *
      * @param url URL
      * @return HTMLデータ
      * @throws java.io.IOException ネットワークエラー
      */
     protected HtmlSequence downloadHTML(URL url)
             throws IOException{
+        String key = url.toString();
+        HtmlSequence result =
+                this.htmlFlight.call(key, () -> gatedFetchHTML(url, null));
+        return result;
+    }
+
+    /**
+     * スケジューラを通して与えられたURLのHTMLデータを受信する。
+     *
+     * @param url URL
+     * @param partial 受信途中経過の通知先。不要ならnull
+     * @return HTMLデータ。サーバ障害で失敗した場合はnull
+     * @throws java.io.IOException ネットワークエラー
+     */
+    private HtmlSequence gatedFetchHTML(URL url,
+                                        Consumer<DecodedContent> partial )
+            throws IOException{
+        try{
+            return this.scheduler.call(() -> fetchHTML(url, partial));
+        }catch(ServerErrorException e){
+            return null;
+        }
+    }
+
+    /**
+     * 与えられたURLを用いてHTMLデータを実際に受信する。
+     *
+     * @param url URL
+     * @param partial 受信途中経過の通知先。不要ならnull
+     * @return HTMLデータ
+     * @throws java.io.IOException ネットワークエラー
+     */
+    private HtmlSequence fetchHTML(URL url,
+                                   Consumer<DecodedContent> partial )
+            throws IOException{
         HttpURLConnection connection =
                 (HttpURLConnection) url.openConnection(this.proxy);
         connection.setRequestProperty("Accept", "*/*");
+        connection.setRequestProperty("Accept-Encoding", ACCEPT_ENCODING);
         connection.setRequestProperty("User-Agent", USER_AGENT);
         connection.setUseCaches(false);
         connection.setInstanceFollowRedirects(false);
         connection.setDoInput(true);
         connection.setRequestMethod("GET");
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
 
+        long startNano = System.nanoTime();
         connection.connect();
 
         long datems = updateLastAccess(connection);
@@ -297,21 +461,27 @@ protected HtmlSequence downloadHTML(URL url)
             String logMessage =  "発言のダウンロードに失敗しました。";
             logMessage += HttpUtils.formatHttpStat(connection, 0, 0);
             LOGGER.warning(logMessage);
+            METRICS.recordBodiless(connection, startNano);
+            releaseConnection(connection);
+            if(ServerErrorException.isServerError(responseCode)){
+                throw new ServerErrorException(responseCode);
+            }
             return null;
         }
 
         String cs = HttpUtils.getHTMLCharset(connection);
         if(!cs.equalsIgnoreCase(this.charset.name())){
+            METRICS.recordBodiless(connection, startNano);
+            releaseConnection(connection);
             return null;
         }
 
         DecodedContent html;
-        try(InputStream is = TallyInputStream.getInputStream(connection)){
-            html = downloadHTMLStream(is);
+        try(InputStream is =
+                TallyInputStream.getInputStream(connection, startNano)){
+            html = downloadHTMLStream(is, null, partial);
         }
 
-        connection.disconnect();
-
         HtmlSequence hseq = new HtmlSequence(url, datems, html);
 
         return hseq;
@@ -378,8 +548,9 @@ public HtmlSequence getHTMLBoneHead(Village village) throws IOException{
      * @throws java.io.IOException ネットワークエラー
      */
     public HtmlSequence getHTMLVillage(Village village) throws IOException{
-        URL url = getVillageURL(village);
-        return downloadHTML(url);
+        String query = village.getCGIQuery();
+        boolean isFinal = isFinishedVillage(village);
+        return downloadCachedHTML(query, isFinal, null);
     }
 
     /**
@@ -390,13 +561,259 @@ public HtmlSequence getHTMLVillage(Village village) throws IOException{
      * @throws java.io.IOException ネットワークエラー
      */
     public HtmlSequence getHTMLPeriod(Period period) throws IOException{
-        URL url = getPeriodURL(period);
-        return downloadHTML(url);
+        return getHTMLPeriod(period, null);
+    }
+
+    /**
+     * 指定されたPeriodのHTMLデータをロードする。
+     *
+     * <p>サーバから受信する場合に限り、
+     * 受信の途中経過がデコード済みの文字列としてリスナに通知される。
+     * ディスクキャッシュから得られた場合は通知されない。
+     *
+     * @param period Period
+     * @param partial 途中経過の通知先。不要ならnull
+     * @return HTMLデータ
+     * @throws java.io.IOException ネットワークエラー
+     * @see #downloadHTMLStream(InputStream, OutputStream, Consumer)
+     */
+    public HtmlSequence getHTMLPeriod(Period period,
+                                      Consumer<DecodedContent> partial )
+            throws IOException{
+        String query = period.getCGIQuery();
+        boolean isFinal = isFinishedVillage(period.getVillage());
+        return downloadCachedHTML(query, isFinal, partial);
+    }
+
+    /**
+     * 村のHTMLがもはや更新されることのない状態か判定する。
+     *
+     * @param village 村
+     * @return ゲームが終了した村もしくは過去ログのみの国の村ならtrue
+     */
+    private static boolean isFinishedVillage(Village village){
+        if(village.getState() == VillageState.GAMEOVER) return true;
+
+        Land land = village.getParentLand();
+        LandState landState = land.getLandDef().getLandState();
+        if(landState == LandState.HISTORICAL) return true;
+
+        return false;
+    }
+
+    /**
+     * ディスクキャッシュを介してHTMLデータを取得する。
+     *
+     * <p>ディスクキャッシュが設定されていなければ常にダウンロードする。
+     *
+     * <p>更新されないことが分かっている状態で格納されたページの
+     * キャッシュは通信無しでそのまま使われる。
+     * それ以外のキャッシュは、
+     * If-Modified-SinceおよびIf-None-Matchヘッダを用いた
+     * 条件付きGETで再検証される。
+     * 村の状態が変わり更新されなくなったページのキャッシュは、
+     * 少なくとも一度は再検証されてから通信無しで使われるようになる。
+     *
+     * <p>同じURLのダウンロードが実行中であれば、その結果を共有する。
+     * その場合、受信の途中経過は通知されない。
+     *
+     * @param query ?から始まるクエリー
+     * @param isFinal 更新されないページならtrue
+     * @param partial 受信途中経過の通知先。不要ならnull
+     * @return HTMLデータ
+     * @throws java.io.IOException ネットワークエラー
+     */
+    protected HtmlSequence downloadCachedHTML(
+            String query,
+            boolean isFinal,
+            Consumer<DecodedContent> partial )
+            throws IOException{
+        URL url = getQueryURL(query);
+        String key = url.toString();
+        HtmlSequence result = this.htmlFlight.call(key,
+                () -> loadCachedHTML(url, query, isFinal, partial) );
+        return result;
+    }
+
+    /**
+     * ディスクキャッシュを介してHTMLデータを取得する。
+     *
+     * @param url URL
+     * @param query ?から始まるクエリー
+     * @param isFinal 更新されないページならtrue
+     * @param partial 受信途中経過の通知先。不要ならnull
+     * @return HTMLデータ
+     * @throws java.io.IOException ネットワークエラー
+     */
+    private HtmlSequence loadCachedHTML(URL url,
+                                        String query,
+                                        boolean isFinal,
+                                        Consumer<DecodedContent> partial )
+            throws IOException{
+        PageCache cache = this.pageCache;
+        if(cache == null){
+            return gatedFetchHTML(url, partial);
+        }
+
+        PageCache.Entry cached = cache.load(query);
+        if(cached != null && cached.isFinal()){
+            HtmlSequence result = decodeCachedHTML(url, cached);
+            if(result != null) return result;
+        }
+
+        try{
+            return this.scheduler.call(
+                    () -> fetchCachedHTML(url, cache, query, cached,
+                                          isFinal, partial )
+            );
+        }catch(ServerErrorException e){
+            return null;
+        }
+    }
+
+    /**
+     * ディスクキャッシュを再検証しつつHTMLデータを実際に受信する。
+     *
+     * <p>受信したバイト列はデコードと並行してキャッシュ用に複写される。
+     *
+     * <p>更新されないページであれば、その旨もキャッシュに記録される。
+     * 再検証でキャッシュが最新と分かった場合も同様。
+     *
+     * @param url URL
+     * @param cache ディスクキャッシュ
+     * @param query キャッシュのキーとなるクエリー
+     * @param cached キャッシュエントリ。無ければnull
+     * @param isFinal 更新されないページならtrue
+     * @param partial 受信途中経過の通知先。不要ならnull
+     * @return HTMLデータ
+     * @throws java.io.IOException ネットワークエラー
+     */
+    private HtmlSequence fetchCachedHTML(URL url,
+                                         PageCache cache,
+                                         String query,
+                                         PageCache.Entry cached,
+                                         boolean isFinal,
+                                         Consumer<DecodedContent> partial )
+            throws IOException{
+        HttpURLConnection connection =
+                (HttpURLConnection) url.openConnection(this.proxy);
+        connection.setRequestProperty("Accept", "*/*");
+        connection.setRequestProperty("Accept-Encoding", ACCEPT_ENCODING);
+        connection.setRequestProperty("User-Agent", USER_AGENT);
+        connection.setUseCaches(false);
+        connection.setInstanceFollowRedirects(false);
+        connection.setDoInput(true);
+        connection.setRequestMethod("GET");
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+
+        if(cached != null){
+            if(cached.getLastModified() > 0L){
+                connection.setIfModifiedSince(cached.getLastModified());
+            }
+            if(cached.getETag() != null){
+                connection.setRequestProperty("If-None-Match",
+                                              cached.getETag() );
+            }
+        }
+
+        long startNano = System.nanoTime();
+        connection.connect();
+
+        long datems = updateLastAccess(connection);
+
+        int responseCode = connection.getResponseCode();
+        if(    responseCode == HttpURLConnection.HTTP_NOT_MODIFIED // 304
+            && cached != null ){
+            LOGGER.info(HttpUtils.formatHttpStat(connection, 0, 0));
+            METRICS.recordBodiless(connection, startNano);
+            releaseConnection(connection);
+            if(isFinal && ! cached.isFinal()){
+                PageCache.Entry entry =
+                        new PageCache.Entry(cached.getBody(),
+                                            cached.getDateMs(),
+                                            cached.getLastModified(),
+                                            cached.getETag(),
+                                            true );
+                cache.store(query, entry);
+            }
+            HtmlSequence result = decodeCachedHTML(url, cached);
+            return result;
+        }
+
+        if(responseCode != HttpURLConnection.HTTP_OK){ // 200
+            String logMessage =  "発言のダウンロードに失敗しました。";
+            logMessage += HttpUtils.formatHttpStat(connection, 0, 0);
+            LOGGER.warning(logMessage);
+            METRICS.recordBodiless(connection, startNano);
+            releaseConnection(connection);
+            if(ServerErrorException.isServerError(responseCode)){
+                throw new ServerErrorException(responseCode);
+            }
+            return null;
+        }
+
+        String cs = HttpUtils.getHTMLCharset(connection);
+        if(!cs.equalsIgnoreCase(this.charset.name())){
+            METRICS.recordBodiless(connection, startNano);
+            releaseConnection(connection);
+            return null;
+        }
+
+        ByteArrayOutputStream bodyCopy =
+                new ByteArrayOutputStream(BUFLEN_RAW);
+        DecodedContent html;
+        try(InputStream is =
+                TallyInputStream.getInputStream(connection, startNano)){
+            html = downloadHTMLStream(is, bodyCopy, partial);
+            if(html != null) drain(is);
+        }
+        if(html == null) return null;
+
+        long lastModified = connection.getLastModified();
+        String etag = connection.getHeaderField("ETag");
+
+        byte[] body = bodyCopy.toByteArray();
+        PageCache.Entry entry =
+                new PageCache.Entry(body, datems, lastModified, etag, isFinal);
+        cache.store(query, entry);
+
+        HtmlSequence hseq = new HtmlSequence(url, datems, html);
+
+        return hseq;
+    }
+
+    /**
+     * キャッシュエントリをデコードしてHTMLデータを得る。
+     *
+     * @param url 由来のURL
+     * @param cached キャッシュエントリ
+     * @return HTMLデータ。デコードできなければnull
+     * @throws java.io.IOException 入力エラー
+     */
+    private HtmlSequence decodeCachedHTML(URL url, PageCache.Entry cached)
+            throws IOException{
+        DecodedContent html;
+        try(InputStream is = new ByteArrayInputStream(cached.getBody())){
+            html = downloadHTMLStream(is);
+        }
+        if(html == null) return null;
+
+        HtmlSequence result =
+                new HtmlSequence(url, cached.getDateMs(), html);
+
+        return result;
     }
 
     /**
      * 絶対または相対URLの指すパーマネントなイメージ画像をダウンロードする。
      *
+     * <p>画像ストアが設定されていれば、
+     * そこに保存済みの画像は通信無しで用いられる。
+     * 保存から一定期間が過ぎた画像は、
+     * 呼び出し元を待たせずに裏で条件付きGETによる再検証が行われる。
+     * 再検証で更新された画像が使われるのは次回の起動から。
+     *
      * @param url 画像URL文字列
      * @return 画像イメージ
      * @throws java.io.IOException ネットワークエラー
@@ -416,6 +833,147 @@ public BufferedImage downloadImage(String url) throws IOException{
         image = getImageCache(urlTxt);
         if(image != null) return image;
 
+        image = this.imageFlight.call(urlTxt, () -> {
+            BufferedImage loaded = loadImage(absolute);
+            putImageCache(urlTxt, loaded);
+            return loaded;
+        });
+
+        return image;
+    }
+
+    /**
+     * 画像ストアを介してイメージ画像を取得する。
+     *
+     * @param absolute 画像の絶対URL
+     * @return 画像イメージ。取得できなければnull
+     * @throws java.io.IOException ネットワークエラー
+     */
+    private BufferedImage loadImage(URL absolute) throws IOException{
+        PageCache store = this.imageStore;
+        String key = PageCache.digestKey(absolute.toString());
+
+        if(store != null){
+            PageCache.Entry cached = store.load(key);
+            if(cached != null){
+                BufferedImage image = decodeImage(cached);
+                if(image != null){
+                    if(isStaleImage(cached)){
+                        revalidateImage(absolute, store, key, cached);
+                    }
+                    return image;
+                }
+            }
+        }
+
+        PageCache.Entry entry = gatedFetchImage(absolute, null);
+        if(entry == null) return null;
+
+        BufferedImage image = decodeImage(entry);
+        if(image != null && store != null){
+            store.store(key, entry);
+        }
+
+        return image;
+    }
+
+    /**
+     * 保存済み画像が再検証すべき古さか判定する。
+     *
+     * @param cached 保存済みエントリ
+     * @return 再検証すべきならtrue
+     */
+    private static boolean isStaleImage(PageCache.Entry cached){
+        long age = System.currentTimeMillis() - cached.getDateMs();
+        boolean result = age > IMAGE_REVALIDATE_MS;
+        return result;
+    }
+
+    /**
+     * 保存済み画像の再検証を非同期に行う。
+     *
+     * <p>更新されていれば新しい内容で、
+     * 更新されていなければ保存時刻を改めて画像ストアに書き戻す。
+     * 失敗はログに残すのみ。
+     *
+     * @param absolute 画像の絶対URL
+     * @param store 画像ストア
+     * @param key 画像ストアのキー
+     * @param cached 保存済みエントリ
+     */
+    private void revalidateImage(URL absolute,
+                                 PageCache store,
+                                 String key,
+                                 PageCache.Entry cached ){
+        Runnable task = () -> {
+            PageCache.Entry entry;
+            try{
+                entry = gatedFetchImage(absolute, cached);
+            }catch(IOException e){
+                LOGGER.log(Level.INFO,
+                        "イメージ[" + absolute + "]の再検証に失敗しました",
+                        e );
+                return;
+            }
+            if(entry == null) return;
+            if(entry.getBody() != cached.getBody()){
+                if(decodeImage(entry) == null) return;
+            }
+            store.store(key, entry);
+        };
+
+        getAsyncExecutor().execute(task);
+
+        return;
+    }
+
+    /**
+     * 保存形式のエントリから画像をデコードする。
+     *
+     * @param entry エントリ
+     * @return 画像イメージ。デコードできなければnull
+     */
+    private static BufferedImage decodeImage(PageCache.Entry entry){
+        BufferedImage image;
+        try(InputStream is = new ByteArrayInputStream(entry.getBody())){
+            image = ImageIO.read(is);
+        }catch(IOException e){
+            return null;
+        }
+        return image;
+    }
+
+    /**
+     * スケジューラを通してイメージ画像を受信する。
+     *
+     * @param absolute 画像の絶対URL
+     * @param cached 再検証する保存済みエントリ。無ければnull
+     * @return 受信したエントリ。失敗すればnull
+     * @throws java.io.IOException ネットワークエラー
+     */
+    private PageCache.Entry gatedFetchImage(URL absolute,
+                                            PageCache.Entry cached )
+            throws IOException{
+        try{
+            return this.scheduler.call(() -> fetchImage(absolute, cached));
+        }catch(ServerErrorException e){
+            return null;
+        }
+    }
+
+    /**
+     * イメージ画像を実際に受信する。
+     *
+     * <p>保存済みエントリが渡されれば条件付きGETを行い、
+     * 更新されていなければ保存済みの内容に受信時刻を付け直して返す。
+     *
+     * @param absolute 画像の絶対URL
+     * @param cached 再検証する保存済みエントリ。無ければnull
+     * @return 受信したエントリ。失敗すればnull
+     * @throws java.io.IOException ネットワークエラー
+     */
+    private PageCache.Entry fetchImage(URL absolute, PageCache.Entry cached)
+            throws IOException{
         HttpURLConnection connection =
                 (HttpURLConnection) absolute.openConnection(this.proxy);
         connection.setRequestProperty("Accept", "*/*");
@@ -424,35 +982,231 @@ public BufferedImage downloadImage(String url) throws IOException{
         connection.setInstanceFollowRedirects(true);
         connection.setDoInput(true);
         connection.setRequestMethod("GET");
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+
+        if(cached != null){
+            if(cached.getLastModified() > 0L){
+                connection.setIfModifiedSince(cached.getLastModified());
+            }
+            if(cached.getETag() != null){
+                connection.setRequestProperty("If-None-Match",
+                                              cached.getETag() );
+            }
+        }
 
+        long startNano = System.nanoTime();
         connection.connect();
 
+        long nowMs = System.currentTimeMillis();
+
         int responseCode       = connection.getResponseCode();
+        if(    responseCode == HttpURLConnection.HTTP_NOT_MODIFIED // 304
+            && cached != null ){
+            LOGGER.info(HttpUtils.formatHttpStat(connection, 0, 0));
+            METRICS.recordBodiless(connection, startNano);
+            releaseConnection(connection);
+            PageCache.Entry result =
+                    new PageCache.Entry(cached.getBody(),
+                                        nowMs,
+                                        cached.getLastModified(),
+                                        cached.getETag() );
+            return result;
+        }
+
         if(responseCode != HttpURLConnection.HTTP_OK){
             String logMessage =  "イメージのダウンロードに失敗しました。";
             logMessage += HttpUtils.formatHttpStat(connection, 0, 0);
             LOGGER.warning(logMessage);
+            METRICS.recordBodiless(connection, startNano);
+            releaseConnection(connection);
+            if(ServerErrorException.isServerError(responseCode)){
+                throw new ServerErrorException(responseCode);
+            }
             return null;
         }
 
-        try(InputStream is = TallyInputStream.getInputStream(connection)){
-            image = ImageIO.read(is);
+        ByteArrayOutputStream bodyCopy =
+                new ByteArrayOutputStream(BUFLEN_IMAGE);
+        try(InputStream is =
+                TallyInputStream.getInputStream(connection, startNano)){
+            InputStream copying = new ProgressInputStream(is, bodyCopy, null);
+            drain(copying);
         }
 
-        connection.disconnect();
+        long lastModified = connection.getLastModified();
+        String etag = connection.getHeaderField("ETag");
 
-        putImageCache(urlTxt, image);
+        PageCache.Entry result =
+                new PageCache.Entry(bodyCopy.toByteArray(),
+                                    nowMs, lastModified, etag );
 
-        return image;
+        return result;
+    }
+
+    /**
+     * 入力ストリームを終わりまで読み捨てる。
+     *
+     * @param istream 入力ストリーム
+     * @throws java.io.IOException 入力エラー
+     */
+    private static void drain(InputStream istream) throws IOException{
+        byte[] buf = new byte[BUFLEN_DRAIN];
+        for(;;){
+            int count = istream.read(buf);
+            if(count < 0) break;
+        }
+        return;
+    }
+
+    /**
+     * 使い終わったHTTP接続の応答本文を読み捨てて閉じる。
+     *
+     * <p>応答本文を最後まで読み終えた接続は
+     * JREによって次のリクエストのために再利用(Keep-Alive)される。
+     * 読み捨てに失敗した場合は接続を切断する。
+     *
+     * @param connection HTTP接続
+     */
+    private static void releaseConnection(HttpURLConnection connection){
+        InputStream is = connection.getErrorStream();
+        try{
+            if(is == null) is = connection.getInputStream();
+            try(InputStream body = is){
+                drain(body);
+            }
+        }catch(IOException e){
+            connection.disconnect();
+        }
+        return;
+    }
+
+    /**
+     * 非同期通信用のスレッドプールを返す。
+     *
+     * <p>スレッド数は同時接続数上限に等しい。
+     * 使われない間スレッドは解放される。
+     *
+     * @return スレッドプール
+     */
+    private ExecutorService getAsyncExecutor(){
+        synchronized(this.asyncLock){
+            if(this.asyncExecutor == null){
+                int threads = this.scheduler.getPolicy().getMaxParallel();
+                ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                        threads, threads,
+                        ASYNC_IDLE_SEC, TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(),
+                        new DaemonThreadFactory("ServerAccess"));
+                executor.allowCoreThreadTimeOut(true);
+                this.asyncExecutor = executor;
+            }
+            return this.asyncExecutor;
+        }
+    }
+
+    /**
+     * 入出力エラーを伴う処理を非同期に実行する。
+     *
+     * <p>入出力エラーは{@link CompletionException}に包まれて
+     * 結果のCompletableFutureに伝えられる。
+     *
+     * @param <T> 結果の型
+     * @param task 処理
+     * @return 結果
+     */
+    private <T> CompletableFuture<T> supplyAsync(Callable<T> task){
+        Supplier<T> supplier = () -> {
+            try{
+                return task.call();
+            }catch(RuntimeException e){
+                throw e;
+            }catch(Exception e){
+                throw new CompletionException(e);
+            }
+        };
+        ExecutorService executor = getAsyncExecutor();
+        CompletableFuture<T> result =
+                CompletableFuture.supplyAsync(supplier, executor);
+        return result;
+    }
+
+    /**
+     * 与えられたURLを用いてHTMLデータを非同期に取得する。
+     *
+     * <p>呼び出したスレッドは通信の完了を待たない。
+     * 同時接続数上限を超える要求は順番待ちとなる。
+     *
+     * @param url URL
+     * @return HTMLデータ。入出力エラーは例外完了として通知される。
+     */
+    public CompletableFuture<HtmlSequence> downloadHTMLAsync(URL url){
+        return supplyAsync(() -> downloadHTML(url));
+    }
+
+    /**
+     * 国のトップページのHTMLデータを非同期に取得する。
+     *
+     * @return HTMLデータ。入出力エラーは例外完了として通知される。
+     * @see #getHTMLTopPage()
+     */
+    public CompletableFuture<HtmlSequence> getHTMLTopPageAsync(){
+        return supplyAsync(() -> getHTMLTopPage());
+    }
+
+    /**
+     * 国に含まれる村一覧HTMLデータを非同期に取得する。
+     *
+     * @return HTMLデータ。入出力エラーは例外完了として通知される。
+     * @see #getHTMLLandList()
+     */
+    public CompletableFuture<HtmlSequence> getHTMLLandListAsync(){
+        return supplyAsync(() -> getHTMLLandList());
+    }
+
+    /**
+     * 指定された村の最新PeriodのHTMLデータを非同期にロードする。
+     *
+     * @param village 村
+     * @return HTMLデータ。入出力エラーは例外完了として通知される。
+     * @see #getHTMLVillage(Village)
+     */
+    public CompletableFuture<HtmlSequence> getHTMLVillageAsync(
+            Village village){
+        return supplyAsync(() -> getHTMLVillage(village));
+    }
+
+    /**
+     * 指定されたPeriodのHTMLデータを非同期にロードする。
+     *
+     * @param period Period
+     * @return HTMLデータ。入出力エラーは例外完了として通知される。
+     * @see #getHTMLPeriod(Period)
+     */
+    public CompletableFuture<HtmlSequence> getHTMLPeriodAsync(Period period){
+        return supplyAsync(() -> getHTMLPeriod(period));
+    }
+
+    /**
+     * 絶対または相対URLの指すイメージ画像を非同期にダウンロードする。
+     *
+     * @param url 画像URL文字列
+     * @return 画像イメージ。入出力エラーは例外完了として通知される。
+     * @see #downloadImage(String)
+     */
+    public CompletableFuture<BufferedImage> downloadImageAsync(String url){
+        return supplyAsync(() -> downloadImage(url));
     }
 
     /**
      * 最終アクセス時刻を更新する。
      *
+     * <p>複数のスレッドから呼ばれてもよい。
+     *
      * @param connection HTTP接続
      * @return リソース送信時刻
      */
-    public long updateLastAccess(HttpURLConnection connection){
+    public synchronized long updateLastAccess(HttpURLConnection connection){
         this.lastServerMs = connection.getDate();
         this.lastLocalMs = System.currentTimeMillis();
         this.lastSystemMs = System.nanoTime() / (1000 * 1000);
@@ -0,0 +1,63 @@
+/*
+ * server error exception
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.net;
+
+import java.io.IOException;
+
+/**
+ * サーバが一時的な障害を示す応答を返したことを示す例外。
+ *
+ * <p>HTTPステータスコードの5xx番台および429(Too Many Requests)が該当する。
+ * 時間をおいて再試行すれば成功する可能性がある。
+ */
+@SuppressWarnings("serial")
+public class ServerErrorException extends IOException{
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVER_ERROR_MIN = 500;
+    private static final int HTTP_SERVER_ERROR_MAX = 599;
+
+
+    private final int statusCode;
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param statusCode HTTPステータスコード
+     */
+    public ServerErrorException(int statusCode){
+        super("HTTP status " + statusCode);
+        this.statusCode = statusCode;
+        return;
+    }
+
+
+    /**
+     * 一時的な障害を示すHTTPステータスコードか判定する。
+     *
+     * @param statusCode HTTPステータスコード
+     * @return 5xx番台もしくは429ならtrue
+     */
+    public static boolean isServerError(int statusCode){
+        if(statusCode == HTTP_TOO_MANY_REQUESTS) return true;
+        if(    HTTP_SERVER_ERROR_MIN <= statusCode
+            && statusCode <= HTTP_SERVER_ERROR_MAX ) return true;
+        return false;
+    }
+
+    /**
+     * HTTPステータスコードを返す。
+     *
+     * @return HTTPステータスコード
+     */
+    public int getStatusCode(){
+        return this.statusCode;
+    }
+
+}
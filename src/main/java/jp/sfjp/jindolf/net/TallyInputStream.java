@@ -8,14 +8,25 @@
 package jp.sfjp.jindolf.net;
 
 import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.net.HttpURLConnection;
+import java.util.Locale;
 import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 /**
  * 読み込みバイト数を記録するHTTPコネクション由来のInputStream。
  * バッファリングも行う。
+ *
+ * <p>HTTP応答がgzipもしくはdeflateで圧縮されていれば透過的に伸長する。
+ * 伸長後のバイト数に加え、圧縮されたままの通信路上のバイト数も記録される。
+ *
+ * <p>クローズ時には通信の記録が{@link NetMetrics}に渡される。
  */
 public class TallyInputStream extends InputStream{
 
@@ -25,6 +36,9 @@ public class TallyInputStream extends InputStream{
 
 
     private final HttpURLConnection conn;
+    private final long startNano;
+    private final long ttfbNano;
+    private final WireCounter wire;
     private final InputStream in;
     private long counter;
     private long nanoLap;
@@ -38,14 +52,34 @@ public class TallyInputStream extends InputStream{
      * @throws java.io.IOException 入出力エラー
      */
     protected TallyInputStream(HttpURLConnection conn) throws IOException{
+        this(conn, System.nanoTime());
+        return;
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * <p>応答ヘッダの受信後に呼ばれることを前提に、
+     * リクエスト開始からの経過時間をTTFBとして記録する。
+     *
+     * @param conn HTTPコネクション
+     * @param startNano リクエスト開始時の{@link System#nanoTime()}値
+     * @throws java.io.IOException 入出力エラー
+     */
+    protected TallyInputStream(HttpURLConnection conn, long startNano)
+            throws IOException{
         super();
 
         this.conn = conn;
+        this.startNano = startNano;
+        this.ttfbNano = System.nanoTime() - startNano;
         this.counter = 0;
         this.nanoLap = 0;
 
         InputStream is;
         is = this.conn.getInputStream();
+        this.wire = new WireCounter(is);
+        is = decompress(this.wire, this.conn.getContentEncoding());
         is = new BufferedInputStream(is, BUFSIZE);
         this.in = is;
 
@@ -67,15 +101,103 @@ public static InputStream getInputStream(HttpURLConnection conn)
         return new TallyInputStream(conn);
     }
 
+    /**
+     * HTTPコネクションから入力ストリームを得る。
+     *
+     * @param conn HTTPコネクション
+     * @param startNano リクエスト開始時の{@link System#nanoTime()}値
+     * @return 入力ストリーム
+     * @throws java.io.IOException 入出力エラー
+     */
+    public static InputStream getInputStream(HttpURLConnection conn,
+                                             long startNano )
+            throws IOException{
+        return new TallyInputStream(conn, startNano);
+    }
+
+    /**
+     * Content-Encodingに応じて伸長用のストリームを被せる。
+     *
+     * @param is 通信路からの入力ストリーム
+     * @param encoding Content-Encoding値。無ければnull
+     * @return 伸長後の入力ストリーム
+     * @throws java.io.IOException 入出力エラー
+     */
+    private static InputStream decompress(InputStream is, String encoding)
+            throws IOException{
+        if(encoding == null) return is;
+
+        String lower = encoding.trim().toLowerCase(Locale.ROOT);
+
+        InputStream result;
+        switch(lower){
+        case "gzip":
+        case "x-gzip":
+            result = new GZIPInputStream(is, BUFSIZE);
+            break;
+        case "deflate":
+            result = inflate(is);
+            break;
+        default:
+            result = is;
+            break;
+        }
+
+        return result;
+    }
+
+    /**
+     * deflate圧縮を伸長するストリームを生成する。
+     *
+     * <p>本来のdeflateエンコーディングはzlib形式だが、
+     * zlibヘッダ無しの生deflateデータを送るサーバもあるため、
+     * 先頭2バイトを見て判別する。
+     *
+     * @param is 通信路からの入力ストリーム
+     * @return 伸長後の入力ストリーム
+     * @throws java.io.IOException 入出力エラー
+     */
+    private static InputStream inflate(InputStream is) throws IOException{
+        PushbackInputStream pis = new PushbackInputStream(is, 2);
+
+        int b0 = pis.read();
+        int b1 = (b0 < 0) ? -1 : pis.read();
+        if(b1 >= 0) pis.unread(b1);
+        if(b0 >= 0) pis.unread(b0);
+
+        boolean isZlib =
+                   b0 >= 0 && b1 >= 0
+                && (b0 & 0x0f) == 8
+                && ((b0 << 8) | b1) % 31 == 0;
+
+        Inflater inflater = new Inflater( ! isZlib );
+        InputStream result = new InflaterInputStream(pis, inflater, BUFSIZE);
+
+        return result;
+    }
+
     /**
      * 読み込みバイト数を返す。
      *
+     * <p>圧縮された応答では伸長後のバイト数。
+     *
      * @return 読み込みバイト数。
      */
     protected long getCount(){
         return this.counter;
     }
 
+    /**
+     * 通信路上で受信したバイト数を返す。
+     *
+     * <p>圧縮された応答では伸長前のバイト数。
+     *
+     * @return 通信路上のバイト数
+     */
+    protected long getWireCount(){
+        return this.wire.getCount();
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -91,6 +213,7 @@ public int available() throws IOException{
     /**
      * {@inheritDoc}
      * 今までに読み込んだバイト数のスループットをログ出力する。
+     * 圧縮された応答では通信路上のバイト数も併記する。
      *
      * @throws java.io.IOException {@inheritDoc}
      */
@@ -101,11 +224,18 @@ public void close() throws IOException{
         this.in.close();
 
         long size = getCount();
+        long wireSize = getWireCount();
         long span = System.nanoTime() - this.nanoLap;
 
-        String message = HttpUtils.formatHttpStat(this.conn, size, span);
+        String message =
+                HttpUtils.formatHttpStat(this.conn, size, wireSize, span);
         LOGGER.info(message);
 
+        long totalNano = System.nanoTime() - this.startNano;
+        NetMetrics.getDefault().record(this.conn,
+                                       size, wireSize,
+                                       this.ttfbNano, totalNano );
+
         this.hasClosed = true;
 
         return;
@@ -180,4 +310,76 @@ public long skip(long n) throws IOException{
         return skipped;
     }
 
+
+    /**
+     * 通信路から読み込んだバイト数を数える。
+     */
+    private static final class WireCounter extends FilterInputStream{
+
+        private long count = 0L;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param in 通信路からの入力ストリーム
+         */
+        WireCounter(InputStream in){
+            super(in);
+            return;
+        }
+
+        /**
+         * 読み込んだバイト数を返す。
+         *
+         * @return バイト数
+         */
+        long getCount(){
+            return this.count;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @return {@inheritDoc}
+         * @throws java.io.IOException {@inheritDoc}
+         */
+        @Override
+        public int read() throws IOException{
+            int byteData = super.read();
+            if(byteData >= 0) this.count++;
+            return byteData;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @param buf {@inheritDoc}
+         * @param off {@inheritDoc}
+         * @param len {@inheritDoc}
+         * @return {@inheritDoc}
+         * @throws java.io.IOException {@inheritDoc}
+         */
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException{
+            int result = super.read(buf, off, len);
+            if(result > 0) this.count += result;
+            return result;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @param n {@inheritDoc}
+         * @return {@inheritDoc}
+         * @throws java.io.IOException {@inheritDoc}
+         */
+        @Override
+        public long skip(long n) throws IOException{
+            long skipped = super.skip(n);
+            if(skipped > 0L) this.count += skipped;
+            return skipped;
+        }
+
+    }
+
 }
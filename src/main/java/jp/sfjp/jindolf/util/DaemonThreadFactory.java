@@ -0,0 +1,51 @@
+/*
+ * daemon thread factory
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * デーモンスレッドを生成するファクトリ。
+ *
+ * <p>アプリ終了の妨げにならない作業スレッドのプールを作るために用いる。
+ * スレッド名には接頭辞と通し番号が付く。
+ */
+public class DaemonThreadFactory implements ThreadFactory{
+
+    private final String prefix;
+    private final AtomicInteger serial = new AtomicInteger(0);
+
+
+    /**
+     * コンストラクタ。
+     *
+     * @param prefix スレッド名の接頭辞
+     */
+    public DaemonThreadFactory(String prefix){
+        super();
+        this.prefix = prefix;
+        return;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param task {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public Thread newThread(Runnable task){
+        int num = this.serial.incrementAndGet();
+        Thread thread = new Thread(task, this.prefix + "-" + num);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * single-flight call coalescing
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 同じキーに対する同時実行中の処理を1つにまとめる。
+ *
+ * <p>あるキーの処理が実行中の間に同じキーで呼び出されたスレッドは、
+ * 新たな処理を開始せずに実行中の処理の完了を待ち、同じ結果を受け取る。
+ *
+ * <p>処理が完了した後の呼び出しでは改めて処理が行われる。
+ * 結果のキャッシュは行わない。
+ *
+ * @param <K> キーの型
+ * @param <V> 結果の型
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, FutureTask<V>> flightMap =
+            new ConcurrentHashMap<>();
+
+
+    /**
+     * コンストラクタ。
+     */
+    public SingleFlight(){
+        super();
+        return;
+    }
+
+
+    /**
+     * 処理の実行結果を取り出す。
+     *
+     * @param <V> 結果の型
+     * @param task 処理
+     * @return 結果
+     * @throws IOException 処理が投げた入出力エラー、もしくは待機中の割り込み
+     */
+    private static <V> V getResult(FutureTask<V> task) throws IOException{
+        V result;
+
+        try{
+            result = task.get();
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            InterruptedIOException ioe = new InterruptedIOException();
+            ioe.initCause(e);
+            throw ioe;
+        }catch(ExecutionException e){
+            Throwable cause = e.getCause();
+            if(cause instanceof IOException) throw (IOException) cause;
+            if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            if(cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+
+        return result;
+    }
+
+    /**
+     * キーに対応する処理を実行する。
+     *
+     * <p>同じキーの処理が既に実行中であれば、
+     * その完了を待って同じ結果を返す。
+     * そうでなければ呼び出したスレッドで処理を実行する。
+     *
+     * @param key キー
+     * @param loader 処理
+     * @return 処理結果
+     * @throws IOException 処理が投げた入出力エラー
+     */
+    public V call(K key, Callable<V> loader) throws IOException{
+        FutureTask<V> newTask = new FutureTask<>(loader);
+
+        FutureTask<V> inFlight = this.flightMap.putIfAbsent(key, newTask);
+        if(inFlight != null){
+            return getResult(inFlight);
+        }
+
+        try{
+            newTask.run();
+        }finally{
+            this.flightMap.remove(key, newTask);
+        }
+
+        return getResult(newTask);
+    }
+
+    /**
+     * 実行中の処理の数を返す。
+     *
+     * @return 実行中の処理の数
+     */
+    public int getInFlightCount(){
+        return this.flightMap.size();
+    }
+
+}
@@ -7,6 +7,8 @@
 
 package jp.sfjp.jindolf.util;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * 文字列ユーティリティクラス。
  */
@@ -14,6 +16,8 @@
 
     private static final int SUPLEN = 5;
 
+    private static final char[] HEXCHARS = "0123456789ABCDEF".toCharArray();
+
 
     /**
      * ダミーコンストラクタ。
@@ -102,6 +106,63 @@ public static int compareSubSequence(
         return result;
     }
 
+    /**
+     * 文字列をファイル名に使える形にエスケープする。
+     *
+     * <p>英数字とハイフン、アンダースコア以外は
+     * %XX形式(UTF-8)にエスケープされる。
+     * 異なる文字列が同じ結果になることはない。
+     *
+     * @param text 文字列
+     * @return エスケープされた文字列
+     */
+    public static String escapeFileName(String text){
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        StringBuilder result = new StringBuilder(bytes.length * 2);
+
+        for(byte bval : bytes){
+            char ch = (char) (bval & 0xff);
+            if(    ('a' <= ch && ch <= 'z')
+                || ('A' <= ch && ch <= 'Z')
+                || ('0' <= ch && ch <= '9')
+                || ch == '-'
+                || ch == '_' ){
+                result.append(ch);
+            }else{
+                result.append('%');
+                appendHex(result, bval);
+            }
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * バイト列を16進表記の文字列に変換する。
+     *
+     * @param bytes バイト列
+     * @return 英大文字による16進表記
+     */
+    public static String toHexString(byte[] bytes){
+        StringBuilder result = new StringBuilder(bytes.length * 2);
+        for(byte bval : bytes){
+            appendHex(result, bval);
+        }
+        return result.toString();
+    }
+
+    /**
+     * 1バイトを2桁の16進表記で追加する。
+     *
+     * @param buf 追加先
+     * @param bval バイト値
+     */
+    private static void appendHex(StringBuilder buf, byte bval){
+        buf.append(HEXCHARS[(bval >> 4) & 0x0f]);
+        buf.append(HEXCHARS[ bval       & 0x0f]);
+        return;
+    }
+
     // TODO 文字エンコーダ・デコーダ処理の一本化。
     // TODO 文字エンコーダ・デコーダのカスタム化。「～」対策など。
 }
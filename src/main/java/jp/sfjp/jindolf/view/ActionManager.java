@@ -20,6 +20,7 @@
 import javax.swing.ButtonModel;
 import javax.swing.Icon;
 import javax.swing.JButton;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
@@ -55,6 +56,8 @@
     /** アクション{@value}。 */
     public static final String CMD_SEARCHPREV = "SEARCHPREV";
     /** アクション{@value}。 */
+    public static final String CMD_SHOWARCHIVE = "SHOWARCHIVE";
+    /** アクション{@value}。 */
     public static final String CMD_ALLPERIOD  = "ALLPERIOD";
     /** アクション{@value}。 */
     public static final String CMD_SHOWDIGEST = "DIGEST";
@@ -67,6 +70,8 @@
     /** アクション{@value}。 */
     public static final String CMD_RELOAD     = "RELOAD";
     /** アクション{@value}。 */
+    public static final String CMD_AUTORELOAD = "AUTORELOAD";
+    /** アクション{@value}。 */
     public static final String CMD_DAYSUMMARY = "DAYSUMMARY";
     /** アクション{@value}。 */
     public static final String CMD_DAYEXPCSV  = "DAYEXPCSV";
@@ -75,12 +80,16 @@
     /** アクション{@value}。 */
     public static final String CMD_OPTION     = "OPTION";
     /** アクション{@value}。 */
+    public static final String CMD_STARTUPLIST = "STARTUPLIST";
+    /** アクション{@value}。 */
     public static final String CMD_LANDF      = "LANDF";
     /** アクション{@value}。 */
     public static final String CMD_SHOWFILT   = "SHOWFILT";
     /** アクション{@value}。 */
     public static final String CMD_SHOWLOG    = "SHOWLOG";
     /** アクション{@value}。 */
+    public static final String CMD_SHOWNETSTAT = "SHOWNETSTAT";
+    /** アクション{@value}。 */
     public static final String CMD_HELPDOC    = "HELPDOC";
     /** アクション{@value}。 */
     public static final String CMD_SHOWPORTAL = "SHOWPORTAL";
@@ -99,6 +108,10 @@
     public static final String CMD_VILLAGELIST = "VILLAGELIST";
     /** アクション{@value}。 */
     public static final String CMD_FONTSIZESEL = "FONTSIZESEL";
+    /** アクション{@value}。 */
+    public static final String CMD_ARCHIVESEARCH = "ARCHIVESEARCH";
+    /** アクション{@value}。 */
+    public static final String CMD_ARCHIVEOPEN   = "ARCHIVEOPEN";
 
     /** WWWアイコン。 */
     public static final Icon ICON_WWW;
@@ -217,6 +230,7 @@ private void setupMenuItems(){
         buildMenuItem(CMD_SHOWFIND, "検索...", KeyEvent.VK_F);
         buildMenuItem(CMD_SEARCHNEXT, "次候補", KeyEvent.VK_N);
         buildMenuItem(CMD_SEARCHPREV, "前候補", KeyEvent.VK_P);
+        buildMenuItem(CMD_SHOWARCHIVE, "全村検索...", KeyEvent.VK_A);
         buildMenuItem(CMD_ALLPERIOD, "全日程の一括読み込み", KeyEvent.VK_R);
         buildMenuItem(CMD_SHOWDIGEST, "村のダイジェストを表示...",
                 KeyEvent.VK_D);
@@ -224,12 +238,17 @@ private void setupMenuItems(){
         buildMenuItem(CMD_WEBWIKI,
                       "まとめサイトの村ページを表示...", KeyEvent.VK_M);
         buildMenuItem(CMD_RELOAD, "この日を強制リロード", KeyEvent.VK_R);
+        buildCheckMenuItem(CMD_AUTORELOAD,
+                "進行中の日を自動更新", KeyEvent.VK_A);
         buildMenuItem(CMD_DAYSUMMARY, "この日の発言を集計...", KeyEvent.VK_D);
         buildMenuItem(CMD_DAYEXPCSV, "CSVへエクスポート...", KeyEvent.VK_C);
         buildMenuItem(CMD_WEBDAY, "この日をブラウザで表示...", KeyEvent.VK_B);
         buildMenuItem(CMD_OPTION, "オプション...", KeyEvent.VK_O);
+        buildCheckMenuItem(CMD_STARTUPLIST,
+                "起動時に村一覧を更新", KeyEvent.VK_S);
         buildMenuItem(CMD_SHOWFILT, "発言フィルタ", KeyEvent.VK_F);
         buildMenuItem(CMD_SHOWLOG, "ログ表示", KeyEvent.VK_S);
+        buildMenuItem(CMD_SHOWNETSTAT, "通信統計", KeyEvent.VK_N);
         buildMenuItem(CMD_HELPDOC, "ヘルプ表示", KeyEvent.VK_H);
         buildMenuItem(CMD_SHOWPORTAL, "ポータルサイト...", KeyEvent.VK_P);
         buildMenuItem(CMD_ABOUT, VerInfo.TITLE + "について...", KeyEvent.VK_A);
@@ -293,7 +312,38 @@ private JMenuItem buildMenuItem(String command,
                                     String label,
                                     int nemonic ){
         JMenuItem result = new JMenuItem();
+        registMenuItem(result, command, label, nemonic);
+        return result;
+    }
+
+    /**
+     * チェックボックス付きメニューアイテムを生成する。
+     *
+     * @param command アクションコマンド名
+     * @param label メニューラベル
+     * @param nemonic ニモニックキー
+     * @return メニューアイテム
+     */
+    private JMenuItem buildCheckMenuItem(String command,
+                                         String label,
+                                         int nemonic ){
+        JMenuItem result = new JCheckBoxMenuItem();
+        registMenuItem(result, command, label, nemonic);
+        return result;
+    }
 
+    /**
+     * メニューアイテムを設定し管理下に登録する。
+     *
+     * @param result メニューアイテム
+     * @param command アクションコマンド名
+     * @param label メニューラベル
+     * @param nemonic ニモニックキー
+     */
+    private void registMenuItem(JMenuItem result,
+                                String command,
+                                String label,
+                                int nemonic ){
         String keyText = label + "(" + KeyEvent.getKeyText(nemonic) + ")";
 
         result.setActionCommand(command);
@@ -303,7 +353,7 @@ private JMenuItem buildMenuItem(String command,
         this.actionItems.add(result);
         this.namedMenuItems.put(command, result);
 
-        return result;
+        return;
     }
 
     /**
@@ -413,6 +463,39 @@ public String getSelectedLookAndFeel(){
         return className;
     }
 
+    /**
+     * 進行中の日の自動更新が選択されているか判定する。
+     *
+     * @return 自動更新が選択されていればtrue
+     */
+    public boolean isAutoReload(){
+        JMenuItem item = getMenuItem(CMD_AUTORELOAD);
+        boolean result = item.isSelected();
+        return result;
+    }
+
+    /**
+     * 起動時の村一覧更新が選択されているか判定する。
+     *
+     * @return 更新が選択されていればtrue
+     */
+    public boolean isRefreshListOnStartup(){
+        JMenuItem item = getMenuItem(CMD_STARTUPLIST);
+        boolean result = item.isSelected();
+        return result;
+    }
+
+    /**
+     * 起動時の村一覧更新の選択状態を設定する。
+     *
+     * @param refresh 更新するならtrue
+     */
+    public void setRefreshListOnStartup(boolean refresh){
+        JMenuItem item = getMenuItem(CMD_STARTUPLIST);
+        item.setSelected(refresh);
+        return;
+    }
+
     /**
      * 管理下の全てのボタンにアクションリスナーを登録する。
      *
@@ -448,17 +531,21 @@ private JMenuBar buildMenuBar(){
         this.menuVillage.add(getMenuItem(CMD_WEBWIKI));
 
         this.menuDay.add(getMenuItem(CMD_RELOAD));
+        this.menuDay.add(getMenuItem(CMD_AUTORELOAD));
         this.menuDay.add(getMenuItem(CMD_DAYSUMMARY));
         this.menuDay.add(getMenuItem(CMD_DAYEXPCSV));
         this.menuDay.addSeparator();
         this.menuDay.add(getMenuItem(CMD_WEBDAY));
 
         this.menuPreference.add(getMenuItem(CMD_OPTION));
+        this.menuPreference.add(getMenuItem(CMD_STARTUPLIST));
         this.menuPreference.addSeparator();
         this.menuPreference.add(this.menuLook);
 
         this.menuTool.add(getMenuItem(CMD_SHOWFILT));
+        this.menuTool.add(getMenuItem(CMD_SHOWARCHIVE));
         this.menuTool.add(getMenuItem(CMD_SHOWLOG));
+        this.menuTool.add(getMenuItem(CMD_SHOWNETSTAT));
 
         this.menuHelp.add(getMenuItem(CMD_HELPDOC));
         this.menuHelp.addSeparator();
@@ -551,6 +638,7 @@ private void exposeVillageImpl(boolean appear){
         this.menuVillage.setEnabled(appear);
 
         getMenuItem(CMD_RELOAD)    .setEnabled(appear);
+        getMenuItem(CMD_AUTORELOAD).setEnabled(appear);
         getMenuItem(CMD_ALLPERIOD) .setEnabled(appear);
 
         getToolButton(CMD_RELOAD)  .setEnabled(appear);
@@ -579,6 +667,7 @@ private void exposeVillageLocalImpl(boolean appear){
         this.menuVillage.setEnabled(appear);
 
         getMenuItem(CMD_RELOAD)    .setEnabled( ! appear);
+        getMenuItem(CMD_AUTORELOAD).setEnabled( ! appear);
         getMenuItem(CMD_ALLPERIOD) .setEnabled( ! appear);
 
         getToolButton(CMD_RELOAD)  .setEnabled( ! appear);
@@ -0,0 +1,307 @@
+/*
+ * cross-village search panel
+ *
+ * License : The MIT License
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.view;
+
+import java.awt.Container;
+import java.awt.Dialog;
+import java.awt.FlowLayout;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.Insets;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+import javax.swing.DefaultListModel;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTextArea;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.event.ListSelectionEvent;
+import jp.sfjp.jindolf.data.RegexPattern;
+import jp.sfjp.jindolf.data.search.SearchCondition;
+import jp.sfjp.jindolf.data.search.SearchHit;
+import jp.sfjp.jindolf.data.search.SearchIndex;
+import jp.sfjp.jindolf.util.GUIUtils;
+import jp.sourceforge.jindolf.corelib.TalkType;
+
+/**
+ * 全ての村を横断する検索のパネルGUI。
+ *
+ * <p>検索条件の入力欄とヒットした発言の一覧を持つ。
+ * 検索の実行とヒットした発言を開く操作は、
+ * アクションコマンド付きのアクションイベントとして通知される。
+ */
+@SuppressWarnings("serial")
+public final class ArchiveSearchPanel extends JDialog{
+
+    private static final int TEXT_COLUMNS = 30;
+    private static final int PREVIEW_ROWS = 6;
+
+
+    private final JTextField findField = new JTextField(TEXT_COLUMNS);
+    private final JCheckBox capitalSwitch =
+            new JCheckBox("大文字/小文字を区別する");
+    private final JCheckBox regexSwitch =
+            new JCheckBox("正規表現");
+    private final JTextField avatarField = new JTextField(TEXT_COLUMNS);
+    private final Map<TalkType, JCheckBox> typeSwitchMap =
+            new EnumMap<>(TalkType.class);
+    private final JButton searchButton = new JButton("検索");
+    private final JButton openButton = new JButton("開く");
+    private final JButton closeButton = new JButton("閉じる");
+
+    private final DefaultListModel<SearchHit> hitModel =
+            new DefaultListModel<>();
+    private final JList<SearchHit> hitList = new JList<>(this.hitModel);
+    private final JTextArea preview = new JTextArea(PREVIEW_ROWS, 0);
+    private final JLabel resultLabel = new JLabel(" ");
+
+
+    /**
+     * コンストラクタ。
+     */
+    @SuppressWarnings("LeakingThisInConstructor")
+    public ArchiveSearchPanel(){
+        super((Dialog)null);
+        // We need unowned dialog
+
+        GUIUtils.modifyWindowAttributes(this, true, false, true);
+
+        setDefaultCloseOperation(HIDE_ON_CLOSE);
+
+        this.typeSwitchMap.put(TalkType.PUBLIC,   new JCheckBox("白発言"));
+        this.typeSwitchMap.put(TalkType.WOLFONLY, new JCheckBox("赤発言"));
+        this.typeSwitchMap.put(TalkType.GRAVE,    new JCheckBox("青発言"));
+        this.typeSwitchMap.put(TalkType.PRIVATE,  new JCheckBox("灰発言"));
+        for(JCheckBox typeSwitch : this.typeSwitchMap.values()){
+            typeSwitch.setSelected(true);
+        }
+
+        this.findField.setToolTipText("検索文字列を入力してください");
+        this.avatarField.setToolTipText(
+                "発言者名の一部を入力してください。空欄なら全員が対象");
+        this.searchButton.setToolTipText("読み込んだ全ての村の発言を検索する");
+        this.openButton.setToolTipText("選択した発言を含む村を開く");
+
+        this.searchButton.setActionCommand(ActionManager.CMD_ARCHIVESEARCH);
+        this.findField.setActionCommand(ActionManager.CMD_ARCHIVESEARCH);
+        this.openButton.setActionCommand(ActionManager.CMD_ARCHIVEOPEN);
+        this.openButton.setEnabled(false);
+
+        this.closeButton.addActionListener((event) -> {
+            setVisible(false);
+        });
+
+        this.hitList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        this.hitList.addListSelectionListener(this::hitSelected);
+        this.hitList.addMouseListener(new MouseAdapter(){
+            /** {@inheritDoc} */
+            @Override
+            public void mouseClicked(MouseEvent event){
+                if(event.getClickCount() < 2) return;
+                if(getSelectedHit() == null) return;
+                openButton.doClick();
+                return;
+            }
+        });
+
+        this.preview.setEditable(false);
+        this.preview.setLineWrap(true);
+
+        design();
+
+        return;
+    }
+
+
+    /**
+     * デザインを行う。
+     */
+    private void design(){
+        Container content = getContentPane();
+
+        GridBagLayout layout = new GridBagLayout();
+        GridBagConstraints constraints = new GridBagConstraints();
+        content.setLayout(layout);
+
+        constraints.insets = new Insets(3, 5, 3, 5);
+        constraints.anchor = GridBagConstraints.WEST;
+
+        constraints.gridwidth = 1;
+        constraints.weightx = 0.0;
+        constraints.fill = GridBagConstraints.NONE;
+        content.add(new JLabel("発言内容"), constraints);
+
+        constraints.gridwidth = GridBagConstraints.REMAINDER;
+        constraints.weightx = 1.0;
+        constraints.fill = GridBagConstraints.HORIZONTAL;
+        content.add(this.findField, constraints);
+
+        JPanel switches = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        switches.add(this.capitalSwitch);
+        switches.add(this.regexSwitch);
+        content.add(switches, constraints);
+
+        constraints.gridwidth = 1;
+        constraints.weightx = 0.0;
+        constraints.fill = GridBagConstraints.NONE;
+        content.add(new JLabel("発言者"), constraints);
+
+        constraints.gridwidth = GridBagConstraints.REMAINDER;
+        constraints.weightx = 1.0;
+        constraints.fill = GridBagConstraints.HORIZONTAL;
+        content.add(this.avatarField, constraints);
+
+        JPanel types = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        for(JCheckBox typeSwitch : this.typeSwitchMap.values()){
+            types.add(typeSwitch);
+        }
+        types.add(this.searchButton);
+        content.add(types, constraints);
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+                                          new JScrollPane(this.hitList),
+                                          new JScrollPane(this.preview) );
+        split.setResizeWeight(0.7);
+        constraints.weighty = 1.0;
+        constraints.fill = GridBagConstraints.BOTH;
+        content.add(split, constraints);
+
+        constraints.weighty = 0.0;
+        constraints.fill = GridBagConstraints.HORIZONTAL;
+        content.add(this.resultLabel, constraints);
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        buttons.add(this.openButton);
+        buttons.add(this.closeButton);
+        content.add(buttons, constraints);
+
+        return;
+    }
+
+    /**
+     * 検索と発言を開く操作の通知先を登録する。
+     *
+     * @param listener リスナ
+     */
+    public void addActionListener(ActionListener listener){
+        this.searchButton.addActionListener(listener);
+        this.findField.addActionListener(listener);
+        this.openButton.addActionListener(listener);
+        return;
+    }
+
+    /**
+     * 入力された検索条件を返す。
+     *
+     * <p>正規表現の構文が誤っていればその旨をダイアログで示す。
+     *
+     * @return 検索条件。入力が無いか誤っていればnull
+     */
+    public SearchCondition getSearchCondition(){
+        String source = this.findField.getText();
+        if(source == null || source.trim().isEmpty()) return null;
+
+        boolean isRegex = this.regexSwitch.isSelected();
+        int flag = 0x00000000;
+        if( ! this.capitalSwitch.isSelected() ){
+            flag |= RegexPattern.IGNORECASEFLAG;
+        }
+
+        RegexPattern regexPattern;
+        try{
+            regexPattern = new RegexPattern(source, isRegex, flag);
+        }catch(PatternSyntaxException e){
+            JOptionPane.showMessageDialog(
+                    this,
+                    "正規表現の構文に誤りがあります。\n" + e.getDescription(),
+                    "正規表現構文エラー",
+                    JOptionPane.ERROR_MESSAGE );
+            return null;
+        }
+
+        List<TalkType> typeList = new ArrayList<>();
+        for(Map.Entry<TalkType, JCheckBox> entry
+                : this.typeSwitchMap.entrySet()){
+            if(entry.getValue().isSelected()) typeList.add(entry.getKey());
+        }
+
+        SearchCondition result = new SearchCondition(
+                regexPattern, this.avatarField.getText().trim(), typeList );
+
+        return result;
+    }
+
+    /**
+     * 検索結果を表示する。
+     *
+     * @param hits ヒットした発言のリスト
+     */
+    public void setHits(List<SearchHit> hits){
+        this.hitModel.clear();
+        for(SearchHit hit : hits){
+            this.hitModel.addElement(hit);
+        }
+
+        String message = hits.size() + "件の発言がヒットしました。";
+        if(hits.size() >= SearchIndex.MAX_HITS){
+            message += "(上限に達したため以降は省略)";
+        }
+        this.resultLabel.setText(message);
+
+        this.preview.setText("");
+        this.openButton.setEnabled(false);
+
+        return;
+    }
+
+    /**
+     * 選択されたヒットを返す。
+     *
+     * @return 選択されたヒット。無ければnull
+     */
+    public SearchHit getSelectedHit(){
+        return this.hitList.getSelectedValue();
+    }
+
+    /**
+     * ヒットの選択変更を受け、発言本文を表示する。
+     *
+     * @param event イベント
+     */
+    private void hitSelected(ListSelectionEvent event){
+        if(event.getValueIsAdjusting()) return;
+
+        SearchHit hit = getSelectedHit();
+        if(hit == null){
+            this.preview.setText("");
+            this.openButton.setEnabled(false);
+            return;
+        }
+
+        this.preview.setText(hit.getRecord().getDialog());
+        this.preview.setCaretPosition(0);
+        this.openButton.setEnabled(true);
+
+        return;
+    }
+
+}
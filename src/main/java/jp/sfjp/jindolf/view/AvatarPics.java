@@ -9,11 +9,15 @@
 
 import java.awt.image.BufferedImage;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import jp.sfjp.jindolf.data.Avatar;
 import jp.sfjp.jindolf.data.Land;
+import jp.sfjp.jindolf.net.ServerAccess;
 import jp.sfjp.jindolf.util.GUIUtils;
 import jp.sourceforge.jindolf.corelib.LandDef;
 
@@ -226,10 +230,46 @@ public void setGraveBodyImage(BufferedImage image){
         return;
     }
 
+    /**
+     * 全Avatarの顔及び全身像イメージのダウンロードを並行して行う。
+     *
+     * <p>取得したイメージはサーバアクセスのキャッシュに残る。
+     * 個々のダウンロードの失敗は無視される。
+     */
+    private void prefetchAvatarImages(){
+        LandDef landDef = this.land.getLandDef();
+        ServerAccess server = this.land.getServerAccess();
+
+        String faceTemplate = landDef.getFaceURITemplate();
+        String bodyTemplate = landDef.getBodyURITemplate();
+
+        List<CompletableFuture<BufferedImage>> futureList =
+                new ArrayList<>();
+        for(Avatar avatar : Avatar.getPredefinedAvatarList()){
+            int serialNo = avatar.getIdNum();
+            String faceUri = MessageFormat.format(faceTemplate, serialNo);
+            String bodyUri = MessageFormat.format(bodyTemplate, serialNo);
+            futureList.add(server.downloadImageAsync(faceUri));
+            futureList.add(server.downloadImageAsync(bodyUri));
+        }
+
+        CompletableFuture<?>[] futures =
+                futureList.toArray(new CompletableFuture<?>[0]);
+        CompletableFuture.allOf(futures)
+                .handle((result, ex) -> null)
+                .join();
+
+        return;
+    }
+
     /**
      * 全画像のキャッシュへの格納を試みる。
+     *
+     * <p>ダウンロードはサーバの同時接続数上限まで並行して行われる。
      */
     public void preload(){
+        prefetchAvatarImages();
+
         for(Avatar avatar : Avatar.getPredefinedAvatarList()){
             getAvatarFaceImage(avatar);
             getAvatarBodyImage(avatar);
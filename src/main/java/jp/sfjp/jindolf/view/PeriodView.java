@@ -184,6 +184,24 @@ public void setPeriod(Period period){
         return;
     }
 
+    /**
+     * 受信途中の暫定Periodの内容を先に表示する。
+     *
+     * <p>{@link #getPeriod()}は暫定Periodではなく本来のPeriodを返す。
+     *
+     * @param period 本来のPeriod
+     * @param preview 暫定Period
+     */
+    public void showPreview(Period period, Period preview){
+        this.discussion.showPreview(period, preview);
+
+        this.period = period;
+
+        updateTopPanel();
+
+        return;
+    }
+
     /**
      * 現在のPeriodを返す。
      *
@@ -321,21 +339,25 @@ public void itemStateChanged(ItemEvent event){
     /**
      * 任意の会話が表示域に収まるようスクロールを試みる。
      *
+     * <p>表示中の日に属さない会話や、
+     * フィルタで隠された会話へはスクロールできない。
+     *
      * @param talk 発言
+     * @return スクロールできたならtrue
      */
-    public void scrollToTalk(Talk talk){
-        if(talk == null) return;
-        if(talk.getPeriod() != this.period) return;
+    public boolean scrollToTalk(Talk talk){
+        if(talk == null) return false;
+        if(talk.getPeriod() != this.period) return false;
 
         Rectangle rect = this.discussion.getTalkBounds(talk);
-        if(rect == null) return;
+        if(rect == null) return false;
 
         Rectangle showRect = new Rectangle(rect);
         showRect.y -= 15;
         showRect.height = this.scroller.getHeight();
         this.discussion.scrollRectToVisible(showRect);
 
-        return;
+        return true;
     }
 
     /**
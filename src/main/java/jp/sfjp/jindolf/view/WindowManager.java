@@ -17,6 +17,7 @@
 import javax.swing.UnsupportedLookAndFeelException;
 import jp.sfjp.jindolf.VerInfo;
 import jp.sfjp.jindolf.log.LogFrame;
+import jp.sfjp.jindolf.log.NetStatFrame;
 import jp.sfjp.jindolf.summary.DaySummary;
 import jp.sfjp.jindolf.summary.VillageDigest;
 
@@ -32,10 +33,12 @@
  * <li>検索ウィンドウ
  * <li>フィルタウィンドウ
  * <li>発言集計ウィンドウ
+ * <li>全村検索ウィンドウ
  * <li>村プレイ記録のダイジェストウィンドウ
  * <li>オプション設定ウィンドウ
  * <li>ヘルプウィンドウ
  * <li>ログウィンドウ
+ * <li>通信統計ウィンドウ
  * </ul>
  *
  * <p>である。
@@ -55,6 +58,8 @@ public class WindowManager {
             getFrameTitle("発言フィルタ");
     private static final String TITLE_LOGGER =
             getFrameTitle("ログ表示");
+    private static final String TITLE_NETSTAT =
+            getFrameTitle("通信統計");
     private static final String TITLE_OPTION =
             getFrameTitle("オプション設定");
     private static final String TITLE_FIND =
@@ -63,6 +68,8 @@ public class WindowManager {
             getFrameTitle("村のダイジェスト");
     private static final String TITLE_DAYSUMMARY =
             getFrameTitle("発言集計");
+    private static final String TITLE_ARCHIVESEARCH =
+            getFrameTitle("全村検索");
     private static final String TITLE_HELP =
             getFrameTitle("ヘルプ");
 
@@ -71,10 +78,12 @@ public class WindowManager {
 
     private FilterPanel filterPanel;
     private LogFrame logFrame;
+    private NetStatFrame netStatFrame;
     private OptionPanel optionPanel;
     private FindPanel findPanel;
     private VillageDigest villageDigest;
     private DaySummary daySummary;
+    private ArchiveSearchPanel archiveSearchPanel;
     private HelpFrame helpFrame;
 
     private final List<Window> windowSet;
@@ -172,6 +181,38 @@ public LogFrame getLogFrame(){
         return this.logFrame;
     }
 
+    /**
+     * 通信統計ウィンドウを生成する。
+     *
+     * @return 通信統計ウィンドウ
+     */
+    protected NetStatFrame createNetStatFrame(){
+        NetStatFrame result;
+
+        result = new NetStatFrame();
+        result.setTitle(TITLE_NETSTAT);
+        result.pack();
+        result.setSize(800, 300);
+        result.setLocationByPlatform(true);
+        result.setVisible(false);
+
+        this.windowSet.add(result);
+
+        return result;
+    }
+
+    /**
+     * 通信統計ウィンドウを返す。
+     *
+     * @return 通信統計ウィンドウ
+     */
+    public NetStatFrame getNetStatFrame(){
+        if(this.netStatFrame == null){
+            this.netStatFrame = createNetStatFrame();
+        }
+        return this.netStatFrame;
+    }
+
     /**
      * オプション設定ウィンドウを生成する。
      *
@@ -295,6 +336,37 @@ public DaySummary getDaySummary(){
         return this.daySummary;
     }
 
+    /**
+     * 全村検索ウィンドウを生成する。
+     *
+     * @return 全村検索ウィンドウ
+     */
+    protected ArchiveSearchPanel createArchiveSearchPanel(){
+        ArchiveSearchPanel result;
+
+        result = new ArchiveSearchPanel();
+        result.setTitle(TITLE_ARCHIVESEARCH);
+        result.pack();
+        result.setSize(500, 600);
+        result.setVisible(false);
+
+        this.windowSet.add(result);
+
+        return result;
+    }
+
+    /**
+     * 全村検索ウィンドウを返す。
+     *
+     * @return 全村検索ウィンドウ
+     */
+    public ArchiveSearchPanel getArchiveSearchPanel(){
+        if(this.archiveSearchPanel == null){
+            this.archiveSearchPanel = createArchiveSearchPanel();
+        }
+        return this.archiveSearchPanel;
+    }
+
     /**
      * ヘルプウィンドウを生成する。
      *
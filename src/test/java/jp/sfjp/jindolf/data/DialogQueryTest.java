@@ -0,0 +1,108 @@
+/*
+ */
+
+package jp.sfjp.jindolf.data;
+
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class DialogQueryTest {
+
+    public DialogQueryTest() {
+    }
+
+    /**
+     * Test of requiredLiteral method, of class DialogQuery.
+     */
+    @Test
+    public void testRequiredLiteral() {
+        System.out.println("requiredLiteral");
+
+        assertEquals("人狼", DialogQuery.requiredLiteral("人狼"));
+        assertEquals("占い師", DialogQuery.requiredLiteral("^占い師.*です$"));
+        assertEquals("COします", DialogQuery.requiredLiteral("[占霊]COします"));
+        assertEquals("ab", DialogQuery.requiredLiteral("abc?d"));
+        assertEquals("abc", DialogQuery.requiredLiteral("x+abcd*"));
+        assertEquals("xyz", DialogQuery.requiredLiteral("a{2,3}xyz"));
+        assertEquals("def", DialogQuery.requiredLiteral("a(bcdefg)?def"));
+        assertEquals("ab", DialogQuery.requiredLiteral("ab\\.cd"));
+
+        assertNull(DialogQuery.requiredLiteral("狼|狐"));
+        assertNull(DialogQuery.requiredLiteral("(?i)abc"));
+        assertNull(DialogQuery.requiredLiteral("\\Qa.b\\E"));
+        assertNull(DialogQuery.requiredLiteral(".*"));
+        assertNull(DialogQuery.requiredLiteral(""));
+
+        return;
+    }
+
+    /**
+     * Test of requiredLiteral method with escapes, of class DialogQuery.
+     */
+    @Test
+    public void testRequiredLiteral_Escape() {
+        System.out.println("requiredLiteral");
+
+        assertEquals("abc", DialogQuery.requiredLiteral("\\u3042abc"));
+        assertEquals("abc", DialogQuery.requiredLiteral("\\x41abc"));
+        assertEquals("abc", DialogQuery.requiredLiteral("\\x{3042}abc"));
+        assertEquals("abc", DialogQuery.requiredLiteral("\\0101abc"));
+        assertEquals("abc", DialogQuery.requiredLiteral("\\cAabc"));
+        assertEquals("abc", DialogQuery.requiredLiteral("\\p{Alpha}abc"));
+        assertEquals("abc", DialogQuery.requiredLiteral("\\P{L}abc"));
+        assertEquals("abc", DialogQuery.requiredLiteral("\\pLabc"));
+        assertEquals("abc", DialogQuery.requiredLiteral("(x)\\12abc"));
+        assertEquals("x]", DialogQuery.requiredLiteral("\\c[x]"));
+        assertEquals("xyz", DialogQuery.requiredLiteral("a\\u3042?xyz"));
+        assertEquals("abcd", DialogQuery.requiredLiteral("ab\\x41*abcd"));
+
+        return;
+    }
+
+    /**
+     * Test of requiredLiteral method with classes, of class DialogQuery.
+     */
+    @Test
+    public void testRequiredLiteral_Class() {
+        System.out.println("requiredLiteral");
+
+        assertEquals("c", DialogQuery.requiredLiteral("[a[b]]c"));
+        assertEquals("cd", DialogQuery.requiredLiteral("[a-z&&[^b]]cd"));
+        assertEquals("xy", DialogQuery.requiredLiteral("[]a]xy"));
+        assertEquals("xy", DialogQuery.requiredLiteral("[^]a]xy"));
+        assertEquals("xy", DialogQuery.requiredLiteral("[\\]]xy"));
+        assertEquals("xy", DialogQuery.requiredLiteral("[\\[]xy"));
+        assertEquals("xy", DialogQuery.requiredLiteral("[\\c[]xy"));
+        assertEquals("xy", DialogQuery.requiredLiteral("[a]?xy"));
+
+        assertEquals("ab", DialogQuery.requiredLiteral("ab\uD83D\uDE00?"));
+        assertNull(DialogQuery.requiredLiteral("[a[b]c]"));
+
+        return;
+    }
+
+    /**
+     * Test of countMatches method, of class DialogQuery.
+     */
+    @Test
+    public void testCountMatches() {
+        System.out.println("countMatches");
+
+        Pattern pattern = Pattern.compile("狼");
+        assertEquals(0, DialogQuery.countMatches(pattern, ""));
+        assertEquals(2, DialogQuery.countMatches(pattern, "人狼と狼"));
+
+        pattern = Pattern.compile("a*");
+        assertEquals(1, DialogQuery.countMatches(pattern, "aab"));
+        assertEquals(0, DialogQuery.countMatches(pattern, "baa"));
+
+        return;
+    }
+
+}
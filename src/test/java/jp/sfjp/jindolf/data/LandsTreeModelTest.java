@@ -0,0 +1,194 @@
+/*
+ */
+
+package jp.sfjp.jindolf.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class LandsTreeModelTest {
+
+    public LandsTreeModelTest() {
+    }
+
+    private static List<Village> newVillages(Land land, int from, int to){
+        List<Village> result = new ArrayList<>();
+        for(int vid = from; vid <= to; vid++){
+            String id = Integer.toString(vid);
+            result.add(new Village(land, id, id + " village"));
+        }
+        return result;
+    }
+
+    private static void update(LandsTreeModel model,
+                               Land land,
+                               List<Village> list ){
+        land.updateVillageList(list);
+        model.updateVillageList(land);
+        return;
+    }
+
+    /**
+     * Test of updateVillageList method, of class LandsTreeModel.
+     */
+    @Test
+    public void testUpdateVillageList_Ascending() {
+        System.out.println("updateVillageList");
+
+        LandsTreeModel model = new LandsTreeModel();
+        model.setAscending(true);
+        Land land = model.getLandList().get(0);
+        Recorder recorder = new Recorder();
+        model.addTreeModelListener(recorder);
+
+        update(model, land, newVillages(land, 1, 150));
+        assertEquals(2, model.getChildCount(land));
+        assertEquals(1, recorder.changed.size());
+        assertSame(land,
+                recorder.changed.get(0).getTreePath().getLastPathComponent());
+        assertTrue(recorder.inserted.isEmpty());
+
+        Object sect0 = model.getChild(land, 0);
+        Object sect1 = model.getChild(land, 1);
+        assertEquals(99, model.getChildCount(sect0));
+        assertEquals(51, model.getChildCount(sect1));
+
+        recorder.clear();
+        update(model, land, newVillages(land, 1, 250));
+
+        assertEquals(3, model.getChildCount(land));
+        assertSame(sect0, model.getChild(land, 0));
+        assertSame(sect1, model.getChild(land, 1));
+        assertEquals(99, model.getChildCount(sect0));
+        assertEquals(100, model.getChildCount(sect1));
+
+        assertEquals(1, recorder.changed.size());
+        assertSame(sect1,
+                recorder.changed.get(0).getTreePath().getLastPathComponent());
+
+        assertEquals(1, recorder.inserted.size());
+        TreeModelEvent event = recorder.inserted.get(0);
+        assertSame(land, event.getTreePath().getLastPathComponent());
+        assertArrayEquals(new int[]{2}, event.getChildIndices());
+        assertSame(model.getChild(land, 2), event.getChildren()[0]);
+
+        recorder.clear();
+        update(model, land, newVillages(land, 1, 250));
+        assertSame(sect0, model.getChild(land, 0));
+        assertTrue(recorder.changed.isEmpty());
+        assertTrue(recorder.inserted.isEmpty());
+
+        return;
+    }
+
+    /**
+     * Test of updateVillageList method, of class LandsTreeModel.
+     */
+    @Test
+    public void testUpdateVillageList_Descending() {
+        System.out.println("updateVillageList");
+
+        LandsTreeModel model = new LandsTreeModel();
+        model.setAscending(false);
+        Land land = model.getLandList().get(0);
+        Recorder recorder = new Recorder();
+        model.addTreeModelListener(recorder);
+
+        update(model, land, newVillages(land, 1, 150));
+        assertEquals(2, model.getChildCount(land));
+        Object sect1 = model.getChild(land, 0);
+        Object sect0 = model.getChild(land, 1);
+        assertEquals(51, model.getChildCount(sect1));
+        assertEquals(99, model.getChildCount(sect0));
+
+        recorder.clear();
+        update(model, land, newVillages(land, 1, 250));
+
+        assertEquals(3, model.getChildCount(land));
+        assertSame(sect1, model.getChild(land, 1));
+        assertSame(sect0, model.getChild(land, 2));
+        assertEquals(100, model.getChildCount(sect1));
+
+        assertEquals(1, recorder.changed.size());
+        assertSame(sect1,
+                recorder.changed.get(0).getTreePath().getLastPathComponent());
+
+        assertEquals(1, recorder.inserted.size());
+        TreeModelEvent event = recorder.inserted.get(0);
+        assertArrayEquals(new int[]{0}, event.getChildIndices());
+        assertSame(model.getChild(land, 0), event.getChildren()[0]);
+        assertEquals(50, model.getChildCount(model.getChild(land, 0)));
+
+        return;
+    }
+
+    /**
+     * Test of updateVillageList method, of class LandsTreeModel.
+     */
+    @Test
+    public void testUpdateVillageList_Rebuild() {
+        System.out.println("updateVillageList");
+
+        LandsTreeModel model = new LandsTreeModel();
+        Land land = model.getLandList().get(0);
+        Recorder recorder = new Recorder();
+        model.addTreeModelListener(recorder);
+
+        update(model, land, newVillages(land, 1, 150));
+        Object sect = model.getChild(land, 0);
+
+        recorder.clear();
+        update(model, land, newVillages(land, 201, 210));
+
+        assertEquals(1, model.getChildCount(land));
+        assertNotSame(sect, model.getChild(land, 0));
+        assertTrue(recorder.inserted.isEmpty());
+        assertEquals(1, recorder.changed.size());
+        assertSame(land,
+                recorder.changed.get(0).getTreePath().getLastPathComponent());
+
+        return;
+    }
+
+    private static class Recorder implements TreeModelListener{
+
+        public final List<TreeModelEvent> changed = new ArrayList<>();
+        public final List<TreeModelEvent> inserted = new ArrayList<>();
+
+        public void clear(){
+            this.changed.clear();
+            this.inserted.clear();
+        }
+
+        @Override
+        public void treeNodesChanged(TreeModelEvent e) {
+            fail();
+        }
+
+        @Override
+        public void treeNodesInserted(TreeModelEvent e) {
+            this.inserted.add(e);
+        }
+
+        @Override
+        public void treeNodesRemoved(TreeModelEvent e) {
+            fail();
+        }
+
+        @Override
+        public void treeStructureChanged(TreeModelEvent e) {
+            this.changed.add(e);
+        }
+
+    }
+
+}
@@ -0,0 +1,224 @@
+/*
+ */
+
+package jp.sfjp.jindolf.data;
+
+import java.util.Arrays;
+import java.util.List;
+import jp.sourceforge.jindolf.corelib.PeriodType;
+import jp.sourceforge.jindolf.corelib.TalkType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class TopicStoreTest {
+
+    public TopicStoreTest() {
+    }
+
+    private static Period newPeriod(){
+        Land land = new Land(CoreData.getLandDefList().get(0));
+        Village village = new Village(land, "1", "test");
+        Period result = new Period(village, PeriodType.PROGRESS, 1);
+        return result;
+    }
+
+    private static Talk newTalk(Period period,
+                                int talkNo,
+                                String messageID,
+                                int hour, int minute ){
+        TalkType type = TalkType.PUBLIC;
+        if(talkNo <= 0) type = TalkType.PRIVATE;
+        Talk result = new Talk(period, type, Avatar.AVATAR_GERD,
+                               talkNo, messageID, hour, minute, "text");
+        return result;
+    }
+
+    /**
+     * Test of empty store, of class TopicStore.
+     */
+    @Test
+    public void testEmpty() {
+        System.out.println("empty");
+
+        TopicStore store = new TopicStore();
+
+        assertTrue(store.isEmpty());
+        assertEquals(0, store.size());
+        assertTrue(store.asList().isEmpty());
+        assertEquals(0, store.getFirstTalkNo());
+        assertEquals(0, store.getLastTalkNo());
+        assertNull(store.getNumberedTalk(1));
+        assertNull(store.getMessageTalk("mes1"));
+        assertTrue(store.getTimedTalks(0, 0).isEmpty());
+
+        try{
+            store.add(null);
+            fail();
+        }catch(NullPointerException e){
+            assert true;
+        }
+
+        return;
+    }
+
+    /**
+     * Test of getNumberedTalk method, of class TopicStore.
+     */
+    @Test
+    public void testGetNumberedTalk() {
+        System.out.println("getNumberedTalk");
+
+        Period period = newPeriod();
+        Talk talk3 = newTalk(period, 3, "mes3", 10, 0);
+        Talk talk5 = newTalk(period, 5, "mes5", 10, 1);
+        Talk secret = newTalk(period, 0, "mesX", 10, 2);
+        SysEvent event = new SysEvent();
+
+        TopicStore store =
+                new TopicStore(Arrays.asList(talk5, event, secret, talk3));
+
+        assertEquals(4, store.size());
+        assertSame(event, store.asList().get(1));
+
+        assertSame(talk3, store.getNumberedTalk(3));
+        assertSame(talk5, store.getNumberedTalk(5));
+        assertNull(store.getNumberedTalk(4));
+        assertNull(store.getNumberedTalk(0));
+        assertNull(store.getNumberedTalk(-1));
+
+        assertEquals(3, store.getFirstTalkNo());
+        assertEquals(5, store.getLastTalkNo());
+
+        return;
+    }
+
+    /**
+     * Test of duplicated talk number, of class TopicStore.
+     */
+    @Test
+    public void testDuplicatedTalkNo() {
+        System.out.println("duplicated talkNo");
+
+        Period period = newPeriod();
+        Talk talk1 = newTalk(period, 1, "mes1", 10, 0);
+        Talk dup1 = newTalk(period, 1, "mes1b", 10, 0);
+        Talk dupId = newTalk(period, 2, "mes1", 10, 0);
+
+        TopicStore store = new TopicStore();
+        store.add(talk1);
+        store.add(dup1);
+        store.add(dupId);
+
+        assertEquals(3, store.size());
+        assertSame(talk1, store.getNumberedTalk(1));
+        assertSame(dupId, store.getNumberedTalk(2));
+        assertSame(talk1, store.getMessageTalk("mes1"));
+        assertSame(dup1, store.getMessageTalk("mes1b"));
+
+        List<Talk> timed = store.getTimedTalks(10, 0);
+        assertEquals(Arrays.asList(talk1, dup1, dupId), timed);
+
+        return;
+    }
+
+    /**
+     * Test of getMessageTalk method, of class TopicStore.
+     */
+    @Test
+    public void testGetMessageTalk() {
+        System.out.println("getMessageTalk");
+
+        Period period = newPeriod();
+        Talk talk1 = newTalk(period, 1, "mes1", 10, 0);
+        Talk secret = newTalk(period, -1, "mesX", 10, 0);
+
+        TopicStore store = new TopicStore(Arrays.asList(talk1, secret));
+
+        assertSame(talk1, store.getMessageTalk("mes1"));
+        assertSame(secret, store.getMessageTalk("mesX"));
+        assertNull(store.getMessageTalk("mes2"));
+        assertNull(store.getMessageTalk(""));
+
+        return;
+    }
+
+    /**
+     * Test of getTimedTalks method, of class TopicStore.
+     */
+    @Test
+    public void testGetTimedTalks() {
+        System.out.println("getTimedTalks");
+
+        Period period = newPeriod();
+        Talk first = newTalk(period, 1, "mes1", 0, 0);
+        Talk talk2 = newTalk(period, 2, "mes2", 12, 59);
+        Talk talk3 = newTalk(period, 3, "mes3", 13, 0);
+        Talk talk4 = newTalk(period, 4, "mes4", 13, 0);
+        Talk last = newTalk(period, 5, "mes5", 23, 59);
+
+        TopicStore store = new TopicStore(
+                Arrays.asList(first, talk2, talk3, talk4, last));
+
+        assertEquals(Arrays.asList(first), store.getTimedTalks(0, 0));
+        assertEquals(Arrays.asList(talk2), store.getTimedTalks(12, 59));
+        assertEquals(Arrays.asList(talk3, talk4), store.getTimedTalks(13, 0));
+        assertEquals(Arrays.asList(last), store.getTimedTalks(23, 59));
+
+        assertTrue(store.getTimedTalks(0, 1).isEmpty());
+        assertTrue(store.getTimedTalks(12, 0).isEmpty());
+        assertTrue(store.getTimedTalks(13, 1).isEmpty());
+        assertTrue(store.getTimedTalks(23, 58).isEmpty());
+
+        List<Talk> timed = store.getTimedTalks(13, 0);
+        try{
+            timed.add(first);
+            fail();
+        }catch(UnsupportedOperationException e){
+            assert true;
+        }
+
+        return;
+    }
+
+    /**
+     * Test of appending constructor, of class TopicStore.
+     */
+    @Test
+    public void testAppend() {
+        System.out.println("append");
+
+        Period period = newPeriod();
+        Talk talk1 = newTalk(period, 1, "mes1", 10, 0);
+        Talk talk2 = newTalk(period, 2, "mes2", 10, 0);
+        Talk talk3 = newTalk(period, 3, "mes3", 10, 0);
+
+        TopicStore base = new TopicStore(Arrays.asList(talk1, talk2));
+        TopicStore store = new TopicStore(base, Arrays.asList(talk3));
+
+        assertEquals(3, store.size());
+        assertSame(talk3, store.getNumberedTalk(3));
+        assertSame(talk3, store.getMessageTalk("mes3"));
+        assertEquals(1, store.getFirstTalkNo());
+        assertEquals(3, store.getLastTalkNo());
+        assertEquals(Arrays.asList(talk1, talk2, talk3),
+                     store.getTimedTalks(10, 0));
+        assertEquals(3, store.getDialogIndex().getTalkList().size());
+
+        assertEquals(2, base.size());
+        assertNull(base.getNumberedTalk(3));
+        assertNull(base.getMessageTalk("mes3"));
+        assertEquals(2, base.getLastTalkNo());
+        assertEquals(Arrays.asList(talk1, talk2), base.getTimedTalks(10, 0));
+        assertEquals(2, base.getDialogIndex().getTalkList().size());
+        assertEquals(2, base.getDialogIndex().findCandidates("te").size());
+        assertEquals(3, store.getDialogIndex().findCandidates("te").size());
+
+        return;
+    }
+
+}
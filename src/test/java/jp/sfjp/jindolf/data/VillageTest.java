@@ -0,0 +1,136 @@
+/*
+ */
+
+package jp.sfjp.jindolf.data;
+
+import java.util.List;
+import jp.sourceforge.jindolf.corelib.PeriodType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class VillageTest {
+
+    public VillageTest() {
+    }
+
+    private static Village newVillage(){
+        Land land = new Land(CoreData.getLandDefList().get(0));
+        Village result = new Village(land, "1", "test");
+        return result;
+    }
+
+    /**
+     * Test of setPeriod method, of class Village.
+     */
+    @Test
+    public void testSetPeriod() {
+        System.out.println("setPeriod");
+
+        Village village = newVillage();
+        List<Period> periodList = village.getPeriodList();
+
+        assertFalse(village.hasSchedule());
+        assertEquals(0, village.getPeriodSize());
+        assertNull(village.getPrologue());
+        assertNull(village.getEpilogue());
+        assertEquals(0, village.getProgressDays());
+
+        Period prologue = new Period(village, PeriodType.PROLOGUE, 0);
+        Period day1 = new Period(village, PeriodType.PROGRESS, 1);
+        Period day2 = new Period(village, PeriodType.PROGRESS, 2);
+        Period epilogue = new Period(village, PeriodType.EPILOGUE, 3);
+
+        village.setPeriod(0, prologue);
+        village.setPeriod(1, day1);
+        village.setPeriod(2, day2);
+        village.setPeriod(3, epilogue);
+
+        assertTrue(village.hasSchedule());
+        assertEquals(4, village.getPeriodSize());
+        assertEquals(4, periodList.size());
+        assertSame(prologue, village.getPrologue());
+        assertSame(epilogue, village.getEpilogue());
+        assertEquals(2, village.getProgressDays());
+        assertSame(day1, village.getPeriod(1));
+        assertSame(day2, village.getProgress(2));
+        assertNull(village.getProgress(0));
+        assertNull(village.getProgress(3));
+
+        try{
+            village.setPeriod(5, day1);
+            fail();
+        }catch(IndexOutOfBoundsException e){
+            assert true;
+        }
+        assertEquals(4, village.getPeriodSize());
+
+        try{
+            periodList.add(day1);
+            fail();
+        }catch(UnsupportedOperationException e){
+            assert true;
+        }
+
+        return;
+    }
+
+    /**
+     * Test of replacing periods by setPeriod method, of class Village.
+     */
+    @Test
+    public void testSetPeriod_Replace() {
+        System.out.println("setPeriod");
+
+        Village village = newVillage();
+
+        Period prologue = new Period(village, PeriodType.PROLOGUE, 0);
+        Period day1 = new Period(village, PeriodType.PROGRESS, 1);
+        Period day2 = new Period(village, PeriodType.PROGRESS, 2);
+
+        village.setPeriod(0, prologue);
+        village.setPeriod(1, day1);
+        village.setPeriod(2, day2);
+        assertNull(village.getEpilogue());
+        assertEquals(2, village.getProgressDays());
+
+        // 同種のPeriodによる置き換え
+        Period newDay1 = new Period(village, PeriodType.PROGRESS, 1);
+        village.setPeriod(1, newDay1);
+        assertEquals(3, village.getPeriodSize());
+        assertEquals(2, village.getProgressDays());
+        assertSame(newDay1, village.getProgress(1));
+
+        Period newPrologue = new Period(village, PeriodType.PROLOGUE, 0);
+        village.setPeriod(0, newPrologue);
+        assertSame(newPrologue, village.getPrologue());
+
+        // 種別の変わる置き換え
+        Period epilogue = new Period(village, PeriodType.EPILOGUE, 2);
+        village.setPeriod(2, epilogue);
+        assertSame(epilogue, village.getEpilogue());
+        assertEquals(1, village.getProgressDays());
+        assertNull(village.getProgress(2));
+
+        Period day0 = new Period(village, PeriodType.PROGRESS, 0);
+        village.setPeriod(0, day0);
+        assertNull(village.getPrologue());
+        assertEquals(2, village.getProgressDays());
+        assertSame(day0, village.getProgress(0));
+
+        // 最初に現れたエピローグが記録される
+        Period epilogue2 = new Period(village, PeriodType.EPILOGUE, 3);
+        village.setPeriod(3, epilogue2);
+        assertSame(epilogue, village.getEpilogue());
+        village.setPeriod(2, new Period(village, PeriodType.PROGRESS, 2));
+        assertSame(epilogue2, village.getEpilogue());
+        assertEquals(3, village.getProgressDays());
+
+        return;
+    }
+
+}
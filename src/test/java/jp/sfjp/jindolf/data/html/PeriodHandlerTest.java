@@ -0,0 +1,72 @@
+/*
+ */
+
+package jp.sfjp.jindolf.data.html;
+
+import java.util.List;
+import jp.osdn.jindolf.parser.HtmlParseException;
+import jp.osdn.jindolf.parser.SeqRange;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import jp.sfjp.jindolf.data.Avatar;
+import jp.sfjp.jindolf.data.CoreData;
+import jp.sfjp.jindolf.data.Land;
+import jp.sfjp.jindolf.data.Period;
+import jp.sfjp.jindolf.data.Talk;
+import jp.sfjp.jindolf.data.Topic;
+import jp.sfjp.jindolf.data.Village;
+import jp.sourceforge.jindolf.corelib.PeriodType;
+import jp.sourceforge.jindolf.corelib.TalkType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class PeriodHandlerTest {
+
+    public PeriodHandlerTest() {
+    }
+
+    /**
+     * Test of setPeriod method, of class PeriodHandler.
+     */
+    @Test
+    public void testSetPeriod() throws HtmlParseException {
+        System.out.println("setPeriod");
+
+        Land land = new Land(CoreData.getLandDefList().get(0));
+        Village village = new Village(land, "1", "test");
+        Period period = new Period(village, PeriodType.PROGRESS, 1);
+        Period scratch = new Period(village, PeriodType.PROGRESS, 1);
+
+        String name = Avatar.AVATAR_GERD.getFullName();
+        DecodedContent content = new DecodedContent(name + "abc");
+        SeqRange nameRange = new SeqRange(0, name.length());
+        SeqRange idRange = new SeqRange(name.length(), content.length());
+
+        PeriodHandler handler = new PeriodHandler();
+        handler.setPeriod(scratch, period);
+        handler.startParse(content);
+        handler.startTalk();
+        handler.talkType(TalkType.PUBLIC);
+        handler.talkAvatar(content, nameRange);
+        handler.talkNo(1);
+        handler.talkId(content, idRange);
+        handler.talkTime(12, 34);
+        handler.talkText(content, nameRange);
+        handler.endTalk();
+
+        assertEquals(0, period.getTopicList().size());
+
+        List<Topic> topicList = scratch.getTopicList();
+        assertEquals(1, topicList.size());
+        Talk talk = (Talk) topicList.get(0);
+        assertSame(period, talk.getPeriod());
+        assertEquals("abc", talk.getMessageID());
+
+        return;
+    }
+
+}
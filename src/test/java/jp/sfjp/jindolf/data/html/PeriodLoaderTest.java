@@ -0,0 +1,159 @@
+/*
+ */
+
+package jp.sfjp.jindolf.data.html;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import jp.sfjp.jindolf.data.Avatar;
+import jp.sfjp.jindolf.data.CoreData;
+import jp.sfjp.jindolf.data.Land;
+import jp.sfjp.jindolf.data.Period;
+import jp.sfjp.jindolf.data.SysEvent;
+import jp.sfjp.jindolf.data.Talk;
+import jp.sfjp.jindolf.data.Topic;
+import jp.sfjp.jindolf.data.Village;
+import jp.sourceforge.jindolf.corelib.PeriodType;
+import jp.sourceforge.jindolf.corelib.TalkType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class PeriodLoaderTest {
+
+    public PeriodLoaderTest() {
+    }
+
+    private static Period newPeriod(){
+        Land land = new Land(CoreData.getLandDefList().get(0));
+        Village village = new Village(land, "1", "test");
+        Period result = new Period(village, PeriodType.PROGRESS, 1);
+        return result;
+    }
+
+    private static Talk newTalk(Period period, int talkNo){
+        Talk result = new Talk(period, TalkType.PUBLIC, Avatar.AVATAR_GERD,
+                               talkNo, "mes" + talkNo, 12, 0, "text");
+        return result;
+    }
+
+    private static Period newFresh(Period period, List<Topic> topicList){
+        Period result = new Period(period.getVillage(),
+                                   period.getType(),
+                                   period.getDay() );
+        result.setTopicList(topicList);
+        return result;
+    }
+
+    /**
+     * Test of countCommonTopics method, of class PeriodLoader.
+     */
+    @Test
+    public void testCountCommonTopics() {
+        System.out.println("countCommonTopics");
+
+        Period period = newPeriod();
+        Talk talk1 = newTalk(period, 1);
+        Talk talk2 = newTalk(period, 2);
+        Talk talk3 = newTalk(period, 3);
+        SysEvent event1 = new SysEvent();
+        SysEvent event2 = new SysEvent();
+
+        List<Topic> oldList;
+        List<Topic> newList;
+
+        oldList = Arrays.asList(talk1, talk2);
+        newList = Arrays.asList(newTalk(period, 1), newTalk(period, 2), talk3);
+        assertEquals(2, PeriodLoader.countCommonTopics(oldList, newList));
+
+        oldList = Arrays.asList(talk1, event1);
+        newList = Arrays.asList(newTalk(period, 1), event2, talk2);
+        assertEquals(2, PeriodLoader.countCommonTopics(oldList, newList));
+
+        oldList = Arrays.asList(talk1, event1);
+        newList = Arrays.asList(newTalk(period, 1), talk2, talk3);
+        assertEquals(-1, PeriodLoader.countCommonTopics(oldList, newList));
+
+        oldList = Arrays.asList(talk1, talk2);
+        newList = Arrays.asList(newTalk(period, 1), talk3, newTalk(period, 2));
+        assertEquals(-1, PeriodLoader.countCommonTopics(oldList, newList));
+
+        oldList = Arrays.asList(talk1, talk2);
+        newList = Arrays.asList(newTalk(period, 1));
+        assertEquals(-1, PeriodLoader.countCommonTopics(oldList, newList));
+
+        oldList = Arrays.asList(event1);
+        newList = Arrays.asList(event2, talk1);
+        assertEquals(-1, PeriodLoader.countCommonTopics(oldList, newList));
+
+        oldList = Collections.emptyList();
+        newList = Arrays.asList(talk1);
+        assertEquals(-1, PeriodLoader.countCommonTopics(oldList, newList));
+
+        return;
+    }
+
+    /**
+     * Test of mergeTopics method, of class PeriodLoader.
+     */
+    @Test
+    public void testMergeTopics() {
+        System.out.println("mergeTopics");
+
+        Period period = newPeriod();
+        Talk talk1 = newTalk(period, 1);
+        Talk talk2 = newTalk(period, 2);
+        SysEvent event1 = new SysEvent();
+        period.setTopicList(Arrays.asList(talk1, talk2, event1));
+
+        Talk talk3 = newTalk(period, 3);
+        Period fresh = newFresh(period, Arrays.asList(
+                newTalk(period, 1), newTalk(period, 2), new SysEvent(),
+                talk3));
+
+        List<Topic> oldList = period.getTopicList();
+        assertEquals(1, PeriodLoader.mergeTopics(period, fresh));
+        assertEquals(3, oldList.size());
+
+        List<Topic> topicList = period.getTopicList();
+        assertEquals(4, topicList.size());
+        assertSame(talk1, topicList.get(0));
+        assertSame(talk2, topicList.get(1));
+        assertSame(event1, topicList.get(2));
+        assertSame(talk3, topicList.get(3));
+        for(Topic topic : topicList){
+            if(topic instanceof Talk){
+                assertSame(period, ((Talk) topic).getPeriod());
+            }
+        }
+        assertSame(talk2, period.getMessageTalk("mes2"));
+        assertSame(talk3, period.getMessageTalk("mes3"));
+
+        fresh = newFresh(period, Arrays.asList(
+                newTalk(period, 1), newTalk(period, 9)));
+
+        assertEquals(-1, PeriodLoader.mergeTopics(period, fresh));
+
+        topicList = period.getTopicList();
+        assertEquals(2, topicList.size());
+        assertEquals("mes9", ((Talk) topicList.get(1)).getMessageID());
+        for(Topic topic : topicList){
+            assertSame(period, ((Talk) topic).getPeriod());
+        }
+
+        fresh = newFresh(period, Arrays.asList(
+                newTalk(period, 1), newTalk(period, 9)));
+
+        topicList = period.getTopicList();
+        assertEquals(0, PeriodLoader.mergeTopics(period, fresh));
+        assertSame(topicList, period.getTopicList());
+
+        return;
+    }
+
+}
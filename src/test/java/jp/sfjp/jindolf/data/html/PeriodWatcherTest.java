@@ -0,0 +1,54 @@
+/*
+ */
+
+package jp.sfjp.jindolf.data.html;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class PeriodWatcherTest {
+
+    private static final long MIN = PeriodWatcher.MIN_INTERVAL_MS;
+    private static final long MAX = PeriodWatcher.MAX_INTERVAL_MS;
+    private static final long HOUR = 60L * 60L * 1000L;
+
+    public PeriodWatcherTest() {
+    }
+
+    /**
+     * Test of nextInterval method, of class PeriodWatcher.
+     */
+    @Test
+    public void testNextInterval() {
+        System.out.println("nextInterval");
+
+        assertEquals(MIN * 3 / 2,
+                PeriodWatcher.nextInterval(MIN, false, false, 10 * HOUR));
+        assertEquals(MIN,
+                PeriodWatcher.nextInterval(MIN * 3 / 2, true, false, 10 * HOUR));
+        assertEquals(MIN,
+                PeriodWatcher.nextInterval(MIN, true, false, 10 * HOUR));
+        assertEquals(MIN * 2,
+                PeriodWatcher.nextInterval(MIN, false, true, 10 * HOUR));
+
+        assertEquals(MAX,
+                PeriodWatcher.nextInterval(MAX, false, false, 10 * HOUR));
+        assertEquals(MAX,
+                PeriodWatcher.nextInterval(MAX, false, true, 60_000L));
+
+        long toLimit = 20L * 60L * 1000L;
+        assertEquals(toLimit / 4,
+                PeriodWatcher.nextInterval(MAX, false, false, toLimit));
+
+        assertEquals(MIN,
+                PeriodWatcher.nextInterval(MAX, false, false, 60_000L));
+
+        return;
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ */
+
+package jp.sfjp.jindolf.data.html;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class TalkNoResolverTest {
+
+    public TalkNoResolverTest() {
+    }
+
+    /**
+     * Test of choosePeriod method, of class TalkNoResolver.
+     */
+    @Test
+    public void testChoosePeriod() {
+        System.out.println("choosePeriod");
+
+        int[] firstNos = new int[6];
+        int[] lastNos = new int[6];
+        boolean[] known = new boolean[6];
+
+        assertEquals(0, TalkNoResolver.choosePeriod(firstNos, lastNos, known, 1));
+        assertEquals(2, TalkNoResolver.choosePeriod(firstNos, lastNos, known, 250));
+        assertEquals(5, TalkNoResolver.choosePeriod(firstNos, lastNos, known, 9999));
+
+        known[1] = true;
+        firstNos[1] = 51;
+        lastNos[1] = 100;
+        assertEquals(0, TalkNoResolver.choosePeriod(firstNos, lastNos, known, 10));
+        assertEquals(2, TalkNoResolver.choosePeriod(firstNos, lastNos, known, 120));
+        assertEquals(4, TalkNoResolver.choosePeriod(firstNos, lastNos, known, 230));
+        assertEquals(-1, TalkNoResolver.choosePeriod(firstNos, lastNos, known, 70));
+
+        known[5] = true;
+        firstNos[5] = 401;
+        lastNos[5] = 500;
+        assertEquals(3, TalkNoResolver.choosePeriod(firstNos, lastNos, known, 200));
+        assertEquals(4, TalkNoResolver.choosePeriod(firstNos, lastNos, known, 399));
+
+        known[2] = true;
+        known[3] = true;
+        known[4] = true;
+        assertEquals(-1, TalkNoResolver.choosePeriod(firstNos, lastNos, known, 280));
+
+        return;
+    }
+
+}
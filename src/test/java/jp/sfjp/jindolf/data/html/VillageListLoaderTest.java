@@ -0,0 +1,152 @@
+/*
+ */
+
+package jp.sfjp.jindolf.data.html;
+
+import java.util.ArrayList;
+import java.util.List;
+import jp.sfjp.jindolf.data.CoreData;
+import jp.sfjp.jindolf.data.Land;
+import jp.sfjp.jindolf.data.Village;
+import jp.sourceforge.jindolf.corelib.VillageState;
+import jp.sourceforge.jovsonz.JsArray;
+import jp.sourceforge.jovsonz.JsObject;
+import jp.sourceforge.jovsonz.JsPair;
+import jp.sourceforge.jovsonz.JsString;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class VillageListLoaderTest {
+
+    public VillageListLoaderTest() {
+    }
+
+    private static Land newLand(int index){
+        Land result = new Land(CoreData.getLandDefList().get(index));
+        return result;
+    }
+
+    private static JsObject newRoot(Land land, JsObject... villages){
+        JsArray array = new JsArray();
+        for(JsObject village : villages){
+            array.add(village);
+        }
+        JsObject result = new JsObject();
+        String landId = land.getLandDef().getLandId();
+        result.putPair(new JsPair("landId", landId));
+        result.putValue("villages", array);
+        return result;
+    }
+
+    private static JsObject newVillage(String id, String name, String state){
+        JsObject result = new JsObject();
+        if(id != null) result.putPair(new JsPair("id", id));
+        if(name != null) result.putPair(new JsPair("name", name));
+        if(state != null) result.putPair(new JsPair("state", state));
+        return result;
+    }
+
+    /**
+     * Test of buildJson and decodeJson method, of class VillageListLoader.
+     */
+    @Test
+    public void testJsonRoundTrip() {
+        System.out.println("buildJson/decodeJson");
+
+        Land land = newLand(0);
+
+        List<Village> list = new ArrayList<>();
+        Village village;
+        village = new Village(land, "1", "1 first village");
+        village.setState(VillageState.GAMEOVER);
+        list.add(village);
+        village = new Village(land, "2", "2 second village");
+        village.setState(VillageState.PROGRESS);
+        list.add(village);
+        land.updateVillageList(list);
+
+        JsObject root = VillageListLoader.buildJson(land);
+        List<Village> result = VillageListLoader.decodeJson(land, root);
+
+        assertEquals(2, result.size());
+        for(int idx = 0; idx < 2; idx++){
+            Village expected = list.get(idx);
+            Village decoded = result.get(idx);
+            assertNotSame(expected, decoded);
+            assertSame(land, decoded.getParentLand());
+            assertEquals(expected.getVillageID(), decoded.getVillageID());
+            assertEquals(expected.getVillageFullName(),
+                         decoded.getVillageFullName() );
+            assertEquals(expected.getState(), decoded.getState());
+        }
+
+        try{
+            result.add(village);
+            fail();
+        }catch(UnsupportedOperationException e){
+            assert true;
+        }
+
+        land.updateVillageList(new ArrayList<>());
+        root = VillageListLoader.buildJson(land);
+        result = VillageListLoader.decodeJson(land, root);
+        assertTrue(result.isEmpty());
+
+        return;
+    }
+
+    /**
+     * Test of decodeJson method, of class VillageListLoader.
+     */
+    @Test
+    public void testDecodeJson_Malformed() {
+        System.out.println("decodeJson");
+
+        Land land = newLand(0);
+        Land other = newLand(1);
+        JsObject root;
+
+        root = newRoot(other, newVillage("1", "1 village", "GAMEOVER"));
+        assertNull(VillageListLoader.decodeJson(land, root));
+
+        root = new JsObject();
+        assertNull(VillageListLoader.decodeJson(land, root));
+
+        root = new JsObject();
+        root.putPair(new JsPair("landId", land.getLandDef().getLandId()));
+        root.putValue("villages", new JsString("x"));
+        assertNull(VillageListLoader.decodeJson(land, root));
+
+        root = newRoot(land, newVillage(null, "1 village", "GAMEOVER"));
+        assertNull(VillageListLoader.decodeJson(land, root));
+
+        root = newRoot(land, newVillage("1", null, "GAMEOVER"));
+        assertNull(VillageListLoader.decodeJson(land, root));
+
+        root = newRoot(land, newVillage("x", "x village", "GAMEOVER"));
+        assertNull(VillageListLoader.decodeJson(land, root));
+
+        JsArray array = new JsArray();
+        array.add(new JsString("1"));
+        root = new JsObject();
+        root.putPair(new JsPair("landId", land.getLandDef().getLandId()));
+        root.putValue("villages", array);
+        assertNull(VillageListLoader.decodeJson(land, root));
+
+        root = newRoot(land,
+                newVillage("1", "1 village", "NOSUCHSTATE"),
+                newVillage("2", "2 village", null) );
+        List<Village> result = VillageListLoader.decodeJson(land, root);
+        assertEquals(2, result.size());
+        assertEquals(VillageState.UNKNOWN, result.get(0).getState());
+        assertEquals(VillageState.UNKNOWN, result.get(1).getState());
+
+        return;
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ */
+
+package jp.sfjp.jindolf.data.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class TextSignatureTest {
+
+    public TextSignatureTest() {
+    }
+
+    /**
+     * Test of mayContain method, of class TextSignature.
+     */
+    @Test
+    public void testMayContain() {
+        System.out.println("mayContain");
+
+        TextSignature signature = new TextSignature();
+        signature.add("私は占い師です。");
+        signature.add("Wolf COします");
+
+        assertTrue(signature.mayContain("占い師"));
+        assertTrue(signature.mayContain("私"));
+        assertTrue(signature.mayContain("です。"));
+        assertTrue(signature.mayContain("wolf"));
+        assertTrue(signature.mayContain("co"));
+        assertTrue(signature.mayContain(""));
+
+        assertFalse(signature.mayContain("霊能者"));
+        assertFalse(signature.mayContain("狼"));
+
+        TextSignature copied = new TextSignature(signature.getBits());
+        assertTrue(copied.mayContain("占い師"));
+        assertFalse(copied.mayContain("霊能者"));
+
+        return;
+    }
+
+}
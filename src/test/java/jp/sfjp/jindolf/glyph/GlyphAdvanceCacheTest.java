@@ -0,0 +1,76 @@
+/*
+ */
+
+package jp.sfjp.jindolf.glyph;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class GlyphAdvanceCacheTest {
+
+    public GlyphAdvanceCacheTest() {
+    }
+
+    /**
+     * Test of getCache method, of class GlyphAdvanceCache.
+     */
+    @Test
+    public void testGetCache() {
+        System.out.println("getCache");
+
+        Font font = new Font(Font.DIALOG, Font.PLAIN, 16);
+        FontRenderContext context = new FontRenderContext(null, true, true);
+
+        GlyphAdvanceCache cache1 =
+                GlyphAdvanceCache.getCache(new FontInfo(font, context));
+        GlyphAdvanceCache cache2 =
+                GlyphAdvanceCache.getCache(new FontInfo(font, context));
+        assertSame(cache1, cache2);
+
+        return;
+    }
+
+    /**
+     * Test of createPositions method, of class GlyphAdvanceCache.
+     */
+    @Test
+    public void testCreatePositions() {
+        System.out.println("createPositions");
+
+        Font font = new Font(Font.DIALOG, Font.PLAIN, 16);
+        FontRenderContext context = new FontRenderContext(null, false, false);
+        GlyphAdvanceCache cache =
+                GlyphAdvanceCache.getCache(new FontInfo(font, context));
+
+        String text = "あいうabc\nxyz漢字、ｱｲｳ 123";
+        GlyphVector gv = font.createGlyphVector(context, text);
+        float[] expected =
+                gv.getGlyphPositions(0, text.length() + 1, null);
+        float[] result = cache.createPositions(text);
+
+        assertEquals(expected.length, result.length);
+        for(int pos = 0; pos <= text.length(); pos++){
+            assertEquals(expected[pos * 2], result[pos * 2], 0.001f);
+        }
+
+        result = cache.createPositions("");
+        assertEquals(2, result.length);
+        assertEquals(0.0f, result[0]);
+
+        result = cache.createPositions("a𠮷b");
+        assertEquals(10, result.length);
+        assertEquals(result[2 * 2], result[3 * 2]);
+        assertTrue(result[1 * 2] < result[2 * 2]);
+
+        return;
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ */
+
+package jp.sfjp.jindolf.glyph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class LineBreakerTest {
+
+    public LineBreakerTest() {
+    }
+
+    /**
+     * 各文字に同じ幅を持たせたグリフ位置配列を作る。
+     */
+    private static float[] positions(CharSequence source, float advance){
+        int length = source.length();
+        float[] result = new float[(length + 1) * 2];
+        for(int pos = 0; pos <= length; pos++){
+            result[pos * 2] = pos * advance;
+        }
+        return result;
+    }
+
+    /**
+     * Test of breakLines method, of class LineBreaker.
+     */
+    @Test
+    public void testBreakLines() {
+        System.out.println("breakLines");
+
+        String text;
+
+        text = "";
+        assertArrayEquals(new int[]{0},
+                LineBreaker.breakLines(text, positions(text, 10f), 35f));
+
+        text = "abcdefg";
+        assertArrayEquals(new int[]{0, 3, 6, 7},
+                LineBreaker.breakLines(text, positions(text, 10f), 35f));
+
+        text = "ab\ncdefg\n";
+        assertArrayEquals(new int[]{0, 3, 6, 9},
+                LineBreaker.breakLines(text, positions(text, 10f), 35f));
+
+        text = "\n\nab";
+        assertArrayEquals(new int[]{0, 1, 2, 4},
+                LineBreaker.breakLines(text, positions(text, 10f), 35f));
+
+        text = "abc";
+        assertArrayEquals(new int[]{0, 1, 2, 3},
+                LineBreaker.breakLines(text, positions(text, 10f), 5f));
+
+        return;
+    }
+
+    /**
+     * Test of indexAt method, of class LineBreaker.
+     */
+    @Test
+    public void testIndexAt() {
+        System.out.println("indexAt");
+
+        String text = "abcdefg";
+        float[] positions = positions(text, 10f);
+
+        assertEquals(3, LineBreaker.indexAt(positions, 3, 6, 0f));
+        assertEquals(3, LineBreaker.indexAt(positions, 3, 6, 9.5f));
+        assertEquals(4, LineBreaker.indexAt(positions, 3, 6, 10f));
+        assertEquals(5, LineBreaker.indexAt(positions, 3, 6, 29f));
+        assertEquals(-1, LineBreaker.indexAt(positions, 3, 6, 30f));
+
+        return;
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ */
+
+package jp.sfjp.jindolf.glyph;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class RowHeightIndexTest {
+
+    public RowHeightIndexTest() {
+    }
+
+    /**
+     * Test of prefixSum method, of class RowHeightIndex.
+     */
+    @Test
+    public void testPrefixSum() {
+        System.out.println("prefixSum");
+
+        RowHeightIndex index = new RowHeightIndex();
+        int[] expected = new int[200];
+        Random random = new Random(1L);
+
+        for(int pos = 0; pos < expected.length; pos++){
+            expected[pos] = random.nextInt(50);
+            index.add(expected[pos]);
+        }
+        for(int step = 0; step < 100; step++){
+            int pos = random.nextInt(expected.length);
+            expected[pos] = random.nextInt(50);
+            index.set(pos, expected[pos]);
+        }
+
+        int sum = 0;
+        for(int pos = 0; pos < expected.length; pos++){
+            assertEquals(sum, index.prefixSum(pos));
+            assertEquals(expected[pos], index.get(pos));
+            sum += expected[pos];
+        }
+        assertEquals(sum, index.prefixSum(expected.length));
+        assertEquals(sum, index.getTotal());
+
+        index.setAll((pos) -> pos);
+        assertEquals(0 + 1 + 2 + 3 + 4, index.prefixSum(5));
+        assertEquals(199 * 200 / 2, index.getTotal());
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertEquals(0, index.getTotal());
+        index.add(7);
+        assertEquals(7, index.prefixSum(1));
+
+        return;
+    }
+
+    /**
+     * Test of indexOf method, of class RowHeightIndex.
+     */
+    @Test
+    public void testIndexOf() {
+        System.out.println("indexOf");
+
+        RowHeightIndex index = new RowHeightIndex();
+        index.add(10);
+        index.add(0);
+        index.add(5);
+        index.add(20);
+
+        assertEquals(0, index.indexOf(-3));
+        assertEquals(0, index.indexOf(0));
+        assertEquals(0, index.indexOf(9));
+        assertEquals(2, index.indexOf(10));
+        assertEquals(2, index.indexOf(14));
+        assertEquals(3, index.indexOf(15));
+        assertEquals(3, index.indexOf(34));
+        assertEquals(4, index.indexOf(35));
+
+        index.set(0, 0);
+        assertEquals(2, index.indexOf(0));
+
+        return;
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ */
+
+package jp.sfjp.jindolf.net;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class CircuitBreakerTest {
+
+    private static final long SEC = TimeUnit.SECONDS.toNanos(1L);
+
+    public CircuitBreakerTest() {
+    }
+
+    /**
+     * Test of state transition, of class CircuitBreaker.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testTransition() throws Exception {
+        System.out.println("transition");
+
+        CircuitBreaker breaker = new CircuitBreaker(3, 10 * 1000L);
+        long now = 0L;
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.acquire(now);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.onFailure(now));
+        breaker.acquire(now);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.onFailure(now));
+        breaker.acquire(now);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.onFailure(now));
+
+        now += 5 * SEC;
+        try{
+            breaker.acquire(now);
+            fail();
+        }catch(CircuitOpenException e){
+            assertEquals(5000L, e.getRemainMs());
+        }
+        assertEquals(5000L, breaker.getRemainMs(now));
+
+        now += 5 * SEC;
+        breaker.acquire(now);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        try{
+            breaker.acquire(now);
+            fail();
+        }catch(CircuitOpenException e){
+            assert true;
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.onFailure(now));
+
+        now += 10 * SEC;
+        breaker.acquire(now);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.onSuccess());
+        assertEquals(0L, breaker.getRemainMs(now));
+
+        return;
+    }
+
+    /**
+     * Test of onSuccess method, of class CircuitBreaker.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testOnSuccess() throws Exception {
+        System.out.println("onSuccess");
+
+        CircuitBreaker breaker = new CircuitBreaker(2, 1000L);
+
+        breaker.acquire(0L);
+        breaker.onFailure(0L);
+        breaker.acquire(0L);
+        breaker.onSuccess();
+        breaker.acquire(0L);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.onFailure(0L));
+
+        return;
+    }
+
+    /**
+     * Test of onNeutral method, of class CircuitBreaker.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testOnNeutral() throws Exception {
+        System.out.println("onNeutral");
+
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000L);
+
+        breaker.acquire(0L);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.onFailure(0L));
+
+        breaker.acquire(SEC);
+        breaker.onNeutral();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.acquire(SEC);
+
+        return;
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ */
+
+package jp.sfjp.jindolf.net;
+
+import io.bitbucket.olyutorskii.jiocema.DecodeBreakException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import jp.osdn.jindolf.parser.content.DecodedContent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class DecoderPoolTest {
+
+    public DecoderPoolTest() {
+    }
+
+    private static DecodedContent decode(DecoderPool.Entry entry,
+                                         String text,
+                                         Charset cs )
+            throws IOException, DecodeBreakException{
+        byte[] bytes = text.getBytes(cs);
+        entry.getDecoder().decode(new ByteArrayInputStream(bytes));
+        return entry.getBuilder().getContent();
+    }
+
+    /**
+     * Test of getPool method, of class DecoderPool.
+     */
+    @Test
+    public void testGetPool() {
+        System.out.println("getPool");
+
+        DecoderPool utf8 = DecoderPool.getPool(StandardCharsets.UTF_8);
+        assertSame(utf8, DecoderPool.getPool(Charset.forName("utf-8")));
+        assertEquals(StandardCharsets.UTF_8, utf8.getCharset());
+
+        DecoderPool sjis = DecoderPool.getPool(Charset.forName("Shift_JIS"));
+        assertNotSame(utf8, sjis);
+
+        try{
+            DecoderPool.getPool(StandardCharsets.ISO_8859_1);
+            fail();
+        }catch(IllegalArgumentException e){
+            assert true;
+        }
+
+        return;
+    }
+
+    /**
+     * Test of borrow and release method, of class DecoderPool.
+     */
+    @Test
+    public void testBorrowRelease() throws Exception {
+        System.out.println("borrow/release");
+
+        Charset cs = Charset.forName("Shift_JIS");
+        DecoderPool pool = DecoderPool.getPool(cs);
+
+        DecoderPool.Entry entry1 = pool.borrow();
+        DecoderPool.Entry entry2 = pool.borrow();
+        assertNotSame(entry1, entry2);
+        assertNotNull(entry1.getDecoder());
+        assertNotNull(entry1.getBuilder());
+
+        assertEquals("あいう", decode(entry1, "あいう", cs).toString());
+
+        pool.release(entry1);
+        DecoderPool.Entry entry3 = pool.borrow();
+        assertSame(entry1, entry3);
+
+        // 回収された組は前回の内容を残さずにデコードできる
+        assertEquals("xyz", decode(entry3, "xyz", cs).toString());
+
+        pool.release(entry2);
+        pool.release(entry3);
+
+        return;
+    }
+
+    /**
+     * Test of release method, of class DecoderPool.
+     */
+    @Test
+    public void testReleaseOverflow() {
+        System.out.println("release");
+
+        DecoderPool pool = DecoderPool.getPool(StandardCharsets.UTF_8);
+
+        List<DecoderPool.Entry> borrowed = new ArrayList<>();
+        for(int ct = 0; ct < 10; ct++){
+            borrowed.add(pool.borrow());
+        }
+        for(DecoderPool.Entry entry : borrowed){
+            pool.release(entry);
+        }
+
+        int reused = 0;
+        for(int ct = 0; ct < 10; ct++){
+            DecoderPool.Entry entry = pool.borrow();
+            if(borrowed.contains(entry)) reused++;
+        }
+        assertTrue(0 < reused && reused < 10);
+
+        return;
+    }
+
+    /**
+     * Test of trimCopy method, of class DecoderPool.
+     */
+    @Test
+    public void testTrimCopy() throws Exception {
+        System.out.println("trimCopy");
+
+        Charset cs = StandardCharsets.UTF_8;
+        DecoderPool pool = DecoderPool.getPool(cs);
+
+        DecoderPool.Entry entry = pool.borrow();
+        DecodedContent copy = DecoderPool.trimCopy(decode(entry, "abc", cs));
+        assertEquals("abc", copy.toString());
+
+        // 複製は文字列構築器の再利用の影響を受けない
+        decode(entry, "xyzxyz", cs);
+        assertEquals("abc", copy.toString());
+        pool.release(entry);
+
+        copy = DecoderPool.trimCopy(new DecodedContent(""));
+        assertEquals(0, copy.length());
+
+        return;
+    }
+
+}
@@ -120,6 +120,19 @@ public void testFormatHttpStat() throws Exception{
                 + " 1,000Bytes 1,000.0Bytes/sec";
         assertEquals(expected, result);
 
+        result = HttpUtils.formatHttpStat(dummy, 1000, 1000, onesec);
+        assertEquals(expected, result);
+
+        result = HttpUtils.formatHttpStat(dummy, 800, 1000, onesec);
+        assertEquals(expected, result);
+
+        dummy.contentEncodingX = "gzip";
+        result = HttpUtils.formatHttpStat(dummy, 4000, 1000, onesec);
+        expected = "GET http://example.com [200 OK]"
+                + " 1,000Bytes 1,000.0Bytes/sec"
+                + " (gzip 4,000Bytes decoded, 25.0%)";
+        assertEquals(expected, result);
+
         return;
     }
 
@@ -216,6 +229,7 @@ private class DummyConnection extends HttpURLConnection{
         public int responseCodeX;
         public String responseMessageX;
         public String contentTypeX;
+        public String contentEncodingX;
 
         public DummyConnection(URL u) {
             super(u);
@@ -236,6 +250,11 @@ public String getContentType(){
             return this.contentTypeX;
         }
 
+        @Override
+        public String getContentEncoding(){
+            return this.contentEncodingX;
+        }
+
         @Override
         public void connect() throws IOException {
             throw new UnsupportedOperationException("Not supported yet.");
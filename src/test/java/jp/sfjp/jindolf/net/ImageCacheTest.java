@@ -0,0 +1,111 @@
+/*
+ * ImageCache Test
+ *
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.net;
+
+import java.awt.image.BufferedImage;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class ImageCacheTest {
+
+    public ImageCacheTest() {
+    }
+
+    /**
+     * Test of weigh method, of class ImageCache.
+     */
+    @Test
+    public void testWeigh() {
+        System.out.println("weigh");
+
+        BufferedImage image;
+
+        image = new BufferedImage(10, 20, BufferedImage.TYPE_INT_ARGB);
+        assertEquals(800L, ImageCache.weigh(image));
+
+        image = new BufferedImage(10, 20, BufferedImage.TYPE_3BYTE_BGR);
+        assertEquals(600L, ImageCache.weigh(image));
+
+        image = new BufferedImage(10, 20, BufferedImage.TYPE_BYTE_BINARY);
+        assertEquals(200L, ImageCache.weigh(image));
+
+        return;
+    }
+
+    /**
+     * Test of get and put method, of class ImageCache.
+     */
+    @Test
+    public void testGetPut() {
+        System.out.println("get/put");
+
+        ImageCache cache = new ImageCache(1000L);
+        BufferedImage image1 =
+                new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage image2 =
+                new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+
+        assertNull(cache.get("a"));
+        cache.put("a", image1);
+        assertSame(image1, cache.get("a"));
+
+        cache.put("a", image2);
+        assertSame(image1, cache.get("a"));
+
+        assertEquals(1, cache.size());
+        assertEquals(400L, cache.getWeight());
+        assertEquals(2L, cache.getHitCount());
+        assertEquals(1L, cache.getMissCount());
+
+        assertNull(cache.get(null));
+
+        return;
+    }
+
+    /**
+     * Test of LRU eviction, of class ImageCache.
+     */
+    @Test
+    public void testEviction() {
+        System.out.println("eviction");
+
+        ImageCache cache = new ImageCache(1000L);
+        BufferedImage image =
+                new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+
+        cache.put("a", image);
+        cache.put("b", image);
+        assertNotNull(cache.get("a"));
+
+        cache.put("c", image);
+        assertEquals(2, cache.size());
+        assertEquals(800L, cache.getWeight());
+        assertEquals(1L, cache.getEvictionCount());
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+
+        BufferedImage huge =
+                new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+        cache.put("huge", huge);
+        assertNull(cache.get("huge"));
+        assertEquals(2, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0L, cache.getWeight());
+
+        return;
+    }
+
+}
@@ -0,0 +1,208 @@
+/*
+ */
+
+package jp.sfjp.jindolf.net;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class NetMetricsTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    public NetMetricsTest() {
+    }
+
+    /**
+     * Test of toLatencyBin method, of class NetMetrics.
+     */
+    @Test
+    public void testToLatencyBin() {
+        System.out.println("toLatencyBin");
+
+        int last = NetMetrics.getLatencyBins() - 1;
+
+        assertEquals(0, NetMetrics.toLatencyBin(0L));
+        assertEquals(0, NetMetrics.toLatencyBin(99L));
+        assertEquals(1, NetMetrics.toLatencyBin(100L));
+        assertEquals(last - 1, NetMetrics.toLatencyBin(4999L));
+        assertEquals(last, NetMetrics.toLatencyBin(5000L));
+        assertEquals(last, NetMetrics.toLatencyBin(Long.MAX_VALUE));
+
+        assertEquals("<100ms", NetMetrics.getLatencyLabel(0));
+        assertEquals(">=5000ms", NetMetrics.getLatencyLabel(last));
+
+        return;
+    }
+
+    /**
+     * Test of record method, of class NetMetrics.
+     */
+    @Test
+    public void testRecord() throws Exception {
+        System.out.println("record");
+
+        NetMetrics metrics = new NetMetrics();
+        DummyConnection conn =
+                new DummyConnection(new URL("http://example.com/a.html"));
+
+        assertTrue(metrics.getSnapshot().isEmpty());
+
+        conn.responseCodeX = 200;
+        metrics.record(conn, 4000L, 1000L, 20 * MS, 50 * MS);
+        metrics.record(conn, 2000L, 2000L, 40 * MS, 300 * MS);
+
+        List<NetMetrics.ServerStat> list = metrics.getSnapshot();
+        assertEquals(1, list.size());
+        NetMetrics.ServerStat stat = list.get(0);
+
+        assertEquals("example.com", stat.getName());
+        assertEquals(2L, stat.getRequests());
+        assertEquals(6000L, stat.getBytes());
+        assertEquals(3000L, stat.getWireBytes());
+        assertEquals(30L, stat.getTtfbAvgMs());
+        assertEquals(175L, stat.getLatencyAvgMs());
+        assertEquals(300L, stat.getLatencyMaxMs());
+
+        long[] histogram = stat.getLatencyHistogram();
+        assertEquals(NetMetrics.getLatencyBins(), histogram.length);
+        assertEquals(1L, histogram[0]);
+        assertEquals(1L, histogram[2]);
+
+        SortedMap<Integer, Long> status = stat.getStatusCounts();
+        assertEquals(1, status.size());
+        assertEquals(Long.valueOf(2L), status.get(200));
+
+        // スナップショットはその後の記録の影響を受けない
+        metrics.record(conn, 1L, 1L, MS, MS);
+        assertEquals(2L, stat.getRequests());
+        assertEquals(3L, metrics.getSnapshot().get(0).getRequests());
+
+        metrics.clear();
+        assertTrue(metrics.getSnapshot().isEmpty());
+
+        return;
+    }
+
+    /**
+     * Test of recordBodiless method, of class NetMetrics.
+     */
+    @Test
+    public void testRecordBodiless() throws Exception {
+        System.out.println("recordBodiless");
+
+        NetMetrics metrics = new NetMetrics();
+        DummyConnection conn =
+                new DummyConnection(new URL("http://example.com/a.html"));
+
+        conn.responseCodeX = 304;
+        metrics.recordBodiless(conn, System.nanoTime());
+        conn.responseCodeX = 200;
+        metrics.record(conn, 100L, 100L, MS, MS);
+        conn.ioFail = true;
+        metrics.recordBodiless(conn, System.nanoTime());
+
+        NetMetrics.ServerStat stat = metrics.getSnapshot().get(0);
+        assertEquals(3L, stat.getRequests());
+        assertEquals(100L, stat.getBytes());
+        assertEquals(100L, stat.getWireBytes());
+
+        SortedMap<Integer, Long> status = stat.getStatusCounts();
+        assertEquals(3, status.size());
+        assertEquals(Long.valueOf(1L), status.get(304));
+        assertEquals(Long.valueOf(1L), status.get(200));
+        assertEquals(Long.valueOf(1L), status.get(-1));
+
+        return;
+    }
+
+    /**
+     * Test of registerServer method, of class NetMetrics.
+     */
+    @Test
+    public void testRegisterServer() throws Exception {
+        System.out.println("registerServer");
+
+        NetMetrics metrics = new NetMetrics();
+        metrics.registerServer("wolf",
+                new URL("http://example.com/wolf/index.rb"));
+        metrics.registerServer("wolf2",
+                new URL("http://example.com/wolf/2/index.rb"));
+
+        DummyConnection conn;
+
+        conn = new DummyConnection(
+                new URL("http://example.com/wolf/index.rb?vid=1"));
+        metrics.record(conn, 10L, 10L, MS, MS);
+        conn = new DummyConnection(
+                new URL("http://example.com/wolf/plugin_wolf/img.png"));
+        metrics.record(conn, 20L, 20L, MS, MS);
+        conn = new DummyConnection(
+                new URL("http://example.com/wolf/2/index.rb?vid=2"));
+        metrics.record(conn, 40L, 40L, MS, MS);
+        conn = new DummyConnection(
+                new URL("http://example.com/other/index.rb"));
+        metrics.record(conn, 80L, 80L, MS, MS);
+
+        List<NetMetrics.ServerStat> list = metrics.getSnapshot();
+        assertEquals(3, list.size());
+
+        assertEquals("example.com", list.get(0).getName());
+        assertEquals(1L, list.get(0).getRequests());
+        assertEquals(80L, list.get(0).getBytes());
+
+        assertEquals("wolf", list.get(1).getName());
+        assertEquals(2L, list.get(1).getRequests());
+        assertEquals(30L, list.get(1).getBytes());
+
+        assertEquals("wolf2", list.get(2).getName());
+        assertEquals(1L, list.get(2).getRequests());
+        assertEquals(40L, list.get(2).getBytes());
+
+        return;
+    }
+
+    private class DummyConnection extends HttpURLConnection{
+
+        public int responseCodeX;
+        public boolean ioFail;
+
+        public DummyConnection(URL u) {
+            super(u);
+        }
+
+        @Override
+        public int getResponseCode() throws IOException {
+            if(this.ioFail) throw new IOException();
+            return this.responseCodeX;
+        }
+
+        @Override
+        public void connect() throws IOException {
+            throw new UnsupportedOperationException("Not supported yet.");
+        }
+
+        @Override
+        public void disconnect() {
+            throw new UnsupportedOperationException("Not supported yet.");
+        }
+
+        @Override
+        public boolean usingProxy() {
+            throw new UnsupportedOperationException("Not supported yet.");
+        }
+
+    }
+
+}
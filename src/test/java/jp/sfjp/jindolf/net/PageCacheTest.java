@@ -0,0 +1,57 @@
+/*
+ */
+
+package jp.sfjp.jindolf.net;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class PageCacheTest {
+
+    public PageCacheTest() {
+    }
+
+    /**
+     * Test of load and store method, of class PageCache.
+     */
+    @Test
+    public void testLoadStore() throws IOException {
+        System.out.println("load/store");
+
+        Path dir = Files.createTempDirectory("pagecache");
+        PageCache cache = new PageCache(dir);
+        byte[] body = "<html></html>".getBytes(StandardCharsets.US_ASCII);
+
+        assertNull(cache.load("?a"));
+
+        cache.store("?a", new PageCache.Entry(body, 100L, 200L, "xyz"));
+        PageCache.Entry entry = cache.load("?a");
+        assertArrayEquals(body, entry.getBody());
+        assertEquals(100L, entry.getDateMs());
+        assertEquals(200L, entry.getLastModified());
+        assertEquals("xyz", entry.getETag());
+        assertFalse(entry.isFinal());
+
+        cache.store("?a", new PageCache.Entry(body, 100L, 0L, null, true));
+        entry = cache.load("?a");
+        assertEquals(0L, entry.getLastModified());
+        assertNull(entry.getETag());
+        assertTrue(entry.isFinal());
+
+        cache.remove("?a");
+        assertNull(cache.load("?a"));
+        Files.delete(dir);
+
+        return;
+    }
+
+}
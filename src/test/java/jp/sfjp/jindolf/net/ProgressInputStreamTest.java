@@ -0,0 +1,146 @@
+/*
+ */
+
+package jp.sfjp.jindolf.net;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class ProgressInputStreamTest {
+
+    public ProgressInputStreamTest() {
+    }
+
+    private static byte[] sequence(int length){
+        byte[] result = new byte[length];
+        for(int idx = 0; idx < length; idx++){
+            result[idx] = (byte) idx;
+        }
+        return result;
+    }
+
+    /**
+     * Test of read method, of class ProgressInputStream.
+     */
+    @Test
+    public void testRead() throws IOException {
+        System.out.println("read");
+
+        byte[] data = sequence(300);
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        ProgressInputStream is = new ProgressInputStream(
+                new ByteArrayInputStream(data), copy, null);
+
+        assertEquals(0, is.read());
+        byte[] buf = new byte[100];
+        assertEquals(100, is.read(buf, 0, buf.length));
+        assertEquals(1, buf[0]);
+        assertEquals(101L, is.getCount());
+
+        while(is.read(buf, 0, buf.length) > 0){
+            assert true;
+        }
+        assertEquals(-1, is.read());
+        assertEquals(300L, is.getCount());
+        assertArrayEquals(data, copy.toByteArray());
+
+        return;
+    }
+
+    /**
+     * Test of checkpoint notification, of class ProgressInputStream.
+     */
+    @Test
+    public void testCheckpoint() throws IOException {
+        System.out.println("checkpoint");
+
+        int first = (int) ProgressInputStream.DEF_FIRST_CHECKPOINT;
+        byte[] data = sequence(first * 5);
+        AtomicInteger calls = new AtomicInteger(0);
+        ProgressInputStream is = new ProgressInputStream(
+                new ByteArrayInputStream(data), null, calls::incrementAndGet);
+
+        byte[] buf = new byte[first - 1];
+        assertEquals(first - 1, is.read(buf, 0, buf.length));
+        assertEquals(0, calls.get());
+
+        assertEquals(1, is.read(buf, 0, 1));
+        assertEquals(0, calls.get());
+
+        // 閾値到達後の次の読み込みの直前に通知される
+        is.read();
+        assertEquals(1, calls.get());
+
+        // 閾値は倍々に伸びる
+        buf = new byte[first * 5];
+        int total = first + 1;
+        while(total < first * 2){
+            total += is.read(buf, 0, first * 2 - total);
+        }
+        assertEquals(1, calls.get());
+        is.read();
+        assertEquals(2, calls.get());
+
+        while(is.read(buf, 0, buf.length) > 0){
+            assert true;
+        }
+        assertEquals(3, calls.get());
+
+        return;
+    }
+
+    /**
+     * Test of skip method, of class ProgressInputStream.
+     */
+    @Test
+    public void testSkip() throws IOException {
+        System.out.println("skip");
+
+        byte[] data = sequence(1000);
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        ProgressInputStream is = new ProgressInputStream(
+                new ByteArrayInputStream(data), copy, null);
+
+        assertEquals(0L, is.skip(0L));
+        assertEquals(600L, is.skip(600L));
+        assertEquals(600L, is.getCount());
+        assertEquals((byte) 600, (byte) is.read());
+        assertEquals(399L, is.skip(1000L));
+        assertEquals(0L, is.skip(1L));
+        assertArrayEquals(data, copy.toByteArray());
+
+        return;
+    }
+
+    /**
+     * Test of markSupported method, of class ProgressInputStream.
+     */
+    @Test
+    public void testMarkSupported() {
+        System.out.println("markSupported");
+
+        ProgressInputStream is = new ProgressInputStream(
+                new ByteArrayInputStream(sequence(10)), null, null);
+        assertFalse(is.markSupported());
+
+        is.mark(10);
+        try{
+            is.reset();
+            fail();
+        }catch(IOException e){
+            assert true;
+        }
+
+        return;
+    }
+
+}
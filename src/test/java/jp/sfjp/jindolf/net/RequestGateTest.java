@@ -0,0 +1,75 @@
+/*
+ */
+
+package jp.sfjp.jindolf.net;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class RequestGateTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    public RequestGateTest() {
+    }
+
+    /**
+     * Test of reserve method, of class RequestGate.
+     */
+    @Test
+    public void testReserve() {
+        System.out.println("reserve");
+
+        RequestGate gate = new RequestGate(1, 100L, 3);
+        long now = System.nanoTime();
+
+        assertEquals(0L, gate.reserve(now));
+        assertEquals(0L, gate.reserve(now));
+        assertEquals(0L, gate.reserve(now));
+        assertEquals(100L * MS, gate.reserve(now));
+        assertEquals(200L * MS, gate.reserve(now));
+
+        now += 1000L * MS;
+        assertEquals(0L, gate.reserve(now));
+        assertEquals(0L, gate.reserve(now));
+        assertEquals(0L, gate.reserve(now));
+        assertEquals(100L * MS, gate.reserve(now));
+
+        return;
+    }
+
+    /**
+     * Test of constructor, of class RequestGate.
+     */
+    @Test
+    public void testConstructor() {
+        System.out.println("constructor");
+
+        try{
+            new RequestGate(0, 100L, 1);
+            fail();
+        }catch(IllegalArgumentException e){
+            assert true;
+        }
+
+        try{
+            new RequestGate(1, 100L, 0);
+            fail();
+        }catch(IllegalArgumentException e){
+            assert true;
+        }
+
+        RequestGate gate = new RequestGate(SchedulePolicy.DEFAULT);
+        assertEquals(3, gate.getMaxParallel());
+        assertEquals(0, gate.getActiveCount());
+
+        return;
+    }
+
+}
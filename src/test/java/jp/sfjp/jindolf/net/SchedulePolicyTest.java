@@ -0,0 +1,60 @@
+/*
+ */
+
+package jp.sfjp.jindolf.net;
+
+import jp.sourceforge.jovsonz.JsObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class SchedulePolicyTest {
+
+    public SchedulePolicyTest() {
+    }
+
+    /**
+     * Test of getBackoffDelay method, of class SchedulePolicy.
+     */
+    @Test
+    public void testGetBackoffDelay() {
+        System.out.println("getBackoffDelay");
+
+        SchedulePolicy policy =
+                new SchedulePolicy(3, 250, 4, 5, 1000, 8000, 5, 30000);
+
+        assertEquals(500L, policy.getBackoffDelay(0, 0.0));
+        assertEquals(999L, policy.getBackoffDelay(0, 0.999));
+        assertEquals(1000L, policy.getBackoffDelay(1, 0.0));
+        assertEquals(2000L, policy.getBackoffDelay(2, 0.0));
+        assertEquals(4000L, policy.getBackoffDelay(3, 0.0));
+        assertEquals(4000L, policy.getBackoffDelay(4, 0.0));
+        assertEquals(4000L, policy.getBackoffDelay(40, 0.0));
+
+        return;
+    }
+
+    /**
+     * Test of buildJson and decodeJson method, of class SchedulePolicy.
+     */
+    @Test
+    public void testJson() {
+        System.out.println("json");
+
+        SchedulePolicy policy =
+                new SchedulePolicy(2, 500, 1, 0, 100, 200, 3, 1000);
+        SchedulePolicy decoded =
+                SchedulePolicy.decodeJson(SchedulePolicy.buildJson(policy));
+        assertEquals(policy, decoded);
+
+        assertEquals(SchedulePolicy.DEFAULT,
+                SchedulePolicy.decodeJson(new JsObject()));
+
+        return;
+    }
+
+}
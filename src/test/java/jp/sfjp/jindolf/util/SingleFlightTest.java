@@ -0,0 +1,111 @@
+/*
+ * SingleFlight Test
+ *
+ * Copyright(c) 2026 olyutorskii
+ */
+
+package jp.sfjp.jindolf.util;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ *
+ */
+public class SingleFlightTest {
+
+    public SingleFlightTest() {
+    }
+
+    /**
+     * Test of call method, of class SingleFlight.
+     */
+    @Test
+    public void testCall() throws Exception{
+        System.out.println("call");
+
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger invoked = new AtomicInteger(0);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try{
+            Future<String> first = executor.submit(() ->
+                flight.call("key", () -> {
+                    invoked.incrementAndGet();
+                    entered.countDown();
+                    release.await();
+                    return "result";
+                })
+            );
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            assertEquals(1, flight.getInFlightCount());
+
+            Future<String> second = executor.submit(() ->
+                flight.call("key", () -> {
+                    invoked.incrementAndGet();
+                    return "other";
+                })
+            );
+
+            release.countDown();
+
+            assertEquals("result", first.get(5, TimeUnit.SECONDS));
+            String secondResult = second.get(5, TimeUnit.SECONDS);
+            assertTrue(   "result".equals(secondResult)
+                       || "other".equals(secondResult) );
+        }finally{
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, flight.getInFlightCount());
+
+        String result = flight.call("key", () -> "again");
+        assertEquals("again", result);
+
+        return;
+    }
+
+    /**
+     * Test of call method, of class SingleFlight.
+     */
+    @Test
+    public void testCallException() throws Exception{
+        System.out.println("call");
+
+        SingleFlight<String, String> flight = new SingleFlight<>();
+
+        try{
+            flight.call("key", () -> {
+                throw new IOException("fail");
+            });
+            fail();
+        }catch(IOException e){
+            assertEquals("fail", e.getMessage());
+        }
+
+        try{
+            flight.call("key", () -> {
+                throw new IllegalStateException();
+            });
+            fail();
+        }catch(IllegalStateException e){
+            // GOOD
+        }
+
+        assertEquals(0, flight.getInFlightCount());
+
+        return;
+    }
+
+}
@@ -102,4 +102,38 @@ public void testCompareSubSequence_4args(){
 
         return;
     }
+
+    /**
+     * Test of escapeFileName method, of class StringUtils.
+     */
+    @Test
+    public void testEscapeFileName(){
+        System.out.println("escapeFileName");
+
+        assertEquals("", StringUtils.escapeFileName(""));
+        assertEquals("azAZ09-_", StringUtils.escapeFileName("azAZ09-_"));
+        assertEquals("wolf_1000_2", StringUtils.escapeFileName("wolf_1000_2"));
+        assertEquals("%3Fvid%3D1%26meslog%3D",
+                     StringUtils.escapeFileName("?vid=1&meslog="));
+        assertEquals("%2E%2E%2F%25",
+                     StringUtils.escapeFileName("../%"));
+        assertEquals("%E3%81%82", StringUtils.escapeFileName("\u3042"));
+
+        return;
+    }
+
+    /**
+     * Test of toHexString method, of class StringUtils.
+     */
+    @Test
+    public void testToHexString(){
+        System.out.println("toHexString");
+
+        assertEquals("", StringUtils.toHexString(new byte[0]));
+        byte[] bytes = {(byte) 0x00, (byte) 0x7f, (byte) 0x80, (byte) 0xff};
+        assertEquals("007F80FF", StringUtils.toHexString(bytes));
+
+        return;
+    }
+
 }